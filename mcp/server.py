@@ -8,7 +8,11 @@ import mysql.connector
 from pymongo import MongoClient
 from typing import List, Dict, Any
 from datetime import datetime, timedelta, timezone
+from decimal import Decimal, ROUND_HALF_UP
 from bson import ObjectId
+from bson.decimal128 import Decimal128
+from pymongo import ReturnDocument
+import redis
 import requests
 import time
 
@@ -31,6 +35,24 @@ MONGODB_CONFIG = {
     'database': 'tlbglxt_health'
 }
 
+REDIS_CONFIG = {
+    'host': 'localhost',
+    'port': 6379,
+    'db': 0
+}
+
+# 健康数据概览缓存，键格式与后端 HealthRecordServiceImpl 一致
+HEALTH_OVERVIEW_KEY_PREFIX = "health:overview:"
+HEALTH_OVERVIEW_EPOCH_KEY_PREFIX = "health:overview:epoch:"
+HEALTH_OVERVIEW_EPOCH_TTL_SECONDS = 86400
+
+# 与后端 OVERVIEW_EVICT_SCRIPT 相同：递增缓存代数后删除缓存，使加载中的请求不再写回旧数据
+HEALTH_OVERVIEW_EVICT_SCRIPT = """
+redis.call('INCR', KEYS[2])
+redis.call('EXPIRE', KEYS[2], ARGV[1])
+return redis.call('DEL', KEYS[1])
+"""
+
 # RAG API配置
 RAG_API_CONFIG = {
     'base_url': 'http://localhost:8001',
@@ -109,6 +131,16 @@ def get_mongodb_connection():
         print(f"MongoDB连接失败: {err}")
         return None, None
 
+def evict_health_overview(user_id: int):
+    """删除后端缓存的健康数据概览，写入健康记录后调用；Redis不可用时只打印日志，缓存按过期时间失效"""
+    try:
+        client = redis.Redis(**REDIS_CONFIG)
+        client.eval(HEALTH_OVERVIEW_EVICT_SCRIPT, 2,
+                    HEALTH_OVERVIEW_KEY_PREFIX + str(user_id), HEALTH_OVERVIEW_EPOCH_KEY_PREFIX + str(user_id),
+                    HEALTH_OVERVIEW_EPOCH_TTL_SECONDS)
+    except Exception as err:
+        print(f"删除健康数据概览缓存失败: {err}")
+
 @mcp.tool()
 def query_user_health_records(user_id: int, record_type: str = "all", days: int = 30, limit: int = 50) -> str:
     """
@@ -181,11 +213,15 @@ def query_user_health_records(user_id: int, record_type: str = "all", days: int
         
         # 查询MongoDB中的健康记录
         if record_type in ["all", "glucose"]:
-            glucose_collection = mongo_db.blood_glucose_records
-            glucose_doc = glucose_collection.find_one({"userId": user_id})
+            # 血糖条目按天分桶存储在 blood_glucose_buckets；未迁移的数据仍在旧文档的records中
+            records = []
+            for bucket in mongo_db.blood_glucose_buckets.find({"userId": user_id}, {"entries": 1}):
+                records.extend(bucket.get("entries", []))
+            glucose_doc = mongo_db.blood_glucose_records.find_one({"userId": user_id}, {"records": 1})
+            if glucose_doc and glucose_doc.get("records"):
+                records.extend(glucose_doc["records"])
             
-            if glucose_doc and "records" in glucose_doc:
-                records = glucose_doc["records"]
+            if records:
                 filtered_records = []
                 
                 for record in records:
@@ -959,152 +995,378 @@ def query_consultation_detail(consultation_id: str = "", consultation_no: str =
         if mongo_client:
             mongo_client.close()
 
-def update_statistics(collection, user_id: int, record_type: str):
+# 血糖桶容量，与后端 BloodGlucoseBucket.MAX_ENTRIES 一致
+GLUCOSE_BUCKET_MAX_ENTRIES = 500
+
+# 血糖等级阈值，与后端 HealthRecordUtil 一致
+GLUCOSE_LOW = Decimal("3.9")
+FASTING_GLUCOSE_HIGH = Decimal("6.1")
+RANDOM_GLUCOSE_HIGH = Decimal("11.1")
+
+
+def to_local_datetime(dt_input: str = ""):
     """
-    重新计算并更新用户健康记录的统计信息（内部辅助函数）
-    
+    解析测量时间为带本地时区的datetime
+
+    后端的LocalDateTime/LocalDate按服务器本地时区存为BSON日期，
+    这里写入带时区的datetime，由pymongo换算为UTC，与后端读写的时间一致
+
     Args:
-        collection: MongoDB集合对象
+        dt_input: ISO格式时间字符串，为空则使用当前时间
+
+    Returns:
+        带本地时区的datetime对象
+    """
+    if not dt_input:
+        return datetime.now().astimezone()
+    parsed = datetime.fromisoformat(dt_input.replace('Z', '+00:00'))
+    # 无时区的时间按本地时间处理
+    return parsed.astimezone()
+
+
+def evaluate_glucose_level(value: Decimal, measure_type: str) -> str:
+    """
+    评估血糖等级（与后端 HealthRecordUtil.evaluateBloodGlucoseLevel 一致）
+
+    Args:
+        value: 血糖值
+        measure_type: 测量类型 (fasting, after_meal, random)
+
+    Returns:
+        low / normal / high
+    """
+    if value < GLUCOSE_LOW:
+        return "low"
+    high = FASTING_GLUCOSE_HIGH if measure_type == "fasting" else RANDOM_GLUCOSE_HIGH
+    return "high" if value > high else "normal"
+
+
+def add_glucose_entry(mongo_db, user_id: int, entry: Dict[str, Any], value: Decimal, level: str) -> int:
+    """
+    追加血糖条目到测量日期对应的血糖桶，并以增量方式更新统计信息和日汇总（内部辅助函数）
+
+    与后端 pushEntry / incStatistics / accumulate 写入相同的字段，
+    全部使用$inc/$min/$max，不会覆盖并发写入的汇总
+
+    Args:
+        mongo_db: MongoDB数据库对象
         user_id: 用户ID
-        record_type: 记录类型 (glucose, pressure, weight)
+        entry: 血糖条目（measureTime为带时区的datetime）
+        value: 血糖值
+        level: 血糖等级
+
+    Returns:
+        用户血糖记录总数
     """
-    # 获取用户的所有记录
-    user_doc = collection.find_one({"userId": user_id})
-    if not user_doc or "records" not in user_doc:
-        return
-    
-    records = user_doc.get("records", [])
-    if not records:
-        return
-    
-    statistics = {}
-    now = datetime.now().isoformat()
-    
-    if record_type == "glucose":
-        # 血糖统计
-        values = [float(r.get("value", 0)) for r in records if r.get("value")]
-        if values:
-            avg_value = sum(values) / len(values)
-            max_value = max(values)
-            min_value = min(values)
-            
-            # 统计正常、偏高、偏低的记录数
-            normal_count = 0
-            high_count = 0
-            low_count = 0
-            
-            for value in values:
-                if value < 3.9:
-                    low_count += 1
-                elif value <= 6.1:  # 使用空腹血糖正常范围
-                    normal_count += 1
-                else:
-                    high_count += 1
-            
-            statistics = {
-                "avgValue": round(avg_value, 2),
-                "maxValue": round(max_value, 2),
-                "minValue": round(min_value, 2),
-                "totalCount": len(records),
-                "normalCount": normal_count,
-                "highCount": high_count,
-                "lowCount": low_count,
-                "lastUpdateTime": now
-            }
-    
-    elif record_type == "pressure":
-        # 血压统计
-        systolic_values = [float(r.get("systolic", 0)) for r in records if r.get("systolic")]
-        diastolic_values = [float(r.get("diastolic", 0)) for r in records if r.get("diastolic")]
-        heart_rates = [float(r.get("heartRate", 0)) for r in records if r.get("heartRate")]
-        
-        if systolic_values and diastolic_values:
-            avg_systolic = sum(systolic_values) / len(systolic_values)
-            avg_diastolic = sum(diastolic_values) / len(diastolic_values)
-            avg_heart_rate = sum(heart_rates) / len(heart_rates) if heart_rates else 0
-            
-            # 统计正常、偏高、偏低的记录数
-            normal_count = 0
-            high_count = 0
-            low_count = 0
-            
-            for sys, dia in zip(systolic_values, diastolic_values):
-                if sys < 90 or dia < 60:
-                    low_count += 1
-                elif sys <= 120 and dia <= 80:
-                    normal_count += 1
-                else:
-                    high_count += 1
-            
-            statistics = {
-                "avgSystolic": round(avg_systolic, 2),
-                "avgDiastolic": round(avg_diastolic, 2),
-                "avgHeartRate": round(avg_heart_rate, 2) if heart_rates else 0,
-                "totalCount": len(records),
-                "normalCount": normal_count,
-                "highCount": high_count,
-                "lowCount": low_count,
-                "lastUpdateTime": now
-            }
-    
-    elif record_type == "weight":
-        # 体重统计
-        weights = [float(r.get("weight", 0)) for r in records if r.get("weight")]
-        
-        if weights:
-            avg_weight = sum(weights) / len(weights)
-            current_weight = weights[-1] if weights else 0  # 最后一条记录的体重
-            
-            # 计算BMI（如果有身高信息）
-            current_bmi = 0
-            last_record = records[-1] if records else {}
-            if last_record.get("height"):
-                try:
-                    height_m = float(last_record["height"]) / 100
-                    current_bmi = current_weight / (height_m ** 2)
-                except:
-                    pass
-            
-            # 计算7天和30天的体重变化
-            weight_change_7days = 0
-            weight_change_30days = 0
-            
-            now_dt = datetime.now()
-            seven_days_ago = now_dt - timedelta(days=7)
-            thirty_days_ago = now_dt - timedelta(days=30)
-            
-            for r in records:
-                measure_time_str = r.get("measureTime", "")
-                try:
-                    measure_time = datetime.fromisoformat(measure_time_str.replace('Z', '+00:00'))
-                    if measure_time >= seven_days_ago and weight_change_7days == 0:
-                        weight_change_7days = current_weight - float(r.get("weight", current_weight))
-                    if measure_time >= thirty_days_ago and weight_change_30days == 0:
-                        weight_change_30days = current_weight - float(r.get("weight", current_weight))
-                except:
-                    pass
-            
-            statistics = {
-                "avgWeight": round(avg_weight, 2),
-                "currentWeight": round(current_weight, 2),
-                "currentBmi": round(current_bmi, 2) if current_bmi > 0 else 0,
-                "weightChange7Days": round(weight_change_7days, 2),
-                "weightChange30Days": round(weight_change_30days, 2),
-                "totalCount": len(records),
-                "lastUpdateTime": now
-            }
-    
-    # 更新统计信息到MongoDB
-    if statistics:
-        collection.update_one(
-            {"userId": user_id},
+    now = datetime.now().astimezone()
+    measure_type = rollup_field_key(entry.get("measureType") or "random")
+    bucket_date = datetime.combine(entry["measureTime"].date(), datetime.min.time()).astimezone()
+    decimal_value = Decimal128(value)
+    level_inc = {
+        "normalCount": 1 if level == "normal" else 0,
+        "highCount": 1 if level == "high" else 0,
+        "lowCount": 1 if level == "low" else 0,
+    }
+
+    # 未满的桶不存在时由upsert新建；按测量时间有序插入，保持entriesSorted为真
+    mongo_db.blood_glucose_buckets.update_one(
+        {"userId": user_id, "bucketDate": bucket_date, "entryCount": {"$lt": GLUCOSE_BUCKET_MAX_ENTRIES}},
+        {
+            "$push": {"entries": {"$each": [entry], "$sort": {"measureTime": 1}}},
+            "$inc": {"entryCount": 1, "sumValue": decimal_value, **level_inc},
+            "$min": {"minValue": decimal_value},
+            "$max": {"maxValue": decimal_value},
+            "$set": {"entriesSorted": True, "updateTime": now},
+            "$setOnInsert": {"createTime": now}
+        },
+        upsert=True
+    )
+
+    # 统计信息：计数、合计和各等级数量以$inc累加，递增版本号使后端按版本号的写回重新读取
+    previous = mongo_db.blood_glucose_records.find_one_and_update(
+        {"userId": user_id},
+        {
+            "$inc": {
+                "statistics.totalCount": 1,
+                "statistics.sumValue": decimal_value,
+                **{"statistics." + field: count for field, count in level_inc.items()},
+                "version": 1
+            },
+            "$min": {"statistics.minValue": decimal_value},
+            "$max": {"statistics.maxValue": decimal_value},
+            "$set": {"updateTime": now},
+            "$setOnInsert": {"createTime": now}
+        },
+        projection={"statistics": 1},
+        upsert=True,
+        return_document=ReturnDocument.BEFORE
+    )
+    previous_stats = previous.get("statistics") if previous else None
+    if previous and (previous_stats is None or (previous_stats.get("sumValue") is None
+                                                and (previous_stats.get("totalCount") or 0) > 0)):
+        # 旧版统计数据没有合计字段：去掉合计，由后端下次写入时全量重算
+        mongo_db.blood_glucose_records.update_one(
+            {"userId": user_id}, {"$unset": {"statistics.sumValue": ""}, "$inc": {"version": 1}})
+    else:
+        update_glucose_average(mongo_db, user_id)
+
+    # 日汇总，与后端 HealthDailyRollupRepository.accumulate 一致
+    mongo_db.health_daily_rollups.update_one(
+        {"userId": user_id, "metric": "glucose", "date": bucket_date},
+        {
+            "$inc": {
+                "count": 1,
+                "sum": decimal_value,
+                level + "Count": 1,
+                "measureTypes." + measure_type + ".count": 1,
+                "measureTypes." + measure_type + ".sum": decimal_value
+            },
+            "$min": {"min": decimal_value, "measureTypes." + measure_type + ".min": decimal_value},
+            "$max": {"max": decimal_value, "measureTypes." + measure_type + ".max": decimal_value},
+            "$set": {"updateTime": now},
+            "$setOnInsert": {"createTime": now}
+        },
+        upsert=True
+    )
+
+    evict_health_overview(user_id)
+
+    current = mongo_db.blood_glucose_records.find_one({"userId": user_id}, {"statistics.totalCount": 1})
+    return (current or {}).get("statistics", {}).get("totalCount", 0)
+
+
+def update_glucose_average(mongo_db, user_id: int, max_attempts: int = 3):
+    """
+    根据累加的合计与计数更新血糖平均值（内部辅助函数）
+
+    按版本号条件写回，期间有其他写入时重新读取；重试耗尽时保留旧值，由下一次写入修正
+
+    Args:
+        mongo_db: MongoDB数据库对象
+        user_id: 用户ID
+        max_attempts: 最大尝试次数
+    """
+    for _ in range(max_attempts):
+        doc = mongo_db.blood_glucose_records.find_one({"userId": user_id}, {"statistics": 1, "version": 1})
+        stats = (doc or {}).get("statistics") or {}
+        total_count = stats.get("totalCount") or 0
+        sum_value = stats.get("sumValue")
+        if total_count <= 0 or sum_value is None:
+            return
+        avg_value = (sum_value.to_decimal() / total_count).quantize(Decimal("0.01"), rounding=ROUND_HALF_UP)
+        result = mongo_db.blood_glucose_records.update_one(
+            {"userId": user_id, "version": doc.get("version")},
             {
-                "$set": {
-                    "statistics": statistics,
-                    "updatedAt": now
-                }
+                # avgValue在后端以字符串形式存储BigDecimal
+                "$set": {"statistics.avgValue": str(avg_value),
+                         "statistics.lastUpdateTime": datetime.now().astimezone()},
+                "$inc": {"version": 1}
             }
         )
+        if result.matched_count > 0:
+            return
+
+
+def evaluate_pressure_level(systolic: int, diastolic: int) -> str:
+    """
+    评估血压等级（与后端 HealthRecordUtil.evaluateBloodPressureLevel 一致）
+
+    Args:
+        systolic: 收缩压
+        diastolic: 舒张压
+
+    Returns:
+        low / normal / high
+    """
+    if systolic < 90 and diastolic < 60:
+        return "low"
+    if systolic >= 140 or diastolic >= 90:
+        return "high"
+    return "normal"
+
+
+def evaluate_bmi_level(bmi) -> str:
+    """
+    按BMI映射体重等级（与后端日汇总的映射一致）
+
+    Args:
+        bmi: BMI，可为空
+
+    Returns:
+        low / normal / high / unknown
+    """
+    if bmi is None:
+        return "unknown"
+    if bmi < Decimal("18.5"):
+        return "low"
+    return "normal" if bmi < Decimal("24.0") else "high"
+
+
+def rollup_field_key(key: str) -> str:
+    """
+    日汇总分类名转换为可用作字段名的键（与后端 HealthDailyRollupServiceImpl.toFieldKey 一致）
+    """
+    field_key = key.replace('.', '_')
+    return "_" + field_key[1:] if field_key.startswith("$") else field_key
+
+
+def average(sum_value, count: int) -> str:
+    """
+    计算保留两位小数的平均值，按后端BigDecimal的存储方式返回字符串
+    """
+    return str((Decimal(str(sum_value)) / count).quantize(Decimal("0.01"), rounding=ROUND_HALF_UP))
+
+
+def add_health_entry(mongo_db, user_id: int, record_type: str, entry: Dict[str, Any]) -> int:
+    """
+    追加血压或体重条目，并以增量方式更新统计信息和日汇总（内部辅助函数）
+
+    与后端 pushEntry 一致：按测量时间有序插入并保持entriesSorted为真，
+    统计信息以$inc/$min/$max累加，不覆盖并发写入的汇总
+
+    Args:
+        mongo_db: MongoDB数据库对象
+        user_id: 用户ID
+        record_type: 记录类型 (pressure, weight)
+        entry: 条目（measureTime为带时区的datetime）
+
+    Returns:
+        用户该类型记录总数
+    """
+    now = datetime.now().astimezone()
+    if record_type == "pressure":
+        collection = mongo_db.blood_pressure_records
+        systolic, diastolic, heart_rate = entry["systolic"], entry["diastolic"], entry.get("heartRate")
+        level = evaluate_pressure_level(systolic, diastolic)
+        sum_field = "statistics.sumSystolic"
+        stats_inc = {
+            "statistics.sumSystolic": systolic,
+            "statistics.sumDiastolic": diastolic,
+            "statistics.sumHeartRate": heart_rate or 0,
+            "statistics.heartRateCount": 1 if heart_rate is not None else 0,
+            "statistics.normalCount": 1 if level == "normal" else 0,
+            "statistics.highCount": 1 if level == "high" else 0,
+            "statistics.lowCount": 1 if level == "low" else 0,
+        }
+        stats_min = {"statistics.minSystolic": systolic, "statistics.minDiastolic": diastolic}
+        stats_max = {"statistics.maxSystolic": systolic, "statistics.maxDiastolic": diastolic}
+        metric, rollup_value = "pressure", Decimal128(Decimal(systolic))
+        series = {"diastolic": Decimal128(Decimal(diastolic))}
+        if heart_rate is not None:
+            series["heartRate"] = Decimal128(Decimal(heart_rate))
+    else:
+        collection = mongo_db.weight_records
+        weight = Decimal128(Decimal(entry["weight"]))
+        bmi = Decimal(entry["bmi"]) if entry.get("bmi") else None
+        level = evaluate_bmi_level(bmi)
+        sum_field = "statistics.sumWeight"
+        stats_inc = {"statistics.sumWeight": weight}
+        stats_min = {"statistics.minWeight": weight}
+        stats_max = {"statistics.maxWeight": weight}
+        metric, rollup_value = "weight", weight
+        series = {"bmi": Decimal128(bmi)} if bmi is not None else {}
+
+    # 按测量时间有序插入；统计增量与条目在同一次更新中写入，递增版本号使后端按版本号的写回重新读取
+    previous = collection.find_one_and_update(
+        {"userId": user_id},
+        {
+            "$push": {"records": {"$each": [entry], "$sort": {"measureTime": 1}}},
+            "$inc": {"statistics.totalCount": 1, **stats_inc, "version": 1},
+            "$min": stats_min,
+            "$max": stats_max,
+            "$set": {"entriesSorted": True, "updateTime": now},
+            "$setOnInsert": {"createTime": now}
+        },
+        projection={"statistics": 1},
+        upsert=True,
+        return_document=ReturnDocument.BEFORE
+    )
+    previous_stats = previous.get("statistics") if previous else None
+    if previous and (previous_stats is None or (previous_stats.get(sum_field.split(".")[1]) is None
+                                                and (previous_stats.get("totalCount") or 0) > 0)):
+        # 旧版统计数据没有合计字段：去掉合计，由后端下次写入时全量重算
+        collection.update_one({"userId": user_id}, {"$unset": {sum_field: ""}, "$inc": {"version": 1}})
+    else:
+        update_derived_statistics(collection, user_id, record_type, entry)
+
+    # 日汇总，与后端 HealthDailyRollupRepository.accumulate 一致；测量状态为空时不计入分类
+    rollup_inc = {"count": 1, "sum": rollup_value}
+    rollup_min = {"min": rollup_value}
+    rollup_max = {"max": rollup_value}
+    if level != "unknown":
+        rollup_inc[level + "Count"] = 1
+    groups = [("series." + key, value) for key, value in series.items()]
+    if entry.get("measureState"):
+        groups.append(("measureTypes." + rollup_field_key(entry["measureState"]), rollup_value))
+    for prefix, value in groups:
+        rollup_inc[prefix + ".count"] = 1
+        rollup_inc[prefix + ".sum"] = value
+        rollup_min[prefix + ".min"] = value
+        rollup_max[prefix + ".max"] = value
+    mongo_db.health_daily_rollups.update_one(
+        {"userId": user_id, "metric": metric,
+         "date": datetime.combine(entry["measureTime"].date(), datetime.min.time()).astimezone()},
+        {
+            "$inc": rollup_inc,
+            "$min": rollup_min,
+            "$max": rollup_max,
+            "$set": {"updateTime": now},
+            "$setOnInsert": {"createTime": now}
+        },
+        upsert=True
+    )
+
+    evict_health_overview(user_id)
+
+    current = collection.find_one({"userId": user_id}, {"statistics.totalCount": 1})
+    return (current or {}).get("statistics", {}).get("totalCount", 0)
+
+
+def update_derived_statistics(collection, user_id: int, record_type: str, entry: Dict[str, Any],
+                              max_attempts: int = 3):
+    """
+    根据累加的合计更新血压/体重的平均值，以及体重的当前值（内部辅助函数）
+
+    按版本号条件写回，期间有其他写入时重新读取；重试耗尽时保留旧值，由下一次写入修正
+
+    Args:
+        collection: MongoDB集合对象
+        user_id: 用户ID
+        record_type: 记录类型 (pressure, weight)
+        entry: 新增的条目
+        max_attempts: 最大尝试次数
+    """
+    for _ in range(max_attempts):
+        doc = collection.find_one({"userId": user_id}, {"statistics": 1, "version": 1})
+        stats = (doc or {}).get("statistics") or {}
+        total_count = stats.get("totalCount") or 0
+        if total_count <= 0:
+            return
+        derived = {"statistics.lastUpdateTime": datetime.now().astimezone()}
+        if record_type == "pressure":
+            derived["statistics.avgSystolic"] = average(stats.get("sumSystolic", 0), total_count)
+            derived["statistics.avgDiastolic"] = average(stats.get("sumDiastolic", 0), total_count)
+            heart_rate_count = stats.get("heartRateCount") or 0
+            derived["statistics.avgHeartRate"] = (average(stats.get("sumHeartRate", 0), heart_rate_count)
+                                                  if heart_rate_count > 0 else None)
+        else:
+            sum_weight = stats.get("sumWeight")
+            if sum_weight is None:
+                return
+            derived["statistics.avgWeight"] = average(sum_weight.to_decimal(), total_count)
+            # 当前体重取测量时间最新的一条（读回的时间为无时区的UTC时间）
+            current_time = stats.get("currentMeasureTime")
+            entry_time = entry["measureTime"].astimezone(timezone.utc).replace(tzinfo=None)
+            if current_time is None or entry_time >= current_time:
+                derived["statistics.currentWeight"] = entry["weight"]
+                derived["statistics.currentBmi"] = entry.get("bmi")
+                derived["statistics.currentMeasureTime"] = entry["measureTime"]
+        result = collection.update_one(
+            {"userId": user_id, "version": doc.get("version")},
+            {"$set": derived, "$inc": {"version": 1}}
+        )
+        if result.matched_count > 0:
+            return
 
 
 @mcp.tool()
@@ -1115,7 +1377,7 @@ def add_health_record(user_id: int, record_type: str, record_data: str, measure_
     Args:
         user_id: 用户ID
         record_type: 记录类型 (glucose, pressure, weight)
-        record_data: 记录数据JSON字符串，例如: {"value": 6.8, "measureType": "餐后血糖"}
+        record_data: 记录数据JSON字符串，例如: {"value": 6.8, "measureType": "after_meal"}
         measure_time: 测量时间 (ISO格式，为空则使用当前时间)
     
     Returns:
@@ -1163,15 +1425,10 @@ def add_health_record(user_id: int, record_type: str, record_data: str, measure_
             return json.dumps({"error": "用户不存在"})
         
         # 处理测量时间
-        if measure_time:
-            try:
-                # 验证时间格式
-                parsed_time = datetime.fromisoformat(measure_time.replace('Z', '+00:00'))
-                measure_time_str = parsed_time.isoformat()
-            except Exception:
-                return json.dumps({"error": "无效的时间格式，请使用ISO格式"})
-        else:
-            measure_time_str = datetime.now().isoformat()
+        try:
+            measure_dt = to_local_datetime(measure_time)
+        except Exception:
+            return json.dumps({"error": "无效的时间格式，请使用ISO格式"})
         
         # 根据记录类型验证和处理数据
         if record_type == "glucose":
@@ -1184,25 +1441,24 @@ def add_health_record(user_id: int, record_type: str, record_data: str, measure_
             # 验证血糖值范围 (通常2.0-30.0 mmol/L)
             glucose_value = record_data.get("value")
             try:
-                glucose_value = float(glucose_value)
-                if glucose_value < 1.0 or glucose_value > 50.0:
+                glucose_value = Decimal(str(float(glucose_value)))
+                if glucose_value < 1 or glucose_value > 50:
                     return json.dumps({"error": "血糖值超出合理范围 (1.0-50.0 mmol/L)"})
             except (TypeError, ValueError):
                 return json.dumps({"error": "血糖值必须是数字"})
             
-            # 构建血糖记录
+            # 构建血糖条目（字段与后端 GlucoseEntry 一致，value按后端的BigDecimal以字符串存储）
+            measure_type = record_data.get("measureType") or "random"
             new_record = {
                 "id": str(uuid.uuid4()),  # 生成UUID作为记录ID
-                "value": glucose_value,
-                "measureTime": measure_time_str,
-                "unit": record_data.get("unit", "mmol/L"),
-                "note": record_data.get("notes", ""),  # 使用note字段名（与后端一致）
-                "measureType": record_data.get("measureType", "随机血糖"),
+                "value": str(glucose_value),
+                "measureType": measure_type,
+                "measureTime": measure_dt,
                 "mealType": record_data.get("mealType", ""),  # 添加餐次字段
-                "createdAt": datetime.now().isoformat()
+                "note": record_data.get("notes", "")  # 使用note字段名（与后端一致）
             }
+            glucose_level = evaluate_glucose_level(glucose_value, measure_type)
             
-            collection_name = "blood_glucose_records"
             
         elif record_type == "pressure":
             # 验证血压记录必需字段
@@ -1213,8 +1469,10 @@ def add_health_record(user_id: int, record_type: str, record_data: str, measure_
             
             # 验证血压值范围
             try:
-                systolic = float(record_data["systolic"])
-                diastolic = float(record_data["diastolic"])
+                systolic = int(round(float(record_data["systolic"])))
+                diastolic = int(round(float(record_data["diastolic"])))
+                heart_rate = record_data.get("heartRate")
+                heart_rate = int(round(float(heart_rate))) if heart_rate not in (None, "") else None
                 
                 if systolic < 50 or systolic > 300:
                     return json.dumps({"error": "收缩压超出合理范围 (50-300 mmHg)"})
@@ -1226,21 +1484,17 @@ def add_health_record(user_id: int, record_type: str, record_data: str, measure_
             except (TypeError, ValueError):
                 return json.dumps({"error": "血压值必须是数字"})
             
-            # 构建血压记录
+            # 构建血压条目（字段与后端 PressureEntry 一致，测量时间存为日期类型）
             new_record = {
                 "id": str(uuid.uuid4()),  # 生成UUID作为记录ID
                 "systolic": systolic,
                 "diastolic": diastolic,
-                "measureTime": measure_time_str,
-                "unit": record_data.get("unit", "mmHg"),
-                "heartRate": record_data.get("heartRate"),
-                "note": record_data.get("notes", ""),  # 使用note字段名（与后端一致）
+                "heartRate": heart_rate,
+                "measureTime": measure_dt,
                 "measureState": record_data.get("measureState", ""),  # 添加测量状态字段
-                "createdAt": datetime.now().isoformat()
+                "note": record_data.get("notes", "")  # 使用note字段名（与后端一致）
             }
             
-            collection_name = "blood_pressure_records"
-            
         elif record_type == "weight":
             # 验证体重记录必需字段（支持value或weight字段名）
             weight_value = record_data.get("value") or record_data.get("weight")
@@ -1249,77 +1503,43 @@ def add_health_record(user_id: int, record_type: str, record_data: str, measure_
             
             # 验证体重值范围 (通常20-500 kg)
             try:
-                weight_value = float(weight_value)
-                if weight_value < 10.0 or weight_value > 1000.0:
+                weight_value = Decimal(str(float(weight_value)))
+                if weight_value < 10 or weight_value > 1000:
                     return json.dumps({"error": "体重值超出合理范围 (10.0-1000.0 kg)"})
             except (TypeError, ValueError):
                 return json.dumps({"error": "体重值必须是数字"})
             
-            # 构建体重记录
+            # 构建体重条目（字段与后端 WeightEntry 一致，数值按后端的BigDecimal以字符串存储）
             new_record = {
                 "id": str(uuid.uuid4()),  # 生成UUID作为记录ID
-                "weight": weight_value,  # 使用weight字段名（与后端一致）
-                "measureTime": measure_time_str,
-                "unit": record_data.get("unit", "kg"),
-                "note": record_data.get("notes", ""),  # 使用note字段名（与后端一致）
-                "height": record_data.get("height"),  # 身高（用于计算BMI）
+                "weight": str(weight_value),  # 使用weight字段名（与后端一致）
+                "height": None,  # 身高（用于计算BMI）
+                "measureTime": measure_dt,
                 "measureState": record_data.get("measureState", ""),  # 添加测量状态字段
+                "note": record_data.get("notes", ""),  # 使用note字段名（与后端一致）
                 "isManualInput": record_data.get("isManualInput", True),  # 默认为手动输入
-                "deviceType": record_data.get("deviceType", "manual"),  # 设备类型
-                "createdAt": datetime.now().isoformat()
+                "deviceType": record_data.get("deviceType", "manual")  # 设备类型
             }
             
-            # 如果提供了身高，计算BMI
-            if new_record["height"]:
+            # 如果提供了身高，计算BMI（与后端一致，保留两位小数）
+            if record_data.get("height"):
                 try:
-                    height_m = float(new_record["height"]) / 100  # 转换为米
-                    bmi = weight_value / (height_m ** 2)
-                    new_record["bmi"] = round(bmi, 2)
-                except:
+                    height = Decimal(str(float(record_data["height"])))
+                    height_m = height / 100  # 转换为米
+                    new_record["height"] = str(height)
+                    new_record["bmi"] = str((weight_value / (height_m * height_m))
+                                            .quantize(Decimal("0.01"), rounding=ROUND_HALF_UP))
+                except Exception:
                     pass  # BMI计算失败不影响记录添加
-            
-            collection_name = "weight_records"
         
         # 插入MongoDB记录
-        collection = mongo_db[collection_name]
-        
-        # 查找用户的健康记录文档
-        user_doc = collection.find_one({"userId": user_id})
-        
-        if user_doc:
-            # 用户文档已存在，添加新记录到records数组
-            result_update = collection.update_one(
-                {"userId": user_id},
-                {"$push": {"records": new_record}}
-            )
-            
-            if result_update.modified_count > 0:
-                operation_result = "记录添加成功"
-            else:
-                return json.dumps({"error": "记录添加失败"})
-                
+        if record_type == "glucose":
+            # 血糖条目写入按天分桶的 blood_glucose_buckets，统计信息增量更新
+            total_records = add_glucose_entry(mongo_db, user_id, new_record, glucose_value, glucose_level)
         else:
-            # 用户文档不存在，创建新文档
-            new_doc = {
-                "userId": user_id,
-                "records": [new_record],
-                "createdAt": datetime.now().isoformat(),
-                "updatedAt": datetime.now().isoformat()
-            }
-            
-            result_insert = collection.insert_one(new_doc)
-            
-            if result_insert.inserted_id:
-                operation_result = "用户健康记录文档创建成功，记录已添加"
-            else:
-                return json.dumps({"error": "记录添加失败"})
-        
-        # 关键修复：重新计算并更新统计信息
-        update_statistics(collection, user_id, record_type)
-        
-        # 查询用户当前记录统计
-        updated_doc = collection.find_one({"userId": user_id})
-        total_records = len(updated_doc.get("records", []))
+            # 有序追加到用户文档的records数组并累加统计增量，用户文档不存在时自动创建
+            total_records = add_health_entry(mongo_db, user_id, record_type, new_record)
+        operation_result = "记录添加成功"
         
         result = {
             "success": True,
@@ -57,6 +57,11 @@ public class PageResult<T> {
      */
     private Boolean isLast;
 
+    /**
+     * 游标分页时下一页的游标，没有下一页时为空
+     */
+    private String nextCursor;
+
     /**
      * 构造函数
      */
@@ -100,6 +105,21 @@ public class PageResult<T> {
         return new PageResult<>(current, size, total, records);
     }
 
+    /**
+     * 创建游标分页结果，total为空表示未统计总数
+     */
+    public static <T> PageResult<T> ofCursor(Integer size, Long total, List<T> records, String nextCursor) {
+        PageResult<T> result = new PageResult<>();
+        result.size = size;
+        result.records = records;
+        result.nextCursor = nextCursor;
+        result.hasNext = nextCursor != null;
+        if (total != null) {
+            result.setTotal(total);
+        }
+        return result;
+    }
+
     /**
      * 创建空分页结果
      */
@@ -254,6 +274,14 @@ public class PageResult<T> {
         this.isLast = isLast;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @Override
     public String toString() {
         return "PageResult{" +
@@ -266,6 +294,7 @@ public class PageResult<T> {
                 ", hasNext=" + hasNext +
                 ", isFirst=" + isFirst +
                 ", isLast=" + isLast +
+                ", nextCursor=" + nextCursor +
                 '}';
     }
 } 
\ No newline at end of file
@@ -0,0 +1,118 @@
+package org.example.tlbglxt.config;
+
+import org.example.tlbglxt.entity.chat.ConsultationChat;
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+import org.example.tlbglxt.entity.health.WeightRecord;
+import org.example.tlbglxt.service.ConsultationChatService;
+import org.example.tlbglxt.service.HealthDailyRollupService;
+import org.example.tlbglxt.service.HealthRecordService;
+import org.example.tlbglxt.service.migration.ConsultationMessageMigration;
+import org.example.tlbglxt.service.migration.DataMigration;
+import org.example.tlbglxt.service.migration.EntryIdBackfillMigration;
+import org.example.tlbglxt.service.migration.GlucoseBucketMigration;
+import org.example.tlbglxt.service.migration.SortedEntriesMigration;
+import org.example.tlbglxt.service.migration.StatisticsRecalculationMigration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * 数据迁移注册
+ * 每个 {@link DataMigration} Bean 都可以通过 /api/v1/admin/migrations 启动、暂停与重置
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Configuration
+public class MigrationConfig {
+
+    @Bean
+    public DataMigration<BloodGlucoseRecord> glucoseRecordEntryIdMigration() {
+        return new EntryIdBackfillMigration<>("entry-id-glucose-records", BloodGlucoseRecord.class, "records");
+    }
+
+    @Bean
+    public DataMigration<BloodGlucoseBucket> glucoseBucketEntryIdMigration() {
+        return new EntryIdBackfillMigration<>("entry-id-glucose-buckets", BloodGlucoseBucket.class, "entries");
+    }
+
+    @Bean
+    public DataMigration<BloodPressureRecord> pressureEntryIdMigration() {
+        return new EntryIdBackfillMigration<>("entry-id-pressure", BloodPressureRecord.class, "records");
+    }
+
+    @Bean
+    public DataMigration<WeightRecord> weightEntryIdMigration() {
+        return new EntryIdBackfillMigration<>("entry-id-weight", WeightRecord.class, "records");
+    }
+
+    @Bean
+    public DataMigration<BloodGlucoseRecord> glucoseStatisticsMigration(HealthRecordService healthRecordService) {
+        // 血糖统计保存在每个用户唯一的 blood_glucose_records 文档中，按该文档遍历用户
+        return new StatisticsRecalculationMigration<>("statistics-glucose", "基于血糖桶重新计算血糖统计信息",
+                BloodGlucoseRecord.class, healthRecordService::recalculateBloodGlucoseStatistics);
+    }
+
+    @Bean
+    public DataMigration<BloodPressureRecord> pressureStatisticsMigration(HealthRecordService healthRecordService) {
+        return new StatisticsRecalculationMigration<>("statistics-pressure", "重新计算血压统计信息",
+                BloodPressureRecord.class, healthRecordService::recalculateBloodPressureStatistics);
+    }
+
+    @Bean
+    public DataMigration<WeightRecord> weightStatisticsMigration(HealthRecordService healthRecordService) {
+        return new StatisticsRecalculationMigration<>("statistics-weight", "重新计算体重统计信息",
+                WeightRecord.class, healthRecordService::recalculateWeightStatistics);
+    }
+
+    @Bean
+    public DataMigration<BloodGlucoseRecord> glucoseBucketMigration(MongoTemplate mongoTemplate,
+                                                                   HealthRecordService healthRecordService) {
+        return new GlucoseBucketMigration(mongoTemplate, healthRecordService);
+    }
+
+    @Bean
+    public DataMigration<BloodGlucoseRecord> glucoseRollupMigration(HealthDailyRollupService healthDailyRollupService) {
+        // 每个有血糖数据的用户都有唯一的统计文档，按该文档遍历用户，而不是按多个血糖桶重复重建
+        return new StatisticsRecalculationMigration<>("rollup-glucose", "根据血糖桶重建血糖日汇总",
+                BloodGlucoseRecord.class, userId -> healthDailyRollupService
+                .rebuildUserRollups(userId, HealthDailyRollup.METRIC_GLUCOSE) > 0);
+    }
+
+    @Bean
+    public DataMigration<BloodPressureRecord> pressureRollupMigration(HealthDailyRollupService healthDailyRollupService) {
+        return new StatisticsRecalculationMigration<>("rollup-pressure", "根据血压记录重建血压日汇总",
+                BloodPressureRecord.class, userId -> healthDailyRollupService
+                .rebuildUserRollups(userId, HealthDailyRollup.METRIC_PRESSURE) > 0);
+    }
+
+    @Bean
+    public DataMigration<WeightRecord> weightRollupMigration(HealthDailyRollupService healthDailyRollupService) {
+        return new StatisticsRecalculationMigration<>("rollup-weight", "根据体重记录重建体重日汇总",
+                WeightRecord.class, userId -> healthDailyRollupService
+                .rebuildUserRollups(userId, HealthDailyRollup.METRIC_WEIGHT) > 0);
+    }
+
+    @Bean
+    public DataMigration<BloodGlucoseBucket> glucoseBucketSortMigration() {
+        return new SortedEntriesMigration<>("sort-glucose-buckets", BloodGlucoseBucket.class, "entries");
+    }
+
+    @Bean
+    public DataMigration<BloodPressureRecord> pressureSortMigration() {
+        return new SortedEntriesMigration<>("sort-pressure", BloodPressureRecord.class, "records");
+    }
+
+    @Bean
+    public DataMigration<WeightRecord> weightSortMigration() {
+        return new SortedEntriesMigration<>("sort-weight", WeightRecord.class, "records");
+    }
+
+    @Bean
+    public DataMigration<ConsultationChat> consultationMessageMigration(ConsultationChatService consultationChatService) {
+        return new ConsultationMessageMigration(consultationChatService);
+    }
+}
@@ -0,0 +1,387 @@
+package org.example.tlbglxt.config;
+
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.ReactiveContextProvider;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.CoreSubscriber;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * MongoDB命令耗时统计
+ * <p>
+ * 注册在阻塞与响应式两个MongoClient上，按命令、集合、发起命令的Repository方法记录：
+ * 耗时直方图（mongodb.command）、返回/影响的文档数（mongodb.command.documents）、响应大小（mongodb.command.response），
+ * 经Actuator的metrics端点查看；超过阈值的命令记录慢命令日志。
+ * Repository方法由 {@link MongoRepositoryMethodTagger} 在调用时标记：阻塞调用放在当前线程，
+ * 响应式调用放在Reactor上下文中，经 {@link #reactiveContextProvider()} 传给驱动；
+ * 游标的后续getMore沿用打开游标的命令所属的方法。不经过Repository的MongoTemplate调用标记为none。
+ * </p>
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class MongoCommandMetrics implements CommandListener {
+
+    /**
+     * Reactor上下文与驱动RequestContext中保存Repository方法的键
+     */
+    static final String METHOD_KEY = MongoCommandMetrics.class.getName() + ".method";
+
+    private static final String NONE = "none";
+
+    /**
+     * 记录游标归属的上限，超出时清空（未关闭的游标在服务端超时后失效）
+     */
+    private static final int MAX_TRACKED_CURSORS = 10000;
+
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 慢命令阈值（毫秒）
+     */
+    private final long slowCommandMs;
+
+    /**
+     * 按命令名单独设置的慢命令阈值（毫秒）
+     */
+    private final Map<String, Long> slowCommandOverrides;
+
+    /**
+     * 慢命令日志是否带上查询条件/聚合管道（截断）
+     */
+    private final boolean logCommand;
+
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> cursorMethods = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry,
+                               @Value("${mongo.slow-command-ms:200}") long slowCommandMs,
+                               @Value("${mongo.slow-command-overrides:}") String slowCommandOverrides,
+                               @Value("${mongo.slow-command-log-command:false}") boolean logCommand) {
+        this.meterRegistry = meterRegistry;
+        this.slowCommandMs = slowCommandMs;
+        this.slowCommandOverrides = parseOverrides(slowCommandOverrides);
+        this.logCommand = logCommand;
+    }
+
+    /**
+     * 解析 "aggregate:1000,getMore:1000" 形式的按命令阈值
+     */
+    private static Map<String, Long> parseOverrides(String overrides) {
+        Map<String, Long> result = new HashMap<>();
+        for (String item : overrides.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length == 2) {
+                result.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 标记当前线程正在执行的Repository方法，返回之前的标记用于恢复
+     */
+    static String enterMethod(String method) {
+        String previous = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(method);
+        return previous;
+    }
+
+    static void exitMethod(String previous) {
+        if (previous == null) {
+            CURRENT_METHOD.remove();
+        } else {
+            CURRENT_METHOD.set(previous);
+        }
+    }
+
+    /**
+     * 将Reactor上下文中的Repository方法传给响应式驱动的命令事件
+     */
+    public ReactiveContextProvider reactiveContextProvider() {
+        return subscriber -> {
+            MethodRequestContext context = new MethodRequestContext();
+            if (subscriber instanceof CoreSubscriber) {
+                ((CoreSubscriber<?>) subscriber).currentContext().getOrEmpty(METHOD_KEY)
+                        .ifPresent(method -> context.put(METHOD_KEY, method));
+            }
+            return context;
+        };
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String commandName = event.getCommandName();
+        String method = method(event.getRequestContext());
+        Long cursorId = "getMore".equals(commandName) && command.isInt64(commandName)
+                ? command.getInt64(commandName).getValue() : null;
+        if (method == null && cursorId != null) {
+            method = cursorMethods.get(cursorId);
+        }
+        String collection = collection(commandName, command);
+        String shape = logCommand ? shape(command) : null;
+        inFlight.put(event.getRequestId(), new InFlight(collection, method == null ? NONE : method, cursorId, shape));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        BsonDocument response = event.getResponse();
+        trackCursor(event.getCommandName(), response, started);
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        Tags tags = Tags.of("command", event.getCommandName(), "collection", started.collection, "method", started.method);
+        record(tags.and("status", "success"), elapsedNanos);
+
+        int documents = documentCount(event.getCommandName(), response);
+        if (documents >= 0) {
+            DistributionSummary.builder("mongodb.command.documents")
+                    .description("MongoDB命令返回或影响的文档数")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(documents);
+        }
+        int size = responseSize(response);
+        if (size >= 0) {
+            DistributionSummary.builder("mongodb.command.response")
+                    .description("MongoDB命令响应大小")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(size);
+        }
+        logIfSlow(event.getCommandName(), started, elapsedNanos, documents, size, null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long elapsedNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        record(Tags.of("command", event.getCommandName(), "collection", started.collection, "method", started.method,
+                "status", "failed"), elapsedNanos);
+        logIfSlow(event.getCommandName(), started, elapsedNanos, -1, -1, event.getThrowable());
+    }
+
+    private void record(Tags tags, long elapsedNanos) {
+        Timer.builder("mongodb.command")
+                .description("MongoDB命令耗时")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void logIfSlow(String commandName, InFlight started, long elapsedNanos, int documents, int size,
+                           Throwable error) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (elapsedMs < slowCommandOverrides.getOrDefault(commandName, slowCommandMs)) {
+            return;
+        }
+        log.warn("慢Mongo命令 - 命令: {}, 集合: {}, 方法: {}, 耗时: {}ms, 文档数: {}, 响应: {}B{}{}",
+                commandName, started.collection, started.method, elapsedMs, documents, size,
+                started.shape == null ? "" : ", 条件: " + started.shape,
+                error == null ? "" : ", 失败: " + error.getMessage());
+    }
+
+    /**
+     * 打开游标的命令记下游标所属的方法，游标耗尽时移除
+     */
+    private void trackCursor(String commandName, BsonDocument response, InFlight started) {
+        BsonDocument cursor = response.isDocument("cursor") ? response.getDocument("cursor") : null;
+        if (cursor == null || !cursor.isInt64("id")) {
+            if ("killCursors".equals(commandName) && response.isArray("cursorsKilled")) {
+                for (BsonValue id : response.getArray("cursorsKilled")) {
+                    if (id.isInt64()) {
+                        cursorMethods.remove(id.asInt64().getValue());
+                    }
+                }
+            }
+            return;
+        }
+        long cursorId = cursor.getInt64("id").getValue();
+        if (cursorId == 0) {
+            if (started.cursorId != null) {
+                cursorMethods.remove(started.cursorId);
+            }
+            return;
+        }
+        if (started.cursorId == null && !NONE.equals(started.method)) {
+            if (cursorMethods.size() >= MAX_TRACKED_CURSORS) {
+                cursorMethods.clear();
+            }
+            cursorMethods.put(cursorId, started.method);
+        }
+    }
+
+    private static String method(RequestContext context) {
+        if (context != null && context.hasKey(METHOD_KEY)) {
+            return context.get(METHOD_KEY);
+        }
+        return CURRENT_METHOD.get();
+    }
+
+    /**
+     * 命令作用的集合：多数命令的第一个字段值即集合名，getMore在collection字段中
+     */
+    private static String collection(String commandName, BsonDocument command) {
+        if ("getMore".equals(commandName) && command.isString("collection")) {
+            return command.getString("collection").getValue();
+        }
+        BsonValue value = command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : NONE;
+    }
+
+    /**
+     * 返回或影响的文档数，无法判断时返回-1
+     */
+    private static int documentCount(String commandName, BsonDocument response) {
+        if (response.isDocument("cursor")) {
+            BsonDocument cursor = response.getDocument("cursor");
+            BsonArray batch = cursor.isArray("firstBatch") ? cursor.getArray("firstBatch")
+                    : cursor.isArray("nextBatch") ? cursor.getArray("nextBatch") : null;
+            return batch == null ? -1 : batch.size();
+        }
+        if ("findAndModify".equals(commandName)) {
+            return response.isDocument("value") ? 1 : 0;
+        }
+        if ("distinct".equals(commandName) && response.isArray("values")) {
+            return response.getArray("values").size();
+        }
+        if (response.isNumber("n")) {
+            return response.getNumber("n").intValue();
+        }
+        return -1;
+    }
+
+    /**
+     * 响应的BSON字节数，取自文档头部的长度字段，不重新编码；无法取得时返回-1
+     */
+    private static int responseSize(BsonDocument response) {
+        if (response instanceof RawBsonDocument) {
+            return ((RawBsonDocument) response).getByteBuffer().remaining();
+        }
+        try (BsonReader reader = response.asBsonReader()) {
+            if (reader instanceof BsonBinaryReader) {
+                return ((BsonBinaryReader) reader).getBsonInput().readInt32();
+            }
+        } catch (RuntimeException e) {
+            log.debug("读取Mongo响应大小失败: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * 慢命令日志中的查询条件/聚合管道，截断到512个字符
+     */
+    private static String shape(BsonDocument command) {
+        for (String field : new String[]{"filter", "pipeline", "query"}) {
+            BsonValue value = command.get(field);
+            if (value != null) {
+                String json = value.isDocument() ? value.asDocument().toJson()
+                        : new BsonDocument(field, value).toJson();
+                return json.length() > 512 ? json.substring(0, 512) + "..." : json;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 命令开始时记下的信息，命令结束事件中不再包含命令本身
+     */
+    private static final class InFlight {
+
+        private final String collection;
+
+        private final String method;
+
+        /**
+         * getMore命令的游标ID
+         */
+        private final Long cursorId;
+
+        private final String shape;
+
+        private InFlight(String collection, String method, Long cursorId, String shape) {
+            this.collection = collection;
+            this.method = method;
+            this.cursorId = cursorId;
+            this.shape = shape;
+        }
+    }
+
+    /**
+     * 只携带Repository方法的驱动请求上下文
+     */
+    private static final class MethodRequestContext implements RequestContext {
+
+        private final Map<Object, Object> values = new HashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key) {
+            return (T) values.get(key);
+        }
+
+        @Override
+        public boolean hasKey(Object key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public void delete(Object key) {
+            values.remove(key);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public Stream<Map.Entry<Object, Object>> stream() {
+            return values.entrySet().stream();
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package org.example.tlbglxt.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 
 import java.time.ZoneId;
 import java.util.TimeZone;
@@ -17,8 +25,12 @@ import java.util.TimeZone;
  */
 @Configuration
 @EnableMongoRepositories(basePackages = "org.example.tlbglxt.repository.mongo")
+@EnableReactiveMongoRepositories(basePackages = "org.example.tlbglxt.repository.mongo")
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    @Autowired
+    private MongoCommandMetrics mongoCommandMetrics;
+
     @Override
     protected String getDatabaseName() {
         return "tlbglxt_health";
@@ -30,6 +42,12 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return true;
     }
 
+    @Override
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        // 阻塞与响应式客户端都记录命令耗时
+        builder.addCommandListener(mongoCommandMetrics);
+    }
+
     @Bean
     @Override
     public MongoCustomConversions customConversions() {
@@ -37,4 +55,24 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         TimeZone.setDefault(TimeZone.getTimeZone(ZoneId.of("Asia/Shanghai")));
         return new MongoCustomConversions(java.util.Collections.emptyList());
     }
-} 
\ No newline at end of file
+
+    /**
+     * 响应式MongoClient，与阻塞客户端使用相同的连接配置；命令事件从Reactor上下文取得发起命令的Repository方法
+     */
+    @Bean
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(MongoClientSettings.builder(mongoClientSettings())
+                .contextProvider(mongoCommandMetrics.reactiveContextProvider())
+                .build());
+    }
+
+    /**
+     * 响应式模板，连接同一数据库并共用映射与类型转换配置，供只读的高并发查询使用
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+                                                       MappingMongoConverter mappingMongoConverter) {
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, getDatabaseName()),
+                mappingMongoConverter);
+    }
+}
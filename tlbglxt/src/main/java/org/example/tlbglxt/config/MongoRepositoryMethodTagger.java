@@ -0,0 +1,51 @@
+package org.example.tlbglxt.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactoryBean;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 为Mongo Repository代理添加拦截器，标记调用中发出的Mongo命令属于哪个Repository方法（如
+ * ConsultationChatRepository.findSummariesByDoctorId），供 {@link MongoCommandMetrics} 打标签。
+ * 阻塞方法在调用期间标记当前线程；返回Mono/Flux的方法把标记写入Reactor上下文，订阅时随命令传给驱动
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Component
+public class MongoRepositoryMethodTagger implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof MongoRepositoryFactoryBean || bean instanceof ReactiveMongoRepositoryFactoryBean) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(tagging(repositoryInformation.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private static MethodInterceptor tagging(String repositoryName) {
+        return invocation -> {
+            String method = repositoryName + "." + invocation.getMethod().getName();
+            String previous = MongoCommandMetrics.enterMethod(method);
+            try {
+                Object result = invocation.proceed();
+                if (result instanceof Mono) {
+                    return ((Mono<?>) result).contextWrite(context -> context.put(MongoCommandMetrics.METHOD_KEY, method));
+                }
+                if (result instanceof Flux) {
+                    return ((Flux<?>) result).contextWrite(context -> context.put(MongoCommandMetrics.METHOD_KEY, method));
+                }
+                return result;
+            } finally {
+                MongoCommandMetrics.exitMethod(previous);
+            }
+        };
+    }
+}
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.example.tlbglxt.common.Result;
+import org.example.tlbglxt.dto.response.MigrationStatusResponse;
 import org.example.tlbglxt.util.DataMigrationUtil;
 import org.example.tlbglxt.util.JwtUtil;
 import org.example.tlbglxt.util.Md5Util;
@@ -11,6 +12,8 @@ import org.example.tlbglxt.util.RedisUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.stream.Collectors;
+
 /**
  * 测试控制器
  */
@@ -131,20 +134,73 @@ public class TestController {
     /**
      * 数据迁移接口 - 为现有记录添加ID
      */
-    @Operation(summary = "数据迁移", description = "为现有健康记录添加ID字段")
+    @Operation(summary = "数据迁移", description = "在后台为现有健康记录添加ID字段，进度见 /api/v1/admin/migrations")
     @PostMapping("/migrate")
     public Result<String> migrateData() {
         try {
-            log.info("开始执行数据迁移...");
-            dataMigrationUtil.migrateAllRecords();
-            log.info("数据迁移完成");
-            return Result.success("数据迁移成功", "已为所有现有记录添加ID字段");
+            log.info("启动条目ID回填迁移...");
+            String statuses = dataMigrationUtil.migrateAllRecords().stream()
+                    .map(status -> status.getName() + ": " + status.getStatus())
+                    .collect(Collectors.joining(", "));
+            return Result.success("数据迁移已启动", statuses);
         } catch (Exception e) {
             log.error("数据迁移失败", e);
             return Result.error("数据迁移失败：" + e.getMessage());
         }
     }
 
+    /**
+     * 数据迁移接口 - 血糖记录迁移到按天分桶存储
+     */
+    @Operation(summary = "血糖分桶迁移", description = "将旧版血糖文档中的记录迁移到按天分桶的集合")
+    @PostMapping("/migrate/glucose-buckets")
+    public Result<String> migrateGlucoseBuckets() {
+        try {
+            log.info("启动血糖分桶迁移...");
+            MigrationStatusResponse status = dataMigrationUtil.migrateBloodGlucoseToBuckets();
+            return Result.success("血糖分桶迁移已启动", status.getName() + ": " + status.getStatus());
+        } catch (Exception e) {
+            log.error("血糖分桶迁移失败", e);
+            return Result.error("血糖分桶迁移失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 数据迁移接口 - 回填健康数据日汇总
+     */
+    @Operation(summary = "日汇总回填", description = "根据现有血糖、血压、体重记录重建健康数据日汇总")
+    @PostMapping("/migrate/daily-rollups")
+    public Result<String> migrateDailyRollups() {
+        try {
+            log.info("启动健康数据日汇总回填...");
+            String statuses = dataMigrationUtil.migrateDailyRollups().stream()
+                    .map(status -> status.getName() + ": " + status.getStatus())
+                    .collect(Collectors.joining(", "));
+            return Result.success("日汇总回填已启动", statuses);
+        } catch (Exception e) {
+            log.error("日汇总回填失败", e);
+            return Result.error("日汇总回填失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 数据迁移接口 - 健康记录条目按测量时间排序
+     */
+    @Operation(summary = "条目排序", description = "将血糖、血压、体重记录的条目数组整理为按测量时间升序")
+    @PostMapping("/migrate/sort-entries")
+    public Result<String> migrateSortedEntries() {
+        try {
+            log.info("启动健康记录条目排序...");
+            String statuses = dataMigrationUtil.migrateSortedEntries().stream()
+                    .map(status -> status.getName() + ": " + status.getStatus())
+                    .collect(Collectors.joining(", "));
+            return Result.success("条目排序已启动", statuses);
+        } catch (Exception e) {
+            log.error("条目排序失败", e);
+            return Result.error("条目排序失败：" + e.getMessage());
+        }
+    }
+
     @Operation(summary = "调试Redis在线用户", description = "查看Redis中当前的在线用户keys")
     @GetMapping("/debug-online-users")
     public Result<Object> debugOnlineUsers() {
@@ -9,6 +9,9 @@ import org.example.tlbglxt.common.PageResult;
 import org.example.tlbglxt.common.Result;
 import org.example.tlbglxt.dto.request.chat.CreateConsultationRequest;
 import org.example.tlbglxt.dto.request.chat.SendMessageRequest;
+import org.example.tlbglxt.dto.response.chat.ConsultationSummary;
+import org.example.tlbglxt.dto.response.chat.InboxResponse;
+import org.example.tlbglxt.dto.response.chat.MessageHistoryResponse;
 import org.example.tlbglxt.entity.chat.ConsultationChat;
 import org.example.tlbglxt.entity.chat.ConsultationMessage;
 import org.example.tlbglxt.entity.FileRecord;
@@ -20,6 +23,7 @@ import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.List;
@@ -71,15 +75,30 @@ public class ConsultationChatController {
 
     @Operation(summary = "获取问诊详情")
     @GetMapping("/consultation/{consultationNo}")
-    public Result<ConsultationChat> getConsultationDetail(
+    public Mono<Result<ConsultationChat>> getConsultationDetail(
             @PathVariable String consultationNo) {
         
         return consultationChatService.getConsultationDetail(consultationNo);
     }
 
+    @Operation(summary = "分页获取聊天记录", description = "按消息序号向前翻页，beforeSeq为空时返回最新的消息，下一页传入返回的nextBeforeSeq")
+    @GetMapping("/consultation/{consultationNo}/messages")
+    public Result<MessageHistoryResponse> getMessageHistory(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String consultationNo,
+            @RequestParam(required = false) Long beforeSeq,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        // 提取用户ID
+        String actualToken = token.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(actualToken);
+        
+        return consultationChatService.getMessageHistory(consultationNo, userId, beforeSeq, limit);
+    }
+
     @Operation(summary = "获取我的问诊列表")
     @GetMapping("/consultations/mine")
-    public Result<List<ConsultationChat>> getMyConsultations(
+    public Result<List<ConsultationSummary>> getMyConsultations(
             @RequestHeader("Authorization") String token) {
         
         // 提取用户ID和类型
@@ -98,13 +117,15 @@ public class ConsultationChatController {
         }
     }
 
-    @Operation(summary = "分页获取我的问诊列表")
+    @Operation(summary = "分页获取我的问诊列表", description = "下一页传入返回的nextCursor；需要总数时传withTotal=true")
     @GetMapping("/consultations/mine/page")
-    public Result<PageResult<ConsultationChat>> getMyConsultationsPage(
+    public Result<PageResult<ConsultationSummary>> getMyConsultationsPage(
             @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         
         // 提取用户ID和类型
         String actualToken = token.replace("Bearer ", "");
@@ -115,13 +136,13 @@ public class ConsultationChatController {
         if ("1".equals(userType)) {
             // 医生 - 支持状态过滤
             if (status != null && !status.trim().isEmpty()) {
-                return consultationChatService.getDoctorConsultationsPageByStatus(userId, page, size, status);
+                return consultationChatService.getDoctorConsultationsPageByStatus(userId, page, size, status, cursor, withTotal);
             } else {
-                return consultationChatService.getDoctorConsultationsPage(userId, page, size);
+                return consultationChatService.getDoctorConsultationsPage(userId, page, size, cursor, withTotal);
             }
         } else {
             // 患者
-            return consultationChatService.getPatientConsultationsPage(userId, page, size);
+            return consultationChatService.getPatientConsultationsPage(userId, page, size, cursor, withTotal);
         }
     }
 
@@ -173,9 +194,36 @@ public class ConsultationChatController {
         return consultationChatService.markMessageAsRead(consultationNo, messageId, userId);
     }
 
+    @Operation(summary = "标记已读到指定消息", description = "已读到upToSeq（包含）之前的全部消息，upToSeq为空时标记全部已读")
+    @PostMapping("/consultation/{consultationNo}/read")
+    public Result<Void> markReadUpTo(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String consultationNo,
+            @RequestParam(required = false) Long upToSeq) {
+        
+        // 提取用户ID
+        String actualToken = token.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(actualToken);
+        
+        return consultationChatService.markReadUpTo(consultationNo, userId, upToSeq);
+    }
+
+    @Operation(summary = "获取消息列表", description = "按最后消息时间倒序的问诊及各问诊未读数、未读总数")
+    @GetMapping("/inbox")
+    public Result<InboxResponse> getInbox(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        // 提取用户ID
+        String actualToken = token.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(actualToken);
+        
+        return consultationChatService.getInbox(userId, limit);
+    }
+
     @Operation(summary = "获取活跃问诊")
     @GetMapping("/consultations/active")
-    public Result<List<ConsultationChat>> getActiveConsultations(
+    public Result<List<ConsultationSummary>> getActiveConsultations(
             @RequestHeader("Authorization") String token) {
         
         // 提取用户ID
@@ -247,7 +295,7 @@ public class ConsultationChatController {
 
     @Operation(summary = "获取最近咨询列表")
     @GetMapping("/consultations/recent")
-    public Result<List<ConsultationChat>> getRecentConsultations(
+    public Result<List<ConsultationSummary>> getRecentConsultations(
             @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "5") int limit) {
         
@@ -8,19 +8,33 @@ import org.example.tlbglxt.common.Result;
 import org.example.tlbglxt.dto.request.health.AddBloodGlucoseRequest;
 import org.example.tlbglxt.dto.request.health.AddBloodPressureRequest;
 import org.example.tlbglxt.dto.request.health.AddWeightRequest;
+import org.example.tlbglxt.dto.request.health.BulkBloodGlucoseRequest;
 import org.example.tlbglxt.dto.request.health.QueryHealthRecordRequest;
 import org.example.tlbglxt.dto.response.health.BloodGlucoseRecordResponse;
 import org.example.tlbglxt.dto.response.health.BloodPressureRecordResponse;
+import org.example.tlbglxt.dto.response.health.BulkImportResponse;
+import org.example.tlbglxt.dto.response.health.HealthTrendResponse;
+import org.example.tlbglxt.service.GlucoseIngestService;
+import org.example.tlbglxt.service.HealthExportService;
 import org.example.tlbglxt.service.HealthRecordService;
 import org.example.tlbglxt.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 健康记录控制器
@@ -37,6 +51,12 @@ public class HealthRecordController {
     @Autowired
     private HealthRecordService healthRecordService;
 
+    @Autowired
+    private HealthExportService healthExportService;
+
+    @Autowired
+    private GlucoseIngestService glucoseIngestService;
+
     @Autowired
     private JwtUtil jwtUtil;
     
@@ -86,6 +106,61 @@ public class HealthRecordController {
         return Result.success("血糖记录添加成功", result);
     }
 
+    /**
+     * 批量导入血糖记录（JSON）
+     */
+    @Operation(summary = "批量导入血糖记录", description = "血糖仪/CGM同步，逐条返回导入结果，重复记录自动跳过")
+    @PostMapping(value = "/glucose/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Result<BulkImportResponse> importBloodGlucoseRecords(
+            @RequestHeader("Authorization") String authorization,
+            @Valid @RequestBody BulkBloodGlucoseRequest request) {
+
+        String token = authorization.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        log.info("批量导入血糖记录请求，用户ID：{}，记录数：{}", userId, request.getRecords().size());
+
+        BulkImportResponse result = healthRecordService.importBloodGlucoseRecords(userId, request.getRecords());
+
+        return Result.success("血糖记录导入完成", result);
+    }
+
+    /**
+     * 连续血糖监测读数上报
+     */
+    @Operation(summary = "上报连续血糖监测读数",
+            description = "CGM等设备高频上报，校验后写入采集队列立即返回，由后台异步批量入库；手动录入请使用添加血糖记录接口")
+    @PostMapping("/glucose/ingest")
+    public Result<BulkImportResponse> ingestBloodGlucoseReadings(
+            @RequestHeader("Authorization") String authorization,
+            @Valid @RequestBody BulkBloodGlucoseRequest request) {
+
+        String token = authorization.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(token);
+
+        BulkImportResponse result = glucoseIngestService.enqueue(userId, request.getRecords());
+
+        return Result.success("血糖读数已接收", result);
+    }
+
+    /**
+     * 批量导入血糖记录（CSV）
+     */
+    @Operation(summary = "以CSV批量导入血糖记录",
+            description = "首行为表头：value,measureType,measureTime,mealType,note，测量时间格式为yyyy-MM-dd HH:mm:ss")
+    @PostMapping(value = "/glucose/bulk", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public Result<BulkImportResponse> importBloodGlucoseCsv(
+            @RequestHeader("Authorization") String authorization,
+            @RequestBody String csv) {
+
+        String token = authorization.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(token);
+        log.info("CSV批量导入血糖记录请求，用户ID：{}，内容长度：{}", userId, csv.length());
+
+        BulkImportResponse result = healthRecordService.importBloodGlucoseCsv(userId, csv);
+
+        return Result.success("血糖记录导入完成", result);
+    }
+
     /**
      * 更新血糖记录
      */
@@ -156,7 +231,7 @@ public class HealthRecordController {
      */
     @Operation(summary = "获取血糖记录", description = "查询用户血糖记录")
     @GetMapping("/glucose")
-    public Result<BloodGlucoseRecordResponse> getBloodGlucoseRecords(
+    public Mono<Result<BloodGlucoseRecordResponse>> getBloodGlucoseRecords(
             @RequestHeader("Authorization") String authorization,
             @Parameter(description = "开始时间") @RequestParam(required = false) 
             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
@@ -183,9 +258,8 @@ public class HealthRecordController {
         queryRequest.setSortField(sortField);
         queryRequest.setSortOrder(sortOrder);
         
-        BloodGlucoseRecordResponse response = healthRecordService.getBloodGlucoseRecords(userId, queryRequest);
-        
-        return Result.success("血糖记录查询成功", response);
+        return healthRecordService.getBloodGlucoseRecords(userId, queryRequest)
+                .map(response -> Result.success("血糖记录查询成功", response));
     }
 
     /**
@@ -193,7 +267,7 @@ public class HealthRecordController {
      */
     @Operation(summary = "获取血压记录", description = "查询用户血压记录")
     @GetMapping("/pressure")
-    public Result<BloodPressureRecordResponse> getBloodPressureRecords(
+    public Mono<Result<BloodPressureRecordResponse>> getBloodPressureRecords(
             @RequestHeader("Authorization") String authorization,
             @Parameter(description = "开始时间") @RequestParam(required = false) 
             @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
@@ -220,9 +294,8 @@ public class HealthRecordController {
         queryRequest.setSortField(sortField);
         queryRequest.setSortOrder(sortOrder);
         
-        BloodPressureRecordResponse response = healthRecordService.getBloodPressureRecords(userId, queryRequest);
-        
-        return Result.success("血压记录查询成功", response);
+        return healthRecordService.getBloodPressureRecords(userId, queryRequest)
+                .map(response -> Result.success("血压记录查询成功", response));
     }
 
     /**
@@ -330,20 +403,44 @@ public class HealthRecordController {
      */
     @Operation(summary = "获取健康数据趋势", description = "获取指定天数的健康数据趋势")
     @GetMapping("/trend")
-    public Result<Object> getHealthDataTrend(
+    public Mono<Result<HealthTrendResponse>> getHealthDataTrend(
             @RequestHeader("Authorization") String authorization,
             @Parameter(description = "数据类型") @RequestParam String dataType,
-            @Parameter(description = "天数") @RequestParam(defaultValue = "30") Integer days) {
+            @Parameter(description = "天数") @RequestParam(defaultValue = "30") Integer days,
+            @Parameter(description = "最大返回点数") @RequestParam(required = false) Integer maxPoints,
+            @Parameter(description = "降采样方式（lttb/envelope/daily）") @RequestParam(defaultValue = "lttb") String sampling) {
         
-        log.info("获取健康数据趋势请求，数据类型：{}，天数：{}", dataType, days);
+        log.info("获取健康数据趋势请求，数据类型：{}，天数：{}，最大点数：{}，降采样：{}", dataType, days, maxPoints, sampling);
         
         // 从JWT令牌中获取用户ID
         String token = authorization.replace("Bearer ", "");
         Long userId = jwtUtil.getUserIdFromToken(token);
         
-        Object trend = healthRecordService.getHealthDataTrend(userId, dataType, days);
-        
-        return Result.success("健康数据趋势查询成功", trend);
+        return healthRecordService.getHealthDataTrend(userId, dataType, days, maxPoints, sampling)
+                .map(trend -> Result.success("健康数据趋势查询成功", trend));
+    }
+
+    /**
+     * 导出健康数据
+     */
+    @Operation(summary = "导出健康数据", description = "按测量时间顺序流式导出全部健康记录（CSV或NDJSON），客户端支持时以gzip压缩")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHealthData(
+            @RequestHeader("Authorization") String authorization,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @Parameter(description = "导出格式（csv/ndjson）") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "数据类型，逗号分隔（glucose,pressure,weight），默认全部") @RequestParam(required = false) String metrics,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+
+        String token = authorization.replace("Bearer ", "");
+        Long userId = jwtUtil.getUserIdFromToken(token);
+
+        log.info("导出健康数据请求，用户ID：{}，格式：{}，数据类型：{}", userId, format, metrics);
+
+        return buildExportResponse(userId, format, metrics, startTime, endTime, acceptEncoding);
     }
 
     /**
@@ -488,10 +585,12 @@ public class HealthRecordController {
      */
     @Operation(summary = "医生查询患者血糖趋势", description = "医生端查询指定患者的血糖趋势数据")
     @GetMapping("/doctor/patient/{patientId}/glucose/trend")
-    public Result<Object> getPatientBloodGlucoseTrend(
+    public Mono<Result<HealthTrendResponse>> getPatientBloodGlucoseTrend(
             @RequestHeader("Authorization") String authorization,
             @Parameter(description = "患者用户ID") @PathVariable Long patientId,
-            @Parameter(description = "天数") @RequestParam(defaultValue = "30") Integer days) {
+            @Parameter(description = "天数") @RequestParam(defaultValue = "30") Integer days,
+            @Parameter(description = "最大返回点数") @RequestParam(required = false) Integer maxPoints,
+            @Parameter(description = "降采样方式（lttb/envelope/daily）") @RequestParam(defaultValue = "lttb") String sampling) {
         
         log.info("医生查询患者血糖趋势请求，患者ID：{}，天数：{}", patientId, days);
         
@@ -505,11 +604,11 @@ public class HealthRecordController {
         // 可以通过检查是否存在活跃的咨询记录来验证
         // 临时允许所有医生查看所有患者数据（仅用于开发测试）
         
-        Object trend = healthRecordService.getHealthDataTrend(patientId, "glucose", days);
-        
-        log.info("血糖趋势数据查询完成，患者ID：{}，返回数据：{}", patientId, trend);
-        
-        return Result.success("患者血糖趋势查询成功", trend);
+        return healthRecordService.getHealthDataTrend(patientId, "glucose", days, maxPoints, sampling)
+                .map(trend -> {
+                    log.info("血糖趋势数据查询完成，患者ID：{}，返回点数：{}", patientId, trend.getData().size());
+                    return Result.success("患者血糖趋势查询成功", trend);
+                });
     }
     
     /**
@@ -517,10 +616,12 @@ public class HealthRecordController {
      */
     @Operation(summary = "医生查询患者血压趋势", description = "医生端查询指定患者的血压趋势数据")
     @GetMapping("/doctor/patient/{patientId}/pressure/trend")
-    public Result<Object> getPatientBloodPressureTrend(
+    public Mono<Result<HealthTrendResponse>> getPatientBloodPressureTrend(
             @RequestHeader("Authorization") String authorization,
             @Parameter(description = "患者用户ID") @PathVariable Long patientId,
-            @Parameter(description = "天数") @RequestParam(defaultValue = "30") Integer days) {
+            @Parameter(description = "天数") @RequestParam(defaultValue = "30") Integer days,
+            @Parameter(description = "最大返回点数") @RequestParam(required = false) Integer maxPoints,
+            @Parameter(description = "降采样方式（lttb/envelope/daily）") @RequestParam(defaultValue = "lttb") String sampling) {
         
         log.info("医生查询患者血压趋势请求，患者ID：{}，天数：{}", patientId, days);
         
@@ -534,11 +635,38 @@ public class HealthRecordController {
         // 可以通过检查是否存在活跃的咨询记录来验证
         // 临时允许所有医生查看所有患者数据（仅用于开发测试）
         
-        Object trend = healthRecordService.getHealthDataTrend(patientId, "pressure", days);
-        
-        log.info("血压趋势数据查询完成，患者ID：{}，返回数据：{}", patientId, trend);
-        
-        return Result.success("患者血压趋势查询成功", trend);
+        return healthRecordService.getHealthDataTrend(patientId, "pressure", days, maxPoints, sampling)
+                .map(trend -> {
+                    log.info("血压趋势数据查询完成，患者ID：{}，返回点数：{}", patientId, trend.getData().size());
+                    return Result.success("患者血压趋势查询成功", trend);
+                });
+    }
+
+    /**
+     * 医生导出患者健康数据
+     */
+    @Operation(summary = "医生导出患者健康数据", description = "医生端流式导出与其有问诊关系的患者的健康记录")
+    @GetMapping("/doctor/patient/{patientId}/export")
+    public ResponseEntity<StreamingResponseBody> exportPatientHealthData(
+            @RequestHeader("Authorization") String authorization,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @Parameter(description = "患者用户ID") @PathVariable Long patientId,
+            @Parameter(description = "导出格式（csv/ndjson）") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "数据类型，逗号分隔（glucose,pressure,weight），默认全部") @RequestParam(required = false) String metrics,
+            @Parameter(description = "开始时间") @RequestParam(required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false)
+            @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
+
+        String token = authorization.replace("Bearer ", "");
+        Long doctorId = jwtUtil.getUserIdFromToken(token);
+
+        log.info("医生导出患者健康数据请求，医生ID：{}，患者ID：{}，格式：{}，数据类型：{}", doctorId, patientId, format, metrics);
+
+        // 导出的是完整历史，只允许与患者有问诊关系的医生导出
+        healthExportService.checkDoctorAccess(doctorId, patientId);
+
+        return buildExportResponse(patientId, format, metrics, startTime, endTime, acceptEncoding);
     }
     
     /**
@@ -568,5 +696,36 @@ public class HealthRecordController {
         return Result.success("患者健康数据概览查询成功", statistics);
     }
 
+    /**
+     * 构建流式导出响应：参数在开始写出前校验，写出时逐条从数据库游标读取
+     */
+    private ResponseEntity<StreamingResponseBody> buildExportResponse(Long userId, String format, String metrics,
+                                                                      LocalDateTime startTime, LocalDateTime endTime,
+                                                                      String acceptEncoding) {
+        String exportFormat = healthExportService.resolveFormat(format);
+        List<String> exportMetrics = healthExportService.resolveMetrics(metrics);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String fileName = "health-export-" + userId + "-" + LocalDate.now() + "." + exportFormat;
 
-} 
\ No newline at end of file
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 16 * 1024)) {
+                    healthExportService.export(userId, exportFormat, exportMetrics, startTime, endTime, gzipStream);
+                }
+            } else {
+                healthExportService.export(userId, exportFormat, exportMetrics, startTime, endTime, outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(HealthExportService.FORMAT_NDJSON.equals(exportFormat)
+                        ? new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)
+                        : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+}
@@ -8,6 +8,7 @@ import org.example.tlbglxt.service.ConsultationChatService;
 import org.example.tlbglxt.service.DoctorService;
 import org.example.tlbglxt.service.UserService;
 import org.example.tlbglxt.util.JwtUtil;
+import org.example.tlbglxt.util.ParallelLookup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +17,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * 管理员数据看板控制器
@@ -42,6 +44,9 @@ public class AdminDashboardController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ParallelLookup parallelLookup;
+
     /**
      * 获取系统统计数据
      */
@@ -54,19 +59,17 @@ public class AdminDashboardController {
                 return Result.error("无权限访问");
             }
 
+            // 用户、医生、咨询三组统计共十余次计数查询，全部并行执行
             Map<String, Object> stats = new HashMap<>();
-            
-            // 获取用户统计
-            Map<String, Object> userStats = getUserStatistics();
-            stats.put("users", userStats);
-            
-            // 获取医生统计
-            Map<String, Object> doctorStats = getDoctorStatistics();
-            stats.put("doctors", doctorStats);
-            
-            // 获取咨询统计
-            Map<String, Object> consultationStats = getConsultationStatistics();
-            stats.put("consultations", consultationStats);
+            try (ParallelLookup.Scope scope = parallelLookup.open()) {
+                Supplier<Map<String, Object>> userStats = forkUserStatistics(scope);
+                Supplier<Map<String, Object>> doctorStats = forkDoctorStatistics(scope);
+                Supplier<Map<String, Object>> consultationStats = forkConsultationStatistics(scope);
+                scope.join();
+                stats.put("users", userStats.get());
+                stats.put("doctors", doctorStats.get());
+                stats.put("consultations", consultationStats.get());
+            }
             
             return Result.success(stats);
             
@@ -228,74 +231,123 @@ public class AdminDashboardController {
      * 获取用户统计数据
      */
     private Map<String, Object> getUserStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
+        try (ParallelLookup.Scope scope = parallelLookup.open()) {
+            Supplier<Map<String, Object>> stats = forkUserStatistics(scope);
+            scope.join();
+            return stats.get();
+        }
+    }
+
+    /**
+     * 获取医生统计数据
+     */
+    private Map<String, Object> getDoctorStatistics() {
+        try (ParallelLookup.Scope scope = parallelLookup.open()) {
+            Supplier<Map<String, Object>> stats = forkDoctorStatistics(scope);
+            scope.join();
+            return stats.get();
+        }
+    }
+
+    /**
+     * 获取咨询统计数据
+     */
+    private Map<String, Object> getConsultationStatistics() {
+        try (ParallelLookup.Scope scope = parallelLookup.open()) {
+            Supplier<Map<String, Object>> stats = forkConsultationStatistics(scope);
+            scope.join();
+            return stats.get();
+        }
+    }
+
+    /**
+     * 提交用户统计查询，返回的Supplier需在join之后调用
+     */
+    private Supplier<Map<String, Object>> forkUserStatistics(ParallelLookup.Scope scope) {
         // 总用户数
-        stats.put("total", userService.getTotalUserCount());
+        ParallelLookup.Task<Long> total = scope.fork(userService::getTotalUserCount);
         
         // 活跃用户数（最近30天登录）
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        stats.put("active", userService.getActiveUserCount(thirtyDaysAgo));
+        ParallelLookup.Task<Long> active = scope.fork(() -> userService.getActiveUserCount(thirtyDaysAgo));
         
         // 今日新增用户数
         LocalDate today = LocalDate.now();
         LocalDateTime todayStart = today.atStartOfDay();
         LocalDateTime todayEnd = today.atTime(LocalTime.MAX);
-        stats.put("newToday", userService.getNewUserCount(todayStart, todayEnd));
+        ParallelLookup.Task<Long> newToday = scope.fork(() -> userService.getNewUserCount(todayStart, todayEnd));
         
         // 在线用户数（基于Redis的真实在线状态）
-        long onlinePatients = userService.getOnlineUserCountFromRedisByType(0); // 普通用户
-        long onlineDoctors = userService.getOnlineUserCountFromRedisByType(1); // 医生用户
-        long onlineAdmins = userService.getOnlineUserCountFromRedisByType(2); // 管理员用户
-        stats.put("online", onlinePatients + onlineDoctors + onlineAdmins);
+        ParallelLookup.Task<Long> onlinePatients = scope.fork(() -> userService.getOnlineUserCountFromRedisByType(0)); // 普通用户
+        ParallelLookup.Task<Long> onlineDoctors = scope.fork(() -> userService.getOnlineUserCountFromRedisByType(1)); // 医生用户
+        ParallelLookup.Task<Long> onlineAdmins = scope.fork(() -> userService.getOnlineUserCountFromRedisByType(2)); // 管理员用户
         
-        return stats;
+        return () -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("total", total.get());
+            stats.put("active", active.get());
+            stats.put("newToday", newToday.get());
+            stats.put("online", onlinePatients.get() + onlineDoctors.get() + onlineAdmins.get());
+            return stats;
+        };
     }
 
     /**
-     * 获取医生统计数据
+     * 提交医生统计查询，返回的Supplier需在join之后调用
      */
-    private Map<String, Object> getDoctorStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
+    private Supplier<Map<String, Object>> forkDoctorStatistics(ParallelLookup.Scope scope) {
         // 总医生数
-        stats.put("totalDoctors", doctorService.getTotalDoctorCount());
+        ParallelLookup.Task<Long> totalDoctors = scope.fork(doctorService::getTotalDoctorCount);
         
         // 活跃医生数（最近30天登录）
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        stats.put("activeDoctors", doctorService.getActiveDoctorCount(thirtyDaysAgo));
+        ParallelLookup.Task<Long> activeDoctors = scope.fork(() -> doctorService.getActiveDoctorCount(thirtyDaysAgo));
         
         // 在线医生数
-        stats.put("onlineDoctors", doctorService.getOnlineDoctorCount());
+        ParallelLookup.Task<Long> onlineDoctors = scope.fork(doctorService::getOnlineDoctorCount);
         
-        return stats;
+        return () -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalDoctors", totalDoctors.get());
+            stats.put("activeDoctors", activeDoctors.get());
+            stats.put("onlineDoctors", onlineDoctors.get());
+            return stats;
+        };
     }
 
     /**
-     * 获取咨询统计数据
+     * 提交咨询统计查询，返回的Supplier需在join之后调用
      */
-    private Map<String, Object> getConsultationStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
+    private Supplier<Map<String, Object>> forkConsultationStatistics(ParallelLookup.Scope scope) {
         // 总咨询数
-        stats.put("totalConsultations", consultationChatService.getTotalConsultationCount());
+        ParallelLookup.Task<Long> totalConsultations = scope.fork(consultationChatService::getTotalConsultationCount);
         
         // 今日咨询数
         LocalDate today = LocalDate.now();
         LocalDateTime todayStart = today.atStartOfDay();
         LocalDateTime todayEnd = today.atTime(LocalTime.MAX);
-        stats.put("todayConsultations", consultationChatService.getConsultationCountByDateRange(todayStart, todayEnd));
+        ParallelLookup.Task<Long> todayConsultations =
+                scope.fork(() -> consultationChatService.getConsultationCountByDateRange(todayStart, todayEnd));
         
         // 总已完成咨询数
-        stats.put("totalCompletedConsultations", consultationChatService.getCompletedConsultationCount());
+        ParallelLookup.Task<Long> totalCompleted = scope.fork(consultationChatService::getCompletedConsultationCount);
         
         // 今日已完成咨询数
-        stats.put("todayCompletedConsultations", consultationChatService.getCompletedConsultationCountByDate(todayStart, todayEnd));
+        ParallelLookup.Task<Long> todayCompleted =
+                scope.fork(() -> consultationChatService.getCompletedConsultationCountByDate(todayStart, todayEnd));
         
         // 正在进行的咨询数
-        stats.put("ongoingConsultations", consultationChatService.getOngoingConsultationCount());
+        ParallelLookup.Task<Long> ongoing = scope.fork(consultationChatService::getOngoingConsultationCount);
         
-        return stats;
+        return () -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("totalConsultations", totalConsultations.get());
+            stats.put("todayConsultations", todayConsultations.get());
+            stats.put("totalCompletedConsultations", totalCompleted.get());
+            stats.put("todayCompletedConsultations", todayCompleted.get());
+            stats.put("ongoingConsultations", ongoing.get());
+            return stats;
+        };
     }
 
     /**
@@ -0,0 +1,133 @@
+package org.example.tlbglxt.controller.user;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.common.Result;
+import org.example.tlbglxt.dto.response.MigrationStatusResponse;
+import org.example.tlbglxt.service.DataMigrationService;
+import org.example.tlbglxt.service.UserService;
+import org.example.tlbglxt.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 管理员数据迁移控制器
+ * 迁移在后台分批执行，接口立即返回当前状态
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Slf4j
+@Tag(name = "管理员数据迁移", description = "数据迁移的启动、暂停、重置与进度查询")
+@RestController
+@RequestMapping("/api/v1/admin/migrations")
+public class AdminMigrationController {
+
+    @Autowired
+    private DataMigrationService dataMigrationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * 查询全部迁移状态
+     */
+    @Operation(summary = "查询迁移列表", description = "查询已注册迁移的状态与进度")
+    @GetMapping
+    public Result<List<MigrationStatusResponse>> listMigrations(@RequestHeader("Authorization") String token) {
+        if (!isAdmin(token)) {
+            return Result.error("无权限访问");
+        }
+        return Result.success(dataMigrationService.listMigrations());
+    }
+
+    /**
+     * 查询单个迁移状态
+     */
+    @Operation(summary = "查询迁移状态", description = "查询迁移的状态与进度")
+    @GetMapping("/{name}")
+    public Result<MigrationStatusResponse> getMigration(@RequestHeader("Authorization") String token,
+                                                        @PathVariable String name) {
+        if (!isAdmin(token)) {
+            return Result.error("无权限访问");
+        }
+        return Result.success(dataMigrationService.getMigration(name));
+    }
+
+    /**
+     * 启动或继续迁移
+     */
+    @Operation(summary = "启动迁移", description = "启动迁移或从检查点继续执行")
+    @PostMapping("/{name}/start")
+    public Result<MigrationStatusResponse> startMigration(@RequestHeader("Authorization") String token,
+                                                          @PathVariable String name) {
+        if (!isAdmin(token)) {
+            return Result.error("无权限访问");
+        }
+        log.info("启动数据迁移: {}", name);
+        return Result.success(dataMigrationService.startMigration(name));
+    }
+
+    /**
+     * 暂停迁移
+     */
+    @Operation(summary = "暂停迁移", description = "当前批次写完后停止，可从检查点继续")
+    @PostMapping("/{name}/pause")
+    public Result<MigrationStatusResponse> pauseMigration(@RequestHeader("Authorization") String token,
+                                                          @PathVariable String name) {
+        if (!isAdmin(token)) {
+            return Result.error("无权限访问");
+        }
+        log.info("暂停数据迁移: {}", name);
+        return Result.success(dataMigrationService.pauseMigration(name));
+    }
+
+    /**
+     * 重置迁移
+     */
+    @Operation(summary = "重置迁移", description = "删除检查点，下次启动时从头执行")
+    @PostMapping("/{name}/reset")
+    public Result<MigrationStatusResponse> resetMigration(@RequestHeader("Authorization") String token,
+                                                          @PathVariable String name) {
+        if (!isAdmin(token)) {
+            return Result.error("无权限访问");
+        }
+        log.info("重置数据迁移: {}", name);
+        return Result.success(dataMigrationService.resetMigration(name));
+    }
+
+    // ========================= 私有方法 =========================
+
+    /**
+     * 验证是否为管理员用户
+     */
+    private boolean isAdmin(String token) {
+        try {
+            if (token == null || !token.startsWith("Bearer ")) {
+                return false;
+            }
+
+            String jwtToken = token.substring(7);
+            Long userId = jwtUtil.getUserIdFromToken(jwtToken);
+
+            if (userId == null) {
+                return false;
+            }
+
+            Result<org.example.tlbglxt.entity.User> userResult = userService.getUserById(userId);
+            return userResult.isSuccess() &&
+                   userResult.getData() != null &&
+                   userResult.getData().getUserType() == 2;
+
+        } catch (Exception e) {
+            log.warn("验证管理员权限失败", e);
+            return false;
+        }
+    }
+}
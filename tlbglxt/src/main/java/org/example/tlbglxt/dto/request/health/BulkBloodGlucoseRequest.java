@@ -0,0 +1,23 @@
+package org.example.tlbglxt.dto.request.health;
+
+import lombok.Data;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * 批量导入血糖记录请求DTO
+ * 各条记录不做整体校验，由服务端逐条校验并返回每条的处理结果
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+public class BulkBloodGlucoseRequest {
+
+    /**
+     * 血糖记录列表
+     */
+    @NotEmpty(message = "导入记录不能为空")
+    private List<AddBloodGlucoseRequest> records;
+}
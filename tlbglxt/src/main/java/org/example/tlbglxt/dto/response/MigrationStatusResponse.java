@@ -0,0 +1,66 @@
+package org.example.tlbglxt.dto.response;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 数据迁移状态响应DTO
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+public class MigrationStatusResponse {
+
+    /**
+     * 迁移名称
+     */
+    private String name;
+
+    /**
+     * 迁移说明
+     */
+    private String description;
+
+    /**
+     * 状态：pending（未执行）/running/paused/completed/failed
+     */
+    private String status;
+
+    /**
+     * 执行迁移的实例
+     */
+    private String owner;
+
+    /**
+     * 已读取的文档数
+     */
+    private Long processed;
+
+    /**
+     * 已修改的文档数
+     */
+    private Long modified;
+
+    /**
+     * 已完成的分区数
+     */
+    private Integer partitionsDone;
+
+    /**
+     * 分区总数
+     */
+    private Integer partitionsTotal;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+
+    private LocalDateTime heartbeat;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,81 @@
+package org.example.tlbglxt.dto.response.chat;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import org.example.tlbglxt.entity.chat.ConsultationChat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 问诊列表摘要DTO
+ * 列表只需要渲染一行，不含消息、诊断、处方与随访计划
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+public class ConsultationSummary {
+
+    /**
+     * MongoDB文档ID
+     */
+    private String id;
+
+    /**
+     * 问诊编号
+     */
+    private String consultationNo;
+
+    private Long patientId;
+
+    private Long doctorId;
+
+    /**
+     * 问诊类型：1-图文问诊，2-语音问诊，3-视频问诊
+     */
+    private Integer consultationType;
+
+    /**
+     * 问诊状态：1-待接诊，2-进行中，3-已完成，4-已取消
+     */
+    private Integer status;
+
+    /**
+     * 主诉
+     */
+    private String chiefComplaint;
+
+    private ConsultationChat.PatientInfo patientInfo;
+
+    private ConsultationChat.DoctorInfo doctorInfo;
+
+    private BigDecimal fee;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime createTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime updateTime;
+
+    /**
+     * 最后一条消息预览
+     */
+    private String lastMessagePreview;
+
+    /**
+     * 最后一条消息的发送者类型：patient/doctor
+     */
+    private String lastMessageSenderType;
+
+    /**
+     * 最后一条消息的发送时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime lastMessageTime;
+
+    /**
+     * 当前查看者未读的消息数
+     */
+    private Long unreadCount;
+}
@@ -0,0 +1,46 @@
+package org.example.tlbglxt.dto.response.chat;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 消息列表（收件箱）响应DTO
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+public class InboxResponse {
+
+    /**
+     * 问诊条目，按最后活跃时间倒序
+     */
+    private List<Entry> entries;
+
+    /**
+     * 全部问诊的未读消息总数
+     */
+    private Long totalUnread;
+
+    /**
+     * 有未读消息的问诊数
+     */
+    private Integer unreadConsultations;
+
+    @Data
+    public static class Entry {
+
+        private String consultationNo;
+
+        /**
+         * 最后一条消息的时间
+         */
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+        private LocalDateTime lastActivityTime;
+
+        private Long unreadCount;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.tlbglxt.dto.response.chat;
+
+import lombok.Data;
+import org.example.tlbglxt.entity.chat.ConsultationMessage;
+
+import java.util.List;
+
+/**
+ * 聊天历史分页响应DTO
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+public class MessageHistoryResponse {
+
+    /**
+     * 消息列表，按seq升序
+     */
+    private List<ConsultationMessage> messages;
+
+    /**
+     * 是否还有更早的消息
+     */
+    private Boolean hasMore;
+
+    /**
+     * 加载更早消息时传入的beforeSeq，没有更早的消息时为空
+     */
+    private Long nextBeforeSeq;
+}
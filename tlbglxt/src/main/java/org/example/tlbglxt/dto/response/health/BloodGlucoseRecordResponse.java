@@ -26,6 +26,21 @@ public class BloodGlucoseRecordResponse {
      */
     private List<GlucoseEntryVO> records;
 
+    /**
+     * 符合条件的记录总数
+     */
+    private Long total;
+
+    /**
+     * 当前页码
+     */
+    private Integer current;
+
+    /**
+     * 每页大小
+     */
+    private Integer size;
+
     /**
      * 统计数据
      */
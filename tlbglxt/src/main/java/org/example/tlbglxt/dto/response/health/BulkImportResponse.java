@@ -0,0 +1,88 @@
+package org.example.tlbglxt.dto.response.health;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果响应DTO
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+public class BulkImportResponse {
+
+    /**
+     * 行状态：已导入
+     */
+    public static final String STATUS_ACCEPTED = "accepted";
+
+    /**
+     * 行状态：已写入采集队列，稍后异步入库
+     */
+    public static final String STATUS_QUEUED = "queued";
+
+    /**
+     * 行状态：校验未通过
+     */
+    public static final String STATUS_REJECTED = "rejected";
+
+    /**
+     * 行状态：与已有记录或本批次中前面的记录重复
+     */
+    public static final String STATUS_DUPLICATE = "duplicate";
+
+    /**
+     * 提交的记录总数
+     */
+    private Integer total;
+
+    /**
+     * 导入成功数（异步采集时为入队数）
+     */
+    private Integer acceptedCount;
+
+    /**
+     * 校验未通过数
+     */
+    private Integer rejectedCount;
+
+    /**
+     * 重复跳过数
+     */
+    private Integer duplicateCount;
+
+    /**
+     * 每条记录的处理结果，按提交顺序
+     */
+    private List<RowResult> rows = new ArrayList<>();
+
+    /**
+     * 单条记录的处理结果
+     */
+    @Data
+    public static class RowResult {
+
+        /**
+         * 行号（从1开始，CSV不含表头）
+         */
+        private Integer row;
+
+        /**
+         * 处理状态（accepted/queued/rejected/duplicate）
+         */
+        private String status;
+
+        /**
+         * 导入成功时的记录ID（异步采集时为队列消息ID）
+         */
+        private String id;
+
+        /**
+         * 未导入的原因
+         */
+        private String message;
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.tlbglxt.dto.response.health;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 健康数据趋势响应DTO
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HealthTrendResponse {
+
+    /**
+     * 数据类型（glucose/pressure/weight）
+     */
+    private String dataType;
+
+    /**
+     * 查询天数
+     */
+    private Integer days;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime endTime;
+
+    /**
+     * 趋势数据点，按时间升序
+     */
+    private List<TrendPoint> data;
+
+    /**
+     * 降采样前的原始点数
+     */
+    private Integer rawCount;
+
+    /**
+     * 实际使用的降采样方式（lttb/envelope/daily/none）
+     */
+    private String sampling;
+
+    /**
+     * 时间范围内的统计信息（血糖、血压）
+     */
+    private Map<String, Object> statistics;
+
+    /**
+     * 趋势数据点
+     * 原始点只包含对应指标的数值；包络与按天汇总的点为区间平均值，并带有Min/Max与记录数；为null的字段不输出
+     */
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class TrendPoint {
+
+        /**
+         * 测量时间（包络、按天汇总时为区间开始时间）
+         */
+        private LocalDateTime time;
+
+        /**
+         * 区间内记录数（仅包络、按天汇总）
+         */
+        private Integer count;
+
+        /**
+         * 血糖测量类型
+         */
+        private String type;
+
+        /**
+         * 血糖值 (mmol/L)
+         */
+        private BigDecimal value;
+
+        private BigDecimal valueMin;
+
+        private BigDecimal valueMax;
+
+        /**
+         * 收缩压 (mmHg)
+         */
+        private BigDecimal systolic;
+
+        private BigDecimal systolicMin;
+
+        private BigDecimal systolicMax;
+
+        /**
+         * 舒张压 (mmHg)
+         */
+        private BigDecimal diastolic;
+
+        private BigDecimal diastolicMin;
+
+        private BigDecimal diastolicMax;
+
+        /**
+         * 心率 (bpm)
+         */
+        private BigDecimal heartRate;
+
+        private BigDecimal heartRateMin;
+
+        private BigDecimal heartRateMax;
+
+        /**
+         * 体重 (kg)
+         */
+        private BigDecimal weight;
+
+        private BigDecimal weightMin;
+
+        private BigDecimal weightMax;
+
+        /**
+         * BMI
+         */
+        private BigDecimal bmi;
+
+        private BigDecimal bmiMin;
+
+        private BigDecimal bmiMax;
+
+        public TrendPoint() {
+        }
+
+        public TrendPoint(LocalDateTime time) {
+            this.time = time;
+        }
+
+        /**
+         * 按序列名设置区间平均值与最小/最大值
+         *
+         * @param series 序列名（value/systolic/diastolic/heartRate/weight/bmi）
+         * @param avg 平均值
+         * @param min 最小值
+         * @param max 最大值
+         */
+        public void putSeries(String series, BigDecimal avg, BigDecimal min, BigDecimal max) {
+            switch (series) {
+                case "value":
+                    value = avg;
+                    valueMin = min;
+                    valueMax = max;
+                    break;
+                case "systolic":
+                    systolic = avg;
+                    systolicMin = min;
+                    systolicMax = max;
+                    break;
+                case "diastolic":
+                    diastolic = avg;
+                    diastolicMin = min;
+                    diastolicMax = max;
+                    break;
+                case "heartRate":
+                    heartRate = avg;
+                    heartRateMin = min;
+                    heartRateMax = max;
+                    break;
+                case "weight":
+                    weight = avg;
+                    weightMin = min;
+                    weightMax = max;
+                    break;
+                case "bmi":
+                    bmi = avg;
+                    bmiMin = min;
+                    bmiMax = max;
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的趋势序列: " + series);
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -13,11 +15,17 @@ import java.util.List;
 
 /**
  * 问诊聊天记录实体
+ * 列表按(createTime, _id)倒序游标分页，各列表的查询条件都有对应的复合索引
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "consultation_chats")
+@CompoundIndexes({
+        @CompoundIndex(name = "doctor_status_create_idx", def = "{'doctorId': 1, 'status': 1, 'createTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "doctor_create_idx", def = "{'doctorId': 1, 'createTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "patient_create_idx", def = "{'patientId': 1, 'createTime': -1, '_id': -1}")
+})
 public class ConsultationChat {
     
     /**
@@ -84,9 +92,29 @@ public class ConsultationChat {
     private LocalDateTime endTime;
     
     /**
-     * 消息列表
+     * 最近的消息，按seq升序，最多保留 chat.message-tail-size 条；完整记录见 consultation_messages
      */
     private List<ConsultationMessage> messages;
+
+    /**
+     * 已分配的最大消息序号；为空表示消息尚未迁移到 consultation_messages
+     */
+    private Long lastSeq;
+
+    /**
+     * 最后一条消息摘要
+     */
+    private LastMessage lastMessage;
+
+    /**
+     * 患者已读到的消息序号（包含），对方发送的seq更大的消息为未读
+     */
+    private Long patientReadSeq;
+
+    /**
+     * 医生已读到的消息序号（包含）
+     */
+    private Long doctorReadSeq;
     
     /**
      * 诊断信息
@@ -134,6 +162,23 @@ public class ConsultationChat {
         private String avatar;  // 患者头像
     }
     
+    /**
+     * 最后一条消息摘要嵌套类
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LastMessage {
+        private Long seq;
+        private String messageId;
+        private Long senderId;
+        private String senderType;
+        private String messageType;
+        private String preview;  // 文本消息截取前若干字，其他类型为类型说明
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+        private LocalDateTime sendTime;
+    }
+
     /**
      * 医生信息嵌套类
      */
@@ -4,16 +4,45 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 /**
  * 问诊聊天消息实体
+ * 完整的聊天记录保存在 consultation_messages 集合，按(consultationNo, seq)分页读取；
+ * 问诊文档中只嵌入最近的若干条
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Document(collection = "consultation_messages")
+@CompoundIndexes({
+        @CompoundIndex(name = "consultation_seq_idx", def = "{'consultationNo': 1, 'seq': 1}", unique = true),
+        @CompoundIndex(name = "consultation_message_id_idx", def = "{'consultationNo': 1, 'messageId': 1}"),
+        @CompoundIndex(name = "consultation_unread_idx", def = "{'consultationNo': 1, 'senderId': 1}",
+                partialFilter = "{'isRead': false}")
+})
 public class ConsultationMessage {
+
+    /**
+     * MongoDB文档ID
+     */
+    @Id
+    private String id;
+
+    /**
+     * 问诊编号
+     */
+    private String consultationNo;
+
+    /**
+     * 消息序号，同一问诊内从1开始递增
+     */
+    private Long seq;
     
     /**
      * 消息ID
@@ -72,7 +101,7 @@ public class ConsultationMessage {
     private LocalDateTime sendTime;
     
     /**
-     * 是否已读
+     * 是否已读；读取聊天记录时按接收方的已读序号（patientReadSeq/doctorReadSeq）计算，未记录已读序号的旧问诊沿用该字段
      */
     private Boolean isRead = false;
 } 
\ No newline at end of file
@@ -0,0 +1,95 @@
+package org.example.tlbglxt.entity.health;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 血糖记录分桶实体类
+ * 每个用户每天一个（或多个）桶，桶内条目数有上限，避免单文档无限增长
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Document(collection = "blood_glucose_buckets")
+@CompoundIndexes({
+        @CompoundIndex(name = "user_bucket_date_idx", def = "{'userId': 1, 'bucketDate': 1}"),
+        @CompoundIndex(name = "user_entry_id_idx", def = "{'userId': 1, 'entries.id': 1}")
+})
+public class BloodGlucoseBucket extends BaseHealthRecord {
+
+    /**
+     * 单个桶最多容纳的条目数（CGM每5分钟一条，每天288条）
+     */
+    public static final int MAX_ENTRIES = 500;
+
+    /**
+     * 桶所属日期
+     */
+    @Field("bucketDate")
+    private LocalDate bucketDate;
+
+    /**
+     * 桶内血糖记录列表
+     */
+    @Field("entries")
+    private List<BloodGlucoseRecord.GlucoseEntry> entries;
+
+    /**
+     * 条目是否已按测量时间升序排列；为true时按时间范围的查询在数组上二分查找，缺失时逐条过滤
+     */
+    @Field("entriesSorted")
+    private Boolean entriesSorted;
+
+    /**
+     * 桶内记录数
+     */
+    @Field("entryCount")
+    private Integer entryCount;
+
+    /**
+     * 桶内血糖值之和
+     */
+    @Field(value = "sumValue", targetType = FieldType.DECIMAL128)
+    private BigDecimal sumValue;
+
+    /**
+     * 桶内最低值
+     */
+    @Field(value = "minValue", targetType = FieldType.DECIMAL128)
+    private BigDecimal minValue;
+
+    /**
+     * 桶内最高值
+     */
+    @Field(value = "maxValue", targetType = FieldType.DECIMAL128)
+    private BigDecimal maxValue;
+
+    /**
+     * 桶内正常记录数
+     */
+    @Field("normalCount")
+    private Integer normalCount;
+
+    /**
+     * 桶内高血糖记录数
+     */
+    @Field("highCount")
+    private Integer highCount;
+
+    /**
+     * 桶内低血糖记录数
+     */
+    @Field("lowCount")
+    private Integer lowCount;
+}
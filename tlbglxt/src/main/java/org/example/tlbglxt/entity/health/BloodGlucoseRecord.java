@@ -2,9 +2,11 @@ package org.example.tlbglxt.entity.health;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,11 +25,18 @@ import java.util.UUID;
 public class BloodGlucoseRecord extends BaseHealthRecord {
 
     /**
-     * 血糖记录列表
+     * 血糖记录列表（旧版存储结构，条目已迁移至 blood_glucose_buckets，迁移完成后为空）
      */
     @Field("records")
     private List<GlucoseEntry> records;
 
+    /**
+     * 乐观锁版本号，每次更新由MongoTemplate自动递增；旧文档缺少该字段，第一次更新时补上
+     */
+    @Version
+    @Field("version")
+    private Long version;
+
     /**
      * 统计数据
      */
@@ -98,15 +107,21 @@ public class BloodGlucoseRecord extends BaseHealthRecord {
         /**
          * 最高值
          */
-        @Field("maxValue")
+        @Field(value = "maxValue", targetType = FieldType.DECIMAL128)
         private BigDecimal maxValue;
 
         /**
          * 最低值
          */
-        @Field("minValue")
+        @Field(value = "minValue", targetType = FieldType.DECIMAL128)
         private BigDecimal minValue;
 
+        /**
+         * 血糖值之和（增量维护，用于计算平均值）
+         */
+        @Field(value = "sumValue", targetType = FieldType.DECIMAL128)
+        private BigDecimal sumValue;
+
         /**
          * 记录总数
          */
@@ -2,6 +2,7 @@ package org.example.tlbglxt.entity.health;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -28,6 +29,19 @@ public class BloodPressureRecord extends BaseHealthRecord {
     @Field("records")
     private List<PressureEntry> records;
 
+    /**
+     * 条目是否已按测量时间升序排列；为true时按时间范围的查询在数组上二分查找，缺失时逐条过滤
+     */
+    @Field("entriesSorted")
+    private Boolean entriesSorted;
+
+    /**
+     * 乐观锁版本号，每次更新由MongoTemplate自动递增；旧文档缺少该字段，第一次更新时补上
+     */
+    @Version
+    @Field("version")
+    private Long version;
+
     /**
      * 统计数据
      */
@@ -113,6 +127,30 @@ public class BloodPressureRecord extends BaseHealthRecord {
         @Field("avgHeartRate")
         private BigDecimal avgHeartRate;
 
+        /**
+         * 收缩压之和（增量维护，用于计算平均值）
+         */
+        @Field("sumSystolic")
+        private Long sumSystolic;
+
+        /**
+         * 舒张压之和（增量维护，用于计算平均值）
+         */
+        @Field("sumDiastolic")
+        private Long sumDiastolic;
+
+        /**
+         * 心率之和（增量维护，用于计算平均值）
+         */
+        @Field("sumHeartRate")
+        private Long sumHeartRate;
+
+        /**
+         * 有心率数据的记录数
+         */
+        @Field("heartRateCount")
+        private Integer heartRateCount;
+
         /**
          * 最高收缩压
          */
@@ -0,0 +1,138 @@
+package org.example.tlbglxt.entity.health;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 健康数据日汇总实体类
+ * 每个用户每个指标每天一条，在写入健康记录时同步维护，供趋势与窗口统计查询使用
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Document(collection = "health_daily_rollups")
+@CompoundIndex(name = "user_metric_date_idx", def = "{'userId': 1, 'metric': 1, 'date': 1}", unique = true)
+public class HealthDailyRollup extends BaseHealthRecord {
+
+    /**
+     * 指标：血糖（主数值为血糖值）
+     */
+    public static final String METRIC_GLUCOSE = "glucose";
+
+    /**
+     * 指标：血压（主数值为收缩压）
+     */
+    public static final String METRIC_PRESSURE = "pressure";
+
+    /**
+     * 指标：体重（主数值为体重）
+     */
+    public static final String METRIC_WEIGHT = "weight";
+
+    /**
+     * 指标类型（glucose/pressure/weight）
+     */
+    @Field("metric")
+    private String metric;
+
+    /**
+     * 汇总日期
+     */
+    @Field("date")
+    private LocalDate date;
+
+    /**
+     * 当日记录数
+     */
+    @Field("count")
+    private Integer count;
+
+    /**
+     * 主数值之和
+     */
+    @Field(value = "sum", targetType = FieldType.DECIMAL128)
+    private BigDecimal sum;
+
+    /**
+     * 主数值最小值
+     */
+    @Field(value = "min", targetType = FieldType.DECIMAL128)
+    private BigDecimal min;
+
+    /**
+     * 主数值最大值
+     */
+    @Field(value = "max", targetType = FieldType.DECIMAL128)
+    private BigDecimal max;
+
+    /**
+     * 正常记录数
+     */
+    @Field("normalCount")
+    private Integer normalCount;
+
+    /**
+     * 偏高记录数
+     */
+    @Field("highCount")
+    private Integer highCount;
+
+    /**
+     * 偏低记录数
+     */
+    @Field("lowCount")
+    private Integer lowCount;
+
+    /**
+     * 按测量类型拆分的主数值汇总（血糖为measureType，血压、体重为measureState）
+     */
+    @Field("measureTypes")
+    private Map<String, RollupStats> measureTypes;
+
+    /**
+     * 其他数值序列的汇总（血压：diastolic、heartRate；体重：bmi）
+     */
+    @Field("series")
+    private Map<String, RollupStats> series;
+
+    /**
+     * 数值汇总
+     */
+    @Data
+    public static class RollupStats {
+
+        /**
+         * 记录数
+         */
+        @Field("count")
+        private Integer count;
+
+        /**
+         * 数值之和
+         */
+        @Field(value = "sum", targetType = FieldType.DECIMAL128)
+        private BigDecimal sum;
+
+        /**
+         * 最小值
+         */
+        @Field(value = "min", targetType = FieldType.DECIMAL128)
+        private BigDecimal min;
+
+        /**
+         * 最大值
+         */
+        @Field(value = "max", targetType = FieldType.DECIMAL128)
+        private BigDecimal max;
+    }
+}
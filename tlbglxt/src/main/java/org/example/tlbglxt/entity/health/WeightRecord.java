@@ -2,9 +2,11 @@ package org.example.tlbglxt.entity.health;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,6 +30,19 @@ public class WeightRecord extends BaseHealthRecord {
     @Field("records")
     private List<WeightEntry> records;
 
+    /**
+     * 条目是否已按测量时间升序排列；为true时按时间范围的查询在数组上二分查找，缺失时逐条过滤
+     */
+    @Field("entriesSorted")
+    private Boolean entriesSorted;
+
+    /**
+     * 乐观锁版本号，每次更新由MongoTemplate自动递增；旧文档缺少该字段，第一次更新时补上
+     */
+    @Version
+    @Field("version")
+    private Long version;
+
     /**
      * 统计数据
      */
@@ -134,15 +149,21 @@ public class WeightRecord extends BaseHealthRecord {
         /**
          * 最高体重
          */
-        @Field("maxWeight")
+        @Field(value = "maxWeight", targetType = FieldType.DECIMAL128)
         private BigDecimal maxWeight;
 
         /**
          * 最低体重
          */
-        @Field("minWeight")
+        @Field(value = "minWeight", targetType = FieldType.DECIMAL128)
         private BigDecimal minWeight;
 
+        /**
+         * 体重之和（增量维护，用于计算平均值）
+         */
+        @Field(value = "sumWeight", targetType = FieldType.DECIMAL128)
+        private BigDecimal sumWeight;
+
         /**
          * 当前体重
          */
@@ -155,6 +176,12 @@ public class WeightRecord extends BaseHealthRecord {
         @Field("currentBmi")
         private BigDecimal currentBmi;
 
+        /**
+         * 当前体重对应的测量时间
+         */
+        @Field("currentMeasureTime")
+        private LocalDateTime currentMeasureTime;
+
         /**
          * 目标体重
          */
@@ -0,0 +1,126 @@
+package org.example.tlbglxt.entity.migration;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 数据迁移检查点实体类
+ * 每个迁移一条，记录各分区已处理到的位置；进程中断后从检查点继续，已处理的文档不再重复读取
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Data
+@Document(collection = "migration_checkpoints")
+public class MigrationCheckpoint {
+
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_PAUSED = "paused";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * 迁移名称
+     */
+    @Id
+    private String name;
+
+    /**
+     * 状态：running/paused/completed/failed
+     */
+    @Field("status")
+    private String status;
+
+    /**
+     * 执行迁移的实例
+     */
+    @Field("owner")
+    private String owner;
+
+    /**
+     * 执行实例最近一次写入检查点的时间，超过租约时间未更新视为实例已退出
+     */
+    @Field("heartbeat")
+    private LocalDateTime heartbeat;
+
+    /**
+     * 分区
+     */
+    @Field("partitions")
+    private List<Partition> partitions;
+
+    /**
+     * 已读取的文档数
+     */
+    @Field("processed")
+    private Long processed;
+
+    /**
+     * 已修改的文档数
+     */
+    @Field("modified")
+    private Long modified;
+
+    /**
+     * 失败原因
+     */
+    @Field("error")
+    private String error;
+
+    @Field("startTime")
+    private LocalDateTime startTime;
+
+    @Field("endTime")
+    private LocalDateTime endTime;
+
+    @Field("updateTime")
+    private LocalDateTime updateTime;
+
+    /**
+     * 按分区字段（默认userId）取值划分的分区，区间为[fromUserId, toUserId)
+     */
+    @Data
+    public static class Partition {
+
+        /**
+         * 起始值（包含）
+         */
+        @Field("fromUserId")
+        private Long fromUserId;
+
+        /**
+         * 结束值（不包含），为空表示不设上限
+         */
+        @Field("toUserId")
+        private Long toUserId;
+
+        /**
+         * 已处理的最后一个文档的分区字段值，与lastId一起作为续跑位置
+         */
+        @Field("lastUserId")
+        private Long lastUserId;
+
+        /**
+         * 已处理的最后一个文档的ID
+         */
+        @Field("lastId")
+        private String lastId;
+
+        /**
+         * 分区是否已处理完
+         */
+        @Field("done")
+        private Boolean done;
+
+        @Field("processed")
+        private Long processed;
+
+        @Field("modified")
+        private Long modified;
+    }
+}
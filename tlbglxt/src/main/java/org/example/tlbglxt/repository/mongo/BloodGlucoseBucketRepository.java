@@ -0,0 +1,54 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 血糖分桶Repository
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface BloodGlucoseBucketRepository extends MongoRepository<BloodGlucoseBucket, String>, BloodGlucoseBucketRepositoryCustom {
+
+    /**
+     * 查询用户全部血糖桶，按日期升序
+     *
+     * @param userId 用户ID
+     * @return 血糖桶列表
+     */
+    List<BloodGlucoseBucket> findByUserIdOrderByBucketDateAsc(Long userId);
+
+    /**
+     * 查询用户指定日期范围内的血糖桶（包含边界）
+     *
+     * @param userId 用户ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 血糖桶列表
+     */
+    @Query(value = "{ 'userId': ?0, 'bucketDate': { $gte: ?1, $lte: ?2 } }", sort = "{ 'bucketDate': 1 }")
+    List<BloodGlucoseBucket> findByUserIdAndBucketDateRange(Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 查询用户全部血糖桶的汇总信息（不返回条目）
+     *
+     * @param userId 用户ID
+     * @return 血糖桶汇总列表
+     */
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'entries': 0 }")
+    List<BloodGlucoseBucket> findSummariesByUserId(Long userId);
+
+    /**
+     * 根据用户ID删除全部血糖桶
+     *
+     * @param userId 用户ID
+     */
+    void deleteByUserId(Long userId);
+}
@@ -0,0 +1,117 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 血糖分桶Repository扩展接口
+ * 基于MongoTemplate在服务端原子地修改桶内条目，避免整桶读取-修改-保存
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface BloodGlucoseBucketRepositoryCustom {
+
+    /**
+     * 将条目追加到测量日期对应且未满的血糖桶（upsert + $push），同时累加桶内汇总
+     *
+     * @param userId 用户ID
+     * @param entry 血糖条目
+     * @param level 条目的血糖等级（normal/high/low）
+     */
+    void pushEntry(Long userId, BloodGlucoseRecord.GlucoseEntry entry, String level);
+
+    /**
+     * 将同一测量日期的一批条目一次性追加到未满的血糖桶（upsert + $push $each），同时累加桶内汇总
+     * 条目数不能超过单桶上限；目标日期的桶剩余容量不足时新建一个桶
+     *
+     * @param userId 用户ID
+     * @param bucketDate 测量日期
+     * @param entries 血糖条目，测量日期均为bucketDate
+     * @param levels 与条目一一对应的血糖等级（normal/high/low）
+     */
+    void pushEntries(Long userId, LocalDate bucketDate, List<BloodGlucoseRecord.GlucoseEntry> entries, List<String> levels);
+
+    /**
+     * 按条目ID整体替换桶内的一条血糖记录（arrayFilters $set）
+     *
+     * @param userId 用户ID
+     * @param entryId 条目ID
+     * @param entry 新的血糖条目
+     * @return 修改前的血糖桶，条目不存在时返回null
+     */
+    BloodGlucoseBucket setEntry(Long userId, String entryId, BloodGlucoseRecord.GlucoseEntry entry);
+
+    /**
+     * 按条目ID从所在的血糖桶中删除记录（$pull + $in）
+     *
+     * @param userId 用户ID
+     * @param entryIds 条目ID列表
+     * @return 修改前的血糖桶列表
+     */
+    List<BloodGlucoseBucket> pullEntries(Long userId, Collection<String> entryIds);
+
+    /**
+     * 只从指定的血糖桶中删除记录（$pull + $in），同一条目在其他桶中的副本不受影响
+     *
+     * @param bucketId 血糖桶ID
+     * @param entryIds 条目ID列表
+     * @return 修改前的血糖桶，桶中没有这些条目时返回null
+     */
+    BloodGlucoseBucket pullEntriesFromBucket(String bucketId, Collection<String> entryIds);
+
+    /**
+     * 以$inc把条目的增删计入血糖桶汇总（条目数、合计、各等级数量），新增条目以$min/$max更新最值；
+     * 增量与并发的追加互不覆盖。删除后桶内已无条目时删除该桶
+     * 被删除的条目恰好是最值时，最值需由调用方按 {@link #saveSummary} 重新扫描
+     *
+     * @param bucketId 血糖桶ID
+     * @param added 桶内新增的条目
+     * @param addedLevels 与新增条目一一对应的血糖等级
+     * @param removed 桶内删除的条目
+     * @param removedLevels 与删除条目一一对应的血糖等级
+     * @return 更新后的桶汇总（不含条目）；桶不存在或已删除时返回null
+     */
+    BloodGlucoseBucket incSummary(String bucketId, List<BloodGlucoseRecord.GlucoseEntry> added, List<String> addedLevels,
+                                  List<BloodGlucoseRecord.GlucoseEntry> removed, List<String> removedLevels);
+
+    /**
+     * 写回重新计算的血糖桶汇总，仅当条目数与更新时间仍与读取时一致才写入，否则抛出OptimisticLockingFailureException；
+     * 桶内已无条目时删除该桶
+     *
+     * @param bucket 已重新计算汇总的血糖桶
+     * @param expectedEntryCount 读取时的条目数
+     * @param expectedUpdateTime 读取时的更新时间
+     */
+    void saveSummary(BloodGlucoseBucket bucket, Integer expectedEntryCount, LocalDateTime expectedUpdateTime);
+
+    /**
+     * 按时间范围（不包含边界）过滤、排序并分页查询条目
+     *
+     * @param userId 用户ID
+     * @param startTime 开始时间，为null时不限制
+     * @param endTime 结束时间，为null时不限制
+     * @param pageable 分页与排序（排序属性为条目字段名）
+     * @return 当前页条目及总数
+     */
+    Page<BloodGlucoseRecord.GlucoseEntry> findEntries(Long userId, LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
+
+    /**
+     * 以游标逐条读取[fromTime, toTime)内的血糖条目，按测量时间升序，用于导出与重建日汇总
+     * 返回的Stream持有数据库游标，调用方必须关闭
+     *
+     * @param userId 用户ID
+     * @param fromTime 开始时间（包含），为null时不限制
+     * @param toTime 结束时间（不包含），为null时不限制
+     * @return 条目流
+     */
+    Stream<BloodGlucoseRecord.GlucoseEntry> streamEntries(Long userId, LocalDateTime fromTime, LocalDateTime toTime);
+}
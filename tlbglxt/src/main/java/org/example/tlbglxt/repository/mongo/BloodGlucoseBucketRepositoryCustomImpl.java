@@ -0,0 +1,295 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.util.FixedPointAccumulator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.example.tlbglxt.repository.mongo.HealthRecordMongoSupport.toDecimal128;
+
+/**
+ * 血糖分桶Repository扩展实现
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class BloodGlucoseBucketRepositoryCustomImpl implements BloodGlucoseBucketRepositoryCustom {
+
+    /**
+     * 条目中以字符串存储的数值字段
+     */
+    static final Set<String> DECIMAL_ENTRY_FIELDS = Set.of("value");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void pushEntry(Long userId, BloodGlucoseRecord.GlucoseEntry entry, String level) {
+        // 未满的桶不存在时由upsert新建（entryCount条件不会写入新文档）
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                .and("bucketDate").is(entry.getMeasureTime().toLocalDate())
+                .and("entryCount").lt(BloodGlucoseBucket.MAX_ENTRIES));
+        Decimal128 value = toDecimal128(entry.getValue());
+        // 按测量时间有序插入，补录的历史读数落在正确位置
+        Update update = HealthRecordMongoSupport.pushSorted(new Update(), "entries", entry)
+                .inc("entryCount", 1)
+                .inc("sumValue", value)
+                .min("minValue", value)
+                .max("maxValue", value)
+                .inc("normalCount", "normal".equals(level) ? 1 : 0)
+                .inc("highCount", "high".equals(level) ? 1 : 0)
+                .inc("lowCount", "low".equals(level) ? 1 : 0)
+                .set("updateTime", LocalDateTime.now())
+                .setOnInsert("createTime", LocalDateTime.now());
+        mongoTemplate.upsert(query, update, BloodGlucoseBucket.class);
+    }
+
+    @Override
+    public void pushEntries(Long userId, LocalDate bucketDate, List<BloodGlucoseRecord.GlucoseEntry> entries,
+                            List<String> levels) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (entries.size() > BloodGlucoseBucket.MAX_ENTRIES) {
+            throw new IllegalArgumentException("单次追加的条目数超过桶容量: " + entries.size());
+        }
+        FixedPointAccumulator sum = new FixedPointAccumulator(FixedPointAccumulator.GLUCOSE_SCALE);
+        BigDecimal min = null;
+        BigDecimal max = null;
+        int normalCount = 0;
+        int highCount = 0;
+        int lowCount = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            BigDecimal value = entries.get(i).getValue();
+            sum.add(value);
+            min = min == null || value.compareTo(min) < 0 ? value : min;
+            max = max == null || value.compareTo(max) > 0 ? value : max;
+            String level = levels.get(i);
+            if ("normal".equals(level)) {
+                normalCount++;
+            } else if ("high".equals(level)) {
+                highCount++;
+            } else if ("low".equals(level)) {
+                lowCount++;
+            }
+        }
+        // 只匹配放得下整批条目的桶，否则由upsert新建
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                .and("bucketDate").is(bucketDate)
+                .and("entryCount").lte(BloodGlucoseBucket.MAX_ENTRIES - entries.size()));
+        Update update = new Update()
+                .inc("entryCount", entries.size())
+                .inc("sumValue", toDecimal128(sum.sum()))
+                .min("minValue", toDecimal128(min))
+                .max("maxValue", toDecimal128(max))
+                .inc("normalCount", normalCount)
+                .inc("highCount", highCount)
+                .inc("lowCount", lowCount)
+                .set("updateTime", LocalDateTime.now())
+                .setOnInsert("createTime", LocalDateTime.now());
+        HealthRecordMongoSupport.pushSorted(update, "entries", entries.toArray());
+        mongoTemplate.upsert(query, update, BloodGlucoseBucket.class);
+    }
+
+    @Override
+    public BloodGlucoseBucket setEntry(Long userId, String entryId, BloodGlucoseRecord.GlucoseEntry entry) {
+        entry.setId(entryId);
+        Query query = Query.query(Criteria.where("userId").is(userId).and("entries.id").is(entryId));
+        // 测量时间可能变化：替换时先去掉有序标记，再重新排序，期间的读取按条目逐一过滤
+        Update update = new Update()
+                .set("entries.$[entry]", entry)
+                .set("updateTime", LocalDateTime.now())
+                .unset(HealthRecordMongoSupport.SORTED_FIELD)
+                .filterArray(Criteria.where("entry.id").is(entryId));
+        BloodGlucoseBucket previous = mongoTemplate.findAndModify(query, update, BloodGlucoseBucket.class);
+        if (previous != null) {
+            HealthRecordMongoSupport.resort(mongoTemplate, BloodGlucoseBucket.class,
+                    Criteria.where("_id").is(previous.getId()), "entries");
+        }
+        return previous;
+    }
+
+    @Override
+    public List<BloodGlucoseBucket> pullEntries(Long userId, Collection<String> entryIds) {
+        // 先只取出受影响桶的ID，再逐桶原子删除并取回修改前的桶
+        Query idQuery = Query.query(Criteria.where("userId").is(userId).and("entries.id").in(entryIds));
+        idQuery.fields().include("_id");
+        List<BloodGlucoseBucket> affected = mongoTemplate.find(idQuery, BloodGlucoseBucket.class);
+
+        Update update = new Update()
+                .pull("entries", Query.query(Criteria.where("id").in(entryIds)).getQueryObject())
+                .set("updateTime", LocalDateTime.now());
+        List<BloodGlucoseBucket> previous = new ArrayList<>();
+        for (BloodGlucoseBucket bucket : affected) {
+            BloodGlucoseBucket result = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(bucket.getId()).and("entries.id").in(entryIds)), update,
+                    BloodGlucoseBucket.class);
+            if (result != null) {
+                previous.add(result);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public BloodGlucoseBucket pullEntriesFromBucket(String bucketId, Collection<String> entryIds) {
+        Update update = new Update()
+                .pull("entries", Query.query(Criteria.where("id").in(entryIds)).getQueryObject())
+                .set("updateTime", LocalDateTime.now());
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(bucketId).and("entries.id").in(entryIds)), update,
+                BloodGlucoseBucket.class);
+    }
+
+    @Override
+    public BloodGlucoseBucket incSummary(String bucketId, List<BloodGlucoseRecord.GlucoseEntry> added, List<String> addedLevels,
+                                         List<BloodGlucoseRecord.GlucoseEntry> removed, List<String> removedLevels) {
+        FixedPointAccumulator sum = new FixedPointAccumulator(FixedPointAccumulator.GLUCOSE_SCALE);
+        BigDecimal min = null;
+        BigDecimal max = null;
+        int[] levelCounts = new int[3];
+        for (int i = 0; i < added.size(); i++) {
+            BigDecimal value = added.get(i).getValue();
+            sum.add(value);
+            min = min == null || value.compareTo(min) < 0 ? value : min;
+            max = max == null || value.compareTo(max) > 0 ? value : max;
+            countLevel(levelCounts, addedLevels.get(i), 1);
+        }
+        for (int i = 0; i < removed.size(); i++) {
+            sum.subtract(removed.get(i).getValue());
+            countLevel(levelCounts, removedLevels.get(i), -1);
+        }
+        Update update = new Update()
+                .inc("entryCount", added.size() - removed.size())
+                .inc("sumValue", toDecimal128(sum.sum()))
+                .inc("normalCount", levelCounts[0])
+                .inc("highCount", levelCounts[1])
+                .inc("lowCount", levelCounts[2])
+                .set("updateTime", LocalDateTime.now());
+        if (min != null) {
+            update.min("minValue", toDecimal128(min)).max("maxValue", toDecimal128(max));
+        }
+        Query query = Query.query(Criteria.where("_id").is(bucketId));
+        query.fields().exclude("entries");
+        BloodGlucoseBucket current = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), BloodGlucoseBucket.class);
+        if (current != null && current.getEntryCount() != null && current.getEntryCount() <= 0
+                && removeIfEmpty(bucketId)) {
+            return null;
+        }
+        return current;
+    }
+
+    @Override
+    public void saveSummary(BloodGlucoseBucket bucket, Integer expectedEntryCount, LocalDateTime expectedUpdateTime) {
+        if (bucket.getEntries() == null || bucket.getEntries().isEmpty()) {
+            // 并发写入已重新放入条目时不删除，交由调用方重新读取
+            if (removeIfEmpty(bucket.getId())) {
+                return;
+            }
+            throw new OptimisticLockingFailureException("BloodGlucoseBucket 已被并发修改，id=" + bucket.getId());
+        }
+        Query query = Query.query(Criteria.where("_id").is(bucket.getId())
+                .and("entryCount").is(expectedEntryCount)
+                .and("updateTime").is(expectedUpdateTime));
+        Update update = new Update()
+                .set("entryCount", bucket.getEntryCount())
+                .set("sumValue", toDecimal128(bucket.getSumValue()))
+                .set("minValue", toDecimal128(bucket.getMinValue()))
+                .set("maxValue", toDecimal128(bucket.getMaxValue()))
+                .set("normalCount", bucket.getNormalCount())
+                .set("highCount", bucket.getHighCount())
+                .set("lowCount", bucket.getLowCount())
+                .set("updateTime", LocalDateTime.now());
+        if (mongoTemplate.updateFirst(query, update, BloodGlucoseBucket.class).getMatchedCount() == 0
+                && mongoTemplate.exists(Query.query(Criteria.where("_id").is(bucket.getId())), BloodGlucoseBucket.class)) {
+            throw new OptimisticLockingFailureException("BloodGlucoseBucket 已被并发修改，id=" + bucket.getId());
+        }
+    }
+
+    /**
+     * 只在桶内已无条目时删除，避免误删并发写入的条目
+     *
+     * @return 是否已删除（或桶已不存在）
+     */
+    private boolean removeIfEmpty(String bucketId) {
+        if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(bucketId).and("entries").size(0)),
+                BloodGlucoseBucket.class).getDeletedCount() > 0) {
+            return true;
+        }
+        return !mongoTemplate.exists(Query.query(Criteria.where("_id").is(bucketId)), BloodGlucoseBucket.class);
+    }
+
+    private static void countLevel(int[] levelCounts, String level, int sign) {
+        if ("normal".equals(level)) {
+            levelCounts[0] += sign;
+        } else if ("high".equals(level)) {
+            levelCounts[1] += sign;
+        } else if ("low".equals(level)) {
+            levelCounts[2] += sign;
+        }
+    }
+
+    @Override
+    public Page<BloodGlucoseRecord.GlucoseEntry> findEntries(Long userId, LocalDateTime startTime,
+                                                             LocalDateTime endTime, Pageable pageable) {
+        return HealthRecordMongoSupport.findEntriesPage(mongoTemplate, BloodGlucoseBucket.class,
+                bucketCriteria(userId, startTime, endTime), "entries", startTime, endTime, pageable,
+                DECIMAL_ENTRY_FIELDS, BloodGlucoseRecord.GlucoseEntry.class);
+    }
+
+    /**
+     * 分页查询的桶过滤条件：先按桶日期缩小范围，再在条目级别按时间过滤
+     */
+    static Criteria bucketCriteria(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (startTime != null || endTime != null) {
+            criteria = criteria.and("bucketDate");
+            if (startTime != null) {
+                criteria = criteria.gte(startTime.toLocalDate());
+            }
+            if (endTime != null) {
+                criteria = criteria.lte(endTime.toLocalDate());
+            }
+        }
+        return criteria;
+    }
+
+    @Override
+    public Stream<BloodGlucoseRecord.GlucoseEntry> streamEntries(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (fromTime != null || toTime != null) {
+            Criteria bucketDate = criteria.and("bucketDate");
+            if (fromTime != null) {
+                bucketDate.gte(fromTime.toLocalDate());
+            }
+            if (toTime != null) {
+                bucketDate.lte(toTime.toLocalDate());
+            }
+        }
+        // 血糖桶按日期排序（由user_bucket_date_idx索引提供顺序），桶内条目已按测量时间有序
+        return HealthRecordMongoSupport.openEntryStream(mongoTemplate, BloodGlucoseBucket.class, criteria,
+                Sort.by(Sort.Direction.ASC, "bucketDate"), "entries", fromTime, toTime,
+                BloodGlucoseRecord.GlucoseEntry.class);
+    }
+}
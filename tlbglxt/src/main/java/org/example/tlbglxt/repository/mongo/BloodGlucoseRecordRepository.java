@@ -16,7 +16,7 @@ import java.util.Optional;
  * @since 1.0.0
  */
 @Repository
-public interface BloodGlucoseRecordRepository extends MongoRepository<BloodGlucoseRecord, String> {
+public interface BloodGlucoseRecordRepository extends MongoRepository<BloodGlucoseRecord, String>, BloodGlucoseRecordRepositoryCustom {
 
     /**
      * 根据用户ID查找血糖记录
@@ -37,6 +37,15 @@ public interface BloodGlucoseRecordRepository extends MongoRepository<BloodGluco
     @Query("{ 'userId': ?0, 'records.measureTime': { $gte: ?1, $lte: ?2 } }")
     List<BloodGlucoseRecord> findByUserIdAndTimeRange(Long userId, LocalDateTime startTime, LocalDateTime endTime);
 
+    /**
+     * 根据用户ID只查询血糖统计信息（不返回记录列表）
+     *
+     * @param userId 用户ID
+     * @return 血糖记录（只含统计信息与版本号）
+     */
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'statistics': 1, 'version': 1 }")
+    Optional<BloodGlucoseRecord> findStatisticsByUserId(Long userId);
+
     /**
      * 检查用户是否存在血糖记录
      *
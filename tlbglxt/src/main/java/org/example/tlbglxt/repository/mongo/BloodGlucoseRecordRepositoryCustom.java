@@ -0,0 +1,41 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+
+/**
+ * 血糖记录Repository扩展接口
+ * 以增量方式维护用户血糖文档中的统计信息（条目存储在血糖桶中）
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface BloodGlucoseRecordRepositoryCustom {
+
+    /**
+     * 累加统计增量（计数与合计用$inc，最值用$min/$max）；用户文档不存在时自动创建
+     *
+     * @param userId 用户ID
+     * @param delta 统计增量
+     * @return 修改前的文档（只含统计信息），新建文档时返回null
+     */
+    BloodGlucoseRecord incStatistics(Long userId, BloodGlucoseRecord.GlucoseStatistics delta);
+
+    /**
+     * 写回由计数与合计推导出的统计字段（平均值、最值）
+     * 仅当版本号仍与读取统计信息时一致才写入，否则抛出OptimisticLockingFailureException，避免并发写入时覆盖为旧值
+     *
+     * @param userId 用户ID
+     * @param statistics 统计信息
+     * @param expectedVersion 读取统计信息时的文档版本号
+     */
+    void setDerivedStatistics(Long userId, BloodGlucoseRecord.GlucoseStatistics statistics, Long expectedVersion);
+
+    /**
+     * 只更新血糖统计信息字段，仅当版本号仍与读取时一致才写入，否则抛出OptimisticLockingFailureException
+     *
+     * @param userId 用户ID
+     * @param statistics 统计信息
+     * @param expectedVersion 读取文档时的版本号
+     */
+    void setStatistics(Long userId, BloodGlucoseRecord.GlucoseStatistics statistics, Long expectedVersion);
+}
@@ -0,0 +1,61 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+import static org.example.tlbglxt.repository.mongo.HealthRecordMongoSupport.toDecimal128;
+
+/**
+ * 血糖记录Repository扩展实现
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class BloodGlucoseRecordRepositoryCustomImpl implements BloodGlucoseRecordRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public BloodGlucoseRecord incStatistics(Long userId, BloodGlucoseRecord.GlucoseStatistics delta) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("statistics");
+        Update update = new Update()
+                .inc("statistics.totalCount", delta.getTotalCount())
+                .inc("statistics.sumValue", toDecimal128(delta.getSumValue()))
+                .inc("statistics.normalCount", delta.getNormalCount())
+                .inc("statistics.highCount", delta.getHighCount())
+                .inc("statistics.lowCount", delta.getLowCount())
+                .set("updateTime", LocalDateTime.now())
+                .setOnInsert("createTime", LocalDateTime.now());
+        if (delta.getMaxValue() != null) {
+            update.max("statistics.maxValue", toDecimal128(delta.getMaxValue()))
+                    .min("statistics.minValue", toDecimal128(delta.getMinValue()));
+        }
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true), BloodGlucoseRecord.class);
+    }
+
+    @Override
+    public void setDerivedStatistics(Long userId, BloodGlucoseRecord.GlucoseStatistics statistics, Long expectedVersion) {
+        Update update = new Update()
+                .set("statistics.avgValue", statistics.getAvgValue())
+                .set("statistics.maxValue", toDecimal128(statistics.getMaxValue()))
+                .set("statistics.minValue", toDecimal128(statistics.getMinValue()))
+                .set("statistics.lastUpdateTime", LocalDateTime.now());
+        HealthRecordMongoSupport.updateIfVersion(mongoTemplate, BloodGlucoseRecord.class, userId, expectedVersion, update);
+    }
+
+    @Override
+    public void setStatistics(Long userId, BloodGlucoseRecord.GlucoseStatistics statistics, Long expectedVersion) {
+        HealthRecordMongoSupport.updateIfVersion(mongoTemplate, BloodGlucoseRecord.class, userId, expectedVersion,
+                Update.update("statistics", statistics).set("updateTime", LocalDateTime.now()));
+    }
+}
@@ -16,7 +16,7 @@ import java.util.Optional;
  * @since 1.0.0
  */
 @Repository
-public interface BloodPressureRecordRepository extends MongoRepository<BloodPressureRecord, String> {
+public interface BloodPressureRecordRepository extends MongoRepository<BloodPressureRecord, String>, BloodPressureRecordRepositoryCustom {
 
     /**
      * 根据用户ID查找血压记录
@@ -37,6 +37,15 @@ public interface BloodPressureRecordRepository extends MongoRepository<BloodPres
     @Query("{ 'userId': ?0, 'records.measureTime': { $gte: ?1, $lte: ?2 } }")
     List<BloodPressureRecord> findByUserIdAndTimeRange(Long userId, LocalDateTime startTime, LocalDateTime endTime);
 
+    /**
+     * 根据用户ID只查询血压统计信息（不返回记录列表）
+     *
+     * @param userId 用户ID
+     * @return 血压记录（只含统计信息与版本号）
+     */
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'statistics': 1, 'version': 1 }")
+    Optional<BloodPressureRecord> findStatisticsByUserId(Long userId);
+
     /**
      * 检查用户是否存在血压记录
      *
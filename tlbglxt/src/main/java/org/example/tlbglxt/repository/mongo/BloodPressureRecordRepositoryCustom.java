@@ -0,0 +1,117 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 血压记录Repository扩展接口
+ * 基于MongoTemplate在服务端原子地修改单条记录，并以增量方式维护统计信息
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface BloodPressureRecordRepositoryCustom {
+
+    /**
+     * 追加一条血压记录（$push），同时累加统计增量；用户文档不存在时自动创建
+     *
+     * @param userId 用户ID
+     * @param entry 记录条目
+     * @param delta 统计增量
+     * @return 修改前的文档（只含统计信息），新建文档时返回null
+     */
+    BloodPressureRecord pushEntry(Long userId, BloodPressureRecord.PressureEntry entry,
+                                  BloodPressureRecord.PressureStatistics delta);
+
+    /**
+     * 按条目ID整体替换一条血压记录（arrayFilters $set）
+     *
+     * @param userId 用户ID
+     * @param entryId 条目ID
+     * @param entry 新的记录条目
+     * @return 修改前的文档（只含统计信息和被替换的条目），条目不存在时返回null
+     */
+    BloodPressureRecord setEntry(Long userId, String entryId, BloodPressureRecord.PressureEntry entry);
+
+    /**
+     * 按条目ID删除一条或多条血压记录（$pull + $in）
+     *
+     * @param userId 用户ID
+     * @param entryIds 条目ID列表
+     * @return 修改前的文档（只含统计信息和被删除的条目），没有条目被删除时返回null
+     */
+    BloodPressureRecord pullEntries(Long userId, Collection<String> entryIds);
+
+    /**
+     * 累加统计增量（计数与合计用$inc，最值用$min/$max）
+     *
+     * @param userId 用户ID
+     * @param delta 统计增量
+     */
+    void incStatistics(Long userId, BloodPressureRecord.PressureStatistics delta);
+
+    /**
+     * 写回由计数与合计推导出的统计字段（平均值、最值）
+     * 仅当版本号仍与读取统计信息时一致才写入，否则抛出OptimisticLockingFailureException，避免并发写入时覆盖为旧值
+     *
+     * @param userId 用户ID
+     * @param statistics 统计信息
+     * @param expectedVersion 读取统计信息时的文档版本号
+     */
+    void setDerivedStatistics(Long userId, BloodPressureRecord.PressureStatistics statistics, Long expectedVersion);
+
+    /**
+     * 在服务端重新扫描收缩压、舒张压的最值
+     *
+     * @param userId 用户ID
+     * @return 只含最值字段的统计信息
+     */
+    BloodPressureRecord.PressureStatistics findExtremes(Long userId);
+
+    /**
+     * 只更新血压统计信息字段，仅当版本号仍与读取时一致才写入，否则抛出OptimisticLockingFailureException
+     *
+     * @param userId 用户ID
+     * @param statistics 统计信息
+     * @param expectedVersion 读取文档时的版本号
+     */
+    void setStatistics(Long userId, BloodPressureRecord.PressureStatistics statistics, Long expectedVersion);
+
+    /**
+     * 按时间范围（不包含边界）过滤、排序并分页查询条目
+     *
+     * @param userId 用户ID
+     * @param startTime 开始时间，为null时不限制
+     * @param endTime 结束时间，为null时不限制
+     * @param pageable 分页与排序（排序属性为条目字段名）
+     * @return 当前页条目及总数
+     */
+    Page<BloodPressureRecord.PressureEntry> findEntries(Long userId, LocalDateTime startTime, LocalDateTime endTime, Pageable pageable);
+
+    /**
+     * 查询测量时间位于[fromTime, toTime)内的全部条目，按测量时间升序
+     *
+     * @param userId 用户ID
+     * @param fromTime 开始时间（包含）
+     * @param toTime 结束时间（不包含）
+     * @return 条目列表
+     */
+    List<BloodPressureRecord.PressureEntry> findEntriesBetween(Long userId, LocalDateTime fromTime, LocalDateTime toTime);
+
+    /**
+     * 以游标逐条读取[fromTime, toTime)内的血压条目，按测量时间升序，用于导出与重建日汇总
+     * 返回的Stream持有数据库游标，调用方必须关闭
+     *
+     * @param userId 用户ID
+     * @param fromTime 开始时间（包含），为null时不限制
+     * @param toTime 结束时间（不包含），为null时不限制
+     * @return 条目流
+     */
+    Stream<BloodPressureRecord.PressureEntry> streamEntries(Long userId, LocalDateTime fromTime, LocalDateTime toTime);
+}
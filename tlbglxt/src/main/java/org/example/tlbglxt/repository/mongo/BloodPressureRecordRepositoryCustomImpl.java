@@ -0,0 +1,152 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.bson.Document;
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 血压记录Repository扩展实现
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class BloodPressureRecordRepositoryCustomImpl implements BloodPressureRecordRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public BloodPressureRecord pushEntry(Long userId, BloodPressureRecord.PressureEntry entry,
+                                         BloodPressureRecord.PressureStatistics delta) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("statistics");
+        Update update = HealthRecordMongoSupport.pushSorted(statisticsDelta(delta), "records", entry)
+                .set("updateTime", LocalDateTime.now())
+                .setOnInsert("createTime", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true), BloodPressureRecord.class);
+    }
+
+    @Override
+    public BloodPressureRecord setEntry(Long userId, String entryId, BloodPressureRecord.PressureEntry entry) {
+        entry.setId(entryId);
+        Query query = Query.query(Criteria.where("userId").is(userId).and("records.id").is(entryId));
+        HealthRecordMongoSupport.includeStatisticsAndEntries(query, "records", List.of(entryId));
+        // 测量时间可能变化：替换时先去掉有序标记，再重新排序，期间的读取按条目逐一过滤
+        Update update = new Update()
+                .set("records.$[entry]", entry)
+                .unset(HealthRecordMongoSupport.SORTED_FIELD)
+                .set("updateTime", LocalDateTime.now())
+                .filterArray(Criteria.where("entry.id").is(entryId));
+        BloodPressureRecord previous = mongoTemplate.findAndModify(query, update, BloodPressureRecord.class);
+        if (previous != null) {
+            HealthRecordMongoSupport.resort(mongoTemplate, BloodPressureRecord.class, Criteria.where("userId").is(userId), "records");
+        }
+        return previous;
+    }
+
+    @Override
+    public BloodPressureRecord pullEntries(Long userId, Collection<String> entryIds) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("records.id").in(entryIds));
+        HealthRecordMongoSupport.includeStatisticsAndEntries(query, "records", entryIds);
+        Update update = new Update()
+                .pull("records", Query.query(Criteria.where("id").in(entryIds)).getQueryObject())
+                .set("updateTime", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, BloodPressureRecord.class);
+    }
+
+    @Override
+    public void incStatistics(Long userId, BloodPressureRecord.PressureStatistics delta) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        mongoTemplate.updateFirst(query, statisticsDelta(delta), BloodPressureRecord.class);
+    }
+
+    @Override
+    public void setDerivedStatistics(Long userId, BloodPressureRecord.PressureStatistics statistics, Long expectedVersion) {
+        Update update = new Update()
+                .set("statistics.avgSystolic", statistics.getAvgSystolic())
+                .set("statistics.avgDiastolic", statistics.getAvgDiastolic())
+                .set("statistics.avgHeartRate", statistics.getAvgHeartRate())
+                .set("statistics.maxSystolic", statistics.getMaxSystolic())
+                .set("statistics.minSystolic", statistics.getMinSystolic())
+                .set("statistics.maxDiastolic", statistics.getMaxDiastolic())
+                .set("statistics.minDiastolic", statistics.getMinDiastolic())
+                .set("statistics.lastUpdateTime", LocalDateTime.now());
+        HealthRecordMongoSupport.updateIfVersion(mongoTemplate, BloodPressureRecord.class, userId, expectedVersion, update);
+    }
+
+    @Override
+    public BloodPressureRecord.PressureStatistics findExtremes(Long userId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("maxSystolic", new Document("$max", "$records.systolic"))
+                        .append("minSystolic", new Document("$min", "$records.systolic"))
+                        .append("maxDiastolic", new Document("$max", "$records.diastolic"))
+                        .append("minDiastolic", new Document("$min", "$records.diastolic"))));
+        return mongoTemplate.aggregate(aggregation, BloodPressureRecord.class,
+                BloodPressureRecord.PressureStatistics.class).getUniqueMappedResult();
+    }
+
+    @Override
+    public void setStatistics(Long userId, BloodPressureRecord.PressureStatistics statistics, Long expectedVersion) {
+        HealthRecordMongoSupport.updateIfVersion(mongoTemplate, BloodPressureRecord.class, userId, expectedVersion,
+                Update.update("statistics", statistics).set("updateTime", LocalDateTime.now()));
+    }
+
+    /**
+     * 将统计增量转换为$inc/$min/$max更新
+     */
+    private Update statisticsDelta(BloodPressureRecord.PressureStatistics delta) {
+        Update update = new Update()
+                .inc("statistics.totalCount", delta.getTotalCount())
+                .inc("statistics.sumSystolic", delta.getSumSystolic())
+                .inc("statistics.sumDiastolic", delta.getSumDiastolic())
+                .inc("statistics.sumHeartRate", delta.getSumHeartRate())
+                .inc("statistics.heartRateCount", delta.getHeartRateCount())
+                .inc("statistics.normalCount", delta.getNormalCount())
+                .inc("statistics.highCount", delta.getHighCount())
+                .inc("statistics.lowCount", delta.getLowCount());
+        if (delta.getMaxSystolic() != null) {
+            update.max("statistics.maxSystolic", delta.getMaxSystolic())
+                    .min("statistics.minSystolic", delta.getMinSystolic())
+                    .max("statistics.maxDiastolic", delta.getMaxDiastolic())
+                    .min("statistics.minDiastolic", delta.getMinDiastolic());
+        }
+        return update;
+    }
+
+    @Override
+    public Page<BloodPressureRecord.PressureEntry> findEntries(Long userId, LocalDateTime startTime,
+                                                               LocalDateTime endTime, Pageable pageable) {
+        return HealthRecordMongoSupport.findEntriesPage(mongoTemplate, BloodPressureRecord.class,
+                Criteria.where("userId").is(userId), "records", startTime, endTime, pageable,
+                Set.of(), BloodPressureRecord.PressureEntry.class);
+    }
+
+    @Override
+    public List<BloodPressureRecord.PressureEntry> findEntriesBetween(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        return HealthRecordMongoSupport.findEntriesBetween(mongoTemplate, BloodPressureRecord.class,
+                Criteria.where("userId").is(userId), "records", fromTime, toTime, BloodPressureRecord.PressureEntry.class);
+    }
+
+    @Override
+    public Stream<BloodPressureRecord.PressureEntry> streamEntries(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        return HealthRecordMongoSupport.openEntryStream(mongoTemplate, BloodPressureRecord.class,
+                Criteria.where("userId").is(userId), null, "records", fromTime, toTime, BloodPressureRecord.PressureEntry.class);
+    }
+}
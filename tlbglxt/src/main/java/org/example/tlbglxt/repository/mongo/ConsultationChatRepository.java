@@ -1,7 +1,6 @@
 package org.example.tlbglxt.repository.mongo;
 
 import org.example.tlbglxt.entity.chat.ConsultationChat;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -16,21 +15,18 @@ import java.util.Optional;
  */
 @Repository
 public interface ConsultationChatRepository extends MongoRepository<ConsultationChat, String> {
-    
-    /**
-     * 根据问诊编号查找
-     */
-    Optional<ConsultationChat> findByConsultationNo(String consultationNo);
-    
+
     /**
-     * 根据患者ID查找问诊记录，按创建时间倒序
+     * 列表摘要读取的字段，不含消息、诊断、处方、随访计划与评价；分页列表以MongoTemplate按游标查询时同样使用
      */
-    List<ConsultationChat> findByPatientIdOrderByCreateTimeDesc(Long patientId);
+    String SUMMARY_FIELDS = "{ 'consultationNo': 1, 'patientId': 1, 'doctorId': 1, 'consultationType': 1, 'status': 1, "
+            + "'chiefComplaint': 1, 'patientInfo': 1, 'doctorInfo': 1, 'fee': 1, 'lastMessage': 1, "
+            + "'patientReadSeq': 1, 'doctorReadSeq': 1, 'createTime': 1, 'updateTime': 1 }";
     
     /**
-     * 根据医生ID查找问诊记录，按创建时间倒序
+     * 根据问诊编号查找
      */
-    List<ConsultationChat> findByDoctorIdOrderByCreateTimeDesc(Long doctorId);
+    Optional<ConsultationChat> findByConsultationNo(String consultationNo);
     
     /**
      * 根据患者ID和状态查找问诊记录
@@ -42,28 +38,6 @@ public interface ConsultationChatRepository extends MongoRepository<Consultation
      */
     List<ConsultationChat> findByDoctorIdAndStatusOrderByCreateTimeDesc(Long doctorId, Integer status);
     
-    /**
-     * 分页查询患者问诊记录
-     */
-    Page<ConsultationChat> findByPatientId(Long patientId, Pageable pageable);
-    
-    /**
-     * 分页查询医生问诊记录
-     */
-    Page<ConsultationChat> findByDoctorId(Long doctorId, Pageable pageable);
-    
-    /**
-     * 分页查询医生指定状态的问诊记录
-     */
-    @Query("{'doctorId': ?0, 'status': {'$in': ?1}}")
-    Page<ConsultationChat> findByDoctorIdAndStatusIn(Long doctorId, List<Integer> statusList, Pageable pageable);
-    
-    /**
-     * 查找正在进行的问诊（状态为1或2）
-     */
-    @Query("{'$and': [{'$or': [{'patientId': ?0}, {'doctorId': ?0}]}, {'status': {'$in': [1, 2]}}]}")
-    List<ConsultationChat> findActiveConsultationsByUserId(Long userId);
-    
     /**
      * 统计医生今日问诊数量
      */
@@ -80,6 +54,11 @@ public interface ConsultationChatRepository extends MongoRepository<Consultation
      */
     long countByDoctorId(Long doctorId);
     
+    /**
+     * 医生与患者之间是否存在问诊记录
+     */
+    boolean existsByDoctorIdAndPatientId(Long doctorId, Long patientId);
+    
     /**
      * 统计医生待回复咨询数量（状态为1或2）
      */
@@ -92,18 +71,46 @@ public interface ConsultationChatRepository extends MongoRepository<Consultation
     @Query(value = "{'doctorId': ?0, 'status': ?1}", count = true)
     long countConsultationsByDoctorIdAndStatus(Long doctorId, Integer status);
     
-    /**
-     * 获取医生最近咨询列表
-     */
-    @Query("{'doctorId': ?0}")
-    List<ConsultationChat> findRecentByDoctorId(Long doctorId, Pageable pageable);
-    
     /**
      * 查找医生已完成且有评价的问诊记录
      */
     @Query("{'doctorId': ?0, 'status': ?1, 'rating': {'$exists': true, '$ne': null}}")
     List<ConsultationChat> findByDoctorIdAndStatusAndRatingIsNotNull(Long doctorId, Integer status);
 
+    // ======================= 列表摘要（只读取摘要字段） =======================
+
+    /**
+     * 患者问诊摘要，按创建时间倒序
+     */
+    @Query(value = "{'patientId': ?0}", fields = SUMMARY_FIELDS, sort = "{'createTime': -1}")
+    List<ConsultationChat> findSummariesByPatientId(Long patientId);
+
+    /**
+     * 医生问诊摘要，按创建时间倒序
+     */
+    @Query(value = "{'doctorId': ?0}", fields = SUMMARY_FIELDS, sort = "{'createTime': -1}")
+    List<ConsultationChat> findSummariesByDoctorId(Long doctorId);
+
+    /**
+     * 正在进行的问诊摘要（状态为1或2）
+     */
+    @Query(value = "{'$and': [{'$or': [{'patientId': ?0}, {'doctorId': ?0}]}, {'status': {'$in': [1, 2]}}]}", fields = SUMMARY_FIELDS)
+    List<ConsultationChat> findActiveSummariesByUserId(Long userId);
+
+    /**
+     * 医生最近的问诊摘要
+     */
+    @Query(value = "{'doctorId': ?0}", fields = SUMMARY_FIELDS)
+    List<ConsultationChat> findRecentSummariesByDoctorId(Long doctorId, Pageable pageable);
+
+    /**
+     * 用户参与的全部问诊，只读取重建消息列表索引所需的字段
+     */
+    @Query(value = "{'$or': [{'patientId': ?0}, {'doctorId': ?0}]}",
+            fields = "{ 'consultationNo': 1, 'patientId': 1, 'doctorId': 1, 'lastMessage': 1, 'patientReadSeq': 1, "
+                    + "'doctorReadSeq': 1, 'createTime': 1 }")
+    List<ConsultationChat> findInboxEntriesByUserId(Long userId);
+
     // ======================= 管理员统计相关方法 =======================
 
     /**
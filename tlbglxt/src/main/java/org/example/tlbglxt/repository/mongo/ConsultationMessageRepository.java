@@ -0,0 +1,48 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.chat.ConsultationMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 问诊聊天消息Repository
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface ConsultationMessageRepository extends MongoRepository<ConsultationMessage, String> {
+
+    /**
+     * 查询问诊最新的消息，按seq倒序
+     *
+     * @param consultationNo 问诊编号
+     * @param pageable 条数
+     * @return 消息列表
+     */
+    List<ConsultationMessage> findByConsultationNoOrderBySeqDesc(String consultationNo, Pageable pageable);
+
+    /**
+     * 查询问诊中序号小于beforeSeq的消息，按seq倒序
+     *
+     * @param consultationNo 问诊编号
+     * @param beforeSeq 序号上限（不包含）
+     * @param pageable 条数
+     * @return 消息列表
+     */
+    List<ConsultationMessage> findByConsultationNoAndSeqLessThanOrderBySeqDesc(String consultationNo, Long beforeSeq,
+                                                                              Pageable pageable);
+
+    /**
+     * 按消息ID查询问诊中的消息
+     *
+     * @param consultationNo 问诊编号
+     * @param messageId 消息ID
+     * @return 消息
+     */
+    Optional<ConsultationMessage> findByConsultationNoAndMessageId(String consultationNo, String messageId);
+}
@@ -0,0 +1,41 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 健康数据日汇总Repository
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface HealthDailyRollupRepository extends MongoRepository<HealthDailyRollup, String>, HealthDailyRollupRepositoryCustom {
+
+    /**
+     * 查询用户某指标指定日期范围内的日汇总（包含边界），按日期升序
+     *
+     * @param userId 用户ID
+     * @param metric 指标类型
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 日汇总列表
+     */
+    @Query(value = "{ 'userId': ?0, 'metric': ?1, 'date': { $gte: ?2, $lte: ?3 } }", sort = "{ 'date': 1 }")
+    List<HealthDailyRollup> findByUserIdAndMetricAndDateRange(Long userId, String metric, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 查询用户某指标已有日汇总的日期（只返回date字段）
+     *
+     * @param userId 用户ID
+     * @param metric 指标类型
+     * @return 只包含日期的日汇总列表
+     */
+    @Query(value = "{ 'userId': ?0, 'metric': ?1 }", fields = "{ 'date': 1 }")
+    List<HealthDailyRollup> findDatesByUserIdAndMetric(Long userId, String metric);
+}
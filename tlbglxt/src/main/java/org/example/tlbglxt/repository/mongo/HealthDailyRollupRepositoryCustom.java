@@ -0,0 +1,26 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+
+/**
+ * 健康数据日汇总Repository扩展接口
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface HealthDailyRollupRepositoryCustom {
+
+    /**
+     * 将增量累加到(userId, metric, date)对应的日汇总（upsert + $inc/$min/$max）
+     *
+     * @param delta 由新增记录计算出的增量汇总
+     */
+    void accumulate(HealthDailyRollup delta);
+
+    /**
+     * 整体替换(userId, metric, date)对应的日汇总，不存在时插入；记录数为0时删除
+     *
+     * @param rollup 重新计算的日汇总
+     */
+    void replaceDay(HealthDailyRollup rollup);
+}
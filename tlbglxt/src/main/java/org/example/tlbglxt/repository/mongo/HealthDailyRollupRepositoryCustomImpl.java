@@ -0,0 +1,82 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.example.tlbglxt.repository.mongo.HealthRecordMongoSupport.toDecimal128;
+
+/**
+ * 健康数据日汇总Repository扩展实现
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class HealthDailyRollupRepositoryCustomImpl implements HealthDailyRollupRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void accumulate(HealthDailyRollup delta) {
+        Update update = new Update()
+                .inc("count", delta.getCount())
+                .inc("sum", toDecimal128(delta.getSum()))
+                .min("min", toDecimal128(delta.getMin()))
+                .max("max", toDecimal128(delta.getMax()))
+                .set("updateTime", LocalDateTime.now())
+                .setOnInsert("createTime", LocalDateTime.now());
+        incLevel(update, "normalCount", delta.getNormalCount());
+        incLevel(update, "highCount", delta.getHighCount());
+        incLevel(update, "lowCount", delta.getLowCount());
+        accumulateStats(update, "measureTypes", delta.getMeasureTypes());
+        accumulateStats(update, "series", delta.getSeries());
+        mongoTemplate.upsert(dayQuery(delta), update, HealthDailyRollup.class);
+    }
+
+    @Override
+    public void replaceDay(HealthDailyRollup rollup) {
+        if (rollup.getCount() == null || rollup.getCount() == 0) {
+            mongoTemplate.remove(dayQuery(rollup), HealthDailyRollup.class);
+            return;
+        }
+        rollup.setId(null);
+        rollup.setUpdateTime(LocalDateTime.now());
+        if (rollup.getCreateTime() == null) {
+            rollup.setCreateTime(LocalDateTime.now());
+        }
+        mongoTemplate.findAndReplace(dayQuery(rollup), rollup, FindAndReplaceOptions.options().upsert());
+    }
+
+    private Query dayQuery(HealthDailyRollup rollup) {
+        return Query.query(Criteria.where("userId").is(rollup.getUserId())
+                .and("metric").is(rollup.getMetric())
+                .and("date").is(rollup.getDate()));
+    }
+
+    private void incLevel(Update update, String field, Integer count) {
+        if (count != null && count != 0) {
+            update.inc(field, count);
+        }
+    }
+
+    private void accumulateStats(Update update, String field, Map<String, HealthDailyRollup.RollupStats> stats) {
+        if (stats == null) {
+            return;
+        }
+        stats.forEach((key, value) -> {
+            String prefix = field + "." + key + ".";
+            update.inc(prefix + "count", value.getCount())
+                    .inc(prefix + "sum", toDecimal128(value.getSum()))
+                    .min(prefix + "min", toDecimal128(value.getMin()))
+                    .max(prefix + "max", toDecimal128(value.getMax()));
+        });
+    }
+}
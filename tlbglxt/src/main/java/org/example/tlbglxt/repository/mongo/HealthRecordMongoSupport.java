@@ -0,0 +1,429 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 健康记录Mongo操作辅助方法
+ * 用于在findAndModify中只取回统计信息与目标条目、条目的服务端分页查询、按游标构建列式序列与导出、
+ * 按版本号的条件更新，以及数值字段的Decimal128转换
+ * <p>
+ * 条目数组按测量时间升序维护（$push配合$each/$sort，补录的历史数据插入到正确位置），
+ * 文档的entriesSorted标记为true时，按时间范围取条目先在数组上二分查找起止下标再$slice，
+ * 只展开范围内的条目；未标记的旧文档按条目逐一过滤，结果相同
+ * </p>
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+final class HealthRecordMongoSupport {
+
+    private HealthRecordMongoSupport() {
+    }
+
+    /**
+     * 条目数组已按测量时间升序排列的标记字段
+     */
+    static final String SORTED_FIELD = "entriesSorted";
+
+    private static final String MEASURE_TIME = "measureTime";
+
+    /**
+     * 按测量时间有序地追加条目：$push配合$each/$sort，整个数组在服务端保持升序，并标记为有序
+     *
+     * @param update 更新
+     * @param arrayField 条目数组字段名
+     * @param entries 追加的条目
+     * @return update
+     */
+    static Update pushSorted(Update update, String arrayField, Object... entries) {
+        update.push(arrayField).sort(Sort.by(Sort.Direction.ASC, MEASURE_TIME)).each(entries);
+        return update.set(SORTED_FIELD, true);
+    }
+
+    /**
+     * 将文档的条目数组按测量时间重新排序（空的$each配合$sort），用于原位替换条目之后
+     *
+     * @param mongoTemplate MongoTemplate
+     * @param domainType 文档实体类型
+     * @param criteria 文档过滤条件
+     * @param arrayField 条目数组字段名
+     */
+    static void resort(MongoTemplate mongoTemplate, Class<?> domainType, Criteria criteria, String arrayField) {
+        mongoTemplate.updateFirst(Query.query(criteria), pushSorted(new Update(), arrayField), domainType);
+    }
+
+    /**
+     * 二分查找下标的表达式：第一个测量时间不满足 (measureTime op time) 的条目下标，
+     * op为$lt时即第一个不早于time的条目，为$lte时即第一个晚于time的条目
+     * 迭代次数为ceil(log2(n + 1))，每次迭代只用$arrayElemAt按下标取一个条目
+     */
+    private static Document searchIndex(String arrayField, String op, Object time) {
+        String array = "$" + arrayField;
+        Document size = new Document("$size", array);
+        Document iterations = new Document("$toInt", new Document("$ceil",
+                new Document("$log", List.of(new Document("$add", List.of(size, 1)), 2))));
+        Document mid = new Document("$toInt", new Document("$floor",
+                new Document("$divide", List.of(new Document("$add", List.of("$$lo", "$$hi")), 2))));
+        Document midTime = new Document("$let", new Document("vars",
+                new Document("entry", new Document("$arrayElemAt", List.of(array, "$$mid"))))
+                .append("in", "$$entry." + MEASURE_TIME));
+        Document step = new Document("$cond", List.of(
+                new Document(op, List.of(midTime, time)),
+                List.of(new Document("$add", List.of("$$mid", 1)), "$$hi"),
+                List.of("$$lo", "$$mid")));
+        Document iteration = new Document("$let", new Document("vars", new Document("lo",
+                new Document("$arrayElemAt", List.of("$$value", 0)))
+                .append("hi", new Document("$arrayElemAt", List.of("$$value", 1))))
+                .append("in", new Document("$cond", List.of(
+                        new Document("$gte", List.of("$$lo", "$$hi")),
+                        "$$value",
+                        new Document("$let", new Document("vars", new Document("mid", mid)).append("in", step))))));
+        Document search = new Document("$reduce", new Document("input", new Document("$range", List.of(0, iterations)))
+                .append("initialValue", List.of(0, size))
+                .append("in", iteration));
+        return new Document("$arrayElemAt", List.of(search, 0));
+    }
+
+    /**
+     * 取数组字段中测量时间位于范围内的条目的表达式；有序文档二分查找起止下标后$slice，其余文档逐条$filter
+     *
+     * @param converter 用于转换时间参数
+     * @param arrayField 条目数组字段名
+     * @param fromTime 开始时间，为null时不限制
+     * @param fromInclusive 是否包含开始时间
+     * @param toTime 结束时间（不包含），为null时不限制
+     */
+    private static Document entriesInRange(MongoConverter converter, String arrayField, LocalDateTime fromTime,
+                                           boolean fromInclusive, LocalDateTime toTime) {
+        Object from = fromTime == null ? null : converter.convertToMongoType(fromTime);
+        Object to = toTime == null ? null : converter.convertToMongoType(toTime);
+        String array = "$" + arrayField;
+
+        Object start = from == null ? 0 : searchIndex(arrayField, fromInclusive ? "$lt" : "$lte", from);
+        Object end = to == null ? new Document("$size", array) : searchIndex(arrayField, "$lt", to);
+        Document slice = new Document("$let", new Document("vars", new Document("start", start).append("end", end))
+                .append("in", new Document("$cond", List.of(
+                        new Document("$lt", List.of("$$start", "$$end")),
+                        new Document("$slice", List.of(array, "$$start",
+                                new Document("$subtract", List.of("$$end", "$$start")))),
+                        List.of()))));
+
+        Document filter = filterEntries(arrayField, from, fromInclusive, to);
+        return new Document("$cond", List.of(new Document("$eq", List.of("$" + SORTED_FIELD, true)), slice, filter));
+    }
+
+    /**
+     * 逐条过滤测量时间位于范围内的条目的表达式，用于未标记有序的文档
+     */
+    private static Document filterEntries(String arrayField, Object from, boolean fromInclusive, Object to) {
+        List<Document> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add(new Document(fromInclusive ? "$gte" : "$gt", List.of("$$entry." + MEASURE_TIME, from)));
+        }
+        if (to != null) {
+            conditions.add(new Document("$lt", List.of("$$entry." + MEASURE_TIME, to)));
+        }
+        return new Document("$filter", new Document("input", "$" + arrayField)
+                .append("as", "entry")
+                .append("cond", new Document("$and", conditions)));
+    }
+
+    /**
+     * 只保留数组字段中测量时间位于范围内的条目，后续$unwind只展开范围内的条目
+     */
+    private static AggregationOperation projectEntriesInRange(MongoConverter converter, String arrayField,
+                                                             LocalDateTime fromTime, boolean fromInclusive,
+                                                             LocalDateTime toTime) {
+        Document range = entriesInRange(converter, arrayField, fromTime, fromInclusive, toTime);
+        return context -> new Document("$project", new Document(arrayField, range));
+    }
+
+    /**
+     * 测量时间早于before的最近一个条目（before为null时取最新的条目）；
+     * 有序文档二分查找后按下标取出，其余文档在范围内逐条比较取最大
+     *
+     * @param mongoTemplate MongoTemplate
+     * @param domainType 文档实体类型
+     * @param criteria 文档过滤条件
+     * @param arrayField 条目数组字段名
+     * @param before 时间（不包含），为null时不限制
+     * @param entryType 条目类型
+     * @return 条目，不存在时返回null
+     */
+    static <T> T findLatestEntryBefore(MongoTemplate mongoTemplate, Class<?> domainType, Criteria criteria,
+                                       String arrayField, LocalDateTime before, Class<T> entryType) {
+        String array = "$" + arrayField;
+        Object time = before == null ? null : mongoTemplate.getConverter().convertToMongoType(before);
+        Object index = time == null ? new Document("$size", array) : searchIndex(arrayField, "$lt", time);
+        Document sortedLatest = new Document("$let", new Document("vars", new Document("index", index))
+                .append("in", new Document("$cond", Arrays.asList(
+                        new Document("$gt", List.of("$$index", 0)),
+                        new Document("$arrayElemAt", List.of(array, new Document("$subtract", List.of("$$index", 1)))),
+                        null))));
+        Document unsortedLatest = new Document("$reduce", new Document("input",
+                time == null ? array : filterEntries(arrayField, null, true, time))
+                .append("initialValue", null)
+                .append("in", new Document("$cond", List.of(
+                        new Document("$or", List.of(
+                                new Document("$eq", Arrays.asList("$$value", null)),
+                                new Document("$gt", List.of("$$this." + MEASURE_TIME, "$$value." + MEASURE_TIME)))),
+                        "$$this",
+                        "$$value"))));
+        Document latest = new Document("$cond", List.of(
+                new Document("$eq", List.of("$" + SORTED_FIELD, true)), sortedLatest, unsortedLatest));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                context -> new Document("$project", new Document("_id", 0).append("entry", latest)),
+                Aggregation.match(Criteria.where("entry").ne(null)),
+                context -> new Document("$replaceRoot", new Document("newRoot", "$entry")));
+        Document result = mongoTemplate.aggregate(aggregation, domainType, Document.class).getUniqueMappedResult();
+        return result == null ? null : mongoTemplate.getConverter().read(entryType, result);
+    }
+
+    /**
+     * 投影统计信息，以及数组字段中ID属于entryIds的条目（$filter）
+     *
+     * @param query 查询
+     * @param arrayField 条目数组字段名
+     * @param entryIds 条目ID列表
+     */
+    static void includeStatisticsAndEntries(Query query, String arrayField, Collection<String> entryIds) {
+        List<String> ids = new ArrayList<>(entryIds);
+        Document filter = new Document("$filter", new Document("input", "$" + arrayField)
+                .append("as", "entry")
+                .append("cond", new Document("$in", List.of("$$entry.id", ids))));
+        query.fields().include("statistics");
+        query.fields().project(() -> filter).as(arrayField);
+    }
+
+    /**
+     * 在服务端按时间范围过滤、排序并分页查询数组字段中的条目
+     * 条目以字符串存储的数值字段（decimalFields）按$toDecimal转换后的数值排序
+     *
+     * @param mongoTemplate MongoTemplate
+     * @param domainType 文档实体类型
+     * @param criteria 文档过滤条件
+     * @param arrayField 条目数组字段名
+     * @param startTime 开始时间（不包含），为null时不限制
+     * @param endTime 结束时间（不包含），为null时不限制
+     * @param pageable 分页与排序（排序属性为条目字段名）
+     * @param decimalFields 以字符串存储的数值字段
+     * @param entryType 条目类型
+     * @return 当前页条目及总数
+     */
+    static <T> Page<T> findEntriesPage(MongoTemplate mongoTemplate, Class<?> domainType, Criteria criteria,
+                                       String arrayField, LocalDateTime startTime, LocalDateTime endTime,
+                                       Pageable pageable, Set<String> decimalFields, Class<T> entryType) {
+        Aggregation aggregation = entriesPageAggregation(mongoTemplate.getConverter(), criteria, arrayField, startTime,
+                endTime, pageable, decimalFields);
+        Document result = mongoTemplate.aggregate(aggregation, domainType, Document.class).getUniqueMappedResult();
+        return toEntriesPage(mongoTemplate.getConverter(), result, pageable, entryType);
+    }
+
+    /**
+     * {@link #findEntriesPage(MongoTemplate, Class, Criteria, String, LocalDateTime, LocalDateTime, Pageable, Set, Class)}
+     * 的响应式版本，使用同一个聚合管道
+     */
+    static <T> Mono<Page<T>> findEntriesPage(ReactiveMongoTemplate reactiveMongoTemplate, Class<?> domainType,
+                                             Criteria criteria, String arrayField, LocalDateTime startTime,
+                                             LocalDateTime endTime, Pageable pageable, Set<String> decimalFields,
+                                             Class<T> entryType) {
+        Aggregation aggregation = entriesPageAggregation(reactiveMongoTemplate.getConverter(), criteria, arrayField,
+                startTime, endTime, pageable, decimalFields);
+        return reactiveMongoTemplate.aggregate(aggregation, domainType, Document.class)
+                .singleOrEmpty()
+                .map(result -> toEntriesPage(reactiveMongoTemplate.getConverter(), result, pageable, entryType))
+                .defaultIfEmpty(new PageImpl<>(new ArrayList<>(), pageable, 0));
+    }
+
+    private static Aggregation entriesPageAggregation(MongoConverter converter, Criteria criteria, String arrayField,
+                                                      LocalDateTime startTime, LocalDateTime endTime,
+                                                      Pageable pageable, Set<String> decimalFields) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        if (startTime != null || endTime != null) {
+            operations.add(projectEntriesInRange(converter, arrayField, startTime, false, endTime));
+        }
+        operations.add(Aggregation.unwind(arrayField));
+
+        // 排序字段映射到条目路径，字符串数值转换为Decimal后排序；追加条目ID保证翻页稳定
+        List<AggregationOperation> pageOperations = new ArrayList<>();
+        Document sortKeys = new Document();
+        Document sortValues = new Document();
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "measureTime");
+        for (Sort.Order order : sort) {
+            String path = "$" + arrayField + "." + order.getProperty();
+            String key = "sortKey_" + sortKeys.size();
+            sortKeys.append(key, decimalFields.contains(order.getProperty())
+                    ? new Document("$toDecimal", path) : path);
+            sortValues.append(key, order.isAscending() ? 1 : -1);
+        }
+        sortValues.append(arrayField + ".id", sort.iterator().next().isAscending() ? 1 : -1);
+        pageOperations.add(context -> new Document("$addFields", sortKeys));
+        pageOperations.add(context -> new Document("$sort", sortValues));
+        pageOperations.add(Aggregation.skip(pageable.getOffset()));
+        pageOperations.add(Aggregation.limit(pageable.getPageSize()));
+        pageOperations.add(context -> new Document("$replaceRoot", new Document("newRoot", "$" + arrayField)));
+
+        operations.add(Aggregation.facet(Aggregation.count().as("total")).as("total")
+                .and(pageOperations.toArray(new AggregationOperation[0])).as("records"));
+
+        return Aggregation.newAggregation(operations);
+    }
+
+    private static <T> Page<T> toEntriesPage(MongoConverter converter, Document result, Pageable pageable,
+                                             Class<T> entryType) {
+        if (result == null) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
+        List<Document> totalDocs = result.getList("total", Document.class);
+        long total = totalDocs == null || totalDocs.isEmpty() ? 0 : ((Number) totalDocs.get(0).get("total")).longValue();
+        List<T> records = new ArrayList<>();
+        for (Document doc : result.getList("records", Document.class)) {
+            records.add(converter.read(entryType, doc));
+        }
+        return new PageImpl<>(records, pageable, total);
+    }
+
+    /**
+     * 查询数组字段中测量时间位于[fromTime, toTime)内的全部条目，按测量时间升序
+     *
+     * @param mongoTemplate MongoTemplate
+     * @param domainType 文档实体类型
+     * @param criteria 文档过滤条件
+     * @param arrayField 条目数组字段名
+     * @param fromTime 开始时间（包含）
+     * @param toTime 结束时间（不包含）
+     * @param entryType 条目类型
+     * @return 条目列表
+     */
+    static <T> List<T> findEntriesBetween(MongoTemplate mongoTemplate, Class<?> domainType, Criteria criteria,
+                                          String arrayField, LocalDateTime fromTime, LocalDateTime toTime,
+                                          Class<T> entryType) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                projectEntriesInRange(mongoTemplate.getConverter(), arrayField, fromTime, true, toTime),
+                Aggregation.unwind(arrayField),
+                Aggregation.sort(Sort.Direction.ASC, arrayField + ".measureTime"),
+                context -> new Document("$replaceRoot", new Document("newRoot", "$" + arrayField)));
+        List<T> entries = new ArrayList<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, domainType, Document.class).getMappedResults()) {
+            entries.add(mongoTemplate.getConverter().read(entryType, doc));
+        }
+        return entries;
+    }
+
+    /**
+     * 以响应式游标逐条读取[fromTime, toTime)内按测量时间升序的条目投影，不经过实体映射
+     *
+     * @param reactiveMongoTemplate ReactiveMongoTemplate
+     * @param domainType 文档实体类型
+     * @param criteria 文档过滤条件
+     * @param arrayField 条目数组字段名
+     * @param fromTime 开始时间（包含）
+     * @param toTime 结束时间（不包含）
+     * @param projection 条目投影（字段引用以"$" + arrayField + "."开头）
+     * @return 条目投影，字段t为测量时间
+     */
+    static Flux<Document> streamEntries(ReactiveMongoTemplate reactiveMongoTemplate, Class<?> domainType,
+                                        Criteria criteria, String arrayField, LocalDateTime fromTime,
+                                        LocalDateTime toTime, Document projection) {
+        Document fields = new Document("_id", 0).append("t", "$" + arrayField + ".measureTime");
+        fields.putAll(projection);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                projectEntriesInRange(reactiveMongoTemplate.getConverter(), arrayField, fromTime, true, toTime),
+                Aggregation.unwind(arrayField),
+                Aggregation.sort(Sort.Direction.ASC, arrayField + ".measureTime"),
+                context -> new Document("$project", fields));
+        return reactiveMongoTemplate.aggregate(aggregation, domainType, Document.class);
+    }
+
+    /**
+     * 以游标逐条读取条目并映射为条目类型，按测量时间升序；文档按documentOrder排序后依次展开已有序的条目数组，
+     * 不在服务端对展开后的条目整体排序，API节点与数据库的内存占用都与记录总数无关
+     * 返回的Stream持有数据库游标，调用方必须关闭
+     *
+     * @param mongoTemplate MongoTemplate
+     * @param domainType 文档实体类型
+     * @param criteria 文档过滤条件
+     * @param documentOrder 文档之间的顺序（如血糖桶按日期），每个用户只有一个文档时为null
+     * @param arrayField 条目数组字段名
+     * @param fromTime 开始时间（包含），为null时不限制
+     * @param toTime 结束时间（不包含），为null时不限制
+     * @param entryType 条目类型
+     * @return 条目流
+     */
+    static <T> Stream<T> openEntryStream(MongoTemplate mongoTemplate, Class<?> domainType, Criteria criteria,
+                                         Sort documentOrder, String arrayField, LocalDateTime fromTime,
+                                         LocalDateTime toTime, Class<T> entryType) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        if (documentOrder != null) {
+            // 在$unwind之前按文档排序，可由索引提供顺序，不需要阻塞式的内存排序
+            operations.add(Aggregation.sort(documentOrder));
+        }
+        if (fromTime != null || toTime != null) {
+            operations.add(projectEntriesInRange(mongoTemplate.getConverter(), arrayField, fromTime, true, toTime));
+        }
+        operations.add(Aggregation.unwind(arrayField));
+        operations.add(context -> new Document("$replaceRoot", new Document("newRoot", "$" + arrayField)));
+        Aggregation aggregation = Aggregation.newAggregation(operations);
+        return mongoTemplate.aggregateStream(aggregation, domainType, Document.class)
+                .map(doc -> mongoTemplate.getConverter().read(entryType, doc));
+    }
+
+    /**
+     * 转换为Decimal128，用于声明为DECIMAL128的字段在$inc/$min/$max/$set中的取值
+     *
+     * @param value 数值
+     * @return Decimal128，value为null时返回null
+     */
+    static Decimal128 toDecimal128(BigDecimal value) {
+        return value == null ? null : new Decimal128(value);
+    }
+
+    /**
+     * 按版本号条件更新用户的健康记录文档（乐观锁），版本号由MongoTemplate自动递增
+     * 读取后有其他写入（版本号已变化）或文档不存在时抛出OptimisticLockingFailureException，由调用方重新读取后重试
+     *
+     * @param mongoTemplate MongoTemplate
+     * @param domainType 文档实体类型
+     * @param userId 用户ID
+     * @param expectedVersion 读取时的版本号，旧文档没有版本号时为null（匹配缺少该字段的文档）
+     * @param update 更新内容
+     */
+    static void updateIfVersion(MongoTemplate mongoTemplate, Class<?> domainType, Long userId, Long expectedVersion,
+                                Update update) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("version").is(expectedVersion));
+        if (mongoTemplate.updateFirst(query, update, domainType).getMatchedCount() == 0) {
+            throw new OptimisticLockingFailureException(domainType.getSimpleName() + " 已被并发修改，userId="
+                    + userId + "，version=" + expectedVersion);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.migration.MigrationCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 数据迁移检查点Repository
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface MigrationCheckpointRepository extends MongoRepository<MigrationCheckpoint, String> {
+
+    /**
+     * 查询指定状态的检查点
+     *
+     * @param status 状态
+     * @return 检查点列表
+     */
+    List<MigrationCheckpoint> findByStatus(String status);
+}
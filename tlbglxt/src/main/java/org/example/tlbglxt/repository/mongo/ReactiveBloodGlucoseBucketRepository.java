@@ -0,0 +1,16 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 血糖分桶响应式Repository，用于高并发的只读查询
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface ReactiveBloodGlucoseBucketRepository extends ReactiveMongoRepository<BloodGlucoseBucket, String>,
+        ReactiveBloodGlucoseBucketRepositoryCustom {
+}
@@ -0,0 +1,40 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.util.GlucoseSeries;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * 血糖分桶响应式Repository扩展接口
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface ReactiveBloodGlucoseBucketRepositoryCustom {
+
+    /**
+     * 在MongoDB中按时间范围过滤、排序并分页查询血糖条目
+     *
+     * @param userId 用户ID
+     * @param startTime 开始时间（不包含），为null时不限制
+     * @param endTime 结束时间（不包含），为null时不限制
+     * @param pageable 分页与排序（排序属性为条目字段名）
+     * @return 当前页条目及总数
+     */
+    Mono<Page<BloodGlucoseRecord.GlucoseEntry>> findEntries(Long userId, LocalDateTime startTime,
+                                                             LocalDateTime endTime, Pageable pageable);
+
+    /**
+     * 以响应式游标读取[fromTime, toTime)内的血糖条目，直接构建列式序列
+     *
+     * @param userId 用户ID
+     * @param fromTime 开始时间（包含）
+     * @param toTime 结束时间（不包含）
+     * @return 血糖序列
+     */
+    Mono<GlucoseSeries> findSeries(Long userId, LocalDateTime fromTime, LocalDateTime toTime);
+}
@@ -0,0 +1,53 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.bson.Document;
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.util.GlucoseSeries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * 血糖分桶响应式Repository扩展实现，查询条件与聚合管道与阻塞版本一致
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class ReactiveBloodGlucoseBucketRepositoryCustomImpl implements ReactiveBloodGlucoseBucketRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Page<BloodGlucoseRecord.GlucoseEntry>> findEntries(Long userId, LocalDateTime startTime,
+                                                                    LocalDateTime endTime, Pageable pageable) {
+        return HealthRecordMongoSupport.findEntriesPage(reactiveMongoTemplate, BloodGlucoseBucket.class,
+                BloodGlucoseBucketRepositoryCustomImpl.bucketCriteria(userId, startTime, endTime), "entries",
+                startTime, endTime, pageable, BloodGlucoseBucketRepositoryCustomImpl.DECIMAL_ENTRY_FIELDS,
+                BloodGlucoseRecord.GlucoseEntry.class);
+    }
+
+    @Override
+    public Mono<GlucoseSeries> findSeries(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("bucketDate").gte(fromTime.toLocalDate()).lte(toTime.toLocalDate());
+        Document projection = new Document("v", new Document("$toDouble", "$entries.value"))
+                .append("m", "$entries.measureType");
+        return HealthRecordMongoSupport.streamEntries(reactiveMongoTemplate, BloodGlucoseBucket.class, criteria,
+                        "entries", fromTime, toTime, projection)
+                .reduceWith(() -> GlucoseSeries.builder(256), (builder, doc) -> {
+                    Number value = (Number) doc.get("v");
+                    if (value != null && doc.getDate("t") != null) {
+                        builder.add(doc.getDate("t").getTime(), value.floatValue(), doc.getString("m"));
+                    }
+                    return builder;
+                })
+                .map(GlucoseSeries.Builder::build);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * 血糖记录响应式Repository，用于高并发的只读查询
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface ReactiveBloodGlucoseRecordRepository extends ReactiveMongoRepository<BloodGlucoseRecord, String> {
+
+    /**
+     * 根据用户ID只查询血糖统计信息（不返回记录列表）
+     *
+     * @param userId 用户ID
+     * @return 血糖记录（只含统计信息与版本号）
+     */
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'statistics': 1, 'version': 1 }")
+    Mono<BloodGlucoseRecord> findStatisticsByUserId(Long userId);
+}
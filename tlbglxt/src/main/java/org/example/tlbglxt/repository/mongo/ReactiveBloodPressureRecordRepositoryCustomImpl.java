@@ -0,0 +1,54 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.bson.Document;
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.example.tlbglxt.util.PressureSeries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 血压记录响应式Repository扩展实现，聚合管道与阻塞版本一致
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class ReactiveBloodPressureRecordRepositoryCustomImpl implements ReactiveBloodPressureRecordRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Page<BloodPressureRecord.PressureEntry>> findEntries(Long userId, LocalDateTime startTime,
+                                                                      LocalDateTime endTime, Pageable pageable) {
+        return HealthRecordMongoSupport.findEntriesPage(reactiveMongoTemplate, BloodPressureRecord.class,
+                Criteria.where("userId").is(userId), "records", startTime, endTime, pageable,
+                Set.of(), BloodPressureRecord.PressureEntry.class);
+    }
+
+    @Override
+    public Mono<PressureSeries> findSeries(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        Document projection = new Document("s", "$records.systolic")
+                .append("d", "$records.diastolic")
+                .append("h", new Document("$ifNull", List.of("$records.heartRate", 0)));
+        return HealthRecordMongoSupport.streamEntries(reactiveMongoTemplate, BloodPressureRecord.class,
+                        Criteria.where("userId").is(userId), "records", fromTime, toTime, projection)
+                .reduceWith(() -> PressureSeries.builder(256), (builder, doc) -> {
+                    Number systolic = (Number) doc.get("s");
+                    Number diastolic = (Number) doc.get("d");
+                    if (systolic != null && diastolic != null && doc.getDate("t") != null) {
+                        builder.add(doc.getDate("t").getTime(), systolic.intValue(), diastolic.intValue(),
+                                ((Number) doc.get("h")).intValue());
+                    }
+                    return builder;
+                })
+                .map(PressureSeries.Builder::build);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.example.tlbglxt.entity.chat.ConsultationChat;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * 问诊聊天响应式Repository，用于高并发的只读查询
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Repository
+public interface ReactiveConsultationChatRepository extends ReactiveMongoRepository<ConsultationChat, String> {
+
+    /**
+     * 根据问诊编号查找
+     */
+    Mono<ConsultationChat> findByConsultationNo(String consultationNo);
+}
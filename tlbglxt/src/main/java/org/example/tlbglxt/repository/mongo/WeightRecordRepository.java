@@ -2,6 +2,7 @@ package org.example.tlbglxt.repository.mongo;
 
 import org.example.tlbglxt.entity.health.WeightRecord;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,7 +14,7 @@ import java.util.Optional;
  * @since 1.0.0
  */
 @Repository
-public interface WeightRecordRepository extends MongoRepository<WeightRecord, String> {
+public interface WeightRecordRepository extends MongoRepository<WeightRecord, String>, WeightRecordRepositoryCustom {
 
     /**
      * 根据用户ID查找体重记录
@@ -23,6 +24,15 @@ public interface WeightRecordRepository extends MongoRepository<WeightRecord, St
      */
     Optional<WeightRecord> findByUserId(Long userId);
 
+    /**
+     * 根据用户ID只查询体重统计信息（不返回记录列表）
+     *
+     * @param userId 用户ID
+     * @return 体重记录（只含统计信息与版本号）
+     */
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'statistics': 1, 'version': 1 }")
+    Optional<WeightRecord> findStatisticsByUserId(Long userId);
+
     /**
      * 检查用户是否存在体重记录
      *
@@ -0,0 +1,157 @@
+package org.example.tlbglxt.repository.mongo;
+
+import org.bson.Document;
+import org.example.tlbglxt.entity.health.WeightRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.example.tlbglxt.repository.mongo.HealthRecordMongoSupport.toDecimal128;
+
+/**
+ * 体重记录Repository扩展实现
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class WeightRecordRepositoryCustomImpl implements WeightRecordRepositoryCustom {
+
+    /**
+     * 条目中以字符串存储的数值字段
+     */
+    private static final Set<String> DECIMAL_ENTRY_FIELDS = Set.of("weight", "height", "bmi", "bodyFatRate", "muscleMass");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public WeightRecord pushEntry(Long userId, WeightRecord.WeightEntry entry, WeightRecord.WeightStatistics delta) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("statistics");
+        Update update = HealthRecordMongoSupport.pushSorted(statisticsDelta(delta), "records", entry)
+                .set("updateTime", LocalDateTime.now())
+                .setOnInsert("createTime", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true), WeightRecord.class);
+    }
+
+    @Override
+    public WeightRecord setEntry(Long userId, String entryId, WeightRecord.WeightEntry entry) {
+        entry.setId(entryId);
+        Query query = Query.query(Criteria.where("userId").is(userId).and("records.id").is(entryId));
+        HealthRecordMongoSupport.includeStatisticsAndEntries(query, "records", List.of(entryId));
+        // 测量时间可能变化：替换时先去掉有序标记，再重新排序，期间的读取按条目逐一过滤
+        Update update = new Update()
+                .set("records.$[entry]", entry)
+                .unset(HealthRecordMongoSupport.SORTED_FIELD)
+                .set("updateTime", LocalDateTime.now())
+                .filterArray(Criteria.where("entry.id").is(entryId));
+        WeightRecord previous = mongoTemplate.findAndModify(query, update, WeightRecord.class);
+        if (previous != null) {
+            HealthRecordMongoSupport.resort(mongoTemplate, WeightRecord.class, Criteria.where("userId").is(userId), "records");
+        }
+        return previous;
+    }
+
+    @Override
+    public WeightRecord pullEntries(Long userId, Collection<String> entryIds) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("records.id").in(entryIds));
+        HealthRecordMongoSupport.includeStatisticsAndEntries(query, "records", entryIds);
+        Update update = new Update()
+                .pull("records", Query.query(Criteria.where("id").in(entryIds)).getQueryObject())
+                .set("updateTime", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, WeightRecord.class);
+    }
+
+    @Override
+    public void incStatistics(Long userId, WeightRecord.WeightStatistics delta) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        mongoTemplate.updateFirst(query, statisticsDelta(delta), WeightRecord.class);
+    }
+
+    @Override
+    public void setDerivedStatistics(Long userId, WeightRecord.WeightStatistics statistics, Long expectedVersion) {
+        Update update = new Update()
+                .set("statistics.avgWeight", statistics.getAvgWeight())
+                .set("statistics.maxWeight", toDecimal128(statistics.getMaxWeight()))
+                .set("statistics.minWeight", toDecimal128(statistics.getMinWeight()))
+                .set("statistics.currentWeight", statistics.getCurrentWeight())
+                .set("statistics.currentBmi", statistics.getCurrentBmi())
+                .set("statistics.currentMeasureTime", statistics.getCurrentMeasureTime())
+                .set("statistics.lastUpdateTime", LocalDateTime.now());
+        HealthRecordMongoSupport.updateIfVersion(mongoTemplate, WeightRecord.class, userId, expectedVersion, update);
+    }
+
+    @Override
+    public WeightRecord.WeightStatistics findExtremes(Long userId) {
+        // 体重可能以字符串或数值存储，统一转换为decimal后再比较
+        Document weights = new Document("$map", new Document("input", "$records")
+                .append("as", "entry")
+                .append("in", new Document("$toDecimal", "$$entry.weight")));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("maxWeight", new Document("$max", weights))
+                        .append("minWeight", new Document("$min", weights))));
+        return mongoTemplate.aggregate(aggregation, WeightRecord.class,
+                WeightRecord.WeightStatistics.class).getUniqueMappedResult();
+    }
+
+    @Override
+    public WeightRecord.WeightEntry findLatestEntryBefore(Long userId, LocalDateTime before) {
+        return HealthRecordMongoSupport.findLatestEntryBefore(mongoTemplate, WeightRecord.class,
+                Criteria.where("userId").is(userId), "records", before, WeightRecord.WeightEntry.class);
+    }
+
+    @Override
+    public void setStatistics(Long userId, WeightRecord.WeightStatistics statistics, Long expectedVersion) {
+        HealthRecordMongoSupport.updateIfVersion(mongoTemplate, WeightRecord.class, userId, expectedVersion,
+                Update.update("statistics", statistics).set("updateTime", LocalDateTime.now()));
+    }
+
+    /**
+     * 将统计增量转换为$inc/$min/$max更新
+     */
+    private Update statisticsDelta(WeightRecord.WeightStatistics delta) {
+        Update update = new Update()
+                .inc("statistics.totalCount", delta.getTotalCount())
+                .inc("statistics.sumWeight", toDecimal128(delta.getSumWeight()));
+        if (delta.getMaxWeight() != null) {
+            update.max("statistics.maxWeight", toDecimal128(delta.getMaxWeight()))
+                    .min("statistics.minWeight", toDecimal128(delta.getMinWeight()));
+        }
+        return update;
+    }
+
+    @Override
+    public Page<WeightRecord.WeightEntry> findEntries(Long userId, LocalDateTime startTime,
+                                                      LocalDateTime endTime, Pageable pageable) {
+        return HealthRecordMongoSupport.findEntriesPage(mongoTemplate, WeightRecord.class,
+                Criteria.where("userId").is(userId), "records", startTime, endTime, pageable,
+                DECIMAL_ENTRY_FIELDS, WeightRecord.WeightEntry.class);
+    }
+
+    @Override
+    public List<WeightRecord.WeightEntry> findEntriesBetween(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        return HealthRecordMongoSupport.findEntriesBetween(mongoTemplate, WeightRecord.class,
+                Criteria.where("userId").is(userId), "records", fromTime, toTime, WeightRecord.WeightEntry.class);
+    }
+
+    @Override
+    public Stream<WeightRecord.WeightEntry> streamEntries(Long userId, LocalDateTime fromTime, LocalDateTime toTime) {
+        return HealthRecordMongoSupport.openEntryStream(mongoTemplate, WeightRecord.class,
+                Criteria.where("userId").is(userId), null, "records", fromTime, toTime, WeightRecord.WeightEntry.class);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.tlbglxt.service;
+
+import org.example.tlbglxt.dto.response.chat.InboxResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * 问诊消息列表索引服务接口
+ * 每个用户在Redis中维护三个结构：按最后活跃时间排序的问诊有序集合、每个问诊的未读数哈希、每个问诊的已读序号哈希。
+ * 索引按需从MongoDB重建，有序集合不存在表示尚未建立；写入时索引未建立则跳过，由下次读取时重建
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface ChatInboxService {
+
+    /**
+     * 记录一条新消息：两个参与者的问诊活跃时间更新为发送时间，接收方未读数加一；
+     * 接收方的已读序号已不小于消息序号时（先标记已读、后记录消息）不再计入未读
+     *
+     * @param consultationNo 问诊编号
+     * @param senderId 发送者ID
+     * @param recipientId 接收者ID
+     * @param seq 消息序号
+     * @param sendTime 发送时间
+     */
+    void recordMessage(String consultationNo, Long senderId, Long recipientId, long seq, LocalDateTime sendTime);
+
+    /**
+     * 把已读序号推进到upToSeq，未读数减去新读到的对方消息数；upToSeq不大于当前已读序号时不做处理
+     *
+     * @param userId 用户ID
+     * @param consultationNo 问诊编号
+     * @param upToSeq 已读到的消息序号（包含）
+     * @param readCounter 统计序号在(原已读序号, upToSeq]之间对方发送的消息数
+     */
+    void markRead(Long userId, String consultationNo, long upToSeq, LongBinaryOperator readCounter);
+
+    /**
+     * 读取用户在指定问诊中的未读数
+     *
+     * @return 问诊编号到未读数；索引尚未建立或Redis不可用时返回null
+     */
+    Map<String, Long> getUnreadCounts(Long userId, List<String> consultationNos);
+
+    /**
+     * 一次往返读取最近活跃的问诊及全部未读数
+     *
+     * @return 消息列表；索引尚未建立或Redis不可用时返回null
+     */
+    InboxResponse getInbox(Long userId, int limit);
+
+    /**
+     * 开始重建：在读取MongoDB之前取得用户当前的写入代数
+     *
+     * @param userId 用户ID
+     * @return 写入代数；Redis不可用时返回null
+     */
+    String beginRebuild(Long userId);
+
+    /**
+     * 用MongoDB中的问诊重建用户的索引；自beginRebuild以来有消息写入或标记已读时放弃重建
+     *
+     * @param userId 用户ID
+     * @param generation beginRebuild返回的写入代数，为null时不重建
+     * @param entries 用户参与的全部问诊（含未读数）
+     * @param readSeqs 问诊编号到用户已读序号
+     */
+    void rebuild(Long userId, String generation, List<InboxResponse.Entry> entries, Map<String, Long> readSeqs);
+}
@@ -4,8 +4,12 @@ import org.example.tlbglxt.common.PageResult;
 import org.example.tlbglxt.common.Result;
 import org.example.tlbglxt.dto.request.chat.CreateConsultationRequest;
 import org.example.tlbglxt.dto.request.chat.SendMessageRequest;
+import org.example.tlbglxt.dto.response.chat.ConsultationSummary;
+import org.example.tlbglxt.dto.response.chat.InboxResponse;
+import org.example.tlbglxt.dto.response.chat.MessageHistoryResponse;
 import org.example.tlbglxt.entity.chat.ConsultationChat;
 import org.example.tlbglxt.entity.chat.ConsultationMessage;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.time.LocalDateTime;
@@ -26,34 +30,39 @@ public interface ConsultationChatService {
     Result<ConsultationMessage> sendMessage(Long senderId, String senderType, SendMessageRequest request);
     
     /**
-     * 获取问诊详情
+     * 获取问诊详情（含最近的消息），基于响应式驱动，查询期间不占用请求线程
      */
-    Result<ConsultationChat> getConsultationDetail(String consultationNo);
+    Mono<Result<ConsultationChat>> getConsultationDetail(String consultationNo);
     
     /**
      * 获取患者的问诊列表
      */
-    Result<List<ConsultationChat>> getPatientConsultations(Long patientId);
+    Result<List<ConsultationSummary>> getPatientConsultations(Long patientId);
     
     /**
      * 获取医生的问诊列表
      */
-    Result<List<ConsultationChat>> getDoctorConsultations(Long doctorId);
+    Result<List<ConsultationSummary>> getDoctorConsultations(Long doctorId);
     
     /**
-     * 分页获取患者问诊列表
+     * 分页获取患者问诊列表，按创建时间倒序
+     * 传入上一页返回的nextCursor时从游标处继续（忽略page）；withTotal为true时才统计总数
      */
-    Result<PageResult<ConsultationChat>> getPatientConsultationsPage(Long patientId, int page, int size);
+    Result<PageResult<ConsultationSummary>> getPatientConsultationsPage(Long patientId, int page, int size,
+                                                                       String cursor, boolean withTotal);
     
     /**
-     * 分页获取医生问诊列表
+     * 分页获取医生问诊列表，游标与总数同上
      */
-    Result<PageResult<ConsultationChat>> getDoctorConsultationsPage(Long doctorId, int page, int size);
+    Result<PageResult<ConsultationSummary>> getDoctorConsultationsPage(Long doctorId, int page, int size,
+                                                                      String cursor, boolean withTotal);
     
     /**
-     * 分页获取医生指定状态的问诊列表
+     * 分页获取医生指定状态的问诊列表，游标与总数同上
      */
-    Result<PageResult<ConsultationChat>> getDoctorConsultationsPageByStatus(Long doctorId, int page, int size, String statusFilter);
+    Result<PageResult<ConsultationSummary>> getDoctorConsultationsPageByStatus(Long doctorId, int page, int size,
+                                                                              String statusFilter, String cursor,
+                                                                              boolean withTotal);
     
     /**
      * 医生接诊
@@ -71,14 +80,36 @@ public interface ConsultationChatService {
     Result<Void> cancelConsultation(String consultationNo, Long userId);
     
     /**
-     * 标记消息为已读
+     * 标记消息为已读，该消息之前的消息一并视为已读
      */
     Result<Void> markMessageAsRead(String consultationNo, String messageId, Long userId);
+
+    /**
+     * 把用户在问诊中的已读序号推进到upToSeq（包含），upToSeq为空时标记全部已读
+     */
+    Result<Void> markReadUpTo(String consultationNo, Long userId, Long upToSeq);
+
+    /**
+     * 获取用户的消息列表：最近活跃的问诊及未读数
+     */
+    Result<InboxResponse> getInbox(Long userId, int limit);
+    
+    /**
+     * 分页获取聊天记录，从beforeSeq（不包含）向前取limit条，beforeSeq为空时取最新的消息
+     */
+    Result<MessageHistoryResponse> getMessageHistory(String consultationNo, Long userId, Long beforeSeq, int limit);
+
+    /**
+     * 将旧问诊文档中内嵌的消息迁移到 consultation_messages，问诊文档只保留最近的消息与最后一条消息摘要
+     *
+     * @return 是否迁移；已迁移或问诊不存在时返回false
+     */
+    boolean migrateEmbeddedMessages(String consultationNo);
     
     /**
      * 获取用户正在进行的问诊
      */
-    Result<List<ConsultationChat>> getActiveConsultations(Long userId);
+    Result<List<ConsultationSummary>> getActiveConsultations(Long userId);
     
     /**
      * 统计医生今日问诊数量
@@ -108,7 +139,7 @@ public interface ConsultationChatService {
     /**
      * 获取医生最近咨询列表
      */
-    Result<List<ConsultationChat>> getRecentConsultations(Long doctorId, int limit);
+    Result<List<ConsultationSummary>> getRecentConsultations(Long doctorId, int limit);
 
     // ======================= 管理员统计相关方法 =======================
 
@@ -0,0 +1,56 @@
+package org.example.tlbglxt.service;
+
+import org.example.tlbglxt.dto.response.MigrationStatusResponse;
+
+import java.util.List;
+
+/**
+ * 数据迁移服务接口
+ * 按userId分区并行、以游标分批执行已注册的迁移，每批写入后保存检查点；
+ * 进程退出后由本实例重启时或其他实例在租约过期后从检查点继续
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface DataMigrationService {
+
+    /**
+     * 查询全部已注册迁移的状态
+     *
+     * @return 迁移状态列表
+     */
+    List<MigrationStatusResponse> listMigrations();
+
+    /**
+     * 查询迁移状态
+     *
+     * @param name 迁移名称
+     * @return 迁移状态
+     */
+    MigrationStatusResponse getMigration(String name);
+
+    /**
+     * 启动或继续迁移，在后台执行，立即返回
+     * 已完成的迁移需先重置；其他实例正在执行时抛出异常
+     *
+     * @param name 迁移名称
+     * @return 迁移状态
+     */
+    MigrationStatusResponse startMigration(String name);
+
+    /**
+     * 暂停迁移，执行中的批次写完后停止，之后可从检查点继续
+     *
+     * @param name 迁移名称
+     * @return 迁移状态
+     */
+    MigrationStatusResponse pauseMigration(String name);
+
+    /**
+     * 删除迁移的检查点，下次启动时从头执行；执行中的迁移需先暂停
+     *
+     * @param name 迁移名称
+     * @return 迁移状态
+     */
+    MigrationStatusResponse resetMigration(String name);
+}
@@ -0,0 +1,23 @@
+package org.example.tlbglxt.service;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+
+import java.util.List;
+
+/**
+ * 血糖异常告警服务接口
+ * 血糖写入成功后发布读数，由后台线程评估告警规则并通过WebSocket推送给患者当前问诊的医生
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface GlucoseAlertService {
+
+    /**
+     * 发布新写入的血糖读数，只入队不等待评估；队列已满时丢弃并计数，不影响写入
+     *
+     * @param userId 患者用户ID
+     * @param entries 已入库的读数
+     */
+    void publish(Long userId, List<BloodGlucoseRecord.GlucoseEntry> entries);
+}
@@ -0,0 +1,27 @@
+package org.example.tlbglxt.service;
+
+import org.example.tlbglxt.dto.request.health.AddBloodGlucoseRequest;
+import org.example.tlbglxt.dto.response.health.BulkImportResponse;
+
+import java.util.List;
+
+/**
+ * 血糖高频采集服务接口（CGM等连续监测设备）
+ * 读数校验后写入Redis Stream即返回，由消费组按用户分批异步写入MongoDB；
+ * 手动录入仍使用同步的 {@link HealthRecordService#addBloodGlucoseRecord}
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface GlucoseIngestService {
+
+    /**
+     * 校验并将血糖读数写入采集队列
+     * 入库时按(测量时间, 血糖值)去重，重复上报或消息重投不会产生重复记录
+     *
+     * @param userId 用户ID
+     * @param records 血糖读数
+     * @return 每条读数的处理结果（queued/rejected）
+     */
+    BulkImportResponse enqueue(Long userId, List<AddBloodGlucoseRequest> records);
+}
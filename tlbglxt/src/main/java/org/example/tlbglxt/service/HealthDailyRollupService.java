@@ -0,0 +1,95 @@
+package org.example.tlbglxt.service;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+import org.example.tlbglxt.entity.health.WeightRecord;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 健康数据日汇总服务接口
+ * 在健康记录写入时维护按(用户, 指标, 日期)汇总的数据，供趋势与窗口统计读取
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface HealthDailyRollupService {
+
+    /**
+     * 根据新增与移除的血糖条目更新日汇总
+     *
+     * @param userId 用户ID
+     * @param added 新增（或更新后）的条目
+     * @param removed 移除（或更新前）的条目
+     */
+    void applyGlucoseChanges(Long userId, List<BloodGlucoseRecord.GlucoseEntry> added,
+                             List<BloodGlucoseRecord.GlucoseEntry> removed);
+
+    /**
+     * 根据新增与移除的血压条目更新日汇总
+     *
+     * @param userId 用户ID
+     * @param added 新增（或更新后）的条目
+     * @param removed 移除（或更新前）的条目
+     */
+    void applyPressureChanges(Long userId, List<BloodPressureRecord.PressureEntry> added,
+                              List<BloodPressureRecord.PressureEntry> removed);
+
+    /**
+     * 根据新增与移除的体重条目更新日汇总
+     *
+     * @param userId 用户ID
+     * @param added 新增（或更新后）的条目
+     * @param removed 移除（或更新前）的条目
+     */
+    void applyWeightChanges(Long userId, List<WeightRecord.WeightEntry> added,
+                            List<WeightRecord.WeightEntry> removed);
+
+    /**
+     * 按血糖桶中的条目重新计算指定日期的血糖日汇总
+     *
+     * @param userId 用户ID
+     * @param dates 日期
+     */
+    void refreshGlucoseDays(Long userId, Collection<LocalDate> dates);
+
+    /**
+     * 查询指定日期范围内的日汇总（包含边界）
+     *
+     * @param userId 用户ID
+     * @param metric 指标类型
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 日汇总列表，按日期升序
+     */
+    List<HealthDailyRollup> findDailyRollups(Long userId, String metric, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 获取最近7/30/90天的窗口统计，血糖包含由90天均值估算的糖化血红蛋白
+     *
+     * @param userId 用户ID
+     * @return 按指标分组的窗口统计
+     */
+    Map<String, Object> getWindowStatistics(Long userId);
+
+    /**
+     * 根据原始记录重建用户全部日汇总
+     *
+     * @param userId 用户ID
+     * @return 重建的日汇总数量
+     */
+    int rebuildUserRollups(Long userId);
+
+    /**
+     * 根据原始记录重建用户某一指标的日汇总
+     *
+     * @param userId 用户ID
+     * @param metric 指标
+     * @return 重建的日汇总数量
+     */
+    int rebuildUserRollups(Long userId, String metric);
+}
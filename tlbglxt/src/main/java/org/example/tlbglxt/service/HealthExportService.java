@@ -0,0 +1,65 @@
+package org.example.tlbglxt.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 健康数据导出服务接口
+ * 以数据库游标逐条读取各指标记录，按测量时间归并后流式写出，内存占用与记录总数无关
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface HealthExportService {
+
+    /**
+     * 导出格式：CSV
+     */
+    String FORMAT_CSV = "csv";
+
+    /**
+     * 导出格式：每行一个JSON对象
+     */
+    String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * 校验导出格式
+     *
+     * @param format 导出格式（csv/ndjson）
+     * @return 规范化后的格式
+     */
+    String resolveFormat(String format);
+
+    /**
+     * 解析导出指标，为空时导出全部指标
+     *
+     * @param metrics 逗号分隔的指标（glucose,pressure,weight）
+     * @return 去重后的指标列表
+     */
+    List<String> resolveMetrics(String metrics);
+
+    /**
+     * 校验医生是否可以导出患者的健康数据（存在该医生与患者之间的问诊）
+     *
+     * @param doctorId 医生ID
+     * @param patientId 患者ID
+     */
+    void checkDoctorAccess(Long doctorId, Long patientId);
+
+    /**
+     * 将用户的健康记录按测量时间升序写出到输出流
+     *
+     * @param userId 用户ID
+     * @param format 导出格式（已校验）
+     * @param metrics 导出指标（已校验）
+     * @param startTime 开始时间（包含），为null时不限制
+     * @param endTime 结束时间（不包含），为null时不限制
+     * @param out 输出流，由调用方关闭
+     * @return 写出的记录数
+     * @throws IOException 写出失败
+     */
+    long export(Long userId, String format, List<String> metrics, LocalDateTime startTime, LocalDateTime endTime,
+                OutputStream out) throws IOException;
+}
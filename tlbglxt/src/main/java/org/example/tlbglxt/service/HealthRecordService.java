@@ -5,10 +5,15 @@ import org.example.tlbglxt.dto.request.health.AddBloodPressureRequest;
 import org.example.tlbglxt.dto.request.health.AddWeightRequest;
 import org.example.tlbglxt.dto.request.health.QueryHealthRecordRequest;
 import org.example.tlbglxt.dto.response.health.BloodGlucoseRecordResponse;
+import org.example.tlbglxt.dto.response.health.BulkImportResponse;
 import org.example.tlbglxt.dto.response.health.BloodPressureRecordResponse;
+import org.example.tlbglxt.dto.response.health.HealthTrendResponse;
 import org.example.tlbglxt.common.PageResult;
+import reactor.core.publisher.Mono;
 
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +33,36 @@ public interface HealthRecordService {
      */
     Boolean addBloodGlucoseRecord(Long userId, AddBloodGlucoseRequest request);
 
+    /**
+     * 批量导入血糖记录（血糖仪/CGM同步）
+     * 逐条校验（测量类型为空时按random处理），按(测量时间, 血糖值)与已有记录及本批次去重，
+     * 每个血糖桶只追加一次，统计信息每批只更新一次
+     *
+     * @param userId 用户ID
+     * @param records 血糖记录列表
+     * @return 每条记录的处理结果
+     */
+    BulkImportResponse importBloodGlucoseRecords(Long userId, List<AddBloodGlucoseRequest> records);
+
+    /**
+     * 根据血糖桶汇总重算总体统计，并重建指定日期的日汇总
+     * 用于采集消息重投递：上次已追加到血糖桶但统计未更新的读数再次到达时会被判为重复，不会再计入统计
+     *
+     * @param userId 用户ID
+     * @param dates 涉及的测量日期
+     */
+    void reconcileBloodGlucoseDays(Long userId, Collection<LocalDate> dates);
+
+    /**
+     * 以CSV批量导入血糖记录
+     * 首行为表头，列名为 value、measureType、measureTime、mealType、note（顺序不限，value与measureTime必填）
+     *
+     * @param userId 用户ID
+     * @param csv CSV文本
+     * @return 每行的处理结果
+     */
+    BulkImportResponse importBloodGlucoseCsv(Long userId, String csv);
+
     /**
      * 更新血糖记录
      *
@@ -58,22 +93,22 @@ public interface HealthRecordService {
     Boolean updateBloodPressureRecord(Long userId, String recordId, AddBloodPressureRequest request);
 
     /**
-     * 获取血糖记录
+     * 获取血糖记录（分页），基于响应式驱动，查询期间不占用请求线程
      *
      * @param userId 用户ID
      * @param request 查询请求
      * @return 血糖记录响应
      */
-    BloodGlucoseRecordResponse getBloodGlucoseRecords(Long userId, QueryHealthRecordRequest request);
+    Mono<BloodGlucoseRecordResponse> getBloodGlucoseRecords(Long userId, QueryHealthRecordRequest request);
 
     /**
-     * 获取血压记录（分页）
+     * 获取血压记录（分页），基于响应式驱动，查询期间不占用请求线程
      *
      * @param userId 用户ID
      * @param request 查询请求
      * @return 血压记录响应
      */
-    BloodPressureRecordResponse getBloodPressureRecords(Long userId, QueryHealthRecordRequest request);
+    Mono<BloodPressureRecordResponse> getBloodPressureRecords(Long userId, QueryHealthRecordRequest request);
 
     /**
      * 批量删除血糖记录
@@ -120,14 +155,16 @@ public interface HealthRecordService {
     Object getHealthStatistics(Long userId);
 
     /**
-     * 获取用户健康数据趋势
+     * 获取用户健康数据趋势；血糖与血压的原始点使用响应式驱动读取，日汇总与体重在弹性线程池中以阻塞驱动读取
      *
      * @param userId 用户ID
      * @param dataType 数据类型（glucose/pressure/weight）
      * @param days 天数
+     * @param maxPoints 最大返回点数，为null时使用默认值
+     * @param sampling 降采样方式（lttb/envelope/daily，daily读取日汇总）
      * @return 趋势数据
      */
-    Object getHealthDataTrend(Long userId, String dataType, Integer days);
+    Mono<HealthTrendResponse> getHealthDataTrend(Long userId, String dataType, Integer days, Integer maxPoints, String sampling);
 
     /**
      * 初始化用户健康档案
@@ -145,6 +182,22 @@ public interface HealthRecordService {
      */
     Boolean recalculateBloodGlucoseStatistics(Long userId);
 
+    /**
+     * 根据全部血压记录重新计算血压统计数据
+     *
+     * @param userId 用户ID
+     * @return 是否完成，用户没有血压记录或并发写入频繁时返回false
+     */
+    Boolean recalculateBloodPressureStatistics(Long userId);
+
+    /**
+     * 根据全部体重记录重新计算体重统计数据
+     *
+     * @param userId 用户ID
+     * @return 是否完成，用户没有体重记录或并发写入频繁时返回false
+     */
+    Boolean recalculateWeightStatistics(Long userId);
+
     // ===== 体重记录相关方法 =====
 
     /**
@@ -0,0 +1,349 @@
+package org.example.tlbglxt.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.dto.response.chat.InboxResponse;
+import org.example.tlbglxt.service.ChatInboxService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * 问诊消息列表索引服务实现类
+ * <p>
+ * 键以用户ID为哈希标签，同一用户的三个结构位于同一槽位，单个脚本即可原子更新；
+ * 记录消息时两个参与者各执行一次脚本，放在同一个管道中发送。
+ * 标记已读以当前已读序号为条件推进（比较并设置），并发标记时重新读取后重试，未读数按新读到的消息数递减。
+ * 索引设置过期时间，每次写入时续期，长期不活跃的用户过期后按需重建；Redis不可用时读取返回null，由调用方回退到MongoDB。
+ * 每次写入都递增用户的写入代数（索引未建立时也递增），重建在读取MongoDB之前取得写入代数，
+ * 以脚本在代数未变化时整体替换索引，读取期间有写入时放弃重建，避免用旧数据覆盖新的写入。
+ * </p>
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatInboxServiceImpl implements ChatInboxService {
+
+    private static final String INBOX_KEY_PREFIX = "chat:inbox:";
+    private static final String UNREAD_KEY_PREFIX = "chat:unread:";
+    private static final String READ_KEY_PREFIX = "chat:read:";
+    private static final String GENERATION_KEY_PREFIX = "chat:gen:";
+
+    /**
+     * 标记已读时并发冲突的最大重试次数
+     */
+    private static final int MAX_MARK_READ_ATTEMPTS = 3;
+
+    private static final long MARK_READ_CONFLICT = -2L;
+
+    /**
+     * KEYS: 有序集合、未读数、已读序号、写入代数；ARGV: 问诊编号、活跃时间、未读增量、过期毫秒数、消息序号
+     * 无论索引是否已建立都先递增写入代数，使进行中的重建失效；
+     * 消息序号不大于已读序号时（接收方已先标记已读）不再累加未读数
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[4])\n"
+                    + "redis.call('PEXPIRE', KEYS[4], ARGV[4])\n"
+                    + "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end\n"
+                    + "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])\n"
+                    + "if tonumber(ARGV[3]) ~= 0\n"
+                    + "        and tonumber(ARGV[5]) > tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0') then\n"
+                    + "    redis.call('HINCRBY', KEYS[2], ARGV[1], ARGV[3])\n"
+                    + "end\n"
+                    + "for i = 1, 3 do redis.call('PEXPIRE', KEYS[i], ARGV[4]) end\n"
+                    + "return 1", Long.class);
+
+    /**
+     * KEYS: 有序集合、未读数、已读序号、写入代数；ARGV: 问诊编号、预期的原已读序号、新已读序号、新读到的消息数、过期毫秒数
+     * 先递增写入代数；返回剩余未读数；索引未建立返回-1，已读序号已被并发修改返回-2
+     */
+    private static final RedisScript<Long> MARK_READ_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[4])\n"
+                    + "redis.call('PEXPIRE', KEYS[4], ARGV[5])\n"
+                    + "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end\n"
+                    + "local current = tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0')\n"
+                    + "if current ~= tonumber(ARGV[2]) then return -2 end\n"
+                    + "redis.call('HSET', KEYS[3], ARGV[1], ARGV[3])\n"
+                    + "local unread = redis.call('HINCRBY', KEYS[2], ARGV[1], -tonumber(ARGV[4]))\n"
+                    + "if unread <= 0 then redis.call('HDEL', KEYS[2], ARGV[1]) unread = 0 end\n"
+                    + "for i = 1, 3 do redis.call('PEXPIRE', KEYS[i], ARGV[5]) end\n"
+                    + "return unread", Long.class);
+
+    /**
+     * KEYS: 有序集合、未读数、已读序号、写入代数；
+     * ARGV: 开始重建时的写入代数、过期毫秒数、问诊数、未读问诊数，之后依次为(活跃时间, 问诊编号)、(问诊编号, 未读数)、(问诊编号, 已读序号)
+     * 写入代数已变化（读取MongoDB期间有消息写入或标记已读）时放弃重建返回0，否则整体替换三个结构返回1
+     */
+    private static final RedisScript<Long> REBUILD_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[4]) or '0') ~= ARGV[1] then return 0 end\n"
+                    + "redis.call('DEL', KEYS[1], KEYS[2], KEYS[3])\n"
+                    + "local i = 5\n"
+                    + "for n = 1, tonumber(ARGV[3]) do redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) i = i + 2 end\n"
+                    + "for n = 1, tonumber(ARGV[4]) do redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1]) i = i + 2 end\n"
+                    + "while i < #ARGV do redis.call('HSET', KEYS[3], ARGV[i], ARGV[i + 1]) i = i + 2 end\n"
+                    + "for k = 1, 3 do redis.call('PEXPIRE', KEYS[k], ARGV[2]) end\n"
+                    + "return 1", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 索引的过期时间
+     */
+    @Value("${chat.inbox.ttl-hours:72}")
+    private long ttlHours;
+
+    @Override
+    public void recordMessage(String consultationNo, Long senderId, Long recipientId, long seq, LocalDateTime sendTime) {
+        String score = String.valueOf(toEpochMilli(sendTime));
+        String ttl = String.valueOf(ttlMillis());
+        String messageSeq = String.valueOf(seq);
+        try {
+            // 管道中不能按EVALSHA失败再回退EVAL，直接发送脚本
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                eval(connection, RECORD_SCRIPT, scriptKeys(senderId), consultationNo, score, "0", ttl, messageSeq);
+                eval(connection, RECORD_SCRIPT, scriptKeys(recipientId), consultationNo, score, "1", ttl, messageSeq);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("更新消息列表索引失败 - 问诊编号: {}, 原因: {}", consultationNo, e.getMessage());
+            invalidate(senderId, recipientId);
+        }
+    }
+
+    @Override
+    public void markRead(Long userId, String consultationNo, long upToSeq, LongBinaryOperator readCounter) {
+        try {
+            for (int attempt = 0; attempt < MAX_MARK_READ_ATTEMPTS; attempt++) {
+                Object current = stringRedisTemplate.opsForHash().get(READ_KEY_PREFIX + tag(userId), consultationNo);
+                long fromSeq = current == null ? 0L : Long.parseLong(current.toString());
+                if (upToSeq <= fromSeq) {
+                    return;
+                }
+                long readCount = readCounter.applyAsLong(fromSeq, upToSeq);
+                Long result = stringRedisTemplate.execute(MARK_READ_SCRIPT, scriptKeys(userId), consultationNo,
+                        String.valueOf(fromSeq), String.valueOf(upToSeq), String.valueOf(readCount),
+                        String.valueOf(ttlMillis()));
+                if (result == null || result != MARK_READ_CONFLICT) {
+                    return;
+                }
+            }
+            log.warn("标记已读并发冲突，索引待重建 - 用户ID: {}, 问诊编号: {}", userId, consultationNo);
+            invalidate(userId);
+        } catch (Exception e) {
+            log.warn("更新已读序号失败 - 用户ID: {}, 问诊编号: {}, 原因: {}", userId, consultationNo, e.getMessage());
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getUnreadCounts(Long userId, List<String> consultationNos) {
+        if (consultationNos.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.hasKey(INBOX_KEY_PREFIX + tag(userId));
+                    ops.opsForHash().multiGet(UNREAD_KEY_PREFIX + tag(userId), new ArrayList<>(consultationNos));
+                    return null;
+                }
+            });
+            if (!Boolean.TRUE.equals(results.get(0))) {
+                return null;
+            }
+            List<?> values = (List<?>) results.get(1);
+            Map<String, Long> counts = new HashMap<>();
+            for (int i = 0; i < consultationNos.size(); i++) {
+                Object value = values.get(i);
+                counts.put(consultationNos.get(i), value == null ? 0L : Long.parseLong(value.toString()));
+            }
+            return counts;
+        } catch (Exception e) {
+            log.warn("读取未读数失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InboxResponse getInbox(Long userId, int limit) {
+        try {
+            List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.opsForZSet().reverseRangeWithScores(INBOX_KEY_PREFIX + tag(userId), 0, limit - 1);
+                    ops.opsForHash().entries(UNREAD_KEY_PREFIX + tag(userId));
+                    return null;
+                }
+            });
+            Set<ZSetOperations.TypedTuple<String>> recent = (Set<ZSetOperations.TypedTuple<String>>) results.get(0);
+            if (recent == null || recent.isEmpty()) {
+                return null;
+            }
+            Map<Object, Object> unread = (Map<Object, Object>) results.get(1);
+
+            InboxResponse response = new InboxResponse();
+            List<InboxResponse.Entry> entries = new ArrayList<>(recent.size());
+            for (ZSetOperations.TypedTuple<String> tuple : recent) {
+                InboxResponse.Entry entry = new InboxResponse.Entry();
+                entry.setConsultationNo(tuple.getValue());
+                entry.setLastActivityTime(tuple.getScore() == null ? null : toLocalDateTime(tuple.getScore().longValue()));
+                Object count = unread.get(tuple.getValue());
+                entry.setUnreadCount(count == null ? 0L : Long.parseLong(count.toString()));
+                entries.add(entry);
+            }
+            long totalUnread = 0;
+            int unreadConsultations = 0;
+            for (Object count : unread.values()) {
+                long value = Long.parseLong(count.toString());
+                if (value > 0) {
+                    totalUnread += value;
+                    unreadConsultations++;
+                }
+            }
+            response.setEntries(entries);
+            response.setTotalUnread(totalUnread);
+            response.setUnreadConsultations(unreadConsultations);
+            return response;
+        } catch (Exception e) {
+            log.warn("读取消息列表失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String beginRebuild(Long userId) {
+        try {
+            String generation = stringRedisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + tag(userId));
+            return generation == null ? "0" : generation;
+        } catch (Exception e) {
+            log.warn("读取消息列表写入代数失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void rebuild(Long userId, String generation, List<InboxResponse.Entry> entries, Map<String, Long> readSeqs) {
+        if (generation == null || entries.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(generation);
+        args.add(String.valueOf(ttlMillis()));
+        args.add(String.valueOf(entries.size()));
+        args.add("0");
+        for (InboxResponse.Entry entry : entries) {
+            args.add(String.valueOf(toEpochMilli(entry.getLastActivityTime())));
+            args.add(entry.getConsultationNo());
+        }
+        int unreadCount = 0;
+        for (InboxResponse.Entry entry : entries) {
+            if (entry.getUnreadCount() != null && entry.getUnreadCount() > 0) {
+                args.add(entry.getConsultationNo());
+                args.add(String.valueOf(entry.getUnreadCount()));
+                unreadCount++;
+            }
+        }
+        args.set(3, String.valueOf(unreadCount));
+        readSeqs.forEach((consultationNo, seq) -> {
+            args.add(consultationNo);
+            args.add(String.valueOf(seq));
+        });
+        try {
+            Long result = stringRedisTemplate.execute(REBUILD_SCRIPT, scriptKeys(userId), args.toArray());
+            if (result != null && result == 1L) {
+                log.debug("重建消息列表索引 - 用户ID: {}, 问诊数: {}", userId, entries.size());
+            } else {
+                log.debug("重建期间有新的写入，放弃本次重建 - 用户ID: {}", userId);
+            }
+        } catch (Exception e) {
+            log.warn("重建消息列表索引失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 删除索引，下次读取时从MongoDB重建；用于写入失败后避免索引与MongoDB长期不一致
+     */
+    private void invalidate(Long... userIds) {
+        try {
+            List<String> keys = new ArrayList<>();
+            for (Long userId : userIds) {
+                keys.addAll(keys(userId));
+                // 同时使进行中的重建失效，避免其写回删除前读取的数据
+                stringRedisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + tag(userId));
+                stringRedisTemplate.expire(GENERATION_KEY_PREFIX + tag(userId), Duration.ofMillis(ttlMillis()));
+            }
+            stringRedisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.warn("删除消息列表索引失败，等待过期 - 原因: {}", e.getMessage());
+        }
+    }
+
+    private static void eval(RedisConnection connection, RedisScript<Long> script, List<String> keys, String... args) {
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        for (int i = 0; i < keys.size(); i++) {
+            keysAndArgs[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < args.length; i++) {
+            keysAndArgs[keys.size() + i] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        connection.scriptingCommands().eval(script.getScriptAsString().getBytes(StandardCharsets.UTF_8),
+                ReturnType.INTEGER, keys.size(), keysAndArgs);
+    }
+
+    private static List<String> keys(Long userId) {
+        String tag = tag(userId);
+        return List.of(INBOX_KEY_PREFIX + tag, UNREAD_KEY_PREFIX + tag, READ_KEY_PREFIX + tag);
+    }
+
+    /**
+     * 脚本使用的键：三个索引结构及写入代数
+     */
+    private static List<String> scriptKeys(Long userId) {
+        String tag = tag(userId);
+        return List.of(INBOX_KEY_PREFIX + tag, UNREAD_KEY_PREFIX + tag, READ_KEY_PREFIX + tag, GENERATION_KEY_PREFIX + tag);
+    }
+
+    private static String tag(Long userId) {
+        return "{" + userId + "}";
+    }
+
+    private long ttlMillis() {
+        return Duration.ofHours(ttlHours).toMillis();
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time == null ? 0L : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+}
@@ -7,29 +7,62 @@ import org.example.tlbglxt.common.Result;
 import org.example.tlbglxt.common.ResultCode;
 import org.example.tlbglxt.dto.request.chat.CreateConsultationRequest;
 import org.example.tlbglxt.dto.request.chat.SendMessageRequest;
+import org.example.tlbglxt.dto.response.chat.ConsultationSummary;
+import org.example.tlbglxt.dto.response.chat.InboxResponse;
+import org.example.tlbglxt.dto.response.chat.MessageHistoryResponse;
+import org.example.tlbglxt.entity.DoctorInfo;
 import org.example.tlbglxt.entity.User;
 import org.example.tlbglxt.entity.chat.ConsultationChat;
 import org.example.tlbglxt.entity.chat.ConsultationMessage;
 import org.example.tlbglxt.repository.mongo.ConsultationChatRepository;
+import org.example.tlbglxt.repository.mongo.ConsultationMessageRepository;
+import org.example.tlbglxt.repository.mongo.ReactiveConsultationChatRepository;
+import org.example.tlbglxt.service.ChatInboxService;
 import org.example.tlbglxt.service.ConsultationChatService;
 import org.example.tlbglxt.service.DoctorService;
 import org.example.tlbglxt.service.UserService;
 import org.example.tlbglxt.service.WebSocketService;
-import org.springframework.data.domain.Page;
+import org.example.tlbglxt.util.PageCursor;
+import org.example.tlbglxt.util.ParallelLookup;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * 问诊聊天服务实现类
+ * 消息按问诊内递增的seq写入 consultation_messages，问诊文档只保留最近的消息与最后一条消息摘要；
+ * 问诊文档只做字段级更新，避免整文档保存覆盖并发写入的消息序号；发送消息以单个findAndModify完成。
+ * 已读状态按参与者记录已读到的消息序号（patientReadSeq/doctorReadSeq），不再逐条修改消息；
+ * 未读数与消息列表排序由 {@link ChatInboxService} 在Redis中维护，索引缺失时按已读序号从MongoDB重建
  */
 @Slf4j
 @Service
@@ -37,29 +70,68 @@ import java.util.UUID;
 public class ConsultationChatServiceImpl implements ConsultationChatService {
 
     private final ConsultationChatRepository consultationChatRepository;
+    private final ReactiveConsultationChatRepository reactiveConsultationChatRepository;
     private final UserService userService;
     private final DoctorService doctorService;
     private final WebSocketService webSocketService;
+    private final ParallelLookup parallelLookup;
+    private final ConsultationMessageRepository consultationMessageRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ChatInboxService chatInboxService;
+
+    /**
+     * 分页获取聊天记录时每页的最大条数
+     */
+    private static final int MAX_HISTORY_LIMIT = 100;
+
+    /**
+     * 消息摘要中文本预览的最大长度
+     */
+    private static final int PREVIEW_LENGTH = 50;
+
+    /**
+     * 写入消息集合的最大尝试次数（序号已分配，重试使用同一序号）
+     */
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    /**
+     * 问诊文档中保留的最近消息条数
+     */
+    @Value("${chat.message-tail-size:20}")
+    private int messageTailSize;
 
     @Override
     public Result<ConsultationChat> createConsultation(Long patientId, CreateConsultationRequest request) {
         try {
+            // 患者、医生及医生详细信息互不依赖，并行查询
+            Result<User> patientResult;
+            Result<User> doctorResult;
+            Result<DoctorInfo> doctorInfoResult;
+            try (ParallelLookup.Scope scope = parallelLookup.open()) {
+                ParallelLookup.Task<Result<User>> patientTask = scope.fork(() -> userService.getUserById(patientId));
+                ParallelLookup.Task<Result<User>> doctorTask =
+                        scope.fork(() -> userService.getUserById(request.getDoctorId()));
+                ParallelLookup.Task<Result<DoctorInfo>> doctorInfoTask =
+                        scope.fork(() -> doctorService.getDoctorInfoByUserId(request.getDoctorId()));
+                scope.join();
+                patientResult = patientTask.get();
+                doctorResult = doctorTask.get();
+                doctorInfoResult = doctorInfoTask.get();
+            }
+
             // 验证患者信息
-            Result<User> patientResult = userService.getUserById(patientId);
             if (!patientResult.isSuccess()) {
                 return Result.error(ResultCode.USER_NOT_EXIST);
             }
             User patient = patientResult.getData();
 
             // 验证医生信息
-            Result<User> doctorResult = userService.getUserById(request.getDoctorId());
             if (!doctorResult.isSuccess()) {
                 return Result.error(ResultCode.USER_NOT_EXIST);
             }
             User doctor = doctorResult.getData();
 
             // 获取医生详细信息
-            var doctorInfoResult = doctorService.getDoctorInfoByUserId(request.getDoctorId());
             if (!doctorInfoResult.isSuccess()) {
                 return Result.error(ResultCode.DATA_NOT_EXIST);
             }
@@ -100,6 +172,8 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
             List<ConsultationMessage> messages = new ArrayList<>();
             ConsultationMessage initialMessage = new ConsultationMessage();
             initialMessage.setMessageId(UUID.randomUUID().toString());
+            initialMessage.setConsultationNo(consultationNo);
+            initialMessage.setSeq(1L);
             initialMessage.setSenderId(patientId);
             initialMessage.setSenderType("patient");
             initialMessage.setMessageType("text");
@@ -109,6 +183,8 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
             messages.add(initialMessage);
             
             consultation.setMessages(messages);
+            consultation.setLastSeq(1L);
+            consultation.setLastMessage(toLastMessage(initialMessage));
 
             // 设置时间
             LocalDateTime now = LocalDateTime.now();
@@ -117,6 +193,9 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
 
             // 保存到MongoDB
             ConsultationChat savedConsultation = consultationChatRepository.save(consultation);
+            consultationMessageRepository.insert(initialMessage);
+            chatInboxService.recordMessage(consultationNo, patientId, request.getDoctorId(), initialMessage.getSeq(),
+                    initialMessage.getSendTime());
 
             // 通知医生有新的咨询
             webSocketService.notifyNewConsultation(savedConsultation);
@@ -133,30 +212,15 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     @Override
     public Result<ConsultationMessage> sendMessage(Long senderId, String senderType, SendMessageRequest request) {
         try {
-            // 查找问诊记录
-            Optional<ConsultationChat> consultationOpt = consultationChatRepository.findByConsultationNo(request.getConsultationNo());
-            if (consultationOpt.isEmpty()) {
-                return Result.error(ResultCode.DATA_NOT_EXIST, "问诊记录不存在");
-            }
-
-            ConsultationChat consultation = consultationOpt.get();
-
-            // 验证发送者权限
+            // 验证发送者类型
             if (!"patient".equals(senderType) && !"doctor".equals(senderType)) {
                 return Result.error(ResultCode.FORBIDDEN, "无效的发送者类型");
             }
 
-            if ("patient".equals(senderType) && !senderId.equals(consultation.getPatientId())) {
-                return Result.error(ResultCode.FORBIDDEN, "无权限发送消息");
-            }
-
-            if ("doctor".equals(senderType) && !senderId.equals(consultation.getDoctorId())) {
-                return Result.error(ResultCode.FORBIDDEN, "无权限发送消息");
-            }
-
             // 创建消息
             ConsultationMessage message = new ConsultationMessage();
             message.setMessageId(UUID.randomUUID().toString());
+            message.setConsultationNo(request.getConsultationNo());
             message.setSenderId(senderId);
             message.setSenderType(senderType);
             message.setMessageType(request.getMessageType());
@@ -169,23 +233,35 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
             message.setSendTime(LocalDateTime.now());
             message.setIsRead(false);
 
-            // 添加消息到问诊记录
-            if (consultation.getMessages() == null) {
-                consultation.setMessages(new ArrayList<>());
-            }
-            consultation.getMessages().add(message);
-            consultation.setUpdateTime(LocalDateTime.now());
-
-            // 更新问诊状态为进行中
-            if (consultation.getStatus() == 1) {
-                consultation.setStatus(2); // 进行中
-                if (consultation.getStartTime() == null) {
-                    consultation.setStartTime(LocalDateTime.now());
+            // 一次条件更新完成权限校验、分配序号、追加最近消息与状态流转
+            ConsultationChat savedConsultation = appendMessage(request.getConsultationNo(), senderId, senderType, message);
+            if (savedConsultation == null) {
+                // 未更新时区分原因：问诊不存在、无权限，或旧问诊的消息尚未迁移
+                Optional<ConsultationChat> consultationOpt = consultationChatRepository.findByConsultationNo(request.getConsultationNo());
+                if (consultationOpt.isEmpty()) {
+                    return Result.error(ResultCode.DATA_NOT_EXIST, "问诊记录不存在");
+                }
+                ConsultationChat consultation = consultationOpt.get();
+                Long participantId = "patient".equals(senderType) ? consultation.getPatientId() : consultation.getDoctorId();
+                if (!senderId.equals(participantId)) {
+                    return Result.error(ResultCode.FORBIDDEN, "无权限发送消息");
+                }
+                ensureMessagesMigrated(consultation);
+                savedConsultation = appendMessage(request.getConsultationNo(), senderId, senderType, message);
+                if (savedConsultation == null) {
+                    return Result.error(ResultCode.DATA_UPDATE_ERROR, "发送消息失败");
                 }
             }
 
-            // 保存更新
-            ConsultationChat savedConsultation = consultationChatRepository.save(consultation);
+            // 写入消息集合，供分页读取聊天记录；多次失败时撤回已追加到问诊文档的最近消息
+            message.setSeq(savedConsultation.getLastSeq());
+            if (!insertMessage(message)) {
+                revertAppendedMessage(message);
+                return Result.error(ResultCode.DATA_UPDATE_ERROR, "发送消息失败");
+            }
+            Long recipientId = "patient".equals(senderType) ? savedConsultation.getDoctorId() : savedConsultation.getPatientId();
+            chatInboxService.recordMessage(request.getConsultationNo(), senderId, recipientId, message.getSeq(),
+                    message.getSendTime());
 
             // 通过WebSocket发送实时消息通知
             webSocketService.sendMessageToConsultation(request.getConsultationNo(), message);
@@ -205,24 +281,21 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<ConsultationChat> getConsultationDetail(String consultationNo) {
-        try {
-            Optional<ConsultationChat> consultationOpt = consultationChatRepository.findByConsultationNo(consultationNo);
-            if (consultationOpt.isEmpty()) {
-                return Result.error(ResultCode.DATA_NOT_EXIST, "问诊记录不存在");
-            }
-            return Result.success(consultationOpt.get());
-        } catch (Exception e) {
-            log.error("获取问诊详情失败", e);
-            return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
-        }
+    public Mono<Result<ConsultationChat>> getConsultationDetail(String consultationNo) {
+        return reactiveConsultationChatRepository.findByConsultationNo(consultationNo)
+                .map(Result::success)
+                .defaultIfEmpty(Result.error(ResultCode.DATA_NOT_EXIST, "问诊记录不存在"))
+                .onErrorResume(e -> {
+                    log.error("获取问诊详情失败", e);
+                    return Mono.just(Result.error(ResultCode.INTERNAL_SERVER_ERROR));
+                });
     }
 
     @Override
-    public Result<List<ConsultationChat>> getPatientConsultations(Long patientId) {
+    public Result<List<ConsultationSummary>> getPatientConsultations(Long patientId) {
         try {
-            List<ConsultationChat> consultations = consultationChatRepository.findByPatientIdOrderByCreateTimeDesc(patientId);
-            return Result.success(consultations);
+            List<ConsultationChat> consultations = consultationChatRepository.findSummariesByPatientId(patientId);
+            return Result.success(toSummaries(consultations, patientId));
         } catch (Exception e) {
             log.error("获取患者问诊列表失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
@@ -230,10 +303,10 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<List<ConsultationChat>> getDoctorConsultations(Long doctorId) {
+    public Result<List<ConsultationSummary>> getDoctorConsultations(Long doctorId) {
         try {
-            List<ConsultationChat> consultations = consultationChatRepository.findByDoctorIdOrderByCreateTimeDesc(doctorId);
-            return Result.success(consultations);
+            List<ConsultationChat> consultations = consultationChatRepository.findSummariesByDoctorId(doctorId);
+            return Result.success(toSummaries(consultations, doctorId));
         } catch (Exception e) {
             log.error("获取医生问诊列表失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
@@ -241,19 +314,13 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<PageResult<ConsultationChat>> getPatientConsultationsPage(Long patientId, int page, int size) {
+    public Result<PageResult<ConsultationSummary>> getPatientConsultationsPage(Long patientId, int page, int size,
+                                                                              String cursor, boolean withTotal) {
         try {
-            Pageable pageable = PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, "createTime"));
-            Page<ConsultationChat> pageData = consultationChatRepository.findByPatientId(patientId, pageable);
-
-            PageResult<ConsultationChat> result = PageResult.of(
-                page, 
-                size, 
-                pageData.getTotalElements(), 
-                pageData.getContent()
-            );
-
-            return Result.success(result);
+            return Result.success(pageSummaries(Criteria.where("patientId").is(patientId), patientId,
+                    page, size, cursor, withTotal));
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
         } catch (Exception e) {
             log.error("分页获取患者问诊列表失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
@@ -261,19 +328,13 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<PageResult<ConsultationChat>> getDoctorConsultationsPage(Long doctorId, int page, int size) {
+    public Result<PageResult<ConsultationSummary>> getDoctorConsultationsPage(Long doctorId, int page, int size,
+                                                                             String cursor, boolean withTotal) {
         try {
-            Pageable pageable = PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, "createTime"));
-            Page<ConsultationChat> pageData = consultationChatRepository.findByDoctorId(doctorId, pageable);
-
-            PageResult<ConsultationChat> result = PageResult.of(
-                page, 
-                size, 
-                pageData.getTotalElements(), 
-                pageData.getContent()
-            );
-
-            return Result.success(result);
+            return Result.success(pageSummaries(Criteria.where("doctorId").is(doctorId), doctorId,
+                    page, size, cursor, withTotal));
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
         } catch (Exception e) {
             log.error("分页获取医生问诊列表失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
@@ -281,15 +342,13 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<PageResult<ConsultationChat>> getDoctorConsultationsPageByStatus(Long doctorId, int page, int size, String statusFilter) {
+    public Result<PageResult<ConsultationSummary>> getDoctorConsultationsPageByStatus(Long doctorId, int page, int size,
+                                                                                     String statusFilter, String cursor,
+                                                                                     boolean withTotal) {
         try {
-            Pageable pageable = PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, "createTime"));
-            Page<ConsultationChat> pageData;
+            Criteria criteria = Criteria.where("doctorId").is(doctorId);
 
-            if (statusFilter == null || statusFilter.trim().isEmpty()) {
-                // 如果没有状态过滤，返回所有
-                pageData = consultationChatRepository.findByDoctorId(doctorId, pageable);
-            } else {
+            if (statusFilter != null && !statusFilter.trim().isEmpty()) {
                 // 解析状态过滤参数 (例如 "2,3")
                 String[] statusArray = statusFilter.split(",");
                 List<Integer> statusList = new ArrayList<>();
@@ -300,24 +359,16 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
                         log.warn("无效的状态参数: {}", status);
                     }
                 }
-                
-                if (statusList.isEmpty()) {
-                    // 如果解析失败，返回所有
-                    pageData = consultationChatRepository.findByDoctorId(doctorId, pageable);
-                } else {
-                    // 查询指定状态的咨询
-                    pageData = consultationChatRepository.findByDoctorIdAndStatusIn(doctorId, statusList, pageable);
+
+                // 解析失败时返回所有
+                if (!statusList.isEmpty()) {
+                    criteria.and("status").in(statusList);
                 }
             }
 
-            PageResult<ConsultationChat> result = PageResult.of(
-                page, 
-                size, 
-                pageData.getTotalElements(), 
-                pageData.getContent()
-            );
-
-            return Result.success(result);
+            return Result.success(pageSummaries(criteria, doctorId, page, size, cursor, withTotal));
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
         } catch (Exception e) {
             log.error("分页获取医生指定状态问诊列表失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
@@ -348,11 +399,9 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
             Integer oldStatus = consultation.getStatus();
 
             // 更新状态为进行中
-            consultation.setStatus(2);
-            consultation.setStartTime(LocalDateTime.now());
-            consultation.setUpdateTime(LocalDateTime.now());
-
-            ConsultationChat savedConsultation = consultationChatRepository.save(consultation);
+            LocalDateTime now = LocalDateTime.now();
+            ConsultationChat savedConsultation = updateConsultation(consultation,
+                    Update.update("status", 2).set("startTime", now).set("updateTime", now));
 
             // 通知咨询状态变更
             webSocketService.notifyConsultationStatusChange(consultationNo, oldStatus, 2, savedConsultation);
@@ -387,11 +436,9 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
             Integer oldStatus = consultation.getStatus();
 
             // 更新状态为已完成
-            consultation.setStatus(3);
-            consultation.setEndTime(LocalDateTime.now());
-            consultation.setUpdateTime(LocalDateTime.now());
-
-            ConsultationChat savedConsultation = consultationChatRepository.save(consultation);
+            LocalDateTime now = LocalDateTime.now();
+            ConsultationChat savedConsultation = updateConsultation(consultation,
+                    Update.update("status", 3).set("endTime", now).set("updateTime", now));
 
             // 通知咨询状态变更
             webSocketService.notifyConsultationStatusChange(consultationNo, oldStatus, 3, savedConsultation);
@@ -431,10 +478,8 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
             Integer oldStatus = consultation.getStatus();
 
             // 更新状态为已取消
-            consultation.setStatus(4);
-            consultation.setUpdateTime(LocalDateTime.now());
-
-            ConsultationChat savedConsultation = consultationChatRepository.save(consultation);
+            ConsultationChat savedConsultation = updateConsultation(consultation,
+                    Update.update("status", 4).set("updateTime", LocalDateTime.now()));
 
             // 通知咨询状态变更
             webSocketService.notifyConsultationStatusChange(consultationNo, oldStatus, 4, savedConsultation);
@@ -465,18 +510,14 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
                 return Result.error(ResultCode.FORBIDDEN, "无权限操作");
             }
 
-            // 查找并更新消息状态
-            if (consultation.getMessages() != null) {
-                for (ConsultationMessage message : consultation.getMessages()) {
-                    if (message.getMessageId().equals(messageId) && !message.getSenderId().equals(userId)) {
-                        message.setIsRead(true);
-                        break;
-                    }
-                }
+            // 已读到该消息即已读到它之前的全部消息
+            ensureMessagesMigrated(consultation);
+            Optional<ConsultationMessage> messageOpt =
+                    consultationMessageRepository.findByConsultationNoAndMessageId(consultationNo, messageId);
+            if (messageOpt.isEmpty()) {
+                return Result.error(ResultCode.DATA_NOT_EXIST, "消息不存在");
             }
-
-            consultation.setUpdateTime(LocalDateTime.now());
-            consultationChatRepository.save(consultation);
+            advanceReadSeq(consultation, userId, messageOpt.get().getSeq());
 
             return Result.success();
 
@@ -487,10 +528,108 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<List<ConsultationChat>> getActiveConsultations(Long userId) {
+    public Result<Void> markReadUpTo(String consultationNo, Long userId, Long upToSeq) {
+        try {
+            Optional<ConsultationChat> consultationOpt = consultationChatRepository.findByConsultationNo(consultationNo);
+            if (consultationOpt.isEmpty()) {
+                return Result.error(ResultCode.DATA_NOT_EXIST, "问诊记录不存在");
+            }
+
+            ConsultationChat consultation = consultationOpt.get();
+
+            // 验证权限
+            if (!userId.equals(consultation.getPatientId()) && !userId.equals(consultation.getDoctorId())) {
+                return Result.error(ResultCode.FORBIDDEN, "无权限操作");
+            }
+
+            // 未指定序号时标记全部已读
+            ensureMessagesMigrated(consultation);
+            ConsultationChat migrated = consultation.getLastSeq() == null
+                    ? consultationChatRepository.findByConsultationNo(consultationNo).orElse(consultation) : consultation;
+            long lastSeq = migrated.getLastSeq() == null ? 0L : migrated.getLastSeq();
+            long seq = upToSeq == null ? lastSeq : Math.min(upToSeq, lastSeq);
+            if (seq > 0) {
+                advanceReadSeq(migrated, userId, seq);
+            }
+
+            return Result.success();
+
+        } catch (Exception e) {
+            log.error("标记已读失败", e);
+            return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public Result<InboxResponse> getInbox(Long userId, int limit) {
+        try {
+            int size = Math.min(Math.max(limit, 1), MAX_HISTORY_LIMIT);
+            InboxResponse inbox = chatInboxService.getInbox(userId, size);
+            if (inbox == null) {
+                inbox = toInbox(rebuildInbox(userId), size);
+            }
+            return Result.success(inbox);
+        } catch (Exception e) {
+            log.error("获取消息列表失败", e);
+            return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public Result<MessageHistoryResponse> getMessageHistory(String consultationNo, Long userId, Long beforeSeq, int limit) {
+        try {
+            Optional<ConsultationChat> consultationOpt = consultationChatRepository.findByConsultationNo(consultationNo);
+            if (consultationOpt.isEmpty()) {
+                return Result.error(ResultCode.DATA_NOT_EXIST, "问诊记录不存在");
+            }
+
+            ConsultationChat consultation = consultationOpt.get();
+
+            // 验证权限
+            if (!userId.equals(consultation.getPatientId()) && !userId.equals(consultation.getDoctorId())) {
+                return Result.error(ResultCode.FORBIDDEN, "无权限查看聊天记录");
+            }
+
+            ensureMessagesMigrated(consultation);
+
+            // 多取一条判断是否还有更早的消息
+            int size = Math.min(Math.max(limit, 1), MAX_HISTORY_LIMIT);
+            Pageable pageable = PageRequest.of(0, size + 1);
+            List<ConsultationMessage> messages = beforeSeq == null
+                    ? consultationMessageRepository.findByConsultationNoOrderBySeqDesc(consultationNo, pageable)
+                    : consultationMessageRepository.findByConsultationNoAndSeqLessThanOrderBySeqDesc(consultationNo, beforeSeq, pageable);
+            boolean hasMore = messages.size() > size;
+            if (hasMore) {
+                messages = new ArrayList<>(messages.subList(0, size));
+            }
+            Collections.reverse(messages);
+            applyReadState(consultation, messages);
+
+            MessageHistoryResponse response = new MessageHistoryResponse();
+            response.setMessages(messages);
+            response.setHasMore(hasMore);
+            response.setNextBeforeSeq(hasMore ? messages.get(0).getSeq() : null);
+            return Result.success(response);
+
+        } catch (Exception e) {
+            log.error("获取聊天记录失败", e);
+            return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public boolean migrateEmbeddedMessages(String consultationNo) {
+        return consultationChatRepository.findByConsultationNo(consultationNo)
+                .filter(consultation -> consultation.getLastSeq() == null)
+                .map(this::moveEmbeddedMessages)
+                .orElse(false);
+    }
+
+    @Override
+    public Result<List<ConsultationSummary>> getActiveConsultations(Long userId) {
         try {
-            List<ConsultationChat> consultations = consultationChatRepository.findActiveConsultationsByUserId(userId);
-            return Result.success(consultations);
+            List<ConsultationChat> consultations = consultationChatRepository.findActiveSummariesByUserId(userId);
+            return Result.success(toSummaries(consultations, userId));
         } catch (Exception e) {
             log.error("获取活跃问诊失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
@@ -556,17 +695,370 @@ public class ConsultationChatServiceImpl implements ConsultationChatService {
     }
 
     @Override
-    public Result<List<ConsultationChat>> getRecentConsultations(Long doctorId, int limit) {
+    public Result<List<ConsultationSummary>> getRecentConsultations(Long doctorId, int limit) {
         try {
             Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "updateTime"));
-            List<ConsultationChat> consultations = consultationChatRepository.findRecentByDoctorId(doctorId, pageable);
-            return Result.success(consultations);
+            List<ConsultationChat> consultations = consultationChatRepository.findRecentSummariesByDoctorId(doctorId, pageable);
+            return Result.success(toSummaries(consultations, doctorId));
         } catch (Exception e) {
             log.error("获取最近咨询列表失败", e);
             return Result.error(ResultCode.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * 旧问诊的消息尚未迁移时先迁移，之后才能分配消息序号
+     */
+    private void ensureMessagesMigrated(ConsultationChat consultation) {
+        if (consultation.getLastSeq() == null) {
+            moveEmbeddedMessages(consultation);
+        }
+    }
+
+    /**
+     * 把问诊文档中内嵌的消息按原顺序编号写入消息集合，问诊文档只保留最近的消息
+     * 消息以(consultationNo, seq)upsert，重复执行不会产生重复消息；问诊文档以lastSeq为空且消息条数未变为条件更新
+     *
+     * @return 是否由本次调用完成迁移
+     */
+    private boolean moveEmbeddedMessages(ConsultationChat consultation) {
+        String consultationNo = consultation.getConsultationNo();
+        List<ConsultationMessage> messages = consultation.getMessages() == null
+                ? new ArrayList<>() : new ArrayList<>(consultation.getMessages());
+        if (!messages.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ConsultationMessage.class);
+            for (int i = 0; i < messages.size(); i++) {
+                ConsultationMessage message = messages.get(i);
+                message.setId(null);
+                message.setConsultationNo(consultationNo);
+                message.setSeq(i + 1L);
+                Document document = new Document();
+                mongoTemplate.getConverter().write(message, document);
+                document.remove("_id");
+                Update update = new Update();
+                document.forEach(update::setOnInsert);
+                bulkOperations.upsert(Query.query(Criteria.where("consultationNo").is(consultationNo)
+                        .and("seq").is(message.getSeq())), update);
+            }
+            bulkOperations.execute();
+        }
+
+        Criteria criteria = Criteria.where("_id").is(consultation.getId()).and("lastSeq").is(null);
+        Update update = Update.update("lastSeq", (long) messages.size())
+                .set("messages", messages.subList(Math.max(0, messages.size() - messageTailSize), messages.size()));
+        if (!messages.isEmpty()) {
+            criteria.and("messages").size(messages.size());
+            update.set("lastMessage", toLastMessage(messages.get(messages.size() - 1)));
+        }
+        boolean migrated = mongoTemplate.updateFirst(Query.query(criteria), update, ConsultationChat.class)
+                .getModifiedCount() > 0;
+        if (migrated) {
+            log.info("问诊消息迁移完成，问诊编号：{}，消息数：{}", consultationNo, messages.size());
+        }
+        return migrated;
+    }
+
+    /**
+     * 以单个findAndModify追加一条消息
+     * 条件为问诊编号、发送者是对应的参与者且消息已迁移；更新管道中递增lastSeq，把带新序号的消息追加到最近消息并截取末尾若干条，
+     * 写入最后一条消息摘要与updateTime，待接诊的问诊转为进行中。管道中的表达式都基于更新前的文档，耗时与聊天长度无关
+     *
+     * @return 更新后的问诊（不含最近消息）；条件不满足时返回null
+     */
+    private ConsultationChat appendMessage(String consultationNo, Long senderId, String senderType, ConsultationMessage message) {
+        Query query = Query.query(Criteria.where("consultationNo").is(consultationNo)
+                .and("patient".equals(senderType) ? "patientId" : "doctorId").is(senderId)
+                .and("lastSeq").ne(null));
+        query.fields().exclude("messages");
+
+        MongoConverter converter = mongoTemplate.getConverter();
+        Document seq = new Document("$add", List.of("$lastSeq", 1));
+        Document messageDocument = new Document();
+        converter.write(message, messageDocument);
+        messageDocument.remove("_id");
+        messageDocument.remove("_class");
+        Document entry = new Document("$mergeObjects", List.of(new Document("$literal", messageDocument), new Document("seq", seq)));
+        Document tail = new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(new Document("$ifNull", List.of("$messages", List.of())), List.of(entry))),
+                -messageTailSize));
+        Document lastMessage = new Document("$mergeObjects", List.of(
+                new Document("$literal", lastMessageDocument(toLastMessage(message), converter)), new Document("seq", seq)));
+        Object now = converter.convertToMongoType(LocalDateTime.now());
+        Document waiting = new Document("$eq", List.of("$status", 1));
+        Document set = new Document("lastSeq", seq)
+                .append("messages", tail)
+                .append("lastMessage", lastMessage)
+                .append("updateTime", new Document("$literal", now))
+                .append("status", new Document("$cond", List.of(waiting, 2, "$status")))
+                .append("startTime", new Document("$cond", List.of(
+                        new Document("$and", List.of(waiting, new Document("$eq", Arrays.asList(new Document("$ifNull", Arrays.asList("$startTime", null)), null)))),
+                        new Document("$literal", now), "$startTime")));
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), ConsultationChat.class);
+    }
+
+    /**
+     * 以已分配的序号写入消息集合，失败时重试
+     * 按(问诊编号, 序号)唯一索引报重复时说明之前的尝试已写入成功（如超时后实际已提交）
+     *
+     * @return 是否写入成功
+     */
+    private boolean insertMessage(ConsultationMessage message) {
+        for (int attempt = 1; attempt <= MAX_INSERT_ATTEMPTS; attempt++) {
+            try {
+                consultationMessageRepository.insert(message);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return true;
+            } catch (DataAccessException e) {
+                log.warn("写入消息失败 - 问诊编号: {}, 序号: {}, 第{}次尝试, 原因: {}",
+                        message.getConsultationNo(), message.getSeq(), attempt, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 撤回已追加到问诊文档但未能写入消息集合的消息：从最近消息中移除，
+     * 最后一条消息仍是这条消息时改为移除后的最后一条；序号不回退，留下的空缺不影响按序号分页
+     */
+    private void revertAppendedMessage(ConsultationMessage message) {
+        try {
+            Query query = Query.query(Criteria.where("consultationNo").is(message.getConsultationNo())
+                    .and("messages.messageId").is(message.getMessageId()));
+            ConsultationChat consultation = mongoTemplate.findAndModify(query,
+                    new Update().pull("messages", new Document("messageId", message.getMessageId())),
+                    FindAndModifyOptions.options().returnNew(true), ConsultationChat.class);
+            if (consultation == null) {
+                return;
+            }
+            Query lastMessageQuery = Query.query(Criteria.where("_id").is(consultation.getId())
+                    .and("lastMessage.messageId").is(message.getMessageId()));
+            List<ConsultationMessage> tail = consultation.getMessages();
+            Update update = tail == null || tail.isEmpty()
+                    ? new Update().unset("lastMessage")
+                    : Update.update("lastMessage", toLastMessage(tail.get(tail.size() - 1)));
+            mongoTemplate.updateFirst(lastMessageQuery, update, ConsultationChat.class);
+        } catch (Exception e) {
+            log.error("撤回未写入的消息失败 - 问诊编号: {}, 消息ID: {}", message.getConsultationNo(), message.getMessageId(), e);
+        }
+    }
+
+    /**
+     * 按ID更新问诊文档的部分字段
+     *
+     * @return 更新后的问诊
+     */
+    private ConsultationChat updateConsultation(ConsultationChat consultation, Update update) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(consultation.getId())), update,
+                FindAndModifyOptions.options().returnNew(true), ConsultationChat.class);
+    }
+
+    /**
+     * 按(createTime, _id)倒序分页读取问诊摘要
+     * 传入游标时从游标位置之后继续读取，沿复合索引定位，耗时与翻到第几页无关；未传游标时按页码读取，
+     * 兼容只传page的旧客户端。多取一条判断是否有下一页，总数只在withTotal时统计
+     */
+    private PageResult<ConsultationSummary> pageSummaries(Criteria criteria, Long viewerId, int page, int size,
+                                                          String cursor, boolean withTotal) {
+        int limit = Math.min(Math.max(size, 1), MAX_HISTORY_LIMIT);
+        Query query = new BasicQuery(new Document(), Document.parse(ConsultationChatRepository.SUMMARY_FIELDS));
+        query.addCriteria(criteria);
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor position = PageCursor.decode(cursor);
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createTime").lt(position.getCreateTime()),
+                    Criteria.where("createTime").is(position.getCreateTime()).and("_id").lt(position.getId())));
+        } else if (page > 1) {
+            query.skip((long) (page - 1) * limit);
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createTime", "_id")).limit(limit + 1);
+
+        List<ConsultationChat> consultations = mongoTemplate.find(query, ConsultationChat.class);
+        String nextCursor = null;
+        if (consultations.size() > limit) {
+            consultations = new ArrayList<>(consultations.subList(0, limit));
+            ConsultationChat last = consultations.get(limit - 1);
+            nextCursor = PageCursor.encode(last.getCreateTime(), last.getId());
+        }
+        Long total = withTotal ? mongoTemplate.count(Query.query(criteria), ConsultationChat.class) : null;
+
+        PageResult<ConsultationSummary> result = PageResult.ofCursor(limit, total, toSummaries(consultations, viewerId), nextCursor);
+        if (cursor == null || cursor.isEmpty()) {
+            result.setCurrent(Math.max(page, 1));
+            result.setIsFirst(page <= 1);
+            result.setHasPrevious(page > 1);
+        }
+        return result;
+    }
+
+    /**
+     * 推进用户的已读序号：问诊文档中以$max写入，Redis中比较并设置后按新读到的对方消息数减少未读数
+     */
+    private void advanceReadSeq(ConsultationChat consultation, Long userId, long seq) {
+        String field = userId.equals(consultation.getPatientId()) ? "patientReadSeq" : "doctorReadSeq";
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(consultation.getId())),
+                new Update().max(field, seq), ConsultationChat.class);
+        String consultationNo = consultation.getConsultationNo();
+        chatInboxService.markRead(userId, consultationNo, seq, (fromSeq, toSeq) -> mongoTemplate.count(
+                Query.query(Criteria.where("consultationNo").is(consultationNo)
+                        .and("seq").gt(fromSeq).lte(toSeq)
+                        .and("senderId").ne(userId)), ConsultationMessage.class));
+    }
+
+    /**
+     * 按接收方的已读序号设置消息的已读状态；接收方未记录已读序号时保留消息中的字段
+     */
+    private static void applyReadState(ConsultationChat consultation, List<ConsultationMessage> messages) {
+        for (ConsultationMessage message : messages) {
+            Long readSeq = consultation.getPatientId().equals(message.getSenderId())
+                    ? consultation.getDoctorReadSeq() : consultation.getPatientReadSeq();
+            if (readSeq != null && message.getSeq() != null) {
+                message.setIsRead(message.getSeq() <= readSeq);
+            }
+        }
+    }
+
+    /**
+     * 从MongoDB读取用户参与的全部问诊及未读数，重建Redis中的消息列表索引
+     *
+     * @return 全部问诊条目
+     */
+    private List<InboxResponse.Entry> rebuildInbox(Long userId) {
+        // 先取得写入代数再读取MongoDB，读取期间的写入会使本次重建失效
+        String generation = chatInboxService.beginRebuild(userId);
+        List<ConsultationChat> consultations = consultationChatRepository.findInboxEntriesByUserId(userId);
+        Map<String, Long> unreadCounts = countUnread(consultations, userId);
+        List<InboxResponse.Entry> entries = new ArrayList<>(consultations.size());
+        Map<String, Long> readSeqs = new HashMap<>();
+        for (ConsultationChat consultation : consultations) {
+            InboxResponse.Entry entry = new InboxResponse.Entry();
+            entry.setConsultationNo(consultation.getConsultationNo());
+            entry.setLastActivityTime(consultation.getLastMessage() != null && consultation.getLastMessage().getSendTime() != null
+                    ? consultation.getLastMessage().getSendTime() : consultation.getCreateTime());
+            entry.setUnreadCount(unreadCounts.getOrDefault(consultation.getConsultationNo(), 0L));
+            entries.add(entry);
+            Long readSeq = readSeqOf(consultation, userId);
+            if (readSeq != null) {
+                readSeqs.put(consultation.getConsultationNo(), readSeq);
+            }
+        }
+        chatInboxService.rebuild(userId, generation, entries, readSeqs);
+        return entries;
+    }
+
+    private static InboxResponse toInbox(List<InboxResponse.Entry> entries, int limit) {
+        InboxResponse inbox = new InboxResponse();
+        inbox.setEntries(entries.stream()
+                .sorted(Comparator.comparing(InboxResponse.Entry::getLastActivityTime,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(limit)
+                .collect(Collectors.toList()));
+        inbox.setTotalUnread(entries.stream().mapToLong(InboxResponse.Entry::getUnreadCount).sum());
+        inbox.setUnreadConsultations((int) entries.stream().filter(entry -> entry.getUnreadCount() > 0).count());
+        return inbox;
+    }
+
+    private static Long readSeqOf(ConsultationChat consultation, Long userId) {
+        return userId.equals(consultation.getPatientId()) ? consultation.getPatientReadSeq() : consultation.getDoctorReadSeq();
+    }
+
+    /**
+     * 转换为列表摘要，未读数从Redis索引读取，索引缺失时先重建
+     */
+    private List<ConsultationSummary> toSummaries(List<ConsultationChat> consultations, Long viewerId) {
+        Map<String, Long> unreadCounts = chatInboxService.getUnreadCounts(viewerId, consultations.stream()
+                .map(ConsultationChat::getConsultationNo).collect(Collectors.toList()));
+        if (unreadCounts == null) {
+            unreadCounts = rebuildInbox(viewerId).stream().collect(Collectors.toMap(
+                    InboxResponse.Entry::getConsultationNo, InboxResponse.Entry::getUnreadCount, (a, b) -> a));
+        }
+        List<ConsultationSummary> summaries = new ArrayList<>(consultations.size());
+        for (ConsultationChat consultation : consultations) {
+            ConsultationSummary summary = new ConsultationSummary();
+            summary.setId(consultation.getId());
+            summary.setConsultationNo(consultation.getConsultationNo());
+            summary.setPatientId(consultation.getPatientId());
+            summary.setDoctorId(consultation.getDoctorId());
+            summary.setConsultationType(consultation.getConsultationType());
+            summary.setStatus(consultation.getStatus());
+            summary.setChiefComplaint(consultation.getChiefComplaint());
+            summary.setPatientInfo(consultation.getPatientInfo());
+            summary.setDoctorInfo(consultation.getDoctorInfo());
+            summary.setFee(consultation.getFee());
+            summary.setCreateTime(consultation.getCreateTime());
+            summary.setUpdateTime(consultation.getUpdateTime());
+            if (consultation.getLastMessage() != null) {
+                summary.setLastMessagePreview(consultation.getLastMessage().getPreview());
+                summary.setLastMessageSenderType(consultation.getLastMessage().getSenderType());
+                summary.setLastMessageTime(consultation.getLastMessage().getSendTime());
+            }
+            summary.setUnreadCount(unreadCounts.getOrDefault(consultation.getConsultationNo(), 0L));
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * 一次聚合统计多个问诊中对方发送且未读的消息数：记录了已读序号的问诊按序号范围统计，
+     * 尚未记录已读序号的旧问诊按消息的isRead字段统计（部分索引）
+     */
+    private Map<String, Long> countUnread(List<ConsultationChat> consultations, Long viewerId) {
+        Map<String, Long> counts = new HashMap<>();
+        if (consultations.isEmpty()) {
+            return counts;
+        }
+        List<Criteria> branches = new ArrayList<>(consultations.size());
+        for (ConsultationChat consultation : consultations) {
+            Long readSeq = readSeqOf(consultation, viewerId);
+            Criteria branch = Criteria.where("consultationNo").is(consultation.getConsultationNo());
+            branches.add(readSeq == null ? branch.and("isRead").is(false) : branch.and("seq").gt(readSeq));
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(new Criteria().orOperator(branches).and("senderId").ne(viewerId)),
+                Aggregation.group("consultationNo").count().as("count"));
+        for (Document document : mongoTemplate.aggregate(aggregation, ConsultationMessage.class, Document.class)) {
+            counts.put(document.getString("_id"), ((Number) document.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private static ConsultationChat.LastMessage toLastMessage(ConsultationMessage message) {
+        ConsultationChat.LastMessage lastMessage = new ConsultationChat.LastMessage();
+        lastMessage.setSeq(message.getSeq());
+        lastMessage.setMessageId(message.getMessageId());
+        lastMessage.setSenderId(message.getSenderId());
+        lastMessage.setSenderType(message.getSenderType());
+        lastMessage.setMessageType(message.getMessageType());
+        lastMessage.setPreview(preview(message));
+        lastMessage.setSendTime(message.getSendTime());
+        return lastMessage;
+    }
+
+    private static Document lastMessageDocument(ConsultationChat.LastMessage lastMessage, MongoConverter converter) {
+        Document document = new Document();
+        converter.write(lastMessage, document);
+        document.remove("_class");
+        return document;
+    }
+
+    private static String preview(ConsultationMessage message) {
+        if (message.getMessageType() == null || "text".equals(message.getMessageType())) {
+            String content = message.getContent() == null ? "" : message.getContent();
+            return content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+        }
+        switch (message.getMessageType()) {
+            case "image":
+                return "[图片]";
+            case "voice":
+                return "[语音]";
+            case "video":
+                return "[视频]";
+            default:
+                return "[文件]";
+        }
+    }
+
     /**
      * 生成问诊编号
      */
@@ -9,6 +9,10 @@ import org.example.tlbglxt.entity.chat.ConsultationChat;
 import org.example.tlbglxt.entity.chat.ConsultationRating;
 import org.example.tlbglxt.repository.mongo.ConsultationChatRepository;
 import org.example.tlbglxt.service.ConsultationRatingService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -23,6 +27,7 @@ import java.util.*;
 public class ConsultationRatingServiceImpl implements ConsultationRatingService {
 
     private final ConsultationChatRepository consultationChatRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     public Result<Object> submitRating(Long userId, SubmitRatingRequest request) {
@@ -56,12 +61,12 @@ public class ConsultationRatingServiceImpl implements ConsultationRatingService
             rating.setComment(request.getComment() != null ? request.getComment().trim() : "");
             rating.setRatingTime(LocalDateTime.now());
 
-            // 更新问诊记录
-            consultation.setRating(rating);
-            consultation.setUpdateTime(LocalDateTime.now());
-
-            // 保存更新
-            consultationChatRepository.save(consultation);
+            // 只写入评价字段，以尚未评价为条件，避免覆盖并发写入的消息
+            Query query = Query.query(Criteria.where("_id").is(consultation.getId()).and("rating").is(null));
+            Update update = Update.update("rating", rating).set("updateTime", LocalDateTime.now());
+            if (mongoTemplate.updateFirst(query, update, ConsultationChat.class).getMatchedCount() == 0) {
+                return Result.error(ResultCode.DATA_ALREADY_EXIST, "该问诊已经评价过了");
+            }
 
             log.info("问诊评价提交成功，咨询编号：{}，患者ID：{}，评分：{}", 
                     request.getConsultationNo(), userId, request.getScore());
@@ -0,0 +1,593 @@
+package org.example.tlbglxt.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.common.ResultCode;
+import org.example.tlbglxt.dto.response.MigrationStatusResponse;
+import org.example.tlbglxt.entity.migration.MigrationCheckpoint;
+import org.example.tlbglxt.exception.BusinessException;
+import org.example.tlbglxt.repository.mongo.MigrationCheckpointRepository;
+import org.example.tlbglxt.service.DataMigrationService;
+import org.example.tlbglxt.service.migration.DataMigration;
+import org.example.tlbglxt.service.migration.MigrationBatch;
+import org.example.tlbglxt.service.migration.MigrationThrottle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 数据迁移服务实现类
+ * 每个迁移在 migration_checkpoints 中有一条检查点，启动时以findAndModify抢占（未在执行、由本实例执行或租约已过期），
+ * 首次执行时把分区字段（默认userId）的取值范围切分为若干分区，每个分区由固定大小线程池中的一个线程按(分区字段, _id)升序游标读取，
+ * 每批以无序BulkOperations写入后更新分区位置与心跳；检查点更新以"状态为running且属于本实例"为条件，
+ * 更新不到说明迁移已被暂停或被其他实例接管，线程随即停止。所有迁移共享同一个限速器
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class DataMigrationServiceImpl implements DataMigrationService, SmartLifecycle {
+
+    private static final String STATUS_PENDING = "pending";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MigrationCheckpointRepository migrationCheckpointRepository;
+
+    /**
+     * 切分的分区数
+     */
+    @Value("${migration.partitions:8}")
+    private int partitionCount;
+
+    /**
+     * 每批读取与写入的文档数，同时作为游标批大小
+     */
+    @Value("${migration.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 检查点心跳超过该时间未更新时，其他实例可以接管
+     */
+    @Value("${migration.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /**
+     * 启动时是否继续执行中断的迁移
+     */
+    @Value("${migration.auto-resume:true}")
+    private boolean autoResume;
+
+    private final Map<String, DataMigration<?>> migrations = new LinkedHashMap<>();
+
+    /**
+     * 本实例正在执行（含正在停止）的迁移
+     */
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final MigrationThrottle throttle;
+
+    private final ThreadPoolExecutor executor;
+
+    private final String instanceId;
+
+    private volatile boolean running;
+
+    public DataMigrationServiceImpl(List<DataMigration<?>> migrations, MeterRegistry meterRegistry,
+                                    @Value("${migration.workers:4}") int workers,
+                                    @Value("${migration.max-docs-per-second:500}") double maxDocumentsPerSecond,
+                                    @Value("${migration.instance-id:}") String instanceId) {
+        this.meterRegistry = meterRegistry;
+        this.throttle = new MigrationThrottle(maxDocumentsPerSecond);
+        this.instanceId = StringUtils.hasText(instanceId) ? instanceId : defaultInstanceId();
+        for (DataMigration<?> migration : migrations) {
+            String name = migration.getName();
+            if (this.migrations.put(name, migration) != null) {
+                throw new IllegalStateException("迁移名称重复: " + name);
+            }
+            Gauge.builder("migration.partitions.remaining", runs, active -> {
+                        Run run = active.get(name);
+                        return run == null ? 0 : run.remaining.get();
+                    })
+                    .tag("migration", name).description("本实例未完成的迁移分区").register(meterRegistry);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "migration-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static String defaultInstanceId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "pid-" + ProcessHandle.current().pid();
+        }
+    }
+
+    // =============================lifecycle============================
+
+    @Override
+    public void start() {
+        running = true;
+        if (autoResume) {
+            resumeInterrupted();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        runs.values().forEach(run -> run.active = false);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 继续上次由本实例执行、或执行实例已失联的迁移
+     */
+    private void resumeInterrupted() {
+        try {
+            LocalDateTime expired = LocalDateTime.now().minusSeconds(leaseSeconds);
+            for (MigrationCheckpoint checkpoint : migrationCheckpointRepository.findByStatus(MigrationCheckpoint.STATUS_RUNNING)) {
+                boolean orphaned = instanceId.equals(checkpoint.getOwner())
+                        || checkpoint.getHeartbeat() == null || checkpoint.getHeartbeat().isBefore(expired);
+                if (!orphaned || !migrations.containsKey(checkpoint.getName())) {
+                    continue;
+                }
+                try {
+                    startMigration(checkpoint.getName());
+                    log.info("继续执行数据迁移: {}", checkpoint.getName());
+                } catch (BusinessException e) {
+                    log.info("数据迁移 {} 未继续执行: {}", checkpoint.getName(), e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("继续执行中断的数据迁移失败", e);
+        }
+    }
+
+    // =============================service============================
+
+    @Override
+    public List<MigrationStatusResponse> listMigrations() {
+        Map<String, MigrationCheckpoint> checkpoints = migrationCheckpointRepository.findAllById(migrations.keySet())
+                .stream().collect(Collectors.toMap(MigrationCheckpoint::getName, checkpoint -> checkpoint));
+        return migrations.values().stream()
+                .map(migration -> toResponse(migration, checkpoints.get(migration.getName())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public MigrationStatusResponse getMigration(String name) {
+        DataMigration<?> migration = requireMigration(name);
+        return toResponse(migration, migrationCheckpointRepository.findById(name).orElse(null));
+    }
+
+    @Override
+    public synchronized MigrationStatusResponse startMigration(String name) {
+        DataMigration<?> migration = requireMigration(name);
+        Run existing = runs.get(name);
+        if (existing != null) {
+            if (existing.active) {
+                return getMigration(name);
+            }
+            throw new BusinessException(ResultCode.ERROR.getCode(), "迁移正在停止，请稍后再试");
+        }
+
+        MigrationCheckpoint checkpoint = claim(name);
+        if (checkpoint == null) {
+            MigrationCheckpoint current = migrationCheckpointRepository.findById(name).orElse(null);
+            if (current != null && MigrationCheckpoint.STATUS_COMPLETED.equals(current.getStatus())) {
+                throw new BusinessException(ResultCode.ERROR.getCode(), "迁移已完成，如需重新执行请先重置");
+            }
+            throw new BusinessException(ResultCode.ERROR.getCode(), "迁移正在由其他实例执行");
+        }
+        boolean firstRun = checkpoint.getPartitions() == null;
+        Run run = new Run(name, migration, firstRun ? split(migration) : checkpoint.getPartitions(), meterRegistry);
+        if (firstRun && !saveProgress(run, new Update().set("partitions", run.partitions))) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "迁移已被暂停或由其他实例接管");
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < run.partitions.size(); i++) {
+            if (!Boolean.TRUE.equals(run.partitions.get(i).getDone())) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            complete(run);
+            return getMigration(name);
+        }
+        run.remaining.set(pending.size());
+        run.tasks.set(pending.size());
+        runs.put(name, run);
+        log.info("开始执行数据迁移: {}, 待处理分区: {}/{}", name, pending.size(), run.partitions.size());
+        for (Integer index : pending) {
+            executor.execute(() -> runPartition(run, index));
+        }
+        return getMigration(name);
+    }
+
+    @Override
+    public MigrationStatusResponse pauseMigration(String name) {
+        requireMigration(name);
+        Query query = Query.query(Criteria.where("_id").is(name).and("status").is(MigrationCheckpoint.STATUS_RUNNING));
+        Update update = Update.update("status", MigrationCheckpoint.STATUS_PAUSED).set("updateTime", LocalDateTime.now());
+        if (mongoTemplate.updateFirst(query, update, MigrationCheckpoint.class).getMatchedCount() == 0) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "迁移未在执行");
+        }
+        Run run = runs.get(name);
+        if (run != null) {
+            run.active = false;
+        }
+        log.info("数据迁移已暂停: {}", name);
+        return getMigration(name);
+    }
+
+    @Override
+    public MigrationStatusResponse resetMigration(String name) {
+        requireMigration(name);
+        if (runs.containsKey(name)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "迁移正在执行或停止中，请先暂停");
+        }
+        Query query = Query.query(Criteria.where("_id").is(name).and("status").ne(MigrationCheckpoint.STATUS_RUNNING));
+        if (mongoTemplate.remove(query, MigrationCheckpoint.class).getDeletedCount() == 0
+                && migrationCheckpointRepository.existsById(name)) {
+            throw new BusinessException(ResultCode.ERROR.getCode(), "迁移正在执行，请先暂停");
+        }
+        log.info("数据迁移已重置: {}", name);
+        return getMigration(name);
+    }
+
+    // =============================worker============================
+
+    private void runPartition(Run run, int index) {
+        try {
+            if (processPartition(run, run.migration, index) && run.remaining.decrementAndGet() == 0) {
+                complete(run);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("数据迁移 {} 分区 {} 被中断", run.name, index);
+        } catch (Exception e) {
+            if (run.active) {
+                run.active = false;
+                fail(run, index, e);
+            } else {
+                log.info("数据迁移 {} 分区 {} 已停止: {}", run.name, index, e.getMessage());
+            }
+        } finally {
+            if (run.tasks.decrementAndGet() == 0) {
+                runs.remove(run.name, run);
+            }
+        }
+    }
+
+    /**
+     * 从检查点位置开始处理一个分区
+     *
+     * @return 分区是否已处理完；迁移被暂停或接管时返回false
+     */
+    private <T> boolean processPartition(Run run, DataMigration<T> migration, int index)
+            throws InterruptedException {
+        MigrationCheckpoint.Partition partition = run.partitions.get(index);
+        Query query = Query.query(partitionCriteria(migration, partition))
+                .with(Sort.by(Sort.Direction.ASC, migration.getPartitionField(), "_id"))
+                .cursorBatchSize(batchSize);
+        if (migration.getFields().length > 0) {
+            query.fields().include(migration.getFields()).include(migration.getPartitionField());
+        }
+        try (Stream<T> stream = mongoTemplate.stream(query, migration.getDocumentType())) {
+            Iterator<T> iterator = stream.iterator();
+            List<T> documents = new ArrayList<>(batchSize);
+            while (run.active && iterator.hasNext()) {
+                documents.add(iterator.next());
+                if (documents.size() >= batchSize || !iterator.hasNext()) {
+                    if (!processBatch(run, migration, index, documents)) {
+                        return false;
+                    }
+                    documents = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        return run.active && saveProgress(run, new Update().set("partitions." + index + ".done", true));
+    }
+
+    /**
+     * 处理一批文档并记录分区位置
+     *
+     * @return 是否继续执行
+     */
+    private <T> boolean processBatch(Run run, DataMigration<T> migration, int index,
+                                                              List<T> documents) throws InterruptedException {
+        throttle.acquire(documents.size());
+        if (!run.active) {
+            return false;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        MigrationBatch batch = new MigrationBatch(
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, migration.getDocumentType()));
+        migration.migrate(documents, batch);
+        long modified = batch.execute();
+        sample.stop(run.batchTimer);
+        run.processedCounter.increment(documents.size());
+        run.modifiedCounter.increment(modified);
+
+        T last = documents.get(documents.size() - 1);
+        String prefix = "partitions." + index + ".";
+        Update update = new Update()
+                .set(prefix + "lastUserId", partitionValue(migration, last))
+                .set(prefix + "lastId", String.valueOf(persistentEntity(migration).getIdentifierAccessor(last).getIdentifier()))
+                .inc(prefix + "processed", documents.size())
+                .inc(prefix + "modified", modified)
+                .inc("processed", documents.size())
+                .inc("modified", modified);
+        return saveProgress(run, update);
+    }
+
+    /**
+     * 分区范围、迁移条件与续跑位置
+     */
+    private static Criteria partitionCriteria(DataMigration<?> migration, MigrationCheckpoint.Partition partition) {
+        String field = migration.getPartitionField();
+        List<Criteria> criteria = new ArrayList<>();
+        Criteria range = Criteria.where(field).gte(partition.getFromUserId());
+        if (partition.getToUserId() != null) {
+            range.lt(partition.getToUserId());
+        }
+        criteria.add(range);
+        if (partition.getLastUserId() != null) {
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where(field).gt(partition.getLastUserId()),
+                    Criteria.where(field).is(partition.getLastUserId()).and("_id").gt(partition.getLastId())));
+        }
+        if (!migration.getCriteria().getCriteriaObject().isEmpty()) {
+            criteria.add(migration.getCriteria());
+        }
+        return new Criteria().andOperator(criteria);
+    }
+
+    /**
+     * 把待处理文档的分区字段取值范围等分为分区，最后一个分区不设上限，覆盖迁移期间新增的数据
+     */
+    private <T> List<MigrationCheckpoint.Partition> split(DataMigration<T> migration) {
+        List<MigrationCheckpoint.Partition> partitions = new ArrayList<>();
+        Long min = boundaryValue(migration, Sort.Direction.ASC);
+        Long max = boundaryValue(migration, Sort.Direction.DESC);
+        if (min == null || max == null) {
+            return partitions;
+        }
+        long step = (max - min) / Math.max(1, partitionCount) + 1;
+        for (long from = min; ; from += step) {
+            MigrationCheckpoint.Partition partition = new MigrationCheckpoint.Partition();
+            partition.setFromUserId(from);
+            partition.setToUserId(from + step > max ? null : from + step);
+            partition.setDone(false);
+            partition.setProcessed(0L);
+            partition.setModified(0L);
+            partitions.add(partition);
+            if (partition.getToUserId() == null) {
+                return partitions;
+            }
+        }
+    }
+
+    private <T> Long boundaryValue(DataMigration<T> migration, Sort.Direction direction) {
+        Criteria criteria = Criteria.where(migration.getPartitionField()).ne(null);
+        if (!migration.getCriteria().getCriteriaObject().isEmpty()) {
+            criteria = new Criteria().andOperator(criteria, migration.getCriteria());
+        }
+        Query query = Query.query(criteria).with(Sort.by(direction, migration.getPartitionField()));
+        query.fields().include(migration.getPartitionField());
+        T document = mongoTemplate.findOne(query, migration.getDocumentType());
+        return document == null ? null : partitionValue(migration, document);
+    }
+
+    private <T> Long partitionValue(DataMigration<T> migration, T document) {
+        MongoPersistentEntity<?> entity = persistentEntity(migration);
+        Object value = entity.getPropertyAccessor(document)
+                .getProperty(entity.getRequiredPersistentProperty(migration.getPartitionField()));
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private MongoPersistentEntity<?> persistentEntity(DataMigration<?> migration) {
+        return mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(migration.getDocumentType());
+    }
+
+    // =============================checkpoint============================
+
+    /**
+     * 抢占检查点，不存在时创建
+     *
+     * @return 抢占后的检查点；已完成或由其他实例执行中时返回null
+     */
+    private MigrationCheckpoint claim(String name) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").in(MigrationCheckpoint.STATUS_PAUSED, MigrationCheckpoint.STATUS_FAILED),
+                Criteria.where("status").is(MigrationCheckpoint.STATUS_RUNNING).orOperator(
+                        Criteria.where("owner").is(instanceId),
+                        Criteria.where("heartbeat").lt(now.minusSeconds(leaseSeconds))));
+        Query query = Query.query(Criteria.where("_id").is(name).andOperator(claimable));
+        Update update = Update.update("status", MigrationCheckpoint.STATUS_RUNNING)
+                .set("owner", instanceId)
+                .set("heartbeat", now)
+                .set("updateTime", now)
+                .unset("error")
+                .unset("endTime")
+                .setOnInsert("startTime", now)
+                .setOnInsert("processed", 0L)
+                .setOnInsert("modified", 0L);
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), MigrationCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            // 检查点存在但不可抢占，upsert按_id插入冲突
+            return null;
+        }
+    }
+
+    /**
+     * 以"执行中且属于本实例"为条件更新检查点并刷新心跳
+     *
+     * @return 是否更新成功；失败时迁移已被暂停、重置或由其他实例接管，本次执行随即停止
+     */
+    private boolean saveProgress(Run run, Update update) {
+        LocalDateTime now = LocalDateTime.now();
+        update.set("heartbeat", now).set("updateTime", now);
+        Query query = Query.query(Criteria.where("_id").is(run.name)
+                .and("status").is(MigrationCheckpoint.STATUS_RUNNING)
+                .and("owner").is(instanceId));
+        if (mongoTemplate.updateFirst(query, update, MigrationCheckpoint.class).getMatchedCount() > 0) {
+            return true;
+        }
+        if (run.active) {
+            run.active = false;
+            log.info("数据迁移 {} 已暂停或由其他实例接管，停止执行", run.name);
+        }
+        return false;
+    }
+
+    private void complete(Run run) {
+        if (saveProgress(run, new Update().set("status", MigrationCheckpoint.STATUS_COMPLETED)
+                .set("endTime", LocalDateTime.now()))) {
+            log.info("数据迁移完成: {}", run.name);
+        }
+    }
+
+    private void fail(Run run, int index, Exception e) {
+        log.error("数据迁移失败: {}, 分区: {}", run.name, index, e);
+        String error = "分区" + index + ": " + e.getMessage();
+        saveProgress(run, new Update().set("status", MigrationCheckpoint.STATUS_FAILED)
+                .set("error", error)
+                .set("endTime", LocalDateTime.now()));
+    }
+
+    // =============================helpers============================
+
+    private DataMigration<?> requireMigration(String name) {
+        DataMigration<?> migration = migrations.get(name);
+        if (migration == null) {
+            throw new BusinessException(ResultCode.DATA_NOT_EXIST.getCode(), "迁移不存在: " + name);
+        }
+        return migration;
+    }
+
+    private static MigrationStatusResponse toResponse(DataMigration<?> migration, MigrationCheckpoint checkpoint) {
+        MigrationStatusResponse response = new MigrationStatusResponse();
+        response.setName(migration.getName());
+        response.setDescription(migration.getDescription());
+        if (checkpoint == null) {
+            response.setStatus(STATUS_PENDING);
+            response.setProcessed(0L);
+            response.setModified(0L);
+            return response;
+        }
+        response.setStatus(checkpoint.getStatus());
+        response.setOwner(checkpoint.getOwner());
+        response.setProcessed(checkpoint.getProcessed());
+        response.setModified(checkpoint.getModified());
+        response.setError(checkpoint.getError());
+        response.setHeartbeat(checkpoint.getHeartbeat());
+        response.setStartTime(checkpoint.getStartTime());
+        response.setEndTime(checkpoint.getEndTime());
+        if (checkpoint.getPartitions() != null) {
+            response.setPartitionsTotal(checkpoint.getPartitions().size());
+            response.setPartitionsDone((int) checkpoint.getPartitions().stream()
+                    .filter(partition -> Boolean.TRUE.equals(partition.getDone())).count());
+        }
+        return response;
+    }
+
+    /**
+     * 本实例上一次迁移执行
+     */
+    private static final class Run {
+
+        private final String name;
+
+        private final DataMigration<?> migration;
+
+        private final List<MigrationCheckpoint.Partition> partitions;
+
+        /**
+         * 未处理完的分区数
+         */
+        private final AtomicInteger remaining = new AtomicInteger();
+
+        /**
+         * 未退出的分区任务数，归零后才允许再次启动
+         */
+        private final AtomicInteger tasks = new AtomicInteger();
+
+        private final Counter processedCounter;
+
+        private final Counter modifiedCounter;
+
+        private final Timer batchTimer;
+
+        private volatile boolean active = true;
+
+        private Run(String name, DataMigration<?> migration, List<MigrationCheckpoint.Partition> partitions,
+                    MeterRegistry meterRegistry) {
+            this.name = name;
+            this.migration = migration;
+            this.partitions = partitions;
+            this.processedCounter = Counter.builder("migration.documents")
+                    .tag("migration", name).tag("result", "processed").register(meterRegistry);
+            this.modifiedCounter = Counter.builder("migration.documents")
+                    .tag("migration", name).tag("result", "modified").register(meterRegistry);
+            this.batchTimer = Timer.builder("migration.batch")
+                    .tag("migration", name).description("每批迁移的处理与写入耗时").register(meterRegistry);
+        }
+    }
+}
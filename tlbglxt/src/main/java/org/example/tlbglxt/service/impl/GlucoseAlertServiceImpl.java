@@ -0,0 +1,305 @@
+package org.example.tlbglxt.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.entity.chat.ConsultationChat;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.repository.mongo.BloodGlucoseBucketRepository;
+import org.example.tlbglxt.repository.mongo.ConsultationChatRepository;
+import org.example.tlbglxt.service.GlucoseAlertService;
+import org.example.tlbglxt.service.WebSocketService;
+import org.example.tlbglxt.util.GlucoseAlertRules;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 血糖异常告警服务实现类
+ * <p>
+ * 写入路径只做一次非阻塞入队（有界队列，满时丢弃并计数），告警风暴不会拖慢写入或采集消费。
+ * 单个后台线程取出事件，读取新读数之前一段时间的历史读数，按 {@link GlucoseAlertRules} 评估；
+ * 同一患者同一规则在去重窗口内只推送一次（Redis SET NX EX，多实例共享），
+ * 推送给患者进行中/待接诊问诊的医生，患者没有问诊时只计数不推送。
+ * </p>
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Service
+@Slf4j
+public class GlucoseAlertServiceImpl implements GlucoseAlertService, SmartLifecycle {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String DEDUP_KEY_PREFIX = "health:alert:dedup:";
+
+    /**
+     * 待接诊、进行中的问诊状态
+     */
+    private static final int STATUS_PENDING = 1;
+    private static final int STATUS_ONGOING = 2;
+
+    /**
+     * 只评估测量时间在该时长以内的读数，补录的历史数据不告警
+     */
+    @Value("${health.alert.max-reading-age-minutes:180}")
+    private long maxReadingAgeMinutes;
+
+    /**
+     * 同一患者同一规则的去重窗口
+     */
+    @Value("${health.alert.dedup-minutes:30}")
+    private long dedupMinutes;
+
+    @Value("${health.alert.sustained-window-minutes:120}")
+    private long sustainedWindowMinutes;
+
+    @Value("${health.alert.sustained-min-readings:3}")
+    private int sustainedMinReadings;
+
+    @Value("${health.alert.rate-window-minutes:30}")
+    private long rateWindowMinutes;
+
+    /**
+     * 快速变化阈值 (mmol/L/min)，约合2 mg/dL/min
+     */
+    @Value("${health.alert.rate-threshold:0.11}")
+    private BigDecimal rateThreshold;
+
+    @Autowired
+    private BloodGlucoseBucketRepository bloodGlucoseBucketRepository;
+
+    @Autowired
+    private ConsultationChatRepository consultationChatRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final BlockingQueue<ReadingEvent> queue;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter queuedCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+
+    private Thread workerThread;
+
+    public GlucoseAlertServiceImpl(MeterRegistry meterRegistry,
+                                   @Value("${health.alert.queue-capacity:10000}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("health.alert.queue", queue, BlockingQueue::size)
+                .description("等待评估的血糖写入事件").register(meterRegistry);
+        queuedCounter = eventCounter(meterRegistry, "queued");
+        droppedCounter = eventCounter(meterRegistry, "dropped");
+        failedCounter = eventCounter(meterRegistry, "failed");
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("health.alert.events").tag("result", result).register(meterRegistry);
+    }
+
+    @Override
+    public void publish(Long userId, List<BloodGlucoseRecord.GlucoseEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        LocalDateTime oldest = LocalDateTime.now().minusMinutes(maxReadingAgeMinutes);
+        List<BloodGlucoseRecord.GlucoseEntry> recent = entries.stream()
+                .filter(entry -> entry.getValue() != null && entry.getMeasureTime() != null
+                        && entry.getMeasureTime().isAfter(oldest))
+                .collect(Collectors.toList());
+        if (recent.isEmpty()) {
+            return;
+        }
+        if (queue.offer(new ReadingEvent(userId, recent))) {
+            queuedCounter.increment();
+        } else {
+            droppedCounter.increment();
+            log.warn("血糖告警队列已满，丢弃事件 - 用户ID: {}, 读数: {}", userId, recent.size());
+        }
+    }
+
+    // =============================worker============================
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        workerThread = new Thread(this::workLoop, "glucose-alert-worker");
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (workerThread != null) {
+            workerThread.interrupt();
+            try {
+                workerThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            workerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void workLoop() {
+        while (running) {
+            ReadingEvent event;
+            try {
+                event = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (event == null) {
+                continue;
+            }
+            try {
+                evaluate(event);
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("血糖告警评估失败 - 用户ID: {}", event.userId, e);
+            }
+        }
+    }
+
+    private void evaluate(ReadingEvent event) {
+        GlucoseAlertRules.Thresholds thresholds = new GlucoseAlertRules.Thresholds();
+        thresholds.setSustainedWindow(Duration.ofMinutes(sustainedWindowMinutes));
+        thresholds.setSustainedMinReadings(sustainedMinReadings);
+        thresholds.setRateWindow(Duration.ofMinutes(rateWindowMinutes));
+        thresholds.setRateThreshold(rateThreshold);
+
+        LocalDateTime first = event.entries.stream().map(BloodGlucoseRecord.GlucoseEntry::getMeasureTime)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime last = event.entries.stream().map(BloodGlucoseRecord.GlucoseEntry::getMeasureTime)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        List<BloodGlucoseRecord.GlucoseEntry> history;
+        try (Stream<BloodGlucoseRecord.GlucoseEntry> stream = bloodGlucoseBucketRepository.streamEntries(
+                event.userId, first.minus(thresholds.lookback()), last.plusNanos(1))) {
+            history = stream.collect(Collectors.toList());
+        }
+
+        List<GlucoseAlertRules.Alert> alerts = GlucoseAlertRules.evaluate(event.entries, history, thresholds);
+        if (alerts.isEmpty()) {
+            return;
+        }
+        List<ConsultationChat> consultations = findTreatingConsultations(event.userId);
+        for (GlucoseAlertRules.Alert alert : alerts) {
+            if (!acquireDedup(event.userId, alert.getRule())) {
+                alertCounter("suppressed", alert.getRule());
+                continue;
+            }
+            if (consultations.isEmpty()) {
+                alertCounter("undelivered", alert.getRule());
+                log.info("患者没有进行中的问诊，血糖告警未推送 - 用户ID: {}, 规则: {}", event.userId, alert.getRule());
+                continue;
+            }
+            for (ConsultationChat consultation : consultations) {
+                webSocketService.sendMessageToUser(consultation.getDoctorId(), toMessage(event.userId, consultation, alert));
+            }
+            alertCounter("sent", alert.getRule());
+            log.info("血糖告警已推送 - 用户ID: {}, 规则: {}, 医生数: {}", event.userId, alert.getRule(), consultations.size());
+        }
+    }
+
+    /**
+     * 患者进行中或待接诊的问诊，每位医生取最近的一条，进行中的优先
+     */
+    private List<ConsultationChat> findTreatingConsultations(Long patientId) {
+        Map<Long, ConsultationChat> byDoctor = new LinkedHashMap<>();
+        consultationChatRepository.findActiveSummariesByUserId(patientId).stream()
+                .filter(consultation -> patientId.equals(consultation.getPatientId()) && consultation.getDoctorId() != null
+                        && consultation.getStatus() != null
+                        && (consultation.getStatus() == STATUS_ONGOING || consultation.getStatus() == STATUS_PENDING))
+                .sorted(Comparator.comparing((ConsultationChat consultation) -> consultation.getStatus() == STATUS_ONGOING ? 0 : 1)
+                        .thenComparing(ConsultationChat::getCreateTime, Comparator.nullsLast(Comparator.reverseOrder())))
+                .forEach(consultation -> byDoctor.putIfAbsent(consultation.getDoctorId(), consultation));
+        return new ArrayList<>(byDoctor.values());
+    }
+
+    /**
+     * 占用去重窗口，窗口内已推送过同类告警时返回false；Redis不可用时不去重
+     */
+    private boolean acquireDedup(Long userId, String rule) {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(DEDUP_KEY_PREFIX + userId + ":" + rule,
+                    String.valueOf(System.currentTimeMillis()), Duration.ofMinutes(dedupMinutes));
+            return !Boolean.FALSE.equals(acquired);
+        } catch (Exception e) {
+            log.warn("血糖告警去重失败，直接推送 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+            return true;
+        }
+    }
+
+    private void alertCounter(String result, String rule) {
+        meterRegistry.counter("health.alert.alerts", "result", result, "rule", rule).increment();
+    }
+
+    private Map<String, Object> toMessage(Long patientId, ConsultationChat consultation, GlucoseAlertRules.Alert alert) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", "glucose_alert");
+        message.put("patientId", patientId);
+        message.put("patientName", consultation.getPatientInfo() != null ? consultation.getPatientInfo().getName() : null);
+        message.put("consultationNo", consultation.getConsultationNo());
+        message.put("rule", alert.getRule());
+        message.put("severity", alert.getSeverity());
+        message.put("value", alert.getValue().toPlainString());
+        message.put("rate", alert.getRate() != null ? alert.getRate().toPlainString() : null);
+        message.put("measureTime", alert.getMeasureTime().format(TIME_FORMATTER));
+        message.put("message", alert.getMessage());
+        message.put("timestamp", System.currentTimeMillis());
+        return message;
+    }
+
+    /**
+     * 一次写入产生的读数
+     */
+    private static final class ReadingEvent {
+
+        private final Long userId;
+
+        private final List<BloodGlucoseRecord.GlucoseEntry> entries;
+
+        private ReadingEvent(Long userId, List<BloodGlucoseRecord.GlucoseEntry> entries) {
+            this.userId = userId;
+            this.entries = entries;
+        }
+    }
+}
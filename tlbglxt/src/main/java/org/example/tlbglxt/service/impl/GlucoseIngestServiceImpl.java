@@ -0,0 +1,514 @@
+package org.example.tlbglxt.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.common.ResultCode;
+import org.example.tlbglxt.dto.request.health.AddBloodGlucoseRequest;
+import org.example.tlbglxt.dto.response.health.BulkImportResponse;
+import org.example.tlbglxt.exception.BusinessException;
+import org.example.tlbglxt.service.GlucoseIngestService;
+import org.example.tlbglxt.service.HealthRecordService;
+import org.example.tlbglxt.util.HealthRecordUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 血糖高频采集服务实现类
+ * <p>
+ * 写入：读数校验后以一次管道批量XADD写入Stream，立即返回消息ID。
+ * 消费：单线程以XREADGROUP读取一批消息，按用户分组后调用批量导入（每个血糖桶一次$push $each，统计每批更新一次），
+ * 写入成功后XACK并XDEL，因此Stream长度即为未入库的积压量。
+ * 入库失败的消息留在Pending列表中，空闲超过claim-idle-ms后被重新认领重试，超过最大投递次数后丢弃并记录日志；
+ * 重投的读数由批量导入按(测量时间, 血糖值)去重，整体为至少一次投递、幂等入库。
+ * </p>
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Service
+@Slf4j
+public class GlucoseIngestServiceImpl implements GlucoseIngestService, SmartLifecycle {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_VALUE = "value";
+    private static final String FIELD_MEASURE_TYPE = "measureType";
+    private static final String FIELD_MEASURE_TIME = "measureTime";
+    private static final String FIELD_MEAL_TYPE = "mealType";
+    private static final String FIELD_NOTE = "note";
+
+    /**
+     * Redis不可用等异常后的重试间隔
+     */
+    private static final long ERROR_BACKOFF_MS = 5000;
+
+    @Value("${health.ingest.stream-key:health:glucose:ingest}")
+    private String streamKey;
+
+    @Value("${health.ingest.group:glucose-writer}")
+    private String group;
+
+    /**
+     * 是否在本实例启动消费线程
+     */
+    @Value("${health.ingest.consumer-enabled:true}")
+    private boolean consumerEnabled;
+
+    /**
+     * 每次读取的最大消息数
+     */
+    @Value("${health.ingest.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 无消息时XREADGROUP的阻塞时间
+     */
+    @Value("${health.ingest.block-ms:2000}")
+    private long blockMs;
+
+    /**
+     * Pending消息空闲多久后被重新认领
+     */
+    @Value("${health.ingest.claim-idle-ms:60000}")
+    private long claimIdleMs;
+
+    /**
+     * 单条消息的最大投递次数，超过后丢弃
+     */
+    @Value("${health.ingest.max-deliveries:5}")
+    private long maxDeliveries;
+
+    /**
+     * 积压超过该值时拒绝新的读数
+     */
+    @Value("${health.ingest.max-backlog:1000000}")
+    private long maxBacklog;
+
+    /**
+     * 入队时读取队列长度的最短间隔（毫秒），间隔内复用上次读取的结果
+     */
+    @Value("${health.ingest.backlog-check-ms:1000}")
+    private long backlogCheckMs;
+
+    /**
+     * 单次请求最多上报的读数
+     */
+    @Value("${health.import.max-rows:5000}")
+    private int maxRows;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private HealthRecordService healthRecordService;
+
+    @Autowired
+    private Validator validator;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    /**
+     * 上次读取队列长度的时间，消费线程未运行（或不在本实例）时也能据此判断积压
+     */
+    private volatile long backlogCheckedAt;
+
+    private final Counter queuedCounter;
+    private final Counter acceptedCounter;
+    private final Counter duplicateCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer ingestLatency;
+
+    private final String consumerName = ManagementFactory.getRuntimeMXBean().getName();
+
+    private volatile boolean running;
+
+    private Thread consumerThread;
+
+    private boolean groupReady;
+
+    private long lastClaimTime;
+
+    public GlucoseIngestServiceImpl(MeterRegistry meterRegistry) {
+        Gauge.builder("health.ingest.backlog", backlog, AtomicLong::get)
+                .description("采集队列中尚未入库的读数").register(meterRegistry);
+        Gauge.builder("health.ingest.pending", pending, AtomicLong::get)
+                .description("已投递但未确认的读数").register(meterRegistry);
+        Gauge.builder("health.ingest.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("最早未入库读数的等待时间").baseUnit("seconds").register(meterRegistry);
+        queuedCounter = recordCounter(meterRegistry, "queued");
+        acceptedCounter = recordCounter(meterRegistry, "accepted");
+        duplicateCounter = recordCounter(meterRegistry, "duplicate");
+        rejectedCounter = recordCounter(meterRegistry, "rejected");
+        failedCounter = recordCounter(meterRegistry, "failed");
+        droppedCounter = recordCounter(meterRegistry, "dropped");
+        batchSizeSummary = DistributionSummary.builder("health.ingest.batch.size")
+                .description("每批入库的读数").publishPercentiles(0.5, 0.95).register(meterRegistry);
+        ingestLatency = Timer.builder("health.ingest.latency")
+                .description("读数从入队到入库的耗时").publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+    }
+
+    private static Counter recordCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("health.ingest.records").tag("result", result).register(meterRegistry);
+    }
+
+    @Override
+    public BulkImportResponse enqueue(Long userId, List<AddBloodGlucoseRequest> records) {
+        if (records == null || records.isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "上报读数不能为空");
+        }
+        if (records.size() > maxRows) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "单次最多上报" + maxRows + "条读数");
+        }
+        if (currentBacklog() >= maxBacklog) {
+            throw new BusinessException(ResultCode.ERROR, "采集队列繁忙，请稍后重试");
+        }
+
+        BulkImportResponse response = new BulkImportResponse();
+        List<BulkImportResponse.RowResult> queuedRows = new ArrayList<>();
+        List<Map<String, String>> messages = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            AddBloodGlucoseRequest request = records.get(i);
+            BulkImportResponse.RowResult row = new BulkImportResponse.RowResult();
+            row.setRow(i + 1);
+            response.getRows().add(row);
+            String error = HealthRecordUtil.validateBloodGlucoseRow(request, validator);
+            if (error != null) {
+                row.setStatus(BulkImportResponse.STATUS_REJECTED);
+                row.setMessage(error);
+                continue;
+            }
+            messages.add(toMessage(userId, request));
+            queuedRows.add(row);
+        }
+
+        if (!messages.isEmpty()) {
+            // 一次管道写入整批读数
+            List<Object> recordIds = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    StreamOperations<String, String, String> streamOps =
+                            (StreamOperations<String, String, String>) (StreamOperations<?, ?, ?>) operations.opsForStream();
+                    for (Map<String, String> message : messages) {
+                        streamOps.add(StreamRecords.newRecord().in(streamKey).ofMap(message));
+                    }
+                    return null;
+                }
+            });
+            for (int i = 0; i < queuedRows.size(); i++) {
+                BulkImportResponse.RowResult row = queuedRows.get(i);
+                row.setStatus(BulkImportResponse.STATUS_QUEUED);
+                Object recordId = recordIds.get(i);
+                row.setId(recordId instanceof RecordId ? ((RecordId) recordId).getValue() : String.valueOf(recordId));
+            }
+            queuedCounter.increment(messages.size());
+        }
+
+        response.setTotal(records.size());
+        response.setAcceptedCount(messages.size());
+        response.setDuplicateCount(0);
+        response.setRejectedCount(records.size() - messages.size());
+        log.debug("血糖读数入队 - 用户ID: {}, 总数: {}, 入队: {}", userId, records.size(), messages.size());
+        return response;
+    }
+
+    // =============================consumer============================
+
+    @Override
+    public void start() {
+        if (!consumerEnabled || running) {
+            return;
+        }
+        running = true;
+        consumerThread = new Thread(this::consumeLoop, "glucose-ingest-consumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+        log.info("血糖采集消费线程已启动 - stream: {}, group: {}, consumer: {}", streamKey, group, consumerName);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (consumerThread != null) {
+            try {
+                // 等待当前批次处理完，未确认的消息由其他实例或下次启动重新认领
+                consumerThread.join(blockMs + ERROR_BACKOFF_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consumeLoop() {
+        boolean failing = false;
+        while (running) {
+            try {
+                ensureGroup();
+                if (System.currentTimeMillis() - lastClaimTime >= claimIdleMs) {
+                    lastClaimTime = System.currentTimeMillis();
+                    reclaimStale();
+                }
+                List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                        Consumer.from(group, consumerName),
+                        StreamReadOptions.empty().count(batchSize).block(Duration.ofMillis(blockMs)),
+                        StreamOffset.create(streamKey, ReadOffset.lastConsumed()));
+                if (records != null && !records.isEmpty()) {
+                    process(records, false);
+                }
+                refreshGauges();
+                failing = false;
+            } catch (Exception e) {
+                if (!failing) {
+                    log.error("血糖采集消费异常，{}ms后重试", ERROR_BACKOFF_MS, e);
+                }
+                failing = true;
+                groupReady = false;
+                sleepQuietly(ERROR_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+        try {
+            // 从头消费，已有积压不会因消费组重建而丢失
+            stringRedisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), group);
+        } catch (DataAccessException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupReady = true;
+    }
+
+    /**
+     * 重新认领空闲超时的Pending消息（消费者宕机或入库失败），超过最大投递次数的直接丢弃
+     */
+    private void reclaimStale() {
+        StreamOperations<String, Object, Object> streamOps = stringRedisTemplate.opsForStream();
+        PendingMessages pendingMessages = streamOps.pending(streamKey, group, Range.unbounded(), batchSize);
+        List<RecordId> claimIds = new ArrayList<>();
+        List<RecordId> dropIds = new ArrayList<>();
+        for (PendingMessage message : pendingMessages) {
+            if (message.getElapsedTimeSinceLastDelivery().toMillis() < claimIdleMs) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                dropIds.add(message.getId());
+            } else {
+                claimIds.add(message.getId());
+            }
+        }
+        if (!dropIds.isEmpty()) {
+            log.error("血糖读数多次入库失败，已丢弃 - 消息数: {}, 消息ID: {}", dropIds.size(), dropIds);
+            complete(dropIds);
+            droppedCounter.increment(dropIds.size());
+        }
+        if (!claimIds.isEmpty()) {
+            List<MapRecord<String, Object, Object>> claimed = streamOps.claim(streamKey, group, consumerName,
+                    Duration.ofMillis(claimIdleMs), claimIds.toArray(new RecordId[0]));
+            log.warn("重新认领未确认的血糖读数 - 消息数: {}", claimed.size());
+            if (!claimed.isEmpty()) {
+                process(claimed, true);
+            }
+        }
+    }
+
+    /**
+     * 按用户分组入库；某个用户入库失败时只保留该用户的消息待重试
+     * 重投递的消息中出现重复读数时，上次可能已追加到血糖桶但统计未更新，按涉及的日期重算统计与日汇总
+     *
+     * @param redelivered 是否为重新认领的消息
+     */
+    private void process(List<MapRecord<String, Object, Object>> records, boolean redelivered) {
+        batchSizeSummary.record(records.size());
+        Map<Long, List<MapRecord<String, Object, Object>>> recordsByUser = new LinkedHashMap<>();
+        List<RecordId> malformed = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            Long userId = parseUserId(record.getValue().get(FIELD_USER_ID));
+            if (userId == null) {
+                malformed.add(record.getId());
+            } else {
+                recordsByUser.computeIfAbsent(userId, key -> new ArrayList<>()).add(record);
+            }
+        }
+        if (!malformed.isEmpty()) {
+            log.warn("丢弃无法解析的血糖读数 - 消息ID: {}", malformed);
+            complete(malformed);
+            rejectedCounter.increment(malformed.size());
+        }
+
+        for (Map.Entry<Long, List<MapRecord<String, Object, Object>>> entry : recordsByUser.entrySet()) {
+            List<MapRecord<String, Object, Object>> userRecords = entry.getValue();
+            List<AddBloodGlucoseRequest> requests = new ArrayList<>(userRecords.size());
+            List<RecordId> ids = new ArrayList<>(userRecords.size());
+            for (MapRecord<String, Object, Object> record : userRecords) {
+                requests.add(toRequest(record.getValue()));
+                ids.add(record.getId());
+            }
+            BulkImportResponse result;
+            try {
+                result = healthRecordService.importBloodGlucoseRecords(entry.getKey(), requests);
+                if (redelivered && result.getDuplicateCount() > 0) {
+                    Set<LocalDate> dates = new TreeSet<>();
+                    for (BulkImportResponse.RowResult row : result.getRows()) {
+                        if (BulkImportResponse.STATUS_DUPLICATE.equals(row.getStatus())) {
+                            dates.add(requests.get(row.getRow() - 1).getMeasureTime().toLocalDate());
+                        }
+                    }
+                    healthRecordService.reconcileBloodGlucoseDays(entry.getKey(), dates);
+                }
+            } catch (Exception e) {
+                log.warn("血糖读数入库失败，等待重试 - 用户ID: {}, 读数: {}, 原因: {}",
+                        entry.getKey(), requests.size(), e.getMessage());
+                failedCounter.increment(requests.size());
+                continue;
+            }
+            complete(ids);
+            acceptedCounter.increment(result.getAcceptedCount());
+            duplicateCounter.increment(result.getDuplicateCount());
+            rejectedCounter.increment(result.getRejectedCount());
+            long now = System.currentTimeMillis();
+            for (RecordId id : ids) {
+                ingestLatency.record(Math.max(0, now - id.getTimestamp()), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 确认并删除已处理的消息，使Stream中只保留未入库的读数
+     */
+    private void complete(List<RecordId> ids) {
+        RecordId[] idArray = ids.toArray(new RecordId[0]);
+        StreamOperations<String, Object, Object> streamOps = stringRedisTemplate.opsForStream();
+        streamOps.acknowledge(streamKey, group, idArray);
+        streamOps.delete(streamKey, idArray);
+    }
+
+    /**
+     * 当前队列长度，超过检查间隔时重新读取XLEN
+     */
+    private long currentBacklog() {
+        long now = System.currentTimeMillis();
+        if (now - backlogCheckedAt >= backlogCheckMs) {
+            Long size = stringRedisTemplate.opsForStream().size(streamKey);
+            backlog.set(size == null ? 0 : size);
+            backlogCheckedAt = now;
+        }
+        return backlog.get();
+    }
+
+    private void refreshGauges() {
+        StreamOperations<String, Object, Object> streamOps = stringRedisTemplate.opsForStream();
+        Long size = streamOps.size(streamKey);
+        backlog.set(size == null ? 0 : size);
+        backlogCheckedAt = System.currentTimeMillis();
+        pending.set(streamOps.pending(streamKey, group).getTotalPendingMessages());
+        List<MapRecord<String, Object, Object>> oldest = streamOps.range(streamKey, Range.unbounded(), Limit.limit().count(1));
+        lagMillis.set(oldest == null || oldest.isEmpty() ? 0
+                : Math.max(0, System.currentTimeMillis() - oldest.get(0).getId().getTimestamp()));
+    }
+
+    private Map<String, String> toMessage(Long userId, AddBloodGlucoseRequest request) {
+        Map<String, String> message = new LinkedHashMap<>();
+        message.put(FIELD_USER_ID, userId.toString());
+        message.put(FIELD_VALUE, request.getValue().toPlainString());
+        message.put(FIELD_MEASURE_TYPE, request.getMeasureType());
+        message.put(FIELD_MEASURE_TIME, request.getMeasureTime().format(TIME_FORMATTER));
+        if (request.getMealType() != null && !request.getMealType().isEmpty()) {
+            message.put(FIELD_MEAL_TYPE, request.getMealType());
+        }
+        if (request.getNote() != null && !request.getNote().isEmpty()) {
+            message.put(FIELD_NOTE, request.getNote());
+        }
+        return message;
+    }
+
+    /**
+     * 还原读数；字段损坏时留空，由批量导入的校验拒绝
+     */
+    private AddBloodGlucoseRequest toRequest(Map<Object, Object> message) {
+        AddBloodGlucoseRequest request = new AddBloodGlucoseRequest();
+        request.setMeasureType((String) message.get(FIELD_MEASURE_TYPE));
+        request.setMealType((String) message.get(FIELD_MEAL_TYPE));
+        request.setNote((String) message.get(FIELD_NOTE));
+        try {
+            request.setValue(new BigDecimal((String) message.get(FIELD_VALUE)));
+            request.setMeasureTime(LocalDateTime.parse((String) message.get(FIELD_MEASURE_TIME), TIME_FORMATTER));
+        } catch (RuntimeException e) {
+            log.warn("血糖读数字段无法解析: {}", message);
+        }
+        return request;
+    }
+
+    private Long parseUserId(Object value) {
+        try {
+            return value == null ? null : Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package org.example.tlbglxt.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+import org.example.tlbglxt.entity.health.WeightRecord;
+import org.example.tlbglxt.repository.mongo.BloodGlucoseBucketRepository;
+import org.example.tlbglxt.repository.mongo.BloodPressureRecordRepository;
+import org.example.tlbglxt.repository.mongo.HealthDailyRollupRepository;
+import org.example.tlbglxt.repository.mongo.WeightRecordRepository;
+import org.example.tlbglxt.service.HealthDailyRollupService;
+import org.example.tlbglxt.util.FixedPointAccumulator;
+import org.example.tlbglxt.util.HealthRecordUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 健康数据日汇总服务实现类
+ * 新增记录以$inc累加到当日汇总；涉及更新、删除的日期按当日原始记录重新计算；
+ * 维护失败的(用户, 指标)进入待重建队列，由后台线程定期重建
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Service
+@Slf4j
+public class HealthDailyRollupServiceImpl implements HealthDailyRollupService {
+
+    /**
+     * 窗口统计的天数
+     */
+    private static final int[] WINDOW_DAYS = {7, 30, 90};
+
+    /**
+     * 日汇总主数值的累加精度，同时覆盖血糖（0.01 mmol/L）与体重（克）
+     */
+    private static final int ROLLUP_SCALE = FixedPointAccumulator.WEIGHT_SCALE;
+
+    /**
+     * 日汇总维护失败、等待重建的(用户ID:指标)集合
+     */
+    private static final String REBUILD_QUEUE_KEY = "health:rollup:rebuild";
+
+    @Autowired
+    private HealthDailyRollupRepository healthDailyRollupRepository;
+
+    @Autowired
+    private BloodGlucoseBucketRepository bloodGlucoseBucketRepository;
+
+    @Autowired
+    private BloodPressureRecordRepository bloodPressureRecordRepository;
+
+    @Autowired
+    private WeightRecordRepository weightRecordRepository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 待重建队列的检查间隔（毫秒）
+     */
+    @Value("${health.rollup.rebuild-interval-ms:60000}")
+    private long rebuildIntervalMs;
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    @PostConstruct
+    public void startRebuildWorker() {
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rollup-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildExecutor.scheduleWithFixedDelay(this::drainRebuildQueue, rebuildIntervalMs, rebuildIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopRebuildWorker() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    @Override
+    public void applyGlucoseChanges(Long userId, List<BloodGlucoseRecord.GlucoseEntry> added,
+                                    List<BloodGlucoseRecord.GlucoseEntry> removed) {
+        applyChanges(userId, HealthDailyRollup.METRIC_GLUCOSE, toSamples(added, this::glucoseSample),
+                toSamples(removed, this::glucoseSample), this::loadGlucoseDay);
+    }
+
+    @Override
+    public void applyPressureChanges(Long userId, List<BloodPressureRecord.PressureEntry> added,
+                                     List<BloodPressureRecord.PressureEntry> removed) {
+        applyChanges(userId, HealthDailyRollup.METRIC_PRESSURE, toSamples(added, this::pressureSample),
+                toSamples(removed, this::pressureSample), this::loadPressureDay);
+    }
+
+    @Override
+    public void applyWeightChanges(Long userId, List<WeightRecord.WeightEntry> added,
+                                   List<WeightRecord.WeightEntry> removed) {
+        applyChanges(userId, HealthDailyRollup.METRIC_WEIGHT, toSamples(added, this::weightSample),
+                toSamples(removed, this::weightSample), this::loadWeightDay);
+    }
+
+    @Override
+    public void refreshGlucoseDays(Long userId, Collection<LocalDate> dates) {
+        try {
+            for (LocalDate date : new TreeSet<>(dates)) {
+                healthDailyRollupRepository.replaceDay(buildRollup(userId, HealthDailyRollup.METRIC_GLUCOSE, date,
+                        loadGlucoseDay(userId, date)));
+            }
+        } catch (Exception e) {
+            log.error("重建血糖日汇总失败 - 用户ID: {}, 日期: {}", userId, dates, e);
+        }
+    }
+
+    @Override
+    public List<HealthDailyRollup> findDailyRollups(Long userId, String metric, LocalDate startDate, LocalDate endDate) {
+        return healthDailyRollupRepository.findByUserIdAndMetricAndDateRange(userId, metric, startDate, endDate);
+    }
+
+    @Override
+    public Map<String, Object> getWindowStatistics(Long userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(WINDOW_DAYS[WINDOW_DAYS.length - 1] - 1);
+        Map<String, Object> windows = new HashMap<>();
+        for (String metric : List.of(HealthDailyRollup.METRIC_GLUCOSE,
+                HealthDailyRollup.METRIC_PRESSURE, HealthDailyRollup.METRIC_WEIGHT)) {
+            List<HealthDailyRollup> rollups = findDailyRollups(userId, metric, startDate, today);
+            if (rollups.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> metricWindows = new HashMap<>();
+            HealthDailyRollup longest = null;
+            for (int days : WINDOW_DAYS) {
+                LocalDate from = today.minusDays(days - 1);
+                HealthDailyRollup merged = mergeRollups(rollups.stream()
+                        .filter(rollup -> !rollup.getDate().isBefore(from))
+                        .collect(Collectors.toList()));
+                metricWindows.put("last" + days + "Days", toWindowSummary(merged));
+                longest = merged;
+            }
+            if (HealthDailyRollup.METRIC_GLUCOSE.equals(metric) && longest.getCount() > 0) {
+                // ADAG公式：平均血糖(mmol/L) = 1.59 × HbA1c(%) - 2.59
+                BigDecimal mean = FixedPointAccumulator.average(longest.getSum(), longest.getCount(), 4);
+                metricWindows.put("estimatedHbA1c", mean.add(new BigDecimal("2.59"))
+                        .divide(new BigDecimal("1.59"), 1, RoundingMode.HALF_UP));
+            }
+            windows.put(metric, metricWindows);
+        }
+        return windows;
+    }
+
+    @Override
+    public int rebuildUserRollups(Long userId) {
+        int rebuilt = rebuildUserRollups(userId, HealthDailyRollup.METRIC_GLUCOSE)
+                + rebuildUserRollups(userId, HealthDailyRollup.METRIC_PRESSURE)
+                + rebuildUserRollups(userId, HealthDailyRollup.METRIC_WEIGHT);
+        log.info("用户 {} 的健康数据日汇总已重建，共 {} 天", userId, rebuilt);
+        return rebuilt;
+    }
+
+    @Override
+    public int rebuildUserRollups(Long userId, String metric) {
+        switch (metric) {
+            case HealthDailyRollup.METRIC_GLUCOSE:
+                try (Stream<BloodGlucoseRecord.GlucoseEntry> entries = bloodGlucoseBucketRepository.streamEntries(userId, null, null)) {
+                    return rebuildMetric(userId, metric, entries.map(this::glucoseSample), this::loadGlucoseDay);
+                }
+            case HealthDailyRollup.METRIC_PRESSURE:
+                try (Stream<BloodPressureRecord.PressureEntry> entries = bloodPressureRecordRepository.streamEntries(userId, null, null)) {
+                    return rebuildMetric(userId, metric, entries.map(this::pressureSample), this::loadPressureDay);
+                }
+            case HealthDailyRollup.METRIC_WEIGHT:
+                try (Stream<WeightRecord.WeightEntry> entries = weightRecordRepository.streamEntries(userId, null, null)) {
+                    return rebuildMetric(userId, metric, entries.map(this::weightSample), this::loadWeightDay);
+                }
+            default:
+                throw new IllegalArgumentException("未知的指标: " + metric);
+        }
+    }
+
+    /**
+     * 新增条目所在日期以增量累加，移除条目所在日期按原始记录重新计算
+     * 日汇总属于派生数据，维护失败时不影响原始记录的写入：记录失败次数，并将(用户, 指标)加入待重建队列
+     */
+    private void applyChanges(Long userId, String metric, List<RollupSample> added, List<RollupSample> removed,
+                              BiFunction<Long, LocalDate, List<RollupSample>> dayLoader) {
+        try {
+            Set<LocalDate> refreshDays = removed.stream()
+                    .map(RollupSample::getDate)
+                    .collect(Collectors.toCollection(TreeSet::new));
+
+            Map<LocalDate, List<RollupSample>> addedByDay = added.stream()
+                    .filter(sample -> !refreshDays.contains(sample.getDate()))
+                    .collect(Collectors.groupingBy(RollupSample::getDate, TreeMap::new, Collectors.toList()));
+            addedByDay.forEach((date, samples) ->
+                    healthDailyRollupRepository.accumulate(buildRollup(userId, metric, date, samples)));
+
+            for (LocalDate date : refreshDays) {
+                healthDailyRollupRepository.replaceDay(buildRollup(userId, metric, date, dayLoader.apply(userId, date)));
+            }
+        } catch (Exception e) {
+            log.error("更新健康数据日汇总失败，已加入待重建队列 - 用户ID: {}, 指标: {}", userId, metric, e);
+            meterRegistry.counter("health.rollup.failures", "metric", metric).increment();
+            queueRebuild(userId, metric);
+        }
+    }
+
+    /**
+     * 将(用户, 指标)加入待重建队列（Redis集合，多实例共享且重复加入只保留一份）
+     */
+    private void queueRebuild(Long userId, String metric) {
+        try {
+            stringRedisTemplate.opsForSet().add(REBUILD_QUEUE_KEY, userId + ":" + metric);
+        } catch (Exception e) {
+            log.error("加入日汇总待重建队列失败 - 用户ID: {}, 指标: {}", userId, metric, e);
+        }
+    }
+
+    /**
+     * 逐个取出待重建的(用户, 指标)并重建；重建失败时放回队列，等待下一轮
+     */
+    private void drainRebuildQueue() {
+        try {
+            String member;
+            while ((member = stringRedisTemplate.opsForSet().pop(REBUILD_QUEUE_KEY)) != null) {
+                int separator = member.indexOf(':');
+                Long userId = Long.valueOf(member.substring(0, separator));
+                String metric = member.substring(separator + 1);
+                try {
+                    rebuildUserRollups(userId, metric);
+                } catch (Exception e) {
+                    log.error("重建健康数据日汇总失败 - 用户ID: {}, 指标: {}", userId, metric, e);
+                    meterRegistry.counter("health.rollup.failures", "metric", metric).increment();
+                    stringRedisTemplate.opsForSet().add(REBUILD_QUEUE_KEY, member);
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("读取日汇总待重建队列失败", e);
+        }
+    }
+
+    /**
+     * 按日期顺序读取条目，每天计算完即整体替换当日汇总，不先删除全部日汇总，重建期间的读取不会看到空数据；
+     * 条目顺序不连续时（数组尚未重新排序）该日期改为按原始记录重新计算，最后删除已没有条目的日期
+     */
+    private int rebuildMetric(Long userId, String metric, Stream<RollupSample> samples,
+                              BiFunction<Long, LocalDate, List<RollupSample>> dayLoader) {
+        Set<LocalDate> rebuilt = new HashSet<>();
+        Set<LocalDate> reloadDays = new TreeSet<>();
+        List<RollupSample> daySamples = new ArrayList<>();
+        Iterator<RollupSample> iterator = samples
+                .filter(sample -> sample.getValue() != null && sample.getDate() != null)
+                .iterator();
+        while (iterator.hasNext()) {
+            RollupSample sample = iterator.next();
+            if (!daySamples.isEmpty() && !daySamples.get(0).getDate().equals(sample.getDate())) {
+                replaceRebuiltDay(userId, metric, daySamples, rebuilt, reloadDays);
+                daySamples = new ArrayList<>();
+            }
+            daySamples.add(sample);
+        }
+        if (!daySamples.isEmpty()) {
+            replaceRebuiltDay(userId, metric, daySamples, rebuilt, reloadDays);
+        }
+        for (LocalDate date : reloadDays) {
+            healthDailyRollupRepository.replaceDay(buildRollup(userId, metric, date, dayLoader.apply(userId, date)));
+        }
+        for (HealthDailyRollup existing : healthDailyRollupRepository.findDatesByUserIdAndMetric(userId, metric)) {
+            if (!rebuilt.contains(existing.getDate())) {
+                healthDailyRollupRepository.replaceDay(buildRollup(userId, metric, existing.getDate(), Collections.emptyList()));
+            }
+        }
+        return rebuilt.size();
+    }
+
+    private void replaceRebuiltDay(Long userId, String metric, List<RollupSample> daySamples,
+                                   Set<LocalDate> rebuilt, Set<LocalDate> reloadDays) {
+        LocalDate date = daySamples.get(0).getDate();
+        if (rebuilt.add(date)) {
+            healthDailyRollupRepository.replaceDay(buildRollup(userId, metric, date, daySamples));
+        } else {
+            reloadDays.add(date);
+        }
+    }
+
+    private List<RollupSample> loadGlucoseDay(Long userId, LocalDate date) {
+        List<RollupSample> samples = new ArrayList<>();
+        for (BloodGlucoseBucket bucket : bloodGlucoseBucketRepository.findByUserIdAndBucketDateRange(userId, date, date)) {
+            if (bucket.getEntries() != null) {
+                samples.addAll(toSamples(bucket.getEntries(), this::glucoseSample));
+            }
+        }
+        return samples;
+    }
+
+    private List<RollupSample> loadPressureDay(Long userId, LocalDate date) {
+        return toSamples(bloodPressureRecordRepository.findEntriesBetween(
+                userId, date.atStartOfDay(), date.plusDays(1).atStartOfDay()), this::pressureSample);
+    }
+
+    private List<RollupSample> loadWeightDay(Long userId, LocalDate date) {
+        return toSamples(weightRecordRepository.findEntriesBetween(
+                userId, date.atStartOfDay(), date.plusDays(1).atStartOfDay()), this::weightSample);
+    }
+
+    private <T> List<RollupSample> toSamples(List<T> entries, Function<T, RollupSample> converter) {
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        return entries.stream()
+                .map(converter)
+                .filter(sample -> sample.getValue() != null && sample.getDate() != null)
+                .collect(Collectors.toList());
+    }
+
+    private RollupSample glucoseSample(BloodGlucoseRecord.GlucoseEntry entry) {
+        String measureType = entry.getMeasureType() == null || entry.getMeasureType().isEmpty()
+                ? "random" : entry.getMeasureType();
+        return new RollupSample(entry.getMeasureTime(), entry.getValue(), measureType,
+                HealthRecordUtil.evaluateBloodGlucoseLevel(entry.getValue(), measureType), Collections.emptyMap());
+    }
+
+    private RollupSample pressureSample(BloodPressureRecord.PressureEntry entry) {
+        Map<String, BigDecimal> series = new HashMap<>();
+        if (entry.getDiastolic() != null) {
+            series.put("diastolic", BigDecimal.valueOf(entry.getDiastolic()));
+        }
+        if (entry.getHeartRate() != null) {
+            series.put("heartRate", BigDecimal.valueOf(entry.getHeartRate()));
+        }
+        return new RollupSample(entry.getMeasureTime(),
+                entry.getSystolic() == null ? null : BigDecimal.valueOf(entry.getSystolic()),
+                entry.getMeasureState(),
+                HealthRecordUtil.evaluateBloodPressureLevel(entry.getSystolic(), entry.getDiastolic()), series);
+    }
+
+    private RollupSample weightSample(WeightRecord.WeightEntry entry) {
+        Map<String, BigDecimal> series = new HashMap<>();
+        if (entry.getBmi() != null) {
+            series.put("bmi", entry.getBmi());
+        }
+        // BMI等级映射到偏低/正常/偏高
+        String level;
+        switch (HealthRecordUtil.evaluateBMILevel(entry.getBmi())) {
+            case "underweight":
+                level = "low";
+                break;
+            case "normal":
+                level = "normal";
+                break;
+            case "overweight":
+            case "obese":
+                level = "high";
+                break;
+            default:
+                level = "unknown";
+        }
+        return new RollupSample(entry.getMeasureTime(), entry.getWeight(), entry.getMeasureState(), level, series);
+    }
+
+    private HealthDailyRollup buildRollup(Long userId, String metric, LocalDate date, List<RollupSample> samples) {
+        HealthDailyRollup rollup = new HealthDailyRollup();
+        rollup.setUserId(userId);
+        rollup.setMetric(metric);
+        rollup.setDate(date);
+        rollup.setCount(0);
+        rollup.setSum(BigDecimal.ZERO);
+        rollup.setNormalCount(0);
+        rollup.setHighCount(0);
+        rollup.setLowCount(0);
+        rollup.setMeasureTypes(new HashMap<>());
+        rollup.setSeries(new HashMap<>());
+        FixedPointAccumulator sum = new FixedPointAccumulator(ROLLUP_SCALE);
+        for (RollupSample sample : samples) {
+            BigDecimal value = sample.getValue();
+            rollup.setCount(rollup.getCount() + 1);
+            sum.add(value);
+            rollup.setMin(rollup.getMin() == null ? value : rollup.getMin().min(value));
+            rollup.setMax(rollup.getMax() == null ? value : rollup.getMax().max(value));
+            switch (sample.getLevel()) {
+                case "normal":
+                    rollup.setNormalCount(rollup.getNormalCount() + 1);
+                    break;
+                case "high":
+                    rollup.setHighCount(rollup.getHighCount() + 1);
+                    break;
+                case "low":
+                    rollup.setLowCount(rollup.getLowCount() + 1);
+                    break;
+                default:
+                    break;
+            }
+            if (sample.getMeasureType() != null && !sample.getMeasureType().isEmpty()) {
+                addToStats(rollup.getMeasureTypes(), toFieldKey(sample.getMeasureType()), value);
+            }
+            sample.getSeries().forEach((name, seriesValue) -> addToStats(rollup.getSeries(), name, seriesValue));
+        }
+        rollup.setSum(sum.sum());
+        return rollup;
+    }
+
+    private void addToStats(Map<String, HealthDailyRollup.RollupStats> statsMap, String key, BigDecimal value) {
+        HealthDailyRollup.RollupStats stats = statsMap.computeIfAbsent(key, k -> newStats());
+        stats.setCount(stats.getCount() + 1);
+        stats.setSum(stats.getSum().add(value));
+        stats.setMin(stats.getMin() == null ? value : stats.getMin().min(value));
+        stats.setMax(stats.getMax() == null ? value : stats.getMax().max(value));
+    }
+
+    private HealthDailyRollup.RollupStats newStats() {
+        HealthDailyRollup.RollupStats stats = new HealthDailyRollup.RollupStats();
+        stats.setCount(0);
+        stats.setSum(BigDecimal.ZERO);
+        return stats;
+    }
+
+    private void mergeStats(Map<String, HealthDailyRollup.RollupStats> target, Map<String, HealthDailyRollup.RollupStats> source) {
+        if (source == null) {
+            return;
+        }
+        source.forEach((key, stats) -> {
+            if (stats.getCount() == null || stats.getCount() == 0) {
+                return;
+            }
+            HealthDailyRollup.RollupStats merged = target.computeIfAbsent(key, k -> newStats());
+            merged.setCount(merged.getCount() + stats.getCount());
+            merged.setSum(merged.getSum().add(stats.getSum()));
+            merged.setMin(merged.getMin() == null ? stats.getMin() : merged.getMin().min(stats.getMin()));
+            merged.setMax(merged.getMax() == null ? stats.getMax() : merged.getMax().max(stats.getMax()));
+        });
+    }
+
+    /**
+     * 合并多日汇总
+     */
+    private HealthDailyRollup mergeRollups(List<HealthDailyRollup> rollups) {
+        HealthDailyRollup merged = buildRollup(null, null, null, Collections.emptyList());
+        FixedPointAccumulator sum = new FixedPointAccumulator(ROLLUP_SCALE);
+        for (HealthDailyRollup rollup : rollups) {
+            if (rollup.getCount() == null || rollup.getCount() == 0) {
+                continue;
+            }
+            merged.setCount(merged.getCount() + rollup.getCount());
+            sum.add(rollup.getSum());
+            merged.setMin(merged.getMin() == null ? rollup.getMin() : merged.getMin().min(rollup.getMin()));
+            merged.setMax(merged.getMax() == null ? rollup.getMax() : merged.getMax().max(rollup.getMax()));
+            merged.setNormalCount(merged.getNormalCount() + Optional.ofNullable(rollup.getNormalCount()).orElse(0));
+            merged.setHighCount(merged.getHighCount() + Optional.ofNullable(rollup.getHighCount()).orElse(0));
+            merged.setLowCount(merged.getLowCount() + Optional.ofNullable(rollup.getLowCount()).orElse(0));
+            mergeStats(merged.getMeasureTypes(), rollup.getMeasureTypes());
+            mergeStats(merged.getSeries(), rollup.getSeries());
+        }
+        merged.setSum(sum.sum());
+        return merged;
+    }
+
+    private Map<String, Object> toWindowSummary(HealthDailyRollup rollup) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("count", rollup.getCount());
+        summary.put("avg", average(rollup.getSum(), rollup.getCount()));
+        summary.put("min", rollup.getMin());
+        summary.put("max", rollup.getMax());
+        summary.put("normalCount", rollup.getNormalCount());
+        summary.put("highCount", rollup.getHighCount());
+        summary.put("lowCount", rollup.getLowCount());
+        summary.put("measureTypes", toStatsSummary(rollup.getMeasureTypes()));
+        summary.put("series", toStatsSummary(rollup.getSeries()));
+        return summary;
+    }
+
+    private Map<String, Object> toStatsSummary(Map<String, HealthDailyRollup.RollupStats> statsMap) {
+        Map<String, Object> result = new HashMap<>();
+        statsMap.forEach((key, stats) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put("count", stats.getCount());
+            item.put("avg", average(stats.getSum(), stats.getCount()));
+            item.put("min", stats.getMin());
+            item.put("max", stats.getMax());
+            result.put(key, item);
+        });
+        return result;
+    }
+
+    private BigDecimal average(BigDecimal sum, Integer count) {
+        if (sum == null || count == null || count == 0) {
+            return null;
+        }
+        return FixedPointAccumulator.average(sum, count, FixedPointAccumulator.AVERAGE_SCALE);
+    }
+
+    /**
+     * 转换为可用作Mongo字段名的键（不能包含"."或以"$"开头）
+     */
+    private String toFieldKey(String key) {
+        String fieldKey = key.replace('.', '_');
+        return fieldKey.startsWith("$") ? "_" + fieldKey.substring(1) : fieldKey;
+    }
+
+    /**
+     * 参与日汇总的单条记录
+     */
+    @Getter
+    private static final class RollupSample {
+
+        private final LocalDate date;
+
+        private final BigDecimal value;
+
+        private final String measureType;
+
+        private final String level;
+
+        private final Map<String, BigDecimal> series;
+
+        RollupSample(LocalDateTime measureTime, BigDecimal value, String measureType, String level,
+                     Map<String, BigDecimal> series) {
+            this.date = measureTime == null ? null : measureTime.toLocalDate();
+            this.value = value;
+            this.measureType = measureType;
+            this.level = level;
+            this.series = series;
+        }
+    }
+}
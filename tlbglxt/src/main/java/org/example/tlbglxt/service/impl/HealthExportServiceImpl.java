@@ -0,0 +1,354 @@
+package org.example.tlbglxt.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.common.ResultCode;
+import org.example.tlbglxt.exception.BusinessException;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.entity.health.BloodPressureRecord;
+import org.example.tlbglxt.entity.health.HealthDailyRollup;
+import org.example.tlbglxt.entity.health.WeightRecord;
+import org.example.tlbglxt.repository.mongo.BloodGlucoseBucketRepository;
+import org.example.tlbglxt.repository.mongo.BloodPressureRecordRepository;
+import org.example.tlbglxt.repository.mongo.ConsultationChatRepository;
+import org.example.tlbglxt.repository.mongo.WeightRecordRepository;
+import org.example.tlbglxt.service.HealthExportService;
+import org.example.tlbglxt.util.CsvUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 健康数据导出服务实现类
+ * 每个指标打开一个按测量时间升序的数据库游标，逐条归并写出，任意时刻每个指标只持有一条记录
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Service
+@Slf4j
+public class HealthExportServiceImpl implements HealthExportService {
+
+    private static final List<String> ALL_METRICS = List.of(HealthDailyRollup.METRIC_GLUCOSE,
+            HealthDailyRollup.METRIC_PRESSURE, HealthDailyRollup.METRIC_WEIGHT);
+
+    /**
+     * 与接口返回的时间格式保持一致
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] CSV_COLUMNS = {
+            "metric", "measureTime", "value", "measureType", "mealType", "systolic", "diastolic", "heartRate",
+            "weight", "height", "bmi", "bodyFatRate", "muscleMass", "measureState", "note", "id"
+    };
+
+    @Autowired
+    private BloodGlucoseBucketRepository bloodGlucoseBucketRepository;
+
+    @Autowired
+    private BloodPressureRecordRepository bloodPressureRecordRepository;
+
+    @Autowired
+    private WeightRecordRepository weightRecordRepository;
+
+    @Autowired
+    private ConsultationChatRepository consultationChatRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String resolveFormat(String format) {
+        String normalized = format == null ? FORMAT_CSV : format.trim().toLowerCase();
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_NDJSON.equals(normalized)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的导出格式：" + format);
+        }
+        return normalized;
+    }
+
+    @Override
+    public List<String> resolveMetrics(String metrics) {
+        if (metrics == null || metrics.isBlank()) {
+            return ALL_METRICS;
+        }
+        Set<String> resolved = new LinkedHashSet<>();
+        for (String metric : metrics.split(",")) {
+            String normalized = metric.trim().toLowerCase();
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            if (!ALL_METRICS.contains(normalized)) {
+                throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的数据类型：" + metric);
+            }
+            resolved.add(normalized);
+        }
+        return resolved.isEmpty() ? ALL_METRICS : new ArrayList<>(resolved);
+    }
+
+    @Override
+    public void checkDoctorAccess(Long doctorId, Long patientId) {
+        if (!consultationChatRepository.existsByDoctorIdAndPatientId(doctorId, patientId)) {
+            throw new BusinessException(ResultCode.PERMISSION_DENIED, "无权导出该患者的健康数据");
+        }
+    }
+
+    @Override
+    public long export(Long userId, String format, List<String> metrics, LocalDateTime startTime,
+                       LocalDateTime endTime, OutputStream out) throws IOException {
+        List<Stream<ExportRow>> streams = new ArrayList<>();
+        try {
+            List<Cursor> cursors = new ArrayList<>();
+            for (String metric : metrics) {
+                Stream<ExportRow> stream = openStream(userId, metric, startTime, endTime);
+                streams.add(stream);
+                cursors.add(new Cursor(stream.iterator()));
+            }
+
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            RowWriter rowWriter = FORMAT_NDJSON.equals(format) ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+            long count = 0;
+            while (true) {
+                // 指标数很少，线性选出测量时间最早的游标；时间相同时按指标顺序输出
+                Cursor earliest = null;
+                for (Cursor cursor : cursors) {
+                    if (cursor.current != null && (earliest == null
+                            || cursor.current.measureTime.isBefore(earliest.current.measureTime))) {
+                        earliest = cursor;
+                    }
+                }
+                if (earliest == null) {
+                    break;
+                }
+                rowWriter.write(earliest.current);
+                earliest.advance();
+                count++;
+            }
+            rowWriter.finish();
+            writer.flush();
+            log.info("健康数据导出完成 - 用户ID: {}, 格式: {}, 指标: {}, 记录数: {}", userId, format, metrics, count);
+            return count;
+        } finally {
+            for (Stream<ExportRow> stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    private Stream<ExportRow> openStream(Long userId, String metric, LocalDateTime startTime, LocalDateTime endTime) {
+        switch (metric) {
+            case HealthDailyRollup.METRIC_GLUCOSE:
+                return bloodGlucoseBucketRepository.streamEntries(userId, startTime, endTime)
+                        .filter(entry -> entry.getMeasureTime() != null)
+                        .map(ExportRow::of);
+            case HealthDailyRollup.METRIC_PRESSURE:
+                return bloodPressureRecordRepository.streamEntries(userId, startTime, endTime)
+                        .filter(entry -> entry.getMeasureTime() != null)
+                        .map(ExportRow::of);
+            case HealthDailyRollup.METRIC_WEIGHT:
+                return weightRecordRepository.streamEntries(userId, startTime, endTime)
+                        .filter(entry -> entry.getMeasureTime() != null)
+                        .map(ExportRow::of);
+            default:
+                throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的数据类型：" + metric);
+        }
+    }
+
+    /**
+     * 单个指标的游标，只缓存当前一条记录
+     */
+    private static final class Cursor {
+
+        private final Iterator<ExportRow> iterator;
+
+        private ExportRow current;
+
+        private Cursor(Iterator<ExportRow> iterator) {
+            this.iterator = iterator;
+            advance();
+        }
+
+        private void advance() {
+            current = iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    /**
+     * 导出行：三种指标共用一组列，不适用的列为空
+     */
+    private static final class ExportRow {
+
+        private String metric;
+        private LocalDateTime measureTime;
+        private String id;
+        private BigDecimal value;
+        private String measureType;
+        private String mealType;
+        private Integer systolic;
+        private Integer diastolic;
+        private Integer heartRate;
+        private BigDecimal weight;
+        private BigDecimal height;
+        private BigDecimal bmi;
+        private BigDecimal bodyFatRate;
+        private BigDecimal muscleMass;
+        private String measureState;
+        private String note;
+
+        private static ExportRow of(BloodGlucoseRecord.GlucoseEntry entry) {
+            ExportRow row = new ExportRow();
+            row.metric = HealthDailyRollup.METRIC_GLUCOSE;
+            row.measureTime = entry.getMeasureTime();
+            row.id = entry.getId();
+            row.value = entry.getValue();
+            row.measureType = entry.getMeasureType();
+            row.mealType = entry.getMealType();
+            row.note = entry.getNote();
+            return row;
+        }
+
+        private static ExportRow of(BloodPressureRecord.PressureEntry entry) {
+            ExportRow row = new ExportRow();
+            row.metric = HealthDailyRollup.METRIC_PRESSURE;
+            row.measureTime = entry.getMeasureTime();
+            row.id = entry.getId();
+            row.systolic = entry.getSystolic();
+            row.diastolic = entry.getDiastolic();
+            row.heartRate = entry.getHeartRate();
+            row.measureState = entry.getMeasureState();
+            row.note = entry.getNote();
+            return row;
+        }
+
+        private static ExportRow of(WeightRecord.WeightEntry entry) {
+            ExportRow row = new ExportRow();
+            row.metric = HealthDailyRollup.METRIC_WEIGHT;
+            row.measureTime = entry.getMeasureTime();
+            row.id = entry.getId();
+            row.weight = entry.getWeight();
+            row.height = entry.getHeight();
+            row.bmi = entry.getBmi();
+            row.bodyFatRate = entry.getBodyFatRate();
+            row.muscleMass = entry.getMuscleMass();
+            row.measureState = entry.getMeasureState();
+            row.note = entry.getNote();
+            return row;
+        }
+
+        /**
+         * 按CSV_COLUMNS的顺序取值
+         */
+        private Object[] values() {
+            return new Object[]{
+                    metric, measureTime.format(TIME_FORMATTER), value, measureType, mealType, systolic, diastolic,
+                    heartRate, weight, height, bmi, bodyFatRate, muscleMass, measureState, note, id
+            };
+        }
+    }
+
+    private interface RowWriter {
+
+        void write(ExportRow row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * CSV写出，带UTF-8 BOM以便Excel正确识别中文备注
+     */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write('\uFEFF');
+            writeLine(CSV_COLUMNS);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            writeLine(row.values());
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof BigDecimal) {
+                    // 数值原样写出，负数不会被当作公式加上单引号前缀
+                    writer.write(((BigDecimal) value).toPlainString());
+                } else {
+                    writer.write(CsvUtil.escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    /**
+     * NDJSON写出，每行一个JSON对象，值为null的字段不输出
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 行之间只用换行分隔，不使用默认的空格分隔符
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            Object[] values = row.values();
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                generator.writeFieldName(CSV_COLUMNS[i]);
+                if (value instanceof BigDecimal) {
+                    generator.writeNumber((BigDecimal) value);
+                } else if (value instanceof Integer) {
+                    generator.writeNumber((Integer) value);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.tlbglxt.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.example.tlbglxt.dto.request.health.AddBloodGlucoseRequest;
 import org.example.tlbglxt.dto.request.health.AddBloodPressureRequest;
@@ -7,21 +9,59 @@ import org.example.tlbglxt.dto.request.health.AddWeightRequest;
 import org.example.tlbglxt.dto.request.health.QueryHealthRecordRequest;
 import org.example.tlbglxt.dto.response.health.BloodGlucoseRecordResponse;
 import org.example.tlbglxt.dto.response.health.BloodPressureRecordResponse;
+import org.example.tlbglxt.dto.response.health.BulkImportResponse;
+import org.example.tlbglxt.dto.response.health.HealthTrendResponse;
 import org.example.tlbglxt.entity.health.*;
 import org.example.tlbglxt.exception.BusinessException;
 import org.example.tlbglxt.common.ResultCode;
 import org.example.tlbglxt.repository.mongo.*;
+import org.example.tlbglxt.service.GlucoseAlertService;
+import org.example.tlbglxt.service.HealthDailyRollupService;
 import org.example.tlbglxt.service.HealthRecordService;
+import org.example.tlbglxt.util.CsvUtil;
 import org.example.tlbglxt.util.HealthRecordUtil;
+import org.example.tlbglxt.util.FixedPointAccumulator;
+import org.example.tlbglxt.util.GlucoseSeries;
+import org.example.tlbglxt.util.HealthSeries;
+import org.example.tlbglxt.util.ParallelLookup;
+import org.example.tlbglxt.util.PressureSeries;
+import org.example.tlbglxt.util.RedisUtil;
+import org.example.tlbglxt.util.TrendDownsampler;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 健康记录服务实现类
@@ -33,9 +73,123 @@ import java.util.stream.Collectors;
 @Slf4j
 public class HealthRecordServiceImpl implements HealthRecordService {
 
+    /**
+     * 血糖记录可排序字段
+     */
+    private static final Set<String> GLUCOSE_SORT_FIELDS = Set.of("measureTime", "value", "measureType");
+
+    /**
+     * 血压记录可排序字段
+     */
+    private static final Set<String> PRESSURE_SORT_FIELDS = Set.of("measureTime", "systolic", "diastolic", "heartRate");
+
+    /**
+     * 体重记录可排序字段
+     */
+    private static final Set<String> WEIGHT_SORT_FIELDS = Set.of("measureTime", "weight", "bmi", "bodyFatRate");
+
+    /**
+     * 体重趋势降采样序列，体重为主序列
+     */
+    private static final Map<String, Function<WeightRecord.WeightEntry, Number>> WEIGHT_TREND_SERIES =
+            new LinkedHashMap<>();
+
+    static {
+        WEIGHT_TREND_SERIES.put("weight", WeightRecord.WeightEntry::getWeight);
+        WEIGHT_TREND_SERIES.put("bmi", WeightRecord.WeightEntry::getBmi);
+    }
+
+    /**
+     * 健康数据概览缓存键前缀（Redis Hash，字段为glucose/pressure/weight/totalRecords/windows）
+     */
+    private static final String HEALTH_OVERVIEW_KEY_PREFIX = "health:overview:";
+
+    /**
+     * 健康数据概览缓存代数键前缀，每次删除缓存时递增
+     */
+    private static final String HEALTH_OVERVIEW_EPOCH_KEY_PREFIX = "health:overview:epoch:";
+
+    /**
+     * 代数键的过期时间（秒），需长于一次概览加载的耗时
+     */
+    private static final long HEALTH_OVERVIEW_EPOCH_TTL_SECONDS = 86400;
+
+    /**
+     * KEYS: 概览缓存、代数；ARGV: 加载前读取的代数、过期秒数，之后依次为(字段, 值)
+     * 代数已变化（加载期间有写入删除了缓存）时不写入，避免把旧数据写回缓存
+     */
+    private static final RedisScript<Long> OVERVIEW_PUT_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end\n"
+                    + "redis.call('DEL', KEYS[1])\n"
+                    + "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end\n"
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2])\n"
+                    + "return 1", Long.class);
+
+    /**
+     * KEYS: 概览缓存、代数；ARGV: 代数过期秒数。递增代数后删除缓存
+     */
+    private static final RedisScript<Long> OVERVIEW_EVICT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2])\n"
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[1])\n"
+                    + "return redis.call('DEL', KEYS[1])", Long.class);
+
+    /**
+     * 按天汇总的趋势查询方式，读取日汇总集合
+     */
+    private static final String TREND_SAMPLING_DAILY = "daily";
+
+    /**
+     * 趋势时间范围内没有数据时返回的最近记录
+     */
+    private static final Pageable LATEST_TREND_ENTRIES = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "measureTime"));
+
+    /**
+     * CSV导入的测量时间格式，与接口请求格式一致
+     */
+    private static final DateTimeFormatter IMPORT_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 趋势查询默认最大点数
+     */
+    @Value("${health.trend.default-max-points:500}")
+    private int trendDefaultMaxPoints;
+
+    /**
+     * 趋势查询最大点数上限
+     */
+    @Value("${health.trend.max-points-limit:5000}")
+    private int trendMaxPointsLimit;
+
+    /**
+     * 血糖批量导入单次最大条数
+     */
+    @Value("${health.import.max-rows:5000}")
+    private int importMaxRows;
+
+    /**
+     * 统计信息写回遇到版本冲突时的最大重试次数
+     */
+    @Value("${health.concurrency.max-retries:5}")
+    private int conflictMaxRetries;
+
+    /**
+     * 版本冲突重试的初始退避时间（毫秒），每次重试翻倍
+     */
+    @Value("${health.concurrency.backoff-ms:5}")
+    private long conflictBackoffMs;
+
+    /**
+     * 健康数据概览缓存时间（秒），最长不超过当天结束
+     */
+    @Value("${health.overview.cache-ttl-seconds:600}")
+    private long overviewCacheTtlSeconds;
+
     @Autowired
     private BloodGlucoseRecordRepository bloodGlucoseRecordRepository;
 
+    @Autowired
+    private BloodGlucoseBucketRepository bloodGlucoseBucketRepository;
+
     @Autowired
     private BloodPressureRecordRepository bloodPressureRecordRepository;
 
@@ -45,13 +199,42 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Autowired
     private WeightRecordRepository weightRecordRepository;
 
+    @Autowired
+    private HealthDailyRollupService healthDailyRollupService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ParallelLookup parallelLookup;
+
+    @Autowired
+    private GlucoseAlertService glucoseAlertService;
+
+    @Autowired
+    private ReactiveBloodGlucoseRecordRepository reactiveBloodGlucoseRecordRepository;
+
+    @Autowired
+    private ReactiveBloodGlucoseBucketRepository reactiveBloodGlucoseBucketRepository;
+
+    @Autowired
+    private ReactiveBloodPressureRecordRepository reactiveBloodPressureRecordRepository;
+
     @Override
     public Boolean addBloodGlucoseRecord(Long userId, AddBloodGlucoseRequest request) {
         try {
-            // 获取或创建用户的血糖记录文档
-            BloodGlucoseRecord record = bloodGlucoseRecordRepository.findByUserId(userId)
-                    .orElse(createNewBloodGlucoseRecord(userId));
-
             // 创建新的血糖记录条目
             BloodGlucoseRecord.GlucoseEntry entry = new BloodGlucoseRecord.GlucoseEntry();
             entry.setValue(request.getValue());
@@ -60,20 +243,14 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             entry.setMealType(request.getMealType());
             entry.setNote(request.getNote());
 
-            // 添加到记录列表
-            if (record.getRecords() == null) {
-                record.setRecords(new ArrayList<>());
-            }
-            record.getRecords().add(entry);
-
-            // 更新统计信息
-            updateBloodGlucoseStatistics(record);
-
-            // 设置更新时间
-            record.setUpdateTime(LocalDateTime.now());
+            // 原子追加到测量日期对应的血糖桶
+            bloodGlucoseBucketRepository.pushEntry(userId, entry, evaluateGlucoseEntryLevel(entry));
 
-            // 保存到数据库
-            bloodGlucoseRecordRepository.save(record);
+            // 增量更新统计信息
+            applyGlucoseStatisticsDelta(userId, List.of(entry), Collections.emptyList());
+            healthDailyRollupService.applyGlucoseChanges(userId, List.of(entry), Collections.emptyList());
+            evictHealthOverview(userId);
+            glucoseAlertService.publish(userId, List.of(entry));
 
             return true;
         } catch (Exception e) {
@@ -82,12 +259,74 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     }
 
     @Override
-    public Boolean addBloodPressureRecord(Long userId, AddBloodPressureRequest request) {
+    public BulkImportResponse importBloodGlucoseRecords(Long userId, List<AddBloodGlucoseRequest> records) {
+        if (records == null || records.isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "导入记录不能为空");
+        }
+        return importGlucoseRows(userId, records, new String[records.size()]);
+    }
+
+    @Override
+    public BulkImportResponse importBloodGlucoseCsv(Long userId, String csv) {
+        List<List<String>> rows;
         try {
-            // 获取或创建用户的血压记录文档
-            BloodPressureRecord record = bloodPressureRecordRepository.findByUserId(userId)
-                    .orElse(createNewBloodPressureRecord(userId));
+            rows = CsvUtil.parse(csv);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "CSV格式错误：" + e.getMessage());
+        }
+        if (rows.size() < 2) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "CSV内容为空，首行应为表头");
+        }
+        if (rows.size() - 1 > importMaxRows) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "单次最多导入" + importMaxRows + "条记录");
+        }
 
+        // 按表头定位列，列名不区分大小写
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = rows.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(), i);
+        }
+        int valueColumn = columns.getOrDefault("value", -1);
+        int measureTimeColumn = columns.getOrDefault("measuretime", -1);
+        if (valueColumn < 0 || measureTimeColumn < 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "CSV表头必须包含value和measureTime列");
+        }
+        int measureTypeColumn = columns.getOrDefault("measuretype", -1);
+        int mealTypeColumn = columns.getOrDefault("mealtype", -1);
+        int noteColumn = columns.getOrDefault("note", -1);
+
+        List<AddBloodGlucoseRequest> requests = new ArrayList<>(rows.size() - 1);
+        String[] parseErrors = new String[rows.size() - 1];
+        for (int i = 1; i < rows.size(); i++) {
+            List<String> row = rows.get(i);
+            AddBloodGlucoseRequest request = new AddBloodGlucoseRequest();
+            request.setMeasureType(csvCell(row, measureTypeColumn));
+            request.setMealType(csvCell(row, mealTypeColumn));
+            request.setNote(csvCell(row, noteColumn));
+            String value = csvCell(row, valueColumn);
+            String measureTime = csvCell(row, measureTimeColumn);
+            try {
+                request.setValue(value == null ? null : new BigDecimal(value));
+            } catch (NumberFormatException e) {
+                parseErrors[i - 1] = "血糖值格式错误：" + value;
+            }
+            try {
+                request.setMeasureTime(measureTime == null ? null
+                        : LocalDateTime.parse(measureTime.replace('T', ' '), IMPORT_TIME_FORMATTER));
+            } catch (DateTimeParseException e) {
+                if (parseErrors[i - 1] == null) {
+                    parseErrors[i - 1] = "测量时间格式错误，应为yyyy-MM-dd HH:mm:ss：" + measureTime;
+                }
+            }
+            requests.add(request);
+        }
+        return importGlucoseRows(userId, requests, parseErrors);
+    }
+
+    @Override
+    public Boolean addBloodPressureRecord(Long userId, AddBloodPressureRequest request) {
+        try {
             // 创建新的血压记录条目
             BloodPressureRecord.PressureEntry entry = new BloodPressureRecord.PressureEntry();
             entry.setSystolic(request.getSystolic());
@@ -97,20 +336,14 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             entry.setMeasureState(request.getMeasureState());
             entry.setNote(request.getNote());
 
-            // 添加到记录列表
-            if (record.getRecords() == null) {
-                record.setRecords(new ArrayList<>());
-            }
-            record.getRecords().add(entry);
-
-            // 更新统计信息
-            updateBloodPressureStatistics(record);
-
-            // 设置更新时间
-            record.setUpdateTime(LocalDateTime.now());
+            // 原子追加到记录列表并累加统计增量，用户文档不存在时自动创建
+            BloodPressureRecord previous = bloodPressureRecordRepository.pushEntry(userId, entry,
+                    buildPressureDelta(List.of(entry), Collections.emptyList()));
 
-            // 保存到数据库
-            bloodPressureRecordRepository.save(record);
+            // 更新由合计推导的统计信息
+            refreshPressureStatistics(userId, previous, Collections.emptyList());
+            healthDailyRollupService.applyPressureChanges(userId, List.of(entry), Collections.emptyList());
+            evictHealthOverview(userId);
 
             return true;
         } catch (Exception e) {
@@ -119,10 +352,18 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     }
 
     @Override
-    public BloodGlucoseRecordResponse getBloodGlucoseRecords(Long userId, QueryHealthRecordRequest request) {
-        Optional<BloodGlucoseRecord> recordOpt = bloodGlucoseRecordRepository.findByUserId(userId);
-        
-        if (!recordOpt.isPresent()) {
+    public Mono<BloodGlucoseRecordResponse> getBloodGlucoseRecords(Long userId, QueryHealthRecordRequest request) {
+        // 统计信息与当前页并行查询；在MongoDB中完成时间范围过滤、排序与分页，只取回当前页
+        Pageable pageable = buildEntryPageable(request, GLUCOSE_SORT_FIELDS);
+        return Mono.zip(
+                reactiveBloodGlucoseRecordRepository.findStatisticsByUserId(userId).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                reactiveBloodGlucoseBucketRepository.findEntries(userId, request.getStartTime(), request.getEndTime(), pageable))
+                .map(tuple -> toBloodGlucoseResponse(userId, tuple.getT1(), tuple.getT2()));
+    }
+
+    private BloodGlucoseRecordResponse toBloodGlucoseResponse(Long userId, Optional<BloodGlucoseRecord> recordOpt,
+            Page<BloodGlucoseRecord.GlucoseEntry> page) {
+        if (recordOpt.isEmpty()) {
             return createEmptyBloodGlucoseResponse(userId);
         }
 
@@ -130,24 +371,15 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         BloodGlucoseRecordResponse response = new BloodGlucoseRecordResponse();
         response.setUserId(userId);
 
-        // 转换记录列表
-        List<BloodGlucoseRecord.GlucoseEntry> entries = record.getRecords();
-        if (entries != null) {
-            // 时间范围过滤
-            if (request.getStartTime() != null && request.getEndTime() != null) {
-                entries = entries.stream()
-                        .filter(entry -> entry.getMeasureTime().isAfter(request.getStartTime()) 
-                                      && entry.getMeasureTime().isBefore(request.getEndTime()))
-                        .collect(Collectors.toList());
-            }
+        // 转换为VO
+        List<BloodGlucoseRecordResponse.GlucoseEntryVO> entryVOs = page.getContent().stream()
+                .map(this::convertToGlucoseEntryVO)
+                .collect(Collectors.toList());
 
-            // 转换为VO
-            List<BloodGlucoseRecordResponse.GlucoseEntryVO> entryVOs = entries.stream()
-                    .map(this::convertToGlucoseEntryVO)
-                    .collect(Collectors.toList());
-
-            response.setRecords(entryVOs);
-        }
+        response.setRecords(entryVOs);
+        response.setTotal(page.getTotalElements());
+        response.setCurrent(page.getNumber() + 1);
+        response.setSize(page.getSize());
 
         // 转换统计信息
         if (record.getStatistics() != null) {
@@ -159,25 +391,19 @@ public class HealthRecordServiceImpl implements HealthRecordService {
 
     @Override
     public Boolean deleteBloodGlucoseRecord(Long userId, String recordId) {
-        Optional<BloodGlucoseRecord> recordOpt = bloodGlucoseRecordRepository.findByUserId(userId);
-        
-        if (!recordOpt.isPresent()) {
+        if (!bloodGlucoseRecordRepository.existsByUserId(userId)) {
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "血糖记录不存在");
         }
 
-        BloodGlucoseRecord record = recordOpt.get();
-        List<BloodGlucoseRecord.GlucoseEntry> entries = record.getRecords();
+        // 服务端原子删除，只取回受影响的血糖桶
+        List<BloodGlucoseRecord.GlucoseEntry> removed = pullGlucoseEntries(userId, List.of(recordId));
         
-        if (entries != null) {
-            boolean removed = entries.removeIf(entry -> recordId.equals(entry.getId()));
-            
-            if (removed) {
-                // 重新计算统计信息
-                updateBloodGlucoseStatistics(record);
-                record.setUpdateTime(LocalDateTime.now());
-                bloodGlucoseRecordRepository.save(record);
-                return true;
-            }
+        if (!removed.isEmpty()) {
+            // 增量更新统计信息
+            applyGlucoseStatisticsDelta(userId, Collections.emptyList(), removed);
+            healthDailyRollupService.applyGlucoseChanges(userId, Collections.emptyList(), removed);
+            evictHealthOverview(userId);
+            return true;
         }
 
         throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的血糖记录不存在");
@@ -185,25 +411,21 @@ public class HealthRecordServiceImpl implements HealthRecordService {
 
     @Override
     public Boolean deleteBloodPressureRecord(Long userId, String recordId) {
-        Optional<BloodPressureRecord> recordOpt = bloodPressureRecordRepository.findByUserId(userId);
-        
-        if (!recordOpt.isPresent()) {
+        if (!bloodPressureRecordRepository.existsByUserId(userId)) {
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "血压记录不存在");
         }
 
-        BloodPressureRecord record = recordOpt.get();
-        List<BloodPressureRecord.PressureEntry> entries = record.getRecords();
+        // 服务端原子删除，只取回被删除的条目
+        BloodPressureRecord previous = bloodPressureRecordRepository.pullEntries(userId, List.of(recordId));
         
-        if (entries != null) {
-            boolean removed = entries.removeIf(entry -> recordId.equals(entry.getId()));
-            
-            if (removed) {
-                // 重新计算统计信息
-                updateBloodPressureStatistics(record);
-                record.setUpdateTime(LocalDateTime.now());
-                bloodPressureRecordRepository.save(record);
-                return true;
-            }
+        if (previous != null) {
+            // 增量更新统计信息
+            bloodPressureRecordRepository.incStatistics(userId,
+                    buildPressureDelta(Collections.emptyList(), previous.getRecords()));
+            refreshPressureStatistics(userId, previous, previous.getRecords());
+            healthDailyRollupService.applyPressureChanges(userId, Collections.emptyList(), previous.getRecords());
+            evictHealthOverview(userId);
+            return true;
         }
 
         throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的血压记录不存在");
@@ -212,40 +434,47 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean updateBloodGlucoseRecord(Long userId, String recordId, AddBloodGlucoseRequest request) {
         try {
-            Optional<BloodGlucoseRecord> recordOpt = bloodGlucoseRecordRepository.findByUserId(userId);
-            
-            if (!recordOpt.isPresent()) {
+            if (!bloodGlucoseRecordRepository.existsByUserId(userId)) {
                 throw new BusinessException(ResultCode.DATA_NOT_EXIST, "血糖记录不存在");
             }
 
-            BloodGlucoseRecord record = recordOpt.get();
-            List<BloodGlucoseRecord.GlucoseEntry> entries = record.getRecords();
+            // 更新记录数据
+            BloodGlucoseRecord.GlucoseEntry entry = new BloodGlucoseRecord.GlucoseEntry();
+            entry.setValue(request.getValue());
+            entry.setMeasureType(request.getMeasureType());
+            entry.setMeasureTime(request.getMeasureTime());
+            entry.setMealType(request.getMealType());
+            entry.setNote(request.getNote());
+
+            // 服务端原子替换条目，取回修改前的血糖桶
+            BloodGlucoseBucket bucket = bloodGlucoseBucketRepository.setEntry(userId, recordId, entry);
             
-            if (entries != null) {
-                // 查找要更新的记录
-                BloodGlucoseRecord.GlucoseEntry entryToUpdate = entries.stream()
-                        .filter(entry -> recordId.equals(entry.getId()))
-                        .findFirst()
-                        .orElse(null);
-                
-                if (entryToUpdate != null) {
-                    // 更新记录数据
-                    entryToUpdate.setValue(request.getValue());
-                    entryToUpdate.setMeasureType(request.getMeasureType());
-                    entryToUpdate.setMeasureTime(request.getMeasureTime());
-                    entryToUpdate.setMealType(request.getMealType());
-                    entryToUpdate.setNote(request.getNote());
-                    
-                    // 重新计算统计信息
-                    updateBloodGlucoseStatistics(record);
-                    record.setUpdateTime(LocalDateTime.now());
-                    
-                    bloodGlucoseRecordRepository.save(record);
-                    return true;
+            if (bucket == null) {
+                throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的血糖记录不存在");
+            }
+
+            BloodGlucoseRecord.GlucoseEntry oldEntry = bucket.getEntries().stream()
+                    .filter(e -> recordId.equals(e.getId()))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的血糖记录不存在"));
+
+            // 替换计入原桶汇总；测量日期变化时先写入新日期对应的桶，再只从原桶删除（减去新条目），
+            // 中途失败最多留下重复条目，不会丢失读数
+            applyGlucoseBucketDelta(userId, bucket, List.of(entry), List.of(oldEntry));
+            if (!bucket.getBucketDate().equals(request.getMeasureTime().toLocalDate())) {
+                bloodGlucoseBucketRepository.pushEntry(userId, entry, evaluateGlucoseEntryLevel(entry));
+                BloodGlucoseBucket moved = bloodGlucoseBucketRepository.pullEntriesFromBucket(bucket.getId(), List.of(recordId));
+                if (moved != null) {
+                    applyGlucoseBucketDelta(userId, moved, Collections.emptyList(), List.of(entry));
                 }
             }
             
-            throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的血糖记录不存在");
+            // 增量更新统计信息
+            applyGlucoseStatisticsDelta(userId, List.of(entry), List.of(oldEntry));
+            healthDailyRollupService.applyGlucoseChanges(userId, List.of(entry), List.of(oldEntry));
+            evictHealthOverview(userId);
+            glucoseAlertService.publish(userId, List.of(entry));
+            return true;
         } catch (Exception e) {
             throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "更新血糖记录失败：" + e.getMessage());
         }
@@ -254,38 +483,30 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean updateBloodPressureRecord(Long userId, String recordId, AddBloodPressureRequest request) {
         try {
-            Optional<BloodPressureRecord> recordOpt = bloodPressureRecordRepository.findByUserId(userId);
-            
-            if (!recordOpt.isPresent()) {
+            if (!bloodPressureRecordRepository.existsByUserId(userId)) {
                 throw new BusinessException(ResultCode.DATA_NOT_EXIST, "血压记录不存在");
             }
 
-            BloodPressureRecord record = recordOpt.get();
-            List<BloodPressureRecord.PressureEntry> entries = record.getRecords();
+            // 更新记录数据
+            BloodPressureRecord.PressureEntry entry = new BloodPressureRecord.PressureEntry();
+            entry.setSystolic(request.getSystolic());
+            entry.setDiastolic(request.getDiastolic());
+            entry.setHeartRate(request.getHeartRate());
+            entry.setMeasureTime(request.getMeasureTime());
+            entry.setMeasureState(request.getMeasureState());
+            entry.setNote(request.getNote());
+
+            // 服务端原子替换条目，只取回被替换的条目
+            BloodPressureRecord previous = bloodPressureRecordRepository.setEntry(userId, recordId, entry);
             
-            if (entries != null) {
-                // 查找要更新的记录
-                BloodPressureRecord.PressureEntry entryToUpdate = entries.stream()
-                        .filter(entry -> recordId.equals(entry.getId()))
-                        .findFirst()
-                        .orElse(null);
-                
-                if (entryToUpdate != null) {
-                    // 更新记录数据
-                    entryToUpdate.setSystolic(request.getSystolic());
-                    entryToUpdate.setDiastolic(request.getDiastolic());
-                    entryToUpdate.setHeartRate(request.getHeartRate());
-                    entryToUpdate.setMeasureTime(request.getMeasureTime());
-                    entryToUpdate.setMeasureState(request.getMeasureState());
-                    entryToUpdate.setNote(request.getNote());
-                    
-                    // 重新计算统计信息
-                    updateBloodPressureStatistics(record);
-                    record.setUpdateTime(LocalDateTime.now());
-                    
-                    bloodPressureRecordRepository.save(record);
-                    return true;
-                }
+            if (previous != null) {
+                // 增量更新统计信息
+                bloodPressureRecordRepository.incStatistics(userId,
+                        buildPressureDelta(List.of(entry), previous.getRecords()));
+                refreshPressureStatistics(userId, previous, previous.getRecords());
+                healthDailyRollupService.applyPressureChanges(userId, List.of(entry), previous.getRecords());
+                evictHealthOverview(userId);
+                return true;
             }
             
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的血压记录不存在");
@@ -295,10 +516,18 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     }
 
     @Override
-    public BloodPressureRecordResponse getBloodPressureRecords(Long userId, QueryHealthRecordRequest request) {
-        Optional<BloodPressureRecord> recordOpt = bloodPressureRecordRepository.findByUserId(userId);
-        
-        if (!recordOpt.isPresent()) {
+    public Mono<BloodPressureRecordResponse> getBloodPressureRecords(Long userId, QueryHealthRecordRequest request) {
+        // 统计信息与当前页并行查询；在MongoDB中完成时间范围过滤、排序与分页，只取回当前页
+        Pageable pageable = buildEntryPageable(request, PRESSURE_SORT_FIELDS);
+        return Mono.zip(
+                reactiveBloodPressureRecordRepository.findStatisticsByUserId(userId).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                reactiveBloodPressureRecordRepository.findEntries(userId, request.getStartTime(), request.getEndTime(), pageable))
+                .map(tuple -> toBloodPressureResponse(userId, tuple.getT1(), tuple.getT2()));
+    }
+
+    private BloodPressureRecordResponse toBloodPressureResponse(Long userId, Optional<BloodPressureRecord> recordOpt,
+            Page<BloodPressureRecord.PressureEntry> page) {
+        if (recordOpt.isEmpty()) {
             return createEmptyBloodPressureResponse(userId);
         }
 
@@ -306,24 +535,15 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         BloodPressureRecordResponse response = new BloodPressureRecordResponse();
         response.setUserId(userId);
 
-        // 转换记录列表
-        List<BloodPressureRecord.PressureEntry> entries = record.getRecords();
-        if (entries != null) {
-            // 时间范围过滤
-            if (request.getStartTime() != null && request.getEndTime() != null) {
-                entries = entries.stream()
-                        .filter(entry -> entry.getMeasureTime().isAfter(request.getStartTime()) 
-                                      && entry.getMeasureTime().isBefore(request.getEndTime()))
-                        .collect(Collectors.toList());
-            }
-
-            // 转换为VO
-            List<BloodPressureRecordResponse.PressureEntryVO> entryVOs = entries.stream()
-                    .map(this::convertToPressureEntryVO)
-                    .collect(Collectors.toList());
+        // 转换为VO
+        List<BloodPressureRecordResponse.PressureEntryVO> entryVOs = page.getContent().stream()
+                .map(this::convertToPressureEntryVO)
+                .collect(Collectors.toList());
 
-            response.setRecords(entryVOs);
-        }
+        response.setRecords(entryVOs);
+        response.setTotal(page.getTotalElements());
+        response.setCurrent(page.getNumber() + 1);
+        response.setSize(page.getSize());
 
         // 转换统计信息
         if (record.getStatistics() != null) {
@@ -336,27 +556,19 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean batchDeleteBloodGlucoseRecords(Long userId, List<String> recordIds) {
         try {
-            Optional<BloodGlucoseRecord> recordOpt = bloodGlucoseRecordRepository.findByUserId(userId);
-            
-            if (!recordOpt.isPresent()) {
+            if (!bloodGlucoseRecordRepository.existsByUserId(userId)) {
                 throw new BusinessException(ResultCode.DATA_NOT_EXIST, "血糖记录不存在");
             }
 
-            BloodGlucoseRecord record = recordOpt.get();
-            List<BloodGlucoseRecord.GlucoseEntry> entries = record.getRecords();
+            // 批量删除指定ID的记录，只取回受影响的血糖桶
+            List<BloodGlucoseRecord.GlucoseEntry> removed = pullGlucoseEntries(userId, recordIds);
             
-            if (entries != null) {
-                // 批量删除指定ID的记录
-                boolean removed = entries.removeIf(entry -> 
-                    recordIds.contains(entry.getId()));
-                
-                if (removed) {
-                    // 重新计算统计信息
-                    updateBloodGlucoseStatistics(record);
-                    record.setUpdateTime(LocalDateTime.now());
-                    bloodGlucoseRecordRepository.save(record);
-                    return true;
-                }
+            if (!removed.isEmpty()) {
+                // 增量更新统计信息
+                applyGlucoseStatisticsDelta(userId, Collections.emptyList(), removed);
+                healthDailyRollupService.applyGlucoseChanges(userId, Collections.emptyList(), removed);
+                evictHealthOverview(userId);
+                return true;
             }
             
             return false; // 没有记录被删除
@@ -368,27 +580,21 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean batchDeleteBloodPressureRecords(Long userId, List<String> recordIds) {
         try {
-            Optional<BloodPressureRecord> recordOpt = bloodPressureRecordRepository.findByUserId(userId);
-            
-            if (!recordOpt.isPresent()) {
+            if (!bloodPressureRecordRepository.existsByUserId(userId)) {
                 throw new BusinessException(ResultCode.DATA_NOT_EXIST, "血压记录不存在");
             }
 
-            BloodPressureRecord record = recordOpt.get();
-            List<BloodPressureRecord.PressureEntry> entries = record.getRecords();
+            // 批量删除指定ID的记录，只取回被删除的条目
+            BloodPressureRecord previous = bloodPressureRecordRepository.pullEntries(userId, recordIds);
             
-            if (entries != null) {
-                // 批量删除指定ID的记录
-                boolean removed = entries.removeIf(entry -> 
-                    recordIds.contains(entry.getId()));
-                
-                if (removed) {
-                    // 重新计算统计信息
-                    updateBloodPressureStatistics(record);
-                    record.setUpdateTime(LocalDateTime.now());
-                    bloodPressureRecordRepository.save(record);
-                    return true;
-                }
+            if (previous != null) {
+                // 增量更新统计信息
+                bloodPressureRecordRepository.incStatistics(userId,
+                        buildPressureDelta(Collections.emptyList(), previous.getRecords()));
+                refreshPressureStatistics(userId, previous, previous.getRecords());
+                healthDailyRollupService.applyPressureChanges(userId, Collections.emptyList(), previous.getRecords());
+                evictHealthOverview(userId);
+                return true;
             }
             
             return false; // 没有记录被删除
@@ -398,194 +604,489 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     }
 
     @Override
-    public Object getHealthDataTrend(Long userId, String dataType, Integer days) {
-        try {
-            LocalDateTime endTime = LocalDateTime.now();
-            LocalDateTime startTime = endTime.minusDays(days);
-            
-            log.info("查询健康数据趋势 - 用户ID: {}, 数据类型: {}, 天数: {}, 开始时间: {}, 结束时间: {}", 
-                    userId, dataType, days, startTime, endTime);
-            
-            Map<String, Object> trendData = new HashMap<>();
-            trendData.put("dataType", dataType);
-            trendData.put("days", days);
-            trendData.put("startTime", startTime);
-            trendData.put("endTime", endTime);
-            
-            List<Map<String, Object>> dataPoints = new ArrayList<>();
-            
-            switch (dataType.toLowerCase()) {
-                case "glucose":
-                    Optional<BloodGlucoseRecord> glucoseRecord = bloodGlucoseRecordRepository.findByUserId(userId);
-                    log.info("血糖记录查询结果 - 用户ID: {}, 记录存在: {}", userId, glucoseRecord.isPresent());
-                    
-                    if (glucoseRecord.isPresent() && glucoseRecord.get().getRecords() != null) {
-                        List<BloodGlucoseRecord.GlucoseEntry> allEntries = glucoseRecord.get().getRecords();
-                        log.info("血糖记录总数: {}", allEntries.size());
-                        
-                        // 打印所有记录的时间，用于调试
-                        for (int i = 0; i < Math.min(allEntries.size(), 5); i++) {
-                            BloodGlucoseRecord.GlucoseEntry entry = allEntries.get(i);
-                            log.info("血糖记录样本 {}: 时间={}, 值={}, 类型={}", 
-                                   i+1, entry.getMeasureTime(), entry.getValue(), entry.getMeasureType());
-                        }
-                        
-                        log.info("查询时间范围: {} 到 {}", startTime, endTime);
-                        
-                        // 先不过滤时间，获取所有数据
-                        List<Map<String, Object>> allDataPoints = allEntries.stream()
-                                .map(entry -> {
-                                    Map<String, Object> point = new HashMap<>();
-                                    point.put("time", entry.getMeasureTime());
-                                    point.put("value", entry.getValue());
-                                    point.put("type", entry.getMeasureType());
-                                    return point;
-                                })
-                                .collect(Collectors.toList());
-                        
-                        log.info("不过滤时间的血糖数据点数量: {}", allDataPoints.size());
-                        
-                        // 然后应用时间过滤，但使用更宽松的条件
-                        dataPoints = allEntries.stream()
-                                .filter(entry -> {
-                                    boolean inRange = entry.getMeasureTime().isAfter(startTime.minusDays(1)) 
-                                                   && entry.getMeasureTime().isBefore(endTime.plusDays(1));
-                                    if (!inRange) {
-                                        log.debug("血糖记录时间过滤 - 记录时间: {}, 不在范围内 ({} ~ {})", 
-                                                entry.getMeasureTime(), startTime, endTime);
-                                    }
-                                    return inRange;
-                                })
-                                .map(entry -> {
-                                    Map<String, Object> point = new HashMap<>();
-                                    point.put("time", entry.getMeasureTime());
-                                    point.put("value", entry.getValue());
-                                    point.put("type", entry.getMeasureType());
-                                    return point;
-                                })
-                                .collect(Collectors.toList());
-                                
-                        log.info("血糖趋势数据点数量: {}", dataPoints.size());
-                        
-                        // 如果过滤后没有数据，返回所有数据用于调试
-                        if (dataPoints.isEmpty() && !allDataPoints.isEmpty()) {
-                            log.warn("时间过滤后没有数据，返回最近{}条记录用于调试", Math.min(10, allDataPoints.size()));
-                            dataPoints = allDataPoints.stream()
-                                    .sorted((a, b) -> ((LocalDateTime)b.get("time")).compareTo((LocalDateTime)a.get("time")))
-                                    .limit(10)
-                                    .collect(Collectors.toList());
-                        }
-                    } else {
-                        log.warn("用户ID {} 没有血糖记录或记录为空", userId);
-                    }
-                    break;
-                case "pressure":
-                    Optional<BloodPressureRecord> pressureRecord = bloodPressureRecordRepository.findByUserId(userId);
-                    log.info("血压记录查询结果 - 用户ID: {}, 记录存在: {}", userId, pressureRecord.isPresent());
-                    
-                    if (pressureRecord.isPresent() && pressureRecord.get().getRecords() != null) {
-                        List<BloodPressureRecord.PressureEntry> allEntries = pressureRecord.get().getRecords();
-                        log.info("血压记录总数: {}", allEntries.size());
-                        
-                        // 打印所有记录的时间，用于调试
-                        for (int i = 0; i < Math.min(allEntries.size(), 5); i++) {
-                            BloodPressureRecord.PressureEntry entry = allEntries.get(i);
-                            log.info("血压记录样本 {}: 时间={}, 收缩压={}, 舒张压={}", 
-                                   i+1, entry.getMeasureTime(), entry.getSystolic(), entry.getDiastolic());
+    public Mono<HealthTrendResponse> getHealthDataTrend(Long userId, String dataType, Integer days, Integer maxPoints, String sampling) {
+        LocalDateTime endTime = LocalDateTime.now();
+        LocalDateTime startTime = endTime.minusDays(days);
+        int pointLimit = resolveTrendMaxPoints(maxPoints);
+        String type = dataType.toLowerCase();
+        if (TREND_SAMPLING_DAILY.equalsIgnoreCase(sampling)
+                || (!HealthDailyRollup.METRIC_GLUCOSE.equals(type) && !HealthDailyRollup.METRIC_PRESSURE.equals(type))) {
+            // 日汇总与体重趋势只读取少量文档，仍使用阻塞驱动，放到弹性线程池执行，不占用请求线程
+            return timeTrend(Mono.fromCallable(() -> TREND_SAMPLING_DAILY.equalsIgnoreCase(sampling)
+                            ? getDailyTrend(userId, dataType, days, startTime, endTime)
+                            : getWeightTrend(userId, dataType, days, startTime, endTime, pointLimit, sampling))
+                    .subscribeOn(Schedulers.boundedElastic()), "blocking");
+        }
+        String samplingMode = TrendDownsampler.MODE_ENVELOPE.equalsIgnoreCase(sampling)
+                ? TrendDownsampler.MODE_ENVELOPE : TrendDownsampler.MODE_LTTB;
+
+        log.info("查询健康数据趋势 - 用户ID: {}, 数据类型: {}, 天数: {}, 开始时间: {}, 结束时间: {}, 最大点数: {}, 降采样: {}",
+                userId, dataType, days, startTime, endTime, pointLimit, samplingMode);
+
+        HealthTrendResponse trendData = new HealthTrendResponse();
+        trendData.setDataType(dataType);
+        trendData.setDays(days);
+        trendData.setStartTime(startTime);
+        trendData.setEndTime(endTime);
+
+        // 血糖与血压的原始点数量随记录数增长，以响应式游标直接构建时间范围（前后各放宽一天）内的列式序列
+        Mono<HealthTrendResponse> trend;
+        if (HealthDailyRollup.METRIC_GLUCOSE.equals(type)) {
+            trend = reactiveBloodGlucoseBucketRepository.findSeries(userId, startTime.minusDays(1), endTime.plusDays(1))
+                    .flatMap(series -> {
+                        if (series.size() == 0) {
+                            // 时间过滤后没有数据，返回最近10条记录用于调试
+                            return reactiveBloodGlucoseBucketRepository.findEntries(userId, null, null, LATEST_TREND_ENTRIES)
+                                    .map(page -> toLatestTrend(trendData, page.getContent().stream()
+                                            .map(this::convertToGlucoseTrendPoint)
+                                            .collect(Collectors.toList()), userId, "血糖"));
                         }
-                        
-                        log.info("查询时间范围: {} 到 {}", startTime, endTime);
-                        
-                        // 先不过滤时间，获取所有数据
-                        List<Map<String, Object>> allDataPoints = allEntries.stream()
-                                .map(entry -> {
-                                    Map<String, Object> point = new HashMap<>();
-                                    point.put("time", entry.getMeasureTime());
-                                    point.put("systolic", entry.getSystolic());
-                                    point.put("diastolic", entry.getDiastolic());
-                                    if (entry.getHeartRate() != null) {
-                                        point.put("heartRate", entry.getHeartRate());
-                                    }
-                                    return point;
-                                })
-                                .collect(Collectors.toList());
-                        
-                        log.info("不过滤时间的血压数据点数量: {}", allDataPoints.size());
-                        
-                        // 然后应用时间过滤，但使用更宽松的条件
-                        dataPoints = allEntries.stream()
-                                .filter(entry -> {
-                                    boolean inRange = entry.getMeasureTime().isAfter(startTime.minusDays(1)) 
-                                                   && entry.getMeasureTime().isBefore(endTime.plusDays(1));
-                                    if (!inRange) {
-                                        log.debug("血压记录时间过滤 - 记录时间: {}, 不在范围内 ({} ~ {})", 
-                                                entry.getMeasureTime(), startTime, endTime);
-                                    }
-                                    return inRange;
-                                })
-                                .map(entry -> {
-                                    Map<String, Object> point = new HashMap<>();
-                                    point.put("time", entry.getMeasureTime());
-                                    point.put("systolic", entry.getSystolic());
-                                    point.put("diastolic", entry.getDiastolic());
-                                    if (entry.getHeartRate() != null) {
-                                        point.put("heartRate", entry.getHeartRate());
-                                    }
-                                    return point;
-                                })
-                                .collect(Collectors.toList());
-                                
-                        log.info("血压趋势数据点数量: {}", dataPoints.size());
-                        
-                        // 如果过滤后没有数据，返回所有数据用于调试
-                        if (dataPoints.isEmpty() && !allDataPoints.isEmpty()) {
-                            log.warn("时间过滤后没有数据，返回最近{}条记录用于调试", Math.min(10, allDataPoints.size()));
-                            dataPoints = allDataPoints.stream()
-                                    .sorted((a, b) -> ((LocalDateTime)b.get("time")).compareTo((LocalDateTime)a.get("time")))
-                                    .limit(10)
-                                    .collect(Collectors.toList());
+                        trendData.setStatistics(convertToTrendStatistics(series.statistics()));
+                        List<HealthTrendResponse.TrendPoint> dataPoints = downsampleGlucoseSeries(series, pointLimit, samplingMode);
+                        log.info("血糖趋势数据点数量: {}, 原始点数量: {}", dataPoints.size(), series.size());
+                        return Mono.just(completeTrend(trendData, dataPoints, series.size(), pointLimit, samplingMode));
+                    });
+        } else {
+            trend = reactiveBloodPressureRecordRepository.findSeries(userId, startTime.minusDays(1), endTime.plusDays(1))
+                    .flatMap(series -> {
+                        if (series.size() == 0) {
+                            // 时间过滤后没有数据，返回最近10条记录用于调试
+                            return reactiveBloodPressureRecordRepository.findEntries(userId, null, null, LATEST_TREND_ENTRIES)
+                                    .map(page -> toLatestTrend(trendData, page.getContent().stream()
+                                            .map(this::convertToPressureTrendPoint)
+                                            .collect(Collectors.toList()), userId, "血压"));
                         }
-                    } else {
-                        log.warn("用户ID {} 没有血压记录或记录为空", userId);
-                    }
-                    break;
-                case "weight":
-                    Optional<WeightRecord> weightRecord = weightRecordRepository.findByUserId(userId);
-                    if (weightRecord.isPresent() && weightRecord.get().getRecords() != null) {
-                        dataPoints = weightRecord.get().getRecords().stream()
-                                .filter(entry -> entry.getMeasureTime().isAfter(startTime) 
-                                              && entry.getMeasureTime().isBefore(endTime))
-                                .map(entry -> {
-                                    Map<String, Object> point = new HashMap<>();
-                                    point.put("time", entry.getMeasureTime());
-                                    point.put("weight", entry.getWeight());
-                                    if (entry.getBmi() != null) {
-                                        point.put("bmi", entry.getBmi());
-                                    }
-                                    return point;
-                                })
-                                .collect(Collectors.toList());
+                        trendData.setStatistics(convertToTrendStatistics(series.statistics()));
+                        List<HealthTrendResponse.TrendPoint> dataPoints = downsamplePressureSeries(series, pointLimit, samplingMode);
+                        log.info("血压趋势数据点数量: {}, 原始点数量: {}", dataPoints.size(), series.size());
+                        return Mono.just(completeTrend(trendData, dataPoints, series.size(), pointLimit, samplingMode));
+                    });
+        }
+        return timeTrend(trend, "reactive");
+    }
+
+    /**
+     * 记录趋势查询耗时（health.trend.latency，按驱动区分），用于对比响应式与阻塞读取；失败时统一转换为业务异常
+     */
+    private Mono<HealthTrendResponse> timeTrend(Mono<HealthTrendResponse> trend, String driver) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return trend.doFinally(signal -> sample.stop(meterRegistry.timer("health.trend.latency", "driver", driver)));
+        }).onErrorMap(e -> new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "获取健康数据趋势失败：" + e.getMessage()));
+    }
+
+    /**
+     * 体重趋势：只取回时间范围内的条目（已按测量时间升序）后降采样
+     */
+    private HealthTrendResponse getWeightTrend(Long userId, String dataType, Integer days, LocalDateTime startTime,
+                                               LocalDateTime endTime, int pointLimit, String sampling) {
+        if (!HealthDailyRollup.METRIC_WEIGHT.equals(dataType.toLowerCase())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的数据类型：" + dataType);
+        }
+        String samplingMode = TrendDownsampler.MODE_ENVELOPE.equalsIgnoreCase(sampling)
+                ? TrendDownsampler.MODE_ENVELOPE : TrendDownsampler.MODE_LTTB;
+        List<WeightRecord.WeightEntry> weightEntries = weightRecordRepository.findEntriesBetween(userId, startTime, endTime);
+        List<HealthTrendResponse.TrendPoint> dataPoints = downsampleTrend(weightEntries, WeightRecord.WeightEntry::getMeasureTime,
+                WEIGHT_TREND_SERIES, this::convertToWeightTrendPoint, pointLimit, samplingMode);
+
+        HealthTrendResponse trendData = new HealthTrendResponse();
+        trendData.setDataType(dataType);
+        trendData.setDays(days);
+        trendData.setStartTime(startTime);
+        trendData.setEndTime(endTime);
+        return completeTrend(trendData, dataPoints, weightEntries.size(), pointLimit, samplingMode);
+    }
+
+    private HealthTrendResponse completeTrend(HealthTrendResponse trendData, List<HealthTrendResponse.TrendPoint> dataPoints,
+                                              int rawCount, int pointLimit, String samplingMode) {
+        trendData.setData(dataPoints);
+        trendData.setRawCount(rawCount);
+        trendData.setSampling(rawCount > pointLimit ? samplingMode : "none");
+        return trendData;
+    }
+
+    /**
+     * 时间范围内没有数据时返回最近的记录（按测量时间倒序），用于调试
+     */
+    private HealthTrendResponse toLatestTrend(HealthTrendResponse trendData, List<HealthTrendResponse.TrendPoint> latest,
+                                              Long userId, String label) {
+        if (latest.isEmpty()) {
+            log.warn("用户ID {} 没有{}记录或记录为空", userId, label);
+        } else {
+            log.warn("时间过滤后没有数据，返回最近{}条记录用于调试", latest.size());
+        }
+        trendData.setData(latest);
+        trendData.setRawCount(0);
+        trendData.setSampling("none");
+        return trendData;
+    }
+
+    /**
+     * 按天返回趋势数据，直接读取日汇总（每天一个点，包含平均/最小/最大值与记录数）
+     */
+    private HealthTrendResponse getDailyTrend(Long userId, String dataType, Integer days,
+                                              LocalDateTime startTime, LocalDateTime endTime) {
+        String metric = dataType.toLowerCase();
+        String primaryName;
+        switch (metric) {
+            case HealthDailyRollup.METRIC_GLUCOSE:
+                primaryName = "value";
+                break;
+            case HealthDailyRollup.METRIC_PRESSURE:
+                primaryName = "systolic";
+                break;
+            case HealthDailyRollup.METRIC_WEIGHT:
+                primaryName = "weight";
+                break;
+            default:
+                throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的数据类型：" + dataType);
+        }
+
+        List<HealthDailyRollup> rollups = healthDailyRollupService.findDailyRollups(
+                userId, metric, startTime.toLocalDate(), endTime.toLocalDate());
+        List<HealthTrendResponse.TrendPoint> dataPoints = new ArrayList<>(rollups.size());
+        int rawCount = 0;
+        for (HealthDailyRollup rollup : rollups) {
+            if (rollup.getCount() == null || rollup.getCount() == 0) {
+                continue;
+            }
+            rawCount += rollup.getCount();
+            HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(rollup.getDate().atStartOfDay());
+            point.setCount(rollup.getCount());
+            point.putSeries(primaryName, FixedPointAccumulator.average(rollup.getSum(), rollup.getCount(),
+                    FixedPointAccumulator.AVERAGE_SCALE), rollup.getMin(), rollup.getMax());
+            if (rollup.getSeries() != null) {
+                rollup.getSeries().forEach((name, stats) -> {
+                    if (stats.getCount() != null && stats.getCount() > 0) {
+                        point.putSeries(name, FixedPointAccumulator.average(stats.getSum(), stats.getCount(),
+                                FixedPointAccumulator.AVERAGE_SCALE), stats.getMin(), stats.getMax());
                     }
-                    break;
-                default:
-                    throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的数据类型：" + dataType);
+                });
             }
-            
-            trendData.put("data", dataPoints);
-            return trendData;
-            
+            dataPoints.add(point);
+        }
+
+        HealthTrendResponse trendData = new HealthTrendResponse();
+        trendData.setDataType(dataType);
+        trendData.setDays(days);
+        trendData.setStartTime(startTime);
+        trendData.setEndTime(endTime);
+        trendData.setData(dataPoints);
+        trendData.setRawCount(rawCount);
+        trendData.setSampling(TREND_SAMPLING_DAILY);
+        return trendData;
+    }
+
+    /**
+     * 解析趋势查询的最大点数，未指定时使用默认值，并限制在允许范围内
+     */
+    private int resolveTrendMaxPoints(Integer maxPoints) {
+        if (maxPoints == null || maxPoints <= 0) {
+            return trendDefaultMaxPoints;
+        }
+        return Math.max(3, Math.min(maxPoints, trendMaxPointsLimit));
+    }
+
+    /**
+     * 趋势数据降采样
+     * 点数不超过maxPoints时原样返回；lttb按第一个序列选点并保留原始点，envelope按时间区间输出各序列的最小/平均/最大值
+     *
+     * @param entries 按时间升序排列的条目
+     * @param timeGetter 时间取值
+     * @param series 参与降采样的数值序列（序列名 -> 取值），第一个为主序列
+     * @param pointMapper 原始点转换
+     * @param maxPoints 最大点数
+     * @param samplingMode 降采样方式
+     * @return 趋势数据点
+     */
+    private <T> List<HealthTrendResponse.TrendPoint> downsampleTrend(List<T> entries, Function<T, LocalDateTime> timeGetter,
+                                                                     Map<String, Function<T, Number>> series,
+                                                                     Function<T, HealthTrendResponse.TrendPoint> pointMapper,
+                                                                     int maxPoints, String samplingMode) {
+        int n = entries.size();
+        if (n <= maxPoints) {
+            List<HealthTrendResponse.TrendPoint> points = new ArrayList<>(n);
+            for (T entry : entries) {
+                points.add(pointMapper.apply(entry));
+            }
+            return points;
+        }
+
+        long[] times = new long[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = HealthSeries.toMillis(timeGetter.apply(entries.get(i)));
+        }
+
+        List<HealthTrendResponse.TrendPoint> points = new ArrayList<>(maxPoints);
+        if (TrendDownsampler.MODE_LTTB.equals(samplingMode)) {
+            Function<T, Number> primary = series.values().iterator().next();
+            for (int index : TrendDownsampler.lttb(times, toTrendValues(entries, primary), maxPoints)) {
+                points.add(pointMapper.apply(entries.get(index)));
+            }
+            return points;
+        }
+
+        Map<String, TrendDownsampler.Envelope> envelopes = new LinkedHashMap<>();
+        series.forEach((name, getter) ->
+                envelopes.put(name, TrendDownsampler.envelope(times, toTrendValues(entries, getter), maxPoints)));
+        TrendDownsampler.Envelope primary = envelopes.values().iterator().next();
+        for (int b = 0; b < primary.getSize(); b++) {
+            points.add(convertToEnvelopePoint(envelopes, b));
+        }
+        return points;
+    }
+
+    /**
+     * 血糖序列降采样，只为输出的点创建Map
+     */
+    private List<HealthTrendResponse.TrendPoint> downsampleGlucoseSeries(GlucoseSeries series, int maxPoints,
+                                                                         String samplingMode) {
+        List<HealthTrendResponse.TrendPoint> points = new ArrayList<>(Math.min(series.size(), maxPoints));
+        if (series.size() > maxPoints && TrendDownsampler.MODE_ENVELOPE.equals(samplingMode)) {
+            Map<String, TrendDownsampler.Envelope> envelopes = Map.of("value", series.envelope(maxPoints));
+            for (int b = 0; b < envelopes.get("value").getSize(); b++) {
+                points.add(convertToEnvelopePoint(envelopes, b));
+            }
+            return points;
+        }
+        for (int i : series.lttb(maxPoints)) {
+            HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(series.measureTime(i));
+            point.setValue(new BigDecimal(Float.toString(series.value(i))));
+            point.setType(series.measureType(i));
+            points.add(point);
+        }
+        return points;
+    }
+
+    /**
+     * 血压序列降采样，以收缩压为主序列，只为输出的点创建Map
+     */
+    private List<HealthTrendResponse.TrendPoint> downsamplePressureSeries(PressureSeries series, int maxPoints,
+                                                                          String samplingMode) {
+        List<HealthTrendResponse.TrendPoint> points = new ArrayList<>(Math.min(series.size(), maxPoints));
+        if (series.size() > maxPoints && TrendDownsampler.MODE_ENVELOPE.equals(samplingMode)) {
+            Map<String, TrendDownsampler.Envelope> envelopes = new LinkedHashMap<>();
+            envelopes.put("systolic", series.systolicEnvelope(maxPoints));
+            envelopes.put("diastolic", series.diastolicEnvelope(maxPoints));
+            envelopes.put("heartRate", series.heartRateEnvelope(maxPoints));
+            for (int b = 0; b < envelopes.get("systolic").getSize(); b++) {
+                points.add(convertToEnvelopePoint(envelopes, b));
+            }
+            return points;
+        }
+        for (int i : series.lttb(maxPoints)) {
+            HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(series.measureTime(i));
+            point.setSystolic(BigDecimal.valueOf(series.systolic(i)));
+            point.setDiastolic(BigDecimal.valueOf(series.diastolic(i)));
+            point.setHeartRate(toTrendInteger(series.heartRate(i)));
+            points.add(point);
+        }
+        return points;
+    }
+
+    /**
+     * 转换为包络趋势数据点：各序列的平均值及Min/Max，区间内无有效值的序列不输出
+     * 各包络基于同一组时间计算，区间下标一一对应
+     */
+    private HealthTrendResponse.TrendPoint convertToEnvelopePoint(Map<String, TrendDownsampler.Envelope> envelopes,
+                                                                  int bucket) {
+        TrendDownsampler.Envelope primary = envelopes.values().iterator().next();
+        HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(primary.getTimes()[bucket]), ZoneId.systemDefault()));
+        point.setCount(primary.getCount()[bucket]);
+        for (Map.Entry<String, TrendDownsampler.Envelope> envelope : envelopes.entrySet()) {
+            TrendDownsampler.Envelope env = envelope.getValue();
+            if (env.getCount()[bucket] == 0) {
+                continue;
+            }
+            point.putSeries(envelope.getKey(), toTrendDecimal(env.getAvg()[bucket]),
+                    toTrendDecimal(env.getMin()[bucket]), toTrendDecimal(env.getMax()[bucket]));
+        }
+        return point;
+    }
+
+    /**
+     * 转换血糖序列统计信息
+     */
+    private Map<String, Object> convertToTrendStatistics(GlucoseSeries.Statistics stats) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", stats.getCount());
+        result.put("avgValue", stats.getAvg());
+        result.put("maxValue", new BigDecimal(Float.toString(stats.getMax())));
+        result.put("minValue", new BigDecimal(Float.toString(stats.getMin())));
+        result.put("normalCount", stats.getNormalCount());
+        result.put("highCount", stats.getHighCount());
+        result.put("lowCount", stats.getLowCount());
+        return result;
+    }
+
+    /**
+     * 转换血压序列统计信息
+     */
+    private Map<String, Object> convertToTrendStatistics(PressureSeries.Statistics stats) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", stats.getCount());
+        result.put("avgSystolic", FixedPointAccumulator.average(stats.getSumSystolic(),
+                FixedPointAccumulator.INTEGER_SCALE, stats.getCount(), FixedPointAccumulator.AVERAGE_SCALE));
+        result.put("avgDiastolic", FixedPointAccumulator.average(stats.getSumDiastolic(),
+                FixedPointAccumulator.INTEGER_SCALE, stats.getCount(), FixedPointAccumulator.AVERAGE_SCALE));
+        if (stats.getHeartRateCount() > 0) {
+            result.put("avgHeartRate", FixedPointAccumulator.average(stats.getSumHeartRate(),
+                    FixedPointAccumulator.INTEGER_SCALE, stats.getHeartRateCount(), FixedPointAccumulator.AVERAGE_SCALE));
+        }
+        result.put("maxSystolic", stats.getMaxSystolic());
+        result.put("minSystolic", stats.getMinSystolic());
+        result.put("maxDiastolic", stats.getMaxDiastolic());
+        result.put("minDiastolic", stats.getMinDiastolic());
+        result.put("normalCount", stats.getNormalCount());
+        result.put("highCount", stats.getHighCount());
+        result.put("lowCount", stats.getLowCount());
+        return result;
+    }
+
+    private <T> double[] toTrendValues(List<T> entries, Function<T, Number> getter) {
+        double[] values = new double[entries.size()];
+        for (int i = 0; i < values.length; i++) {
+            Number value = getter.apply(entries.get(i));
+            values[i] = value == null ? Double.NaN : value.doubleValue();
+        }
+        return values;
+    }
+
+    private BigDecimal toTrendDecimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal toTrendInteger(Integer value) {
+        return value == null ? null : BigDecimal.valueOf(value);
+    }
+
+    /**
+     * 转换为血压趋势数据点
+     */
+    private HealthTrendResponse.TrendPoint convertToPressureTrendPoint(BloodPressureRecord.PressureEntry entry) {
+        HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(entry.getMeasureTime());
+        point.setSystolic(toTrendInteger(entry.getSystolic()));
+        point.setDiastolic(toTrendInteger(entry.getDiastolic()));
+        point.setHeartRate(toTrendInteger(entry.getHeartRate()));
+        return point;
+    }
+
+    /**
+     * 转换为体重趋势数据点
+     */
+    private HealthTrendResponse.TrendPoint convertToWeightTrendPoint(WeightRecord.WeightEntry entry) {
+        HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(entry.getMeasureTime());
+        point.setWeight(entry.getWeight());
+        point.setBmi(entry.getBmi());
+        return point;
+    }
+
+    @Override
+    public Object getHealthStatistics(Long userId) {
+        String cacheKey = HEALTH_OVERVIEW_KEY_PREFIX + userId;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<Object, Object> cached = null;
+        try {
+            cached = redisUtil.hmget(cacheKey);
         } catch (Exception e) {
-            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "获取健康数据趋势失败：" + e.getMessage());
+            log.warn("读取健康数据概览缓存失败，改为查询数据库 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+        }
+        if (cached != null && !cached.isEmpty()) {
+            meterRegistry.counter("health.overview.cache", "result", "hit").increment();
+            sample.stop(meterRegistry.timer("health.overview.latency", "source", "cache"));
+            return cached;
+        }
+
+        // 加载前读取缓存代数，加载期间有写入时代数变化，不再写入缓存
+        String epoch = readOverviewEpoch(userId);
+        Map<String, Object> statistics = loadHealthStatistics(userId);
+        meterRegistry.counter("health.overview.cache", "result", "miss").increment();
+        // 窗口统计与体重变化按日期计算，缓存不跨天
+        long untilMidnight = Duration.between(LocalDateTime.now(), LocalDate.now().plusDays(1).atStartOfDay()).getSeconds();
+        if (epoch != null) {
+            putHealthOverview(userId, epoch, statistics, Math.max(1, Math.min(overviewCacheTtlSeconds, untilMidnight)));
         }
+        sample.stop(meterRegistry.timer("health.overview.latency", "source", "mongo"));
+        return statistics;
     }
 
-    @Override
-    public Object getHealthStatistics(Long userId) {
-        try {
+    /**
+     * 读取用户的概览缓存代数，不存在时为"0"；Redis不可用时返回null
+     */
+    private String readOverviewEpoch(Long userId) {
+        try {
+            String epoch = stringRedisTemplate.opsForValue().get(HEALTH_OVERVIEW_EPOCH_KEY_PREFIX + userId);
+            return epoch == null ? "0" : epoch;
+        } catch (Exception e) {
+            log.warn("读取健康数据概览缓存代数失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 代数未变化时写入概览缓存，字段值与RedisUtil.hmset使用相同的序列化方式
+     */
+    private void putHealthOverview(Long userId, String epoch, Map<String, Object> statistics, long ttlSeconds) {
+        List<byte[]> args = new ArrayList<>();
+        args.add(epoch.getBytes(StandardCharsets.UTF_8));
+        args.add(String.valueOf(ttlSeconds).getBytes(StandardCharsets.UTF_8));
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        statistics.forEach((field, value) -> {
+            args.add(field.getBytes(StandardCharsets.UTF_8));
+            args.add(valueSerializer.serialize(value));
+        });
+        try {
+            stringRedisTemplate.execute(OVERVIEW_PUT_SCRIPT, RedisSerializer.byteArray(),
+                    new GenericToStringSerializer<>(Long.class), overviewKeys(userId), args.toArray());
+        } catch (Exception e) {
+            log.warn("写入健康数据概览缓存失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 删除用户的健康数据概览缓存，在统计信息或日汇总变化后调用；
+     * 同时递增缓存代数，使删除前已开始加载的请求不再写回旧数据
+     */
+    private void evictHealthOverview(Long userId) {
+        try {
+            stringRedisTemplate.execute(OVERVIEW_EVICT_SCRIPT, overviewKeys(userId),
+                    String.valueOf(HEALTH_OVERVIEW_EPOCH_TTL_SECONDS));
+        } catch (Exception e) {
+            log.warn("删除健康数据概览缓存失败 - 用户ID: {}, 原因: {}", userId, e.getMessage());
+        }
+    }
+
+    private static List<String> overviewKeys(Long userId) {
+        return List.of(HEALTH_OVERVIEW_KEY_PREFIX + userId, HEALTH_OVERVIEW_EPOCH_KEY_PREFIX + userId);
+    }
+
+    /**
+     * 从数据库读取健康数据概览：三类记录只投影统计信息，不加载条目
+     */
+    private Map<String, Object> loadHealthStatistics(Long userId) {
+        try (ParallelLookup.Scope scope = parallelLookup.open()) {
+            // 三类统计与窗口统计互不依赖，并行读取
+            ParallelLookup.Task<Optional<BloodGlucoseRecord>> glucoseTask =
+                    scope.fork(() -> bloodGlucoseRecordRepository.findStatisticsByUserId(userId));
+            ParallelLookup.Task<Optional<BloodPressureRecord>> pressureTask =
+                    scope.fork(() -> bloodPressureRecordRepository.findStatisticsByUserId(userId));
+            ParallelLookup.Task<Optional<WeightRecord>> weightTask = scope.fork(() -> {
+                Optional<WeightRecord> record = weightRecordRepository.findStatisticsByUserId(userId);
+                if (record.isPresent() && record.get().getStatistics() != null) {
+                    fillWeightChanges(userId, record.get().getStatistics());
+                }
+                return record;
+            });
+            ParallelLookup.Task<Map<String, Object>> windowsTask =
+                    scope.fork(() -> healthDailyRollupService.getWindowStatistics(userId));
+            scope.join();
+
             Map<String, Object> statistics = new HashMap<>();
             
             // 血糖统计
-            Optional<BloodGlucoseRecord> glucoseRecord = bloodGlucoseRecordRepository.findByUserId(userId);
+            Optional<BloodGlucoseRecord> glucoseRecord = glucoseTask.get();
             if (glucoseRecord.isPresent() && glucoseRecord.get().getStatistics() != null) {
                 Map<String, Object> glucoseStats = new HashMap<>();
                 BloodGlucoseRecord.GlucoseStatistics stats = glucoseRecord.get().getStatistics();
@@ -600,7 +1101,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             }
             
             // 血压统计
-            Optional<BloodPressureRecord> pressureRecord = bloodPressureRecordRepository.findByUserId(userId);
+            Optional<BloodPressureRecord> pressureRecord = pressureTask.get();
             if (pressureRecord.isPresent() && pressureRecord.get().getStatistics() != null) {
                 Map<String, Object> pressureStats = new HashMap<>();
                 BloodPressureRecord.PressureStatistics stats = pressureRecord.get().getStatistics();
@@ -615,7 +1116,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             }
             
             // 体重统计
-            Optional<WeightRecord> weightRecord = weightRecordRepository.findByUserId(userId);
+            Optional<WeightRecord> weightRecord = weightTask.get();
             if (weightRecord.isPresent() && weightRecord.get().getStatistics() != null) {
                 Map<String, Object> weightStats = new HashMap<>();
                 WeightRecord.WeightStatistics stats = weightRecord.get().getStatistics();
@@ -631,16 +1132,22 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             
             // 计算总记录数
             int totalRecords = 0;
-            if (glucoseRecord.isPresent() && glucoseRecord.get().getRecords() != null) {
-                totalRecords += glucoseRecord.get().getRecords().size();
+            if (glucoseRecord.isPresent() && glucoseRecord.get().getStatistics() != null
+                    && glucoseRecord.get().getStatistics().getTotalCount() != null) {
+                totalRecords += glucoseRecord.get().getStatistics().getTotalCount();
             }
-            if (pressureRecord.isPresent() && pressureRecord.get().getRecords() != null) {
-                totalRecords += pressureRecord.get().getRecords().size();
+            if (pressureRecord.isPresent() && pressureRecord.get().getStatistics() != null
+                    && pressureRecord.get().getStatistics().getTotalCount() != null) {
+                totalRecords += pressureRecord.get().getStatistics().getTotalCount();
             }
-            if (weightRecord.isPresent() && weightRecord.get().getRecords() != null) {
-                totalRecords += weightRecord.get().getRecords().size();
+            if (weightRecord.isPresent() && weightRecord.get().getStatistics() != null
+                    && weightRecord.get().getStatistics().getTotalCount() != null) {
+                totalRecords += weightRecord.get().getStatistics().getTotalCount();
             }
             statistics.put("totalRecords", totalRecords);
+
+            // 最近7/30/90天窗口统计（读取日汇总）
+            statistics.put("windows", windowsTask.get());
             
             return statistics;
             
@@ -664,6 +1171,17 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         return true;
     }
     
+    @Override
+    public void reconcileBloodGlucoseDays(Long userId, Collection<LocalDate> dates) {
+        // 血糖桶汇总与条目在同一次更新中写入，只需根据桶汇总重算总体统计
+        if (updateBloodGlucoseStatistics(userId) == null) {
+            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "血糖统计数据并发写入频繁，重新计算未完成");
+        }
+        healthDailyRollupService.refreshGlucoseDays(userId, dates);
+        evictHealthOverview(userId);
+        log.info("已重算血糖统计与日汇总 - 用户ID: {}, 涉及天数: {}", userId, dates.size());
+    }
+
     @Override
     public Boolean recalculateBloodGlucoseStatistics(Long userId) {
         try {
@@ -676,20 +1194,24 @@ public class HealthRecordServiceImpl implements HealthRecordService {
                 return false;
             }
             
-            BloodGlucoseRecord record = recordOpt.get();
+            // 逐桶重算桶内汇总（按读取时的条目数与更新时间条件写回，期间有并发写入时重新读取），再汇总为总体统计
+            for (BloodGlucoseBucket bucket : bloodGlucoseBucketRepository.findSummariesByUserId(userId)) {
+                rescanGlucoseBucketSummary(userId, bucket.getId());
+            }
             
             // 使用已修复的统计方法重新计算
-            updateBloodGlucoseStatistics(record);
-            
-            // 保存更新后的记录
-            record.setUpdateTime(LocalDateTime.now());
-            bloodGlucoseRecordRepository.save(record);
+            BloodGlucoseRecord.GlucoseStatistics stats = updateBloodGlucoseStatistics(userId);
+            evictHealthOverview(userId);
+            if (stats == null) {
+                log.warn("用户 {} 的血糖统计数据并发写入频繁，重新计算未完成", userId);
+                return false;
+            }
             
             log.info("✅ 用户 {} 的血糖统计数据重新计算完成", userId);
-            log.info("   - 总记录数: {}", record.getStatistics().getTotalCount());
-            log.info("   - 正常记录: {}", record.getStatistics().getNormalCount());
-            log.info("   - 偏高记录: {}", record.getStatistics().getHighCount());
-            log.info("   - 偏低记录: {}", record.getStatistics().getLowCount());
+            log.info("   - 总记录数: {}", stats.getTotalCount());
+            log.info("   - 正常记录: {}", stats.getNormalCount());
+            log.info("   - 偏高记录: {}", stats.getHighCount());
+            log.info("   - 偏低记录: {}", stats.getLowCount());
             
             return true;
         } catch (Exception e) {
@@ -698,79 +1220,237 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         }
     }
 
+    @Override
+    public Boolean recalculateBloodPressureStatistics(Long userId) {
+        Boolean done = retryOnConflict("pressure", userId, () -> bloodPressureRecordRepository.findByUserId(userId)
+                .map(record -> {
+                    updateBloodPressureStatistics(record);
+                    bloodPressureRecordRepository.setStatistics(userId, record.getStatistics(), record.getVersion());
+                    return true;
+                })
+                .orElse(false));
+        evictHealthOverview(userId);
+        return Boolean.TRUE.equals(done);
+    }
+
+    @Override
+    public Boolean recalculateWeightStatistics(Long userId) {
+        Boolean done = retryOnConflict("weight", userId, () -> weightRecordRepository.findByUserId(userId)
+                .map(record -> {
+                    updateWeightStatistics(record);
+                    weightRecordRepository.setStatistics(userId, record.getStatistics(), record.getVersion());
+                    return true;
+                })
+                .orElse(false));
+        evictHealthOverview(userId);
+        return Boolean.TRUE.equals(done);
+    }
+
     /**
-     * 创建新的血糖记录文档
+     * 以$inc把桶内条目的增删计入血糖桶汇总；被删除的条目恰好是修改前的最值时重新扫描该桶
+     *
+     * @param previous 修改前的血糖桶
      */
-    private BloodGlucoseRecord createNewBloodGlucoseRecord(Long userId) {
-        BloodGlucoseRecord record = new BloodGlucoseRecord();
-        record.setUserId(userId);
-        record.setCreateTime(LocalDateTime.now());
-        record.setUpdateTime(LocalDateTime.now());
-        record.setRecords(new ArrayList<>());
-        return record;
+    private void applyGlucoseBucketDelta(Long userId, BloodGlucoseBucket previous,
+                                         List<BloodGlucoseRecord.GlucoseEntry> added,
+                                         List<BloodGlucoseRecord.GlucoseEntry> removed) {
+        BloodGlucoseBucket current = bloodGlucoseBucketRepository.incSummary(previous.getId(),
+                added, glucoseLevels(added), removed, glucoseLevels(removed));
+        if (current == null) {
+            return;
+        }
+        boolean extremeRemoved = removed.stream().anyMatch(entry -> previous.getMinValue() == null
+                || previous.getMaxValue() == null
+                || entry.getValue().compareTo(previous.getMinValue()) == 0
+                || entry.getValue().compareTo(previous.getMaxValue()) == 0);
+        if (extremeRemoved) {
+            rescanGlucoseBucketSummary(userId, previous.getId());
+        }
     }
 
     /**
-     * 创建新的血压记录文档
+     * 读取血糖桶重新计算汇总，按读取时的条目数与更新时间条件写回，期间有其他写入时重新读取
      */
-    private BloodPressureRecord createNewBloodPressureRecord(Long userId) {
-        BloodPressureRecord record = new BloodPressureRecord();
-        record.setUserId(userId);
-        record.setCreateTime(LocalDateTime.now());
-        record.setUpdateTime(LocalDateTime.now());
-        record.setRecords(new ArrayList<>());
-        return record;
+    private void rescanGlucoseBucketSummary(Long userId, String bucketId) {
+        retryOnConflict("glucose_bucket", userId, () -> {
+            BloodGlucoseBucket bucket = bloodGlucoseBucketRepository.findById(bucketId).orElse(null);
+            if (bucket == null) {
+                return null;
+            }
+            Integer entryCount = bucket.getEntryCount();
+            LocalDateTime updateTime = bucket.getUpdateTime();
+            refreshGlucoseBucketSummary(bucket);
+            bloodGlucoseBucketRepository.saveSummary(bucket, entryCount, updateTime);
+            return null;
+        });
+    }
+
+    private List<String> glucoseLevels(List<BloodGlucoseRecord.GlucoseEntry> entries) {
+        return entries.stream().map(this::evaluateGlucoseEntryLevel).collect(Collectors.toList());
     }
 
     /**
-     * 更新血糖统计信息
+     * 从所在的血糖桶中原子删除条目，并把删除计入各桶汇总
+     *
+     * @return 被删除的条目
      */
-    private void updateBloodGlucoseStatistics(BloodGlucoseRecord record) {
-        List<BloodGlucoseRecord.GlucoseEntry> entries = record.getRecords();
-        
-        // 如果记录为空，清空统计数据
-        if (entries == null || entries.isEmpty()) {
-            BloodGlucoseRecord.GlucoseStatistics emptyStats = new BloodGlucoseRecord.GlucoseStatistics();
-            emptyStats.setAvgValue(null);
-            emptyStats.setMaxValue(null);
-            emptyStats.setMinValue(null);
-            emptyStats.setTotalCount(0);
-            emptyStats.setNormalCount(0);
-            emptyStats.setHighCount(0);
-            emptyStats.setLowCount(0);
-            emptyStats.setLastUpdateTime(LocalDateTime.now());
-            record.setStatistics(emptyStats);
+    private List<BloodGlucoseRecord.GlucoseEntry> pullGlucoseEntries(Long userId, Collection<String> entryIds) {
+        Set<String> idSet = new HashSet<>(entryIds);
+        List<BloodGlucoseRecord.GlucoseEntry> removed = new ArrayList<>();
+        for (BloodGlucoseBucket bucket : bloodGlucoseBucketRepository.pullEntries(userId, entryIds)) {
+            // 修改前的桶中属于本次删除的条目
+            List<BloodGlucoseRecord.GlucoseEntry> bucketRemoved = bucket.getEntries().stream()
+                    .filter(entry -> idSet.contains(entry.getId()))
+                    .collect(Collectors.toList());
+            applyGlucoseBucketDelta(userId, bucket, Collections.emptyList(), bucketRemoved);
+            removed.addAll(bucketRemoved);
+        }
+        return removed;
+    }
+
+    /**
+     * 执行一次读取-修改-按版本号写回，版本冲突时指数退避（带随机抖动）后重试
+     * 只在同一用户的文档上重试，不同用户之间互不影响；重试次数用尽时放弃本次统计写回，由下一次写入修正
+     *
+     * @param metric 指标（glucose/pressure/weight），用于冲突率统计
+     * @param userId 用户ID
+     * @param action 读取并按版本号写回的操作
+     * @return 操作结果，重试次数用尽时返回null
+     */
+    private <T> T retryOnConflict(String metric, Long userId, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            meterRegistry.counter("health.statistics.writes", "metric", metric).increment();
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("health.statistics.conflicts", "metric", metric).increment();
+                if (attempt > conflictMaxRetries) {
+                    meterRegistry.counter("health.statistics.conflicts.exhausted", "metric", metric).increment();
+                    log.warn("统计信息并发冲突重试{}次后放弃 - 用户ID: {}, 指标: {}", conflictMaxRetries, userId, metric);
+                    return null;
+                }
+                long backoff = conflictBackoffMs << Math.min(attempt - 1, 6);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 增量更新血糖统计信息
+     * 计数、合计和各等级数量以$inc累加，新增条目以$min/$max更新最值；
+     * 只有被删除（或被修改）的条目恰好是最值时，才根据各血糖桶汇总重新扫描最值
+     *
+     * @param userId 用户ID
+     * @param added 新增的条目
+     * @param removed 删除的条目
+     */
+    private void applyGlucoseStatisticsDelta(Long userId, List<BloodGlucoseRecord.GlucoseEntry> added,
+                                             List<BloodGlucoseRecord.GlucoseEntry> removed) {
+        BloodGlucoseRecord.GlucoseStatistics delta = new BloodGlucoseRecord.GlucoseStatistics();
+        delta.setTotalCount(added.size() - removed.size());
+        delta.setSumValue(BigDecimal.ZERO);
+        delta.setNormalCount(0);
+        delta.setHighCount(0);
+        delta.setLowCount(0);
+        for (BloodGlucoseRecord.GlucoseEntry entry : added) {
+            accumulateGlucoseDelta(delta, entry, 1);
+            if (delta.getMaxValue() == null || entry.getValue().compareTo(delta.getMaxValue()) > 0) {
+                delta.setMaxValue(entry.getValue());
+            }
+            if (delta.getMinValue() == null || entry.getValue().compareTo(delta.getMinValue()) < 0) {
+                delta.setMinValue(entry.getValue());
+            }
+        }
+        for (BloodGlucoseRecord.GlucoseEntry entry : removed) {
+            accumulateGlucoseDelta(delta, entry, -1);
+        }
+
+        BloodGlucoseRecord previous = bloodGlucoseRecordRepository.incStatistics(userId, delta);
+        if (previous != null && (previous.getStatistics() == null
+                || (previous.getStatistics().getSumValue() == null
+                && previous.getStatistics().getTotalCount() != null && previous.getStatistics().getTotalCount() > 0))) {
+            // 旧版统计数据没有合计字段，全量重算一次
+            updateBloodGlucoseStatistics(userId);
             return;
         }
 
-        BloodGlucoseRecord.GlucoseStatistics stats = new BloodGlucoseRecord.GlucoseStatistics();
-        
-        // 计算统计数据
-        BigDecimal sum = BigDecimal.ZERO;
-        BigDecimal max = entries.get(0).getValue();
-        BigDecimal min = entries.get(0).getValue();
+        // 读取-推导-按版本号写回，期间有其他写入时重新读取
+        retryOnConflict("glucose", userId, () -> {
+            BloodGlucoseRecord current = bloodGlucoseRecordRepository.findStatisticsByUserId(userId).orElse(null);
+            if (current == null || current.getStatistics() == null) {
+                return null;
+            }
+            BloodGlucoseRecord.GlucoseStatistics stats = current.getStatistics();
+            if (stats.getTotalCount() <= 0) {
+                stats.setAvgValue(null);
+                stats.setMaxValue(null);
+                stats.setMinValue(null);
+            } else {
+                stats.setAvgValue(FixedPointAccumulator.average(stats.getSumValue(), stats.getTotalCount(),
+                        FixedPointAccumulator.AVERAGE_SCALE));
+                boolean extremeRemoved = removed.stream().anyMatch(entry ->
+                        (stats.getMaxValue() != null && entry.getValue().compareTo(stats.getMaxValue()) == 0)
+                                || (stats.getMinValue() != null && entry.getValue().compareTo(stats.getMinValue()) == 0));
+                if (extremeRemoved) {
+                    // 最值被删除，根据各血糖桶的汇总重新扫描
+                    List<BloodGlucoseBucket> buckets = bloodGlucoseBucketRepository.findSummariesByUserId(userId);
+                    stats.setMaxValue(buckets.stream().map(BloodGlucoseBucket::getMaxValue)
+                            .filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null));
+                    stats.setMinValue(buckets.stream().map(BloodGlucoseBucket::getMinValue)
+                            .filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null));
+                }
+            }
+            bloodGlucoseRecordRepository.setDerivedStatistics(userId, stats, current.getVersion());
+            return null;
+        });
+    }
+
+    /**
+     * 将单条血糖条目计入统计增量
+     */
+    private void accumulateGlucoseDelta(BloodGlucoseRecord.GlucoseStatistics delta,
+                                        BloodGlucoseRecord.GlucoseEntry entry, int sign) {
+        delta.setSumValue(sign > 0 ? delta.getSumValue().add(entry.getValue()) : delta.getSumValue().subtract(entry.getValue()));
+        switch (evaluateGlucoseEntryLevel(entry)) {
+            case "low":
+                delta.setLowCount(delta.getLowCount() + sign);
+                break;
+            case "high":
+                delta.setHighCount(delta.getHighCount() + sign);
+                break;
+            case "normal":
+            default:
+                delta.setNormalCount(delta.getNormalCount() + sign);
+                break;
+        }
+    }
+
+    /**
+     * 重新计算血糖桶内的汇总数据（条目数、合计、最值、各等级数量）
+     */
+    private void refreshGlucoseBucketSummary(BloodGlucoseBucket bucket) {
+        FixedPointAccumulator sum = new FixedPointAccumulator(FixedPointAccumulator.GLUCOSE_SCALE);
+        BigDecimal max = null;
+        BigDecimal min = null;
         int normalCount = 0;
         int highCount = 0;
         int lowCount = 0;
 
-        for (BloodGlucoseRecord.GlucoseEntry entry : entries) {
+        for (BloodGlucoseRecord.GlucoseEntry entry : bucket.getEntries()) {
             BigDecimal value = entry.getValue();
-            sum = sum.add(value);
-            
-            if (value.compareTo(max) > 0) {
+            sum.add(value);
+            if (max == null || value.compareTo(max) > 0) {
                 max = value;
             }
-            if (value.compareTo(min) < 0) {
+            if (min == null || value.compareTo(min) < 0) {
                 min = value;
             }
-            
-            // 🔥 修复：使用每条记录实际的measureType进行判断，而不是固定使用"random"
-            String measureType = entry.getMeasureType();
-            if (measureType == null || measureType.isEmpty()) {
-                measureType = "random"; // 如果没有指定，默认使用随机标准
-            }
-            String level = HealthRecordUtil.evaluateBloodGlucoseLevel(value, measureType);
-            switch (level) {
+            switch (evaluateGlucoseEntryLevel(entry)) {
                 case "low":
                     lowCount++;
                     break;
@@ -784,16 +1464,353 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             }
         }
 
-        stats.setAvgValue(sum.divide(new BigDecimal(entries.size()), 2, RoundingMode.HALF_UP));
+        bucket.setEntryCount(bucket.getEntries().size());
+        bucket.setSumValue(sum.sum());
+        bucket.setMaxValue(max);
+        bucket.setMinValue(min);
+        bucket.setNormalCount(normalCount);
+        bucket.setHighCount(highCount);
+        bucket.setLowCount(lowCount);
+        bucket.setUpdateTime(LocalDateTime.now());
+    }
+
+    /**
+     * 按记录实际的测量类型评估血糖等级
+     */
+    private String evaluateGlucoseEntryLevel(BloodGlucoseRecord.GlucoseEntry entry) {
+        // 🔥 修复：使用每条记录实际的measureType进行判断，而不是固定使用"random"
+        String measureType = entry.getMeasureType();
+        if (measureType == null || measureType.isEmpty()) {
+            measureType = "random"; // 如果没有指定，默认使用随机标准
+        }
+        return HealthRecordUtil.evaluateBloodGlucoseLevel(entry.getValue(), measureType);
+    }
+
+    /**
+     * 批量导入血糖记录：逐条校验、去重后按测量日期分组，每个血糖桶一次$push $each，统计与日汇总每批更新一次
+     *
+     * @param requests 血糖记录
+     * @param parseErrors 与记录一一对应的解析错误，非null的记录直接拒绝
+     */
+    private BulkImportResponse importGlucoseRows(Long userId, List<AddBloodGlucoseRequest> requests, String[] parseErrors) {
+        if (requests.size() > importMaxRows) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "单次最多导入" + importMaxRows + "条记录");
+        }
+
+        BulkImportResponse response = new BulkImportResponse();
+        List<BloodGlucoseRecord.GlucoseEntry> candidates = new ArrayList<>();
+        List<BulkImportResponse.RowResult> candidateRows = new ArrayList<>();
+        LocalDateTime minTime = null;
+        LocalDateTime maxTime = null;
+        for (int i = 0; i < requests.size(); i++) {
+            AddBloodGlucoseRequest request = requests.get(i);
+            BulkImportResponse.RowResult row = new BulkImportResponse.RowResult();
+            row.setRow(i + 1);
+            response.getRows().add(row);
+
+            String error = parseErrors[i] != null ? parseErrors[i] : HealthRecordUtil.validateBloodGlucoseRow(request, validator);
+            if (error != null) {
+                row.setStatus(BulkImportResponse.STATUS_REJECTED);
+                row.setMessage(error);
+                continue;
+            }
+            BloodGlucoseRecord.GlucoseEntry entry = new BloodGlucoseRecord.GlucoseEntry();
+            entry.setValue(request.getValue());
+            entry.setMeasureType(request.getMeasureType());
+            entry.setMeasureTime(request.getMeasureTime());
+            entry.setMealType(request.getMealType() == null || request.getMealType().isEmpty() ? null : request.getMealType());
+            entry.setNote(request.getNote());
+            candidates.add(entry);
+            candidateRows.add(row);
+            minTime = minTime == null || entry.getMeasureTime().isBefore(minTime) ? entry.getMeasureTime() : minTime;
+            maxTime = maxTime == null || entry.getMeasureTime().isAfter(maxTime) ? entry.getMeasureTime() : maxTime;
+        }
+
+        try {
+            // 只读取本批次时间范围内已有条目的去重键
+            Set<String> existingKeys = new HashSet<>();
+            if (!candidates.isEmpty()) {
+                try (Stream<BloodGlucoseRecord.GlucoseEntry> existing = bloodGlucoseBucketRepository.streamEntries(
+                        userId, minTime, maxTime.plusNanos(1))) {
+                    existing.filter(entry -> entry.getMeasureTime() != null && entry.getValue() != null)
+                            .forEach(entry -> existingKeys.add(glucoseImportKey(entry)));
+                }
+            }
+
+            Map<String, Integer> batchKeys = new HashMap<>();
+            Map<LocalDate, List<BloodGlucoseRecord.GlucoseEntry>> entriesByDate = new TreeMap<>();
+            List<BloodGlucoseRecord.GlucoseEntry> accepted = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                BloodGlucoseRecord.GlucoseEntry entry = candidates.get(i);
+                BulkImportResponse.RowResult row = candidateRows.get(i);
+                String key = glucoseImportKey(entry);
+                if (existingKeys.contains(key)) {
+                    row.setStatus(BulkImportResponse.STATUS_DUPLICATE);
+                    row.setMessage("已存在相同测量时间和血糖值的记录");
+                    continue;
+                }
+                Integer firstRow = batchKeys.putIfAbsent(key, row.getRow());
+                if (firstRow != null) {
+                    row.setStatus(BulkImportResponse.STATUS_DUPLICATE);
+                    row.setMessage("与第" + firstRow + "条记录重复");
+                    continue;
+                }
+                row.setStatus(BulkImportResponse.STATUS_ACCEPTED);
+                row.setId(entry.getId());
+                accepted.add(entry);
+                entriesByDate.computeIfAbsent(entry.getMeasureTime().toLocalDate(), date -> new ArrayList<>()).add(entry);
+            }
+
+            for (Map.Entry<LocalDate, List<BloodGlucoseRecord.GlucoseEntry>> day : entriesByDate.entrySet()) {
+                List<BloodGlucoseRecord.GlucoseEntry> entries = day.getValue();
+                for (int from = 0; from < entries.size(); from += BloodGlucoseBucket.MAX_ENTRIES) {
+                    List<BloodGlucoseRecord.GlucoseEntry> chunk =
+                            entries.subList(from, Math.min(from + BloodGlucoseBucket.MAX_ENTRIES, entries.size()));
+                    List<String> levels = chunk.stream().map(this::evaluateGlucoseEntryLevel).collect(Collectors.toList());
+                    bloodGlucoseBucketRepository.pushEntries(userId, day.getKey(), chunk, levels);
+                }
+            }
+
+            if (!accepted.isEmpty()) {
+                applyGlucoseStatisticsDelta(userId, accepted, Collections.emptyList());
+                healthDailyRollupService.applyGlucoseChanges(userId, accepted, Collections.emptyList());
+                evictHealthOverview(userId);
+                glucoseAlertService.publish(userId, accepted);
+            }
+
+            int duplicateCount = candidates.size() - accepted.size();
+            response.setTotal(requests.size());
+            response.setAcceptedCount(accepted.size());
+            response.setDuplicateCount(duplicateCount);
+            response.setRejectedCount(requests.size() - candidates.size());
+            log.info("批量导入血糖记录完成 - 用户ID: {}, 总数: {}, 导入: {}, 重复: {}, 拒绝: {}, 涉及天数: {}",
+                    userId, requests.size(), accepted.size(), duplicateCount, response.getRejectedCount(),
+                    entriesByDate.size());
+            return response;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "批量导入血糖记录失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 血糖导入去重键：测量时间（毫秒，与数据库存储精度一致）+ 去掉末尾0的血糖值
+     */
+    private String glucoseImportKey(BloodGlucoseRecord.GlucoseEntry entry) {
+        return entry.getMeasureTime().truncatedTo(ChronoUnit.MILLIS) + "|"
+                + entry.getValue().stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * 读取CSV单元格，列不存在或内容为空时返回null
+     */
+    private String csvCell(List<String> row, int column) {
+        if (column < 0 || column >= row.size()) {
+            return null;
+        }
+        String cell = row.get(column).trim();
+        return cell.isEmpty() ? null : cell;
+    }
+
+    /**
+     * 转换血糖趋势数据点
+     */
+    private HealthTrendResponse.TrendPoint convertToGlucoseTrendPoint(BloodGlucoseRecord.GlucoseEntry entry) {
+        HealthTrendResponse.TrendPoint point = new HealthTrendResponse.TrendPoint(entry.getMeasureTime());
+        point.setValue(entry.getValue());
+        point.setType(entry.getMeasureType());
+        return point;
+    }
+
+    /**
+     * 更新血糖统计信息
+     * 根据各血糖桶的汇总数据全量计算，按读取时的版本号写回；期间有其他写入时重新计算
+     *
+     * @return 写回的统计信息，重试次数用尽时返回null
+     */
+    private BloodGlucoseRecord.GlucoseStatistics updateBloodGlucoseStatistics(Long userId) {
+        return retryOnConflict("glucose", userId, () -> {
+            BloodGlucoseRecord current = bloodGlucoseRecordRepository.findStatisticsByUserId(userId).orElse(null);
+            if (current == null) {
+                // 文档不存在时以空增量创建（与新增记录相同的upsert），再读取版本号
+                BloodGlucoseRecord.GlucoseStatistics empty = new BloodGlucoseRecord.GlucoseStatistics();
+                empty.setTotalCount(0);
+                empty.setSumValue(BigDecimal.ZERO);
+                empty.setNormalCount(0);
+                empty.setHighCount(0);
+                empty.setLowCount(0);
+                bloodGlucoseRecordRepository.incStatistics(userId, empty);
+                current = bloodGlucoseRecordRepository.findStatisticsByUserId(userId)
+                        .orElseThrow(() -> new OptimisticLockingFailureException("血糖记录文档创建后未能读取"));
+            }
+            BloodGlucoseRecord.GlucoseStatistics stats = calculateBloodGlucoseStatistics(userId);
+            bloodGlucoseRecordRepository.setStatistics(userId, stats, current.getVersion());
+            return stats;
+        });
+    }
+
+    /**
+     * 根据各血糖桶的汇总数据计算血糖统计信息，不需要加载桶内条目
+     */
+    private BloodGlucoseRecord.GlucoseStatistics calculateBloodGlucoseStatistics(Long userId) {
+        List<BloodGlucoseBucket> buckets = bloodGlucoseBucketRepository.findSummariesByUserId(userId);
+
+        BloodGlucoseRecord.GlucoseStatistics stats = new BloodGlucoseRecord.GlucoseStatistics();
+        
+        // 计算统计数据
+        FixedPointAccumulator sum = new FixedPointAccumulator(FixedPointAccumulator.GLUCOSE_SCALE);
+        BigDecimal max = null;
+        BigDecimal min = null;
+        int totalCount = 0;
+        int normalCount = 0;
+        int highCount = 0;
+        int lowCount = 0;
+
+        for (BloodGlucoseBucket bucket : buckets) {
+            if (bucket.getEntryCount() == null || bucket.getEntryCount() == 0) {
+                continue;
+            }
+            totalCount += bucket.getEntryCount();
+            sum.add(bucket.getSumValue());
+            if (max == null || bucket.getMaxValue().compareTo(max) > 0) {
+                max = bucket.getMaxValue();
+            }
+            if (min == null || bucket.getMinValue().compareTo(min) < 0) {
+                min = bucket.getMinValue();
+            }
+            normalCount += bucket.getNormalCount();
+            highCount += bucket.getHighCount();
+            lowCount += bucket.getLowCount();
+        }
+
+        // 如果记录为空，清空统计数据
+        stats.setAvgValue(totalCount == 0 ? null
+                : FixedPointAccumulator.average(sum.sum(), totalCount, FixedPointAccumulator.AVERAGE_SCALE));
+        stats.setSumValue(sum.sum());
         stats.setMaxValue(max);
         stats.setMinValue(min);
-        stats.setTotalCount(entries.size());
+        stats.setTotalCount(totalCount);
         stats.setNormalCount(normalCount);
         stats.setHighCount(highCount);
         stats.setLowCount(lowCount);
         stats.setLastUpdateTime(LocalDateTime.now());
+        return stats;
+    }
 
-        record.setStatistics(stats);
+    /**
+     * 构建血压统计增量：新增条目计正，删除条目计负；最值只取新增条目
+     */
+    private BloodPressureRecord.PressureStatistics buildPressureDelta(List<BloodPressureRecord.PressureEntry> added,
+                                                                     List<BloodPressureRecord.PressureEntry> removed) {
+        BloodPressureRecord.PressureStatistics delta = new BloodPressureRecord.PressureStatistics();
+        delta.setTotalCount(added.size() - removed.size());
+        delta.setSumSystolic(0L);
+        delta.setSumDiastolic(0L);
+        delta.setSumHeartRate(0L);
+        delta.setHeartRateCount(0);
+        delta.setNormalCount(0);
+        delta.setHighCount(0);
+        delta.setLowCount(0);
+        for (BloodPressureRecord.PressureEntry entry : added) {
+            accumulatePressureDelta(delta, entry, 1);
+            delta.setMaxSystolic(delta.getMaxSystolic() == null ? entry.getSystolic() : Math.max(delta.getMaxSystolic(), entry.getSystolic()));
+            delta.setMinSystolic(delta.getMinSystolic() == null ? entry.getSystolic() : Math.min(delta.getMinSystolic(), entry.getSystolic()));
+            delta.setMaxDiastolic(delta.getMaxDiastolic() == null ? entry.getDiastolic() : Math.max(delta.getMaxDiastolic(), entry.getDiastolic()));
+            delta.setMinDiastolic(delta.getMinDiastolic() == null ? entry.getDiastolic() : Math.min(delta.getMinDiastolic(), entry.getDiastolic()));
+        }
+        for (BloodPressureRecord.PressureEntry entry : removed) {
+            accumulatePressureDelta(delta, entry, -1);
+        }
+        return delta;
+    }
+
+    /**
+     * 将单条血压条目计入统计增量
+     */
+    private void accumulatePressureDelta(BloodPressureRecord.PressureStatistics delta,
+                                         BloodPressureRecord.PressureEntry entry, int sign) {
+        delta.setSumSystolic(delta.getSumSystolic() + (long) sign * entry.getSystolic());
+        delta.setSumDiastolic(delta.getSumDiastolic() + (long) sign * entry.getDiastolic());
+        if (entry.getHeartRate() != null) {
+            delta.setSumHeartRate(delta.getSumHeartRate() + (long) sign * entry.getHeartRate());
+            delta.setHeartRateCount(delta.getHeartRateCount() + sign);
+        }
+        switch (HealthRecordUtil.evaluateBloodPressureLevel(entry.getSystolic(), entry.getDiastolic())) {
+            case "low":
+                delta.setLowCount(delta.getLowCount() + sign);
+                break;
+            case "high":
+                delta.setHighCount(delta.getHighCount() + sign);
+                break;
+            case "normal":
+            default:
+                delta.setNormalCount(delta.getNormalCount() + sign);
+                break;
+        }
+    }
+
+    /**
+     * 根据累加后的合计更新平均值；只有被删除的条目恰好是最值时才在服务端重新扫描最值
+     *
+     * @param userId 用户ID
+     * @param previous 修改前的文档（只含统计信息）
+     * @param removed 删除的条目
+     */
+    private void refreshPressureStatistics(Long userId, BloodPressureRecord previous,
+                                           List<BloodPressureRecord.PressureEntry> removed) {
+        if (previous != null && (previous.getStatistics() == null
+                || (previous.getStatistics().getSumSystolic() == null
+                && previous.getStatistics().getTotalCount() != null && previous.getStatistics().getTotalCount() > 0))) {
+            // 旧版统计数据没有合计字段，全量重算一次
+            retryOnConflict("pressure", userId, () -> {
+                bloodPressureRecordRepository.findByUserId(userId).ifPresent(record -> {
+                    updateBloodPressureStatistics(record);
+                    bloodPressureRecordRepository.setStatistics(userId, record.getStatistics(), record.getVersion());
+                });
+                return null;
+            });
+            return;
+        }
+
+        // 读取-推导-按版本号写回，期间有其他写入时重新读取
+        retryOnConflict("pressure", userId, () -> {
+            BloodPressureRecord current = bloodPressureRecordRepository.findStatisticsByUserId(userId).orElse(null);
+            if (current == null || current.getStatistics() == null) {
+                return null;
+            }
+            BloodPressureRecord.PressureStatistics stats = current.getStatistics();
+            if (stats.getTotalCount() <= 0) {
+                stats.setAvgSystolic(null);
+                stats.setAvgDiastolic(null);
+                stats.setAvgHeartRate(null);
+                stats.setMaxSystolic(null);
+                stats.setMinSystolic(null);
+                stats.setMaxDiastolic(null);
+                stats.setMinDiastolic(null);
+            } else {
+                stats.setAvgSystolic(FixedPointAccumulator.average(stats.getSumSystolic(),
+                        FixedPointAccumulator.INTEGER_SCALE, stats.getTotalCount(), FixedPointAccumulator.AVERAGE_SCALE));
+                stats.setAvgDiastolic(FixedPointAccumulator.average(stats.getSumDiastolic(),
+                        FixedPointAccumulator.INTEGER_SCALE, stats.getTotalCount(), FixedPointAccumulator.AVERAGE_SCALE));
+                stats.setAvgHeartRate(stats.getHeartRateCount() > 0
+                        ? FixedPointAccumulator.average(stats.getSumHeartRate(), FixedPointAccumulator.INTEGER_SCALE,
+                        stats.getHeartRateCount(), FixedPointAccumulator.AVERAGE_SCALE)
+                        : null);
+                boolean extremeRemoved = removed.stream().anyMatch(entry ->
+                        entry.getSystolic().equals(stats.getMaxSystolic()) || entry.getSystolic().equals(stats.getMinSystolic())
+                                || entry.getDiastolic().equals(stats.getMaxDiastolic()) || entry.getDiastolic().equals(stats.getMinDiastolic()));
+                if (extremeRemoved) {
+                    BloodPressureRecord.PressureStatistics extremes = bloodPressureRecordRepository.findExtremes(userId);
+                    stats.setMaxSystolic(extremes.getMaxSystolic());
+                    stats.setMinSystolic(extremes.getMinSystolic());
+                    stats.setMaxDiastolic(extremes.getMaxDiastolic());
+                    stats.setMinDiastolic(extremes.getMinDiastolic());
+                }
+            }
+            bloodPressureRecordRepository.setDerivedStatistics(userId, stats, current.getVersion());
+            return null;
+        });
     }
 
     /**
@@ -810,6 +1827,10 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             emptyStats.setAvgHeartRate(null);
             emptyStats.setMaxSystolic(null);
             emptyStats.setMinSystolic(null);
+            emptyStats.setSumSystolic(0L);
+            emptyStats.setSumDiastolic(0L);
+            emptyStats.setSumHeartRate(0L);
+            emptyStats.setHeartRateCount(0);
             emptyStats.setTotalCount(0);
             emptyStats.setNormalCount(0);
             emptyStats.setHighCount(0);
@@ -822,9 +1843,9 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         BloodPressureRecord.PressureStatistics stats = new BloodPressureRecord.PressureStatistics();
         
         // 计算统计数据
-        BigDecimal systolicSum = BigDecimal.ZERO;
-        BigDecimal diastolicSum = BigDecimal.ZERO;
-        BigDecimal heartRateSum = BigDecimal.ZERO;
+        long systolicSum = 0;
+        long diastolicSum = 0;
+        long heartRateSum = 0;
         int systolicMax = entries.get(0).getSystolic();
         int systolicMin = entries.get(0).getSystolic();
         int diastolicMax = entries.get(0).getDiastolic();
@@ -835,11 +1856,11 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         int heartRateCount = 0;
 
         for (BloodPressureRecord.PressureEntry entry : entries) {
-            systolicSum = systolicSum.add(new BigDecimal(entry.getSystolic()));
-            diastolicSum = diastolicSum.add(new BigDecimal(entry.getDiastolic()));
+            systolicSum += entry.getSystolic();
+            diastolicSum += entry.getDiastolic();
             
             if (entry.getHeartRate() != null) {
-                heartRateSum = heartRateSum.add(new BigDecimal(entry.getHeartRate()));
+                heartRateSum += entry.getHeartRate();
                 heartRateCount++;
             }
             
@@ -865,11 +1886,18 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             }
         }
 
-        stats.setAvgSystolic(systolicSum.divide(new BigDecimal(entries.size()), 2, RoundingMode.HALF_UP));
-        stats.setAvgDiastolic(diastolicSum.divide(new BigDecimal(entries.size()), 2, RoundingMode.HALF_UP));
+        stats.setAvgSystolic(FixedPointAccumulator.average(systolicSum, FixedPointAccumulator.INTEGER_SCALE,
+                entries.size(), FixedPointAccumulator.AVERAGE_SCALE));
+        stats.setAvgDiastolic(FixedPointAccumulator.average(diastolicSum, FixedPointAccumulator.INTEGER_SCALE,
+                entries.size(), FixedPointAccumulator.AVERAGE_SCALE));
         if (heartRateCount > 0) {
-            stats.setAvgHeartRate(heartRateSum.divide(new BigDecimal(heartRateCount), 2, RoundingMode.HALF_UP));
+            stats.setAvgHeartRate(FixedPointAccumulator.average(heartRateSum, FixedPointAccumulator.INTEGER_SCALE,
+                    heartRateCount, FixedPointAccumulator.AVERAGE_SCALE));
         }
+        stats.setSumSystolic(systolicSum);
+        stats.setSumDiastolic(diastolicSum);
+        stats.setSumHeartRate(heartRateSum);
+        stats.setHeartRateCount(heartRateCount);
         stats.setMaxSystolic(systolicMax);
         stats.setMinSystolic(systolicMin);
         stats.setMaxDiastolic(diastolicMax);
@@ -956,6 +1984,21 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         return vo;
     }
 
+    /**
+     * 根据查询请求构建条目分页参数，排序字段不在允许范围内时按测量时间排序
+     *
+     * @param request 查询请求
+     * @param sortableFields 允许排序的条目字段
+     * @return 分页参数
+     */
+    private Pageable buildEntryPageable(QueryHealthRecordRequest request, Set<String> sortableFields) {
+        int current = request.getCurrent() == null || request.getCurrent() < 1 ? 1 : request.getCurrent();
+        int size = request.getSize() == null || request.getSize() < 1 ? 10 : request.getSize();
+        String sortField = sortableFields.contains(request.getSortField()) ? request.getSortField() : "measureTime";
+        Sort.Direction direction = "asc".equalsIgnoreCase(request.getSortOrder()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return PageRequest.of(current - 1, size, Sort.by(direction, sortField));
+    }
+
     /**
      * 创建空的血糖记录响应
      */
@@ -963,6 +2006,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         BloodGlucoseRecordResponse response = new BloodGlucoseRecordResponse();
         response.setUserId(userId);
         response.setRecords(new ArrayList<>());
+        response.setTotal(0L);
         return response;
     }
 
@@ -973,6 +2017,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         BloodPressureRecordResponse response = new BloodPressureRecordResponse();
         response.setUserId(userId);
         response.setRecords(new ArrayList<>());
+        response.setTotal(0L);
         return response;
     }
 
@@ -981,10 +2026,6 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean addWeightRecord(Long userId, AddWeightRequest request) {
         try {
-            // 获取或创建用户的体重记录文档
-            WeightRecord record = weightRecordRepository.findByUserId(userId)
-                    .orElse(createNewWeightRecord(userId));
-
             // 创建新的体重记录条目
             WeightRecord.WeightEntry entry = new WeightRecord.WeightEntry();
             entry.setWeight(request.getWeight());
@@ -1006,20 +2047,14 @@ public class HealthRecordServiceImpl implements HealthRecordService {
                 entry.setBmi(bmi);
             }
 
-            // 添加到记录列表
-            if (record.getRecords() == null) {
-                record.setRecords(new ArrayList<>());
-            }
-            record.getRecords().add(entry);
-
-            // 更新统计信息
-            updateWeightStatistics(record);
-
-            // 设置更新时间
-            record.setUpdateTime(LocalDateTime.now());
+            // 原子追加到记录列表并累加统计增量，用户文档不存在时自动创建
+            WeightRecord previous = weightRecordRepository.pushEntry(userId, entry,
+                    buildWeightDelta(List.of(entry), Collections.emptyList()));
 
-            // 保存到数据库
-            weightRecordRepository.save(record);
+            // 更新由合计推导的统计信息
+            refreshWeightStatistics(userId, previous, List.of(entry), Collections.emptyList());
+            healthDailyRollupService.applyWeightChanges(userId, List.of(entry), Collections.emptyList());
+            evictHealthOverview(userId);
 
             return true;
         } catch (Exception e) {
@@ -1030,50 +2065,42 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean updateWeightRecord(Long userId, String recordId, AddWeightRequest request) {
         try {
-            Optional<WeightRecord> recordOpt = weightRecordRepository.findByUserId(userId);
-            
-            if (!recordOpt.isPresent()) {
+            if (!weightRecordRepository.existsByUserId(userId)) {
                 throw new BusinessException(ResultCode.DATA_NOT_EXIST, "体重记录不存在");
             }
 
-            WeightRecord record = recordOpt.get();
-            List<WeightRecord.WeightEntry> entries = record.getRecords();
+            // 更新记录数据
+            WeightRecord.WeightEntry entry = new WeightRecord.WeightEntry();
+            entry.setWeight(request.getWeight());
+            entry.setHeight(request.getHeight());
+            entry.setBodyFatRate(request.getBodyFatRate());
+            entry.setMuscleMass(request.getMuscleMass());
+            entry.setBmr(request.getBmr());
+            entry.setMeasureTime(request.getMeasureTime());
+            entry.setMeasureState(request.getMeasureState());
+            entry.setNote(request.getNote());
+            entry.setIsManualInput(request.getIsManualInput());
+            entry.setDeviceType(request.getDeviceType());
+
+            // 重新计算BMI
+            if (request.getHeight() != null && request.getHeight().compareTo(BigDecimal.ZERO) > 0) {
+                BigDecimal heightInMeters = request.getHeight().divide(new BigDecimal("100"));
+                BigDecimal bmi = request.getWeight().divide(
+                    heightInMeters.multiply(heightInMeters), 2, RoundingMode.HALF_UP);
+                entry.setBmi(bmi);
+            }
+
+            // 服务端原子替换条目，只取回被替换的条目
+            WeightRecord previous = weightRecordRepository.setEntry(userId, recordId, entry);
             
-            if (entries != null) {
-                // 查找要更新的记录
-                WeightRecord.WeightEntry entryToUpdate = entries.stream()
-                        .filter(entry -> recordId.equals(entry.getId()))
-                        .findFirst()
-                        .orElse(null);
-                
-                if (entryToUpdate != null) {
-                    // 更新记录数据
-                    entryToUpdate.setWeight(request.getWeight());
-                    entryToUpdate.setHeight(request.getHeight());
-                    entryToUpdate.setBodyFatRate(request.getBodyFatRate());
-                    entryToUpdate.setMuscleMass(request.getMuscleMass());
-                    entryToUpdate.setBmr(request.getBmr());
-                    entryToUpdate.setMeasureTime(request.getMeasureTime());
-                    entryToUpdate.setMeasureState(request.getMeasureState());
-                    entryToUpdate.setNote(request.getNote());
-                    entryToUpdate.setIsManualInput(request.getIsManualInput());
-                    entryToUpdate.setDeviceType(request.getDeviceType());
-
-                    // 重新计算BMI
-                    if (request.getHeight() != null && request.getHeight().compareTo(BigDecimal.ZERO) > 0) {
-                        BigDecimal heightInMeters = request.getHeight().divide(new BigDecimal("100"));
-                        BigDecimal bmi = request.getWeight().divide(
-                            heightInMeters.multiply(heightInMeters), 2, RoundingMode.HALF_UP);
-                        entryToUpdate.setBmi(bmi);
-                    }
-                    
-                    // 重新计算统计信息
-                    updateWeightStatistics(record);
-                    record.setUpdateTime(LocalDateTime.now());
-                    
-                    weightRecordRepository.save(record);
-                    return true;
-                }
+            if (previous != null) {
+                // 增量更新统计信息
+                weightRecordRepository.incStatistics(userId,
+                        buildWeightDelta(List.of(entry), previous.getRecords()));
+                refreshWeightStatistics(userId, previous, List.of(entry), previous.getRecords());
+                healthDailyRollupService.applyWeightChanges(userId, List.of(entry), previous.getRecords());
+                evictHealthOverview(userId);
+                return true;
             }
             
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的体重记录不存在");
@@ -1084,7 +2111,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
 
     @Override
     public Object getWeightRecords(Long userId, QueryHealthRecordRequest request) {
-        Optional<WeightRecord> recordOpt = weightRecordRepository.findByUserId(userId);
+        Optional<WeightRecord> recordOpt = weightRecordRepository.findStatisticsByUserId(userId);
         
         if (!recordOpt.isPresent()) {
             return createEmptyWeightResponse(userId);
@@ -1094,22 +2121,18 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         Map<String, Object> response = new HashMap<>();
         response.put("userId", userId);
 
-        // 转换记录列表
-        List<WeightRecord.WeightEntry> entries = record.getRecords();
-        if (entries != null) {
-            // 时间范围过滤
-            if (request.getStartTime() != null && request.getEndTime() != null) {
-                entries = entries.stream()
-                        .filter(entry -> entry.getMeasureTime().isAfter(request.getStartTime()) 
-                                      && entry.getMeasureTime().isBefore(request.getEndTime()))
-                        .collect(Collectors.toList());
-            }
+        // 在MongoDB中完成时间范围过滤、排序与分页，只取回当前页
+        Page<WeightRecord.WeightEntry> page = weightRecordRepository.findEntries(
+                userId, request.getStartTime(), request.getEndTime(), buildEntryPageable(request, WEIGHT_SORT_FIELDS));
 
-            response.put("records", entries);
-        }
+        response.put("records", page.getContent());
+        response.put("total", page.getTotalElements());
+        response.put("current", page.getNumber() + 1);
+        response.put("size", page.getSize());
 
         // 添加统计信息
         if (record.getStatistics() != null) {
+            fillWeightChanges(userId, record.getStatistics());
             response.put("statistics", record.getStatistics());
         }
 
@@ -1118,25 +2141,21 @@ public class HealthRecordServiceImpl implements HealthRecordService {
 
     @Override
     public Boolean deleteWeightRecord(Long userId, String recordId) {
-        Optional<WeightRecord> recordOpt = weightRecordRepository.findByUserId(userId);
-        
-        if (!recordOpt.isPresent()) {
+        if (!weightRecordRepository.existsByUserId(userId)) {
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "体重记录不存在");
         }
 
-        WeightRecord record = recordOpt.get();
-        List<WeightRecord.WeightEntry> entries = record.getRecords();
+        // 服务端原子删除，只取回被删除的条目
+        WeightRecord previous = weightRecordRepository.pullEntries(userId, List.of(recordId));
         
-        if (entries != null) {
-            boolean removed = entries.removeIf(entry -> recordId.equals(entry.getId()));
-            
-            if (removed) {
-                // 重新计算统计信息
-                updateWeightStatistics(record);
-                record.setUpdateTime(LocalDateTime.now());
-                weightRecordRepository.save(record);
-                return true;
-            }
+        if (previous != null) {
+            // 增量更新统计信息
+            weightRecordRepository.incStatistics(userId,
+                    buildWeightDelta(Collections.emptyList(), previous.getRecords()));
+            refreshWeightStatistics(userId, previous, Collections.emptyList(), previous.getRecords());
+            healthDailyRollupService.applyWeightChanges(userId, Collections.emptyList(), previous.getRecords());
+            evictHealthOverview(userId);
+            return true;
         }
 
         throw new BusinessException(ResultCode.DATA_NOT_EXIST, "指定ID的体重记录不存在");
@@ -1145,27 +2164,21 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     @Override
     public Boolean batchDeleteWeightRecords(Long userId, List<String> recordIds) {
         try {
-            Optional<WeightRecord> recordOpt = weightRecordRepository.findByUserId(userId);
-            
-            if (!recordOpt.isPresent()) {
+            if (!weightRecordRepository.existsByUserId(userId)) {
                 throw new BusinessException(ResultCode.DATA_NOT_EXIST, "体重记录不存在");
             }
 
-            WeightRecord record = recordOpt.get();
-            List<WeightRecord.WeightEntry> entries = record.getRecords();
+            // 批量删除指定ID的记录，只取回被删除的条目
+            WeightRecord previous = weightRecordRepository.pullEntries(userId, recordIds);
             
-            if (entries != null) {
-                // 批量删除指定ID的记录
-                boolean removed = entries.removeIf(entry -> 
-                    recordIds.contains(entry.getId()));
-                
-                if (removed) {
-                    // 重新计算统计信息
-                    updateWeightStatistics(record);
-                    record.setUpdateTime(LocalDateTime.now());
-                    weightRecordRepository.save(record);
-                    return true;
-                }
+            if (previous != null) {
+                // 增量更新统计信息
+                weightRecordRepository.incStatistics(userId,
+                        buildWeightDelta(Collections.emptyList(), previous.getRecords()));
+                refreshWeightStatistics(userId, previous, Collections.emptyList(), previous.getRecords());
+                healthDailyRollupService.applyWeightChanges(userId, Collections.emptyList(), previous.getRecords());
+                evictHealthOverview(userId);
+                return true;
             }
             
             return false; // 没有记录被删除
@@ -1175,15 +2188,117 @@ public class HealthRecordServiceImpl implements HealthRecordService {
     }
 
     /**
-     * 创建新的体重记录文档
+     * 构建体重统计增量：新增条目计正，删除条目计负；最值只取新增条目
+     */
+    private WeightRecord.WeightStatistics buildWeightDelta(List<WeightRecord.WeightEntry> added,
+                                                         List<WeightRecord.WeightEntry> removed) {
+        WeightRecord.WeightStatistics delta = new WeightRecord.WeightStatistics();
+        delta.setTotalCount(added.size() - removed.size());
+        FixedPointAccumulator sum = new FixedPointAccumulator(FixedPointAccumulator.WEIGHT_SCALE);
+        for (WeightRecord.WeightEntry entry : added) {
+            sum.add(entry.getWeight());
+            if (delta.getMaxWeight() == null || entry.getWeight().compareTo(delta.getMaxWeight()) > 0) {
+                delta.setMaxWeight(entry.getWeight());
+            }
+            if (delta.getMinWeight() == null || entry.getWeight().compareTo(delta.getMinWeight()) < 0) {
+                delta.setMinWeight(entry.getWeight());
+            }
+        }
+        for (WeightRecord.WeightEntry entry : removed) {
+            sum.subtract(entry.getWeight());
+        }
+        delta.setSumWeight(sum.sum());
+        return delta;
+    }
+
+    /**
+     * 根据累加后的合计更新平均值与当前体重；
+     * 只有被删除的条目恰好是最值或当前体重时才在服务端重新扫描
+     *
+     * @param userId 用户ID
+     * @param previous 修改前的文档（只含统计信息）
+     * @param added 新增的条目
+     * @param removed 删除的条目
+     */
+    private void refreshWeightStatistics(Long userId, WeightRecord previous,
+                                         List<WeightRecord.WeightEntry> added, List<WeightRecord.WeightEntry> removed) {
+        if (previous != null && (previous.getStatistics() == null
+                || (previous.getStatistics().getSumWeight() == null
+                && previous.getStatistics().getTotalCount() != null && previous.getStatistics().getTotalCount() > 0))) {
+            // 旧版统计数据没有合计字段，全量重算一次
+            retryOnConflict("weight", userId, () -> {
+                weightRecordRepository.findByUserId(userId).ifPresent(record -> {
+                    updateWeightStatistics(record);
+                    weightRecordRepository.setStatistics(userId, record.getStatistics(), record.getVersion());
+                });
+                return null;
+            });
+            return;
+        }
+
+        // 读取-推导-按版本号写回，期间有其他写入时重新读取
+        retryOnConflict("weight", userId, () -> {
+            WeightRecord current = weightRecordRepository.findStatisticsByUserId(userId).orElse(null);
+            if (current == null || current.getStatistics() == null) {
+                return null;
+            }
+            WeightRecord.WeightStatistics stats = current.getStatistics();
+            if (stats.getTotalCount() <= 0) {
+                stats.setAvgWeight(null);
+                stats.setMaxWeight(null);
+                stats.setMinWeight(null);
+                stats.setCurrentWeight(null);
+                stats.setCurrentBmi(null);
+                stats.setCurrentMeasureTime(null);
+            } else {
+                stats.setAvgWeight(FixedPointAccumulator.average(stats.getSumWeight(), stats.getTotalCount(),
+                        FixedPointAccumulator.AVERAGE_SCALE));
+                boolean extremeRemoved = removed.stream().anyMatch(entry ->
+                        (stats.getMaxWeight() != null && entry.getWeight().compareTo(stats.getMaxWeight()) == 0)
+                                || (stats.getMinWeight() != null && entry.getWeight().compareTo(stats.getMinWeight()) == 0));
+                if (extremeRemoved) {
+                    WeightRecord.WeightStatistics extremes = weightRecordRepository.findExtremes(userId);
+                    stats.setMaxWeight(extremes.getMaxWeight());
+                    stats.setMinWeight(extremes.getMinWeight());
+                }
+
+                // 当前体重取测量时间最新的一条
+                boolean currentRemoved = stats.getCurrentMeasureTime() == null || removed.stream()
+                        .anyMatch(entry -> entry.getMeasureTime().equals(stats.getCurrentMeasureTime()));
+                WeightRecord.WeightEntry latest = null;
+                if (currentRemoved) {
+                    latest = weightRecordRepository.findLatestEntryBefore(userId, null);
+                } else {
+                    for (WeightRecord.WeightEntry entry : added) {
+                        if (!entry.getMeasureTime().isBefore(stats.getCurrentMeasureTime())
+                                && (latest == null || entry.getMeasureTime().isAfter(latest.getMeasureTime()))) {
+                            latest = entry;
+                        }
+                    }
+                }
+                if (latest != null) {
+                    stats.setCurrentWeight(latest.getWeight());
+                    stats.setCurrentBmi(latest.getBmi());
+                    stats.setCurrentMeasureTime(latest.getMeasureTime());
+                }
+            }
+            weightRecordRepository.setDerivedStatistics(userId, stats, current.getVersion());
+            return null;
+        });
+    }
+
+    /**
+     * 计算7天和30天的体重变化（依赖当前时间，在读取时计算）
      */
-    private WeightRecord createNewWeightRecord(Long userId) {
-        WeightRecord record = new WeightRecord();
-        record.setUserId(userId);
-        record.setCreateTime(LocalDateTime.now());
-        record.setUpdateTime(LocalDateTime.now());
-        record.setRecords(new ArrayList<>());
-        return record;
+    private void fillWeightChanges(Long userId, WeightRecord.WeightStatistics stats) {
+        if (stats.getCurrentWeight() == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        WeightRecord.WeightEntry sevenDaysEntry = weightRecordRepository.findLatestEntryBefore(userId, now.minusDays(7));
+        stats.setWeightChange7Days(sevenDaysEntry == null ? null : stats.getCurrentWeight().subtract(sevenDaysEntry.getWeight()));
+        WeightRecord.WeightEntry thirtyDaysEntry = weightRecordRepository.findLatestEntryBefore(userId, now.minusDays(30));
+        stats.setWeightChange30Days(thirtyDaysEntry == null ? null : stats.getCurrentWeight().subtract(thirtyDaysEntry.getWeight()));
     }
 
     /**
@@ -1200,6 +2315,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             emptyStats.setMinWeight(null);
             emptyStats.setCurrentWeight(null);
             emptyStats.setCurrentBmi(null);
+            emptyStats.setSumWeight(BigDecimal.ZERO);
             emptyStats.setTotalCount(0);
             emptyStats.setWeightChange7Days(null);
             emptyStats.setWeightChange30Days(null);
@@ -1210,19 +2326,20 @@ public class HealthRecordServiceImpl implements HealthRecordService {
 
         WeightRecord.WeightStatistics stats = new WeightRecord.WeightStatistics();
         
-        // 按时间排序，最新的在前面
-        entries.sort((a, b) -> b.getMeasureTime().compareTo(a.getMeasureTime()));
-        
+        // 条目按测量时间升序存储，旧文档未排序时先排序；最新的在末尾
+        HealthRecordUtil.sortByMeasureTime(entries, WeightRecord.WeightEntry::getMeasureTime);
+        WeightRecord.WeightEntry latest = entries.get(entries.size() - 1);
+
         // 计算统计数据
-        BigDecimal sum = BigDecimal.ZERO;
-        BigDecimal maxWeight = entries.get(0).getWeight();
-        BigDecimal minWeight = entries.get(0).getWeight();
-        BigDecimal currentWeight = entries.get(0).getWeight(); // 最新的体重
-        BigDecimal currentBmi = entries.get(0).getBmi();
+        FixedPointAccumulator sum = new FixedPointAccumulator(FixedPointAccumulator.WEIGHT_SCALE);
+        BigDecimal maxWeight = latest.getWeight();
+        BigDecimal minWeight = latest.getWeight();
+        BigDecimal currentWeight = latest.getWeight(); // 最新的体重
+        BigDecimal currentBmi = latest.getBmi();
 
         for (WeightRecord.WeightEntry entry : entries) {
             BigDecimal weight = entry.getWeight();
-            sum = sum.add(weight);
+            sum.add(weight);
             
             if (weight.compareTo(maxWeight) > 0) {
                 maxWeight = weight;
@@ -1232,32 +2349,26 @@ public class HealthRecordServiceImpl implements HealthRecordService {
             }
         }
 
-        stats.setAvgWeight(sum.divide(new BigDecimal(entries.size()), 2, RoundingMode.HALF_UP));
+        stats.setAvgWeight(sum.average(FixedPointAccumulator.AVERAGE_SCALE));
         stats.setMaxWeight(maxWeight);
         stats.setMinWeight(minWeight);
         stats.setCurrentWeight(currentWeight);
         stats.setCurrentBmi(currentBmi);
+        stats.setCurrentMeasureTime(latest.getMeasureTime());
+        stats.setSumWeight(sum.sum());
         stats.setTotalCount(entries.size());
 
-        // 计算7天和30天的体重变化
+        // 计算7天和30天的体重变化：二分查找对应时间点之前的最近一条
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime sevenDaysAgo = now.minusDays(7);
-        LocalDateTime thirtyDaysAgo = now.minusDays(30);
-
-        Optional<WeightRecord.WeightEntry> sevenDaysEntry = entries.stream()
-                .filter(entry -> entry.getMeasureTime().isBefore(sevenDaysAgo))
-                .findFirst();
-        if (sevenDaysEntry.isPresent()) {
-            BigDecimal change = currentWeight.subtract(sevenDaysEntry.get().getWeight());
-            stats.setWeightChange7Days(change);
+        WeightRecord.WeightEntry sevenDaysEntry = HealthRecordUtil.latestBefore(entries,
+                WeightRecord.WeightEntry::getMeasureTime, now.minusDays(7));
+        if (sevenDaysEntry != null) {
+            stats.setWeightChange7Days(currentWeight.subtract(sevenDaysEntry.getWeight()));
         }
-
-        Optional<WeightRecord.WeightEntry> thirtyDaysEntry = entries.stream()
-                .filter(entry -> entry.getMeasureTime().isBefore(thirtyDaysAgo))
-                .findFirst();
-        if (thirtyDaysEntry.isPresent()) {
-            BigDecimal change = currentWeight.subtract(thirtyDaysEntry.get().getWeight());
-            stats.setWeightChange30Days(change);
+        WeightRecord.WeightEntry thirtyDaysEntry = HealthRecordUtil.latestBefore(entries,
+                WeightRecord.WeightEntry::getMeasureTime, now.minusDays(30));
+        if (thirtyDaysEntry != null) {
+            stats.setWeightChange30Days(currentWeight.subtract(thirtyDaysEntry.getWeight()));
         }
 
         stats.setLastUpdateTime(LocalDateTime.now());
@@ -1272,6 +2383,7 @@ public class HealthRecordServiceImpl implements HealthRecordService {
         Map<String, Object> response = new HashMap<>();
         response.put("userId", userId);
         response.put("records", new ArrayList<>());
+        response.put("total", 0L);
         return response;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.example.tlbglxt.service.migration;
+
+import org.example.tlbglxt.entity.chat.ConsultationChat;
+import org.example.tlbglxt.service.ConsultationChatService;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+/**
+ * 将问诊文档中内嵌的消息迁移到 consultation_messages，按患者ID分区
+ * 未迁移的问诊在发送消息或查看聊天记录时也会单独迁移，两者可以同时进行
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class ConsultationMessageMigration implements DataMigration<ConsultationChat> {
+
+    private final ConsultationChatService consultationChatService;
+
+    public ConsultationMessageMigration(ConsultationChatService consultationChatService) {
+        this.consultationChatService = consultationChatService;
+    }
+
+    @Override
+    public String getName() {
+        return "consultation-messages";
+    }
+
+    @Override
+    public String getDescription() {
+        return "将问诊内嵌的消息迁移到 consultation_messages，问诊文档只保留最近的消息";
+    }
+
+    @Override
+    public Class<ConsultationChat> getDocumentType() {
+        return ConsultationChat.class;
+    }
+
+    @Override
+    public String getPartitionField() {
+        return "patientId";
+    }
+
+    @Override
+    public Criteria getCriteria() {
+        return Criteria.where("lastSeq").is(null);
+    }
+
+    @Override
+    public String[] getFields() {
+        return new String[]{"_id", "consultationNo"};
+    }
+
+    @Override
+    public void migrate(List<ConsultationChat> documents, MigrationBatch batch) {
+        for (ConsultationChat consultation : documents) {
+            if (consultationChatService.migrateEmbeddedMessages(consultation.getConsultationNo())) {
+                batch.modified(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.tlbglxt.service.migration;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+/**
+ * 数据迁移
+ * 迁移框架按分区字段（默认userId）的取值范围分区，以游标逐批读取集合中符合条件的文档，交给 {@link #migrate(List, MigrationBatch)} 处理，
+ * 每批写入后保存检查点；实现需可重复执行（中断续跑时最后一批可能被再次处理）
+ *
+ * @param <T> 遍历的文档类型
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public interface DataMigration<T> {
+
+    /**
+     * 迁移名称，唯一，同时作为检查点ID
+     */
+    String getName();
+
+    /**
+     * 迁移说明
+     */
+    String getDescription();
+
+    /**
+     * 遍历的文档类型（集合）
+     */
+    Class<T> getDocumentType();
+
+    /**
+     * 分区字段，取值为Long的属性名，默认userId
+     */
+    default String getPartitionField() {
+        return "userId";
+    }
+
+    /**
+     * 需要处理的文档条件，默认全部文档
+     */
+    default Criteria getCriteria() {
+        return new Criteria();
+    }
+
+    /**
+     * 读取的字段，默认读取整个文档；_id与分区字段总会读取
+     */
+    default String[] getFields() {
+        return new String[0];
+    }
+
+    /**
+     * 处理一批文档，写入通过batch提交
+     *
+     * @param documents 按(分区字段, _id)升序的一批文档
+     * @param batch 本批次的写入
+     */
+    void migrate(List<T> documents, MigrationBatch batch);
+}
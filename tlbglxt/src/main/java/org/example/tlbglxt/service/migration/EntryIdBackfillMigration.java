@@ -0,0 +1,85 @@
+package org.example.tlbglxt.service.migration;
+
+import org.bson.Document;
+import org.example.tlbglxt.entity.health.BaseHealthRecord;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 为条目数组中缺少ID的条目补充ID
+ * 在服务端以聚合管道更新原子改写数组：已有ID的条目保持不变，缺少ID的条目取"随机前缀-数组下标"，
+ * 不读取条目内容，也不会覆盖迁移期间并发写入的条目
+ *
+ * @param <T> 文档类型
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class EntryIdBackfillMigration<T extends BaseHealthRecord> implements DataMigration<T> {
+
+    private final String name;
+
+    private final Class<T> documentType;
+
+    private final String arrayField;
+
+    public EntryIdBackfillMigration(String name, Class<T> documentType, String arrayField) {
+        this.name = name;
+        this.documentType = documentType;
+        this.arrayField = arrayField;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return "为 " + documentType.getSimpleName() + "." + arrayField + " 中缺少ID的条目补充ID";
+    }
+
+    @Override
+    public Class<T> getDocumentType() {
+        return documentType;
+    }
+
+    @Override
+    public Criteria getCriteria() {
+        return Criteria.where(arrayField).elemMatch(Criteria.where("id").in(null, ""));
+    }
+
+    @Override
+    public String[] getFields() {
+        return new String[]{"_id", "userId"};
+    }
+
+    @Override
+    public void migrate(List<T> documents, MigrationBatch batch) {
+        for (T document : documents) {
+            batch.updateOne(Query.query(Criteria.where("_id").is(document.getId()).andOperator(getCriteria())),
+                    backfill(UUID.randomUUID().toString()));
+        }
+    }
+
+    private AggregationUpdate backfill(String prefix) {
+        String array = "$" + arrayField;
+        Document entry = new Document("$arrayElemAt", List.of(array, "$$i"));
+        Document hasId = new Document("$gt", List.of(new Document("$ifNull", List.of("$$entry.id", "")), ""));
+        Document withId = new Document("$mergeObjects", List.of("$$entry",
+                new Document("id", new Document("$concat", List.of(prefix + "-", new Document("$toString", "$$i"))))));
+        Document entries = new Document("$map", new Document("input",
+                new Document("$range", List.of(0, new Document("$size", array))))
+                .append("as", "i")
+                .append("in", new Document("$let", new Document("vars", new Document("entry", entry))
+                        .append("in", new Document("$cond", List.of(hasId, "$$entry", withId))))));
+        // 整个数组被改写，递增版本号，使之前读取的统计写回按乐观锁重试
+        Document version = new Document("$add", Arrays.asList(new Document("$ifNull", Arrays.asList("$version", 0)), 1));
+        return AggregationUpdate.from(List.of(context -> new Document("$set",
+                new Document(arrayField, entries).append("version", version))));
+    }
+}
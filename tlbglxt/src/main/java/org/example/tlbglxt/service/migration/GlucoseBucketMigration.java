@@ -0,0 +1,126 @@
+package org.example.tlbglxt.service.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.entity.health.BloodGlucoseBucket;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.example.tlbglxt.service.HealthRecordService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 将旧版血糖文档中的记录迁移到按天分桶的 blood_glucose_buckets 集合
+ * 每个用户以确定的ID upsert血糖桶，再以读取时的条目数为条件清空旧文档的记录列表，最后基于血糖桶重新计算统计信息；
+ * 血糖桶写入后即可被实时写入追加，因此任何情况下都不删除；中断后重新执行不会重复写入条目
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Slf4j
+public class GlucoseBucketMigration implements DataMigration<BloodGlucoseRecord> {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final HealthRecordService healthRecordService;
+
+    public GlucoseBucketMigration(MongoTemplate mongoTemplate, HealthRecordService healthRecordService) {
+        this.mongoTemplate = mongoTemplate;
+        this.healthRecordService = healthRecordService;
+    }
+
+    @Override
+    public String getName() {
+        return "glucose-buckets";
+    }
+
+    @Override
+    public String getDescription() {
+        return "将旧版血糖文档中的记录迁移到按天分桶的 blood_glucose_buckets";
+    }
+
+    @Override
+    public Class<BloodGlucoseRecord> getDocumentType() {
+        return BloodGlucoseRecord.class;
+    }
+
+    @Override
+    public Criteria getCriteria() {
+        return Criteria.where("records.0").exists(true);
+    }
+
+    @Override
+    public String[] getFields() {
+        return new String[]{"_id", "userId", "version", "records"};
+    }
+
+    @Override
+    public void migrate(List<BloodGlucoseRecord> documents, MigrationBatch batch) {
+        for (BloodGlucoseRecord record : documents) {
+            if (migrateUser(record)) {
+                batch.modified(1);
+            }
+        }
+    }
+
+    private boolean migrateUser(BloodGlucoseRecord record) {
+        // 按测量日期分组，单日超出容量时拆分为多个桶
+        Map<LocalDate, List<BloodGlucoseRecord.GlucoseEntry>> entriesByDate = record.getRecords().stream()
+                .sorted(Comparator.comparing(BloodGlucoseRecord.GlucoseEntry::getMeasureTime))
+                .collect(Collectors.groupingBy(entry -> entry.getMeasureTime().toLocalDate(),
+                        TreeMap::new, Collectors.toList()));
+
+        // 血糖桶ID由用户、日期与分段序号确定，以upsert + $setOnInsert写入：
+        // 重复执行不会重复写入，已被实时写入追加或删除过条目的血糖桶保持不变
+        int bucketCount = 0;
+        for (Map.Entry<LocalDate, List<BloodGlucoseRecord.GlucoseEntry>> dayEntries : entriesByDate.entrySet()) {
+            List<BloodGlucoseRecord.GlucoseEntry> entries = dayEntries.getValue();
+            for (int from = 0, chunk = 0; from < entries.size(); from += BloodGlucoseBucket.MAX_ENTRIES, chunk++) {
+                int to = Math.min(from + BloodGlucoseBucket.MAX_ENTRIES, entries.size());
+                List<BloodGlucoseRecord.GlucoseEntry> bucketEntries = new ArrayList<>(entries.subList(from, to));
+                for (BloodGlucoseRecord.GlucoseEntry entry : bucketEntries) {
+                    if (entry.getId() == null || entry.getId().isEmpty()) {
+                        entry.setId(UUID.randomUUID().toString());
+                    }
+                }
+                String bucketId = "legacy-" + record.getUserId() + "-" + dayEntries.getKey() + "-" + chunk;
+                Update insert = new Update()
+                        .setOnInsert("userId", record.getUserId())
+                        .setOnInsert("bucketDate", dayEntries.getKey())
+                        .setOnInsert("entries", bucketEntries)
+                        .setOnInsert("entriesSorted", true)
+                        .setOnInsert("entryCount", bucketEntries.size())
+                        .setOnInsert("createTime", LocalDateTime.now())
+                        .setOnInsert("updateTime", LocalDateTime.now());
+                mongoTemplate.upsert(Query.query(Criteria.where("_id").is(bucketId)), insert, BloodGlucoseBucket.class);
+                bucketCount++;
+            }
+        }
+
+        // 新的写入只进入血糖桶，旧文档的条目列表不再变化；以条目数为条件清空，统计字段的并发更新不影响清空。
+        // 清空失败时保留已写入的血糖桶（可能已有实时写入），下次执行时upsert不会重复写入
+        Query query = Query.query(Criteria.where("_id").is(record.getId()).and("records").size(record.getRecords().size()));
+        Update update = Update.update("records", new ArrayList<>())
+                .inc("version", 1)
+                .set("updateTime", LocalDateTime.now());
+        if (mongoTemplate.updateFirst(query, update, BloodGlucoseRecord.class).getMatchedCount() == 0) {
+            log.warn("用户 {} 的旧版血糖记录在迁移期间被修改，已跳过，请重新执行迁移", record.getUserId());
+            return false;
+        }
+
+        // 重新计算桶内汇总与总体统计
+        healthRecordService.recalculateBloodGlucoseStatistics(record.getUserId());
+        log.info("用户 {} 的血糖记录已迁移到 {} 个血糖桶", record.getUserId(), bucketCount);
+        return true;
+    }
+}
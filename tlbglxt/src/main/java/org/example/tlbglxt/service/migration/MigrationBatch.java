@@ -0,0 +1,55 @@
+package org.example.tlbglxt.service.migration;
+
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+/**
+ * 一批迁移的写入
+ * 文档更新累积到一次无序的BulkOperations中，随批次提交；不经过批量写入的修改（如调用服务方法）用 {@link #modified(int)} 计数
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class MigrationBatch {
+
+    private final BulkOperations bulkOperations;
+
+    private int operations;
+
+    private long modified;
+
+    public MigrationBatch(BulkOperations bulkOperations) {
+        this.bulkOperations = bulkOperations;
+    }
+
+    /**
+     * 加入一条单文档更新
+     */
+    public MigrationBatch updateOne(Query query, UpdateDefinition update) {
+        bulkOperations.updateOne(query, update);
+        operations++;
+        return this;
+    }
+
+    /**
+     * 记录直接写入的修改数
+     */
+    public MigrationBatch modified(int count) {
+        modified += count;
+        return this;
+    }
+
+    /**
+     * 提交批量写入
+     *
+     * @return 本批次修改的文档数
+     */
+    public long execute() {
+        if (operations > 0) {
+            modified += bulkOperations.execute().getModifiedCount();
+            operations = 0;
+        }
+        return modified;
+    }
+}
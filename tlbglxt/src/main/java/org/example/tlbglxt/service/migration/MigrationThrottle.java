@@ -0,0 +1,44 @@
+package org.example.tlbglxt.service.migration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 迁移限速，所有迁移线程共享，按每秒文档数平滑放行，不允许突发
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class MigrationThrottle {
+
+    private final double nanosPerDocument;
+
+    private long nextFreeNanos;
+
+    /**
+     * @param documentsPerSecond 每秒处理的文档数上限，小于等于0表示不限速
+     */
+    public MigrationThrottle(double documentsPerSecond) {
+        this.nanosPerDocument = documentsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / documentsPerSecond : 0;
+    }
+
+    /**
+     * 为一批文档申请配额，配额不足时阻塞到可以处理为止
+     *
+     * @param documents 文档数
+     */
+    public void acquire(int documents) throws InterruptedException {
+        if (nanosPerDocument == 0 || documents <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeNanos, now);
+            nextFreeNanos = start + (long) (documents * nanosPerDocument);
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
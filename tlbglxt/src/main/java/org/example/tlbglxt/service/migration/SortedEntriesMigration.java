@@ -0,0 +1,66 @@
+package org.example.tlbglxt.service.migration;
+
+import org.example.tlbglxt.entity.health.BaseHealthRecord;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * 将尚未标记有序的文档的条目数组按测量时间升序排列并标记
+ * 在服务端以空的$each配合$sort原地排序，不读取条目内容；新写入的条目已按有序方式追加，可重复执行
+ *
+ * @param <T> 文档类型
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class SortedEntriesMigration<T extends BaseHealthRecord> implements DataMigration<T> {
+
+    private final String name;
+
+    private final Class<T> documentType;
+
+    private final String arrayField;
+
+    public SortedEntriesMigration(String name, Class<T> documentType, String arrayField) {
+        this.name = name;
+        this.documentType = documentType;
+        this.arrayField = arrayField;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return "将 " + documentType.getSimpleName() + "." + arrayField + " 整理为按测量时间升序";
+    }
+
+    @Override
+    public Class<T> getDocumentType() {
+        return documentType;
+    }
+
+    @Override
+    public Criteria getCriteria() {
+        return Criteria.where("entriesSorted").ne(true).and(arrayField).exists(true);
+    }
+
+    @Override
+    public String[] getFields() {
+        return new String[]{"_id", "userId"};
+    }
+
+    @Override
+    public void migrate(List<T> documents, MigrationBatch batch) {
+        for (T document : documents) {
+            Update update = new Update().set("entriesSorted", true);
+            update.push(arrayField).sort(Sort.by(Sort.Direction.ASC, "measureTime")).each();
+            batch.updateOne(Query.query(Criteria.where("_id").is(document.getId()).andOperator(getCriteria())), update);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.tlbglxt.service.migration;
+
+import org.example.tlbglxt.entity.health.BaseHealthRecord;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 按用户全量重算统计信息，遍历每个用户的统计文档并调用对应的重算方法
+ *
+ * @param <T> 统计所在的文档类型
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public class StatisticsRecalculationMigration<T extends BaseHealthRecord> implements DataMigration<T> {
+
+    private final String name;
+
+    private final String description;
+
+    private final Class<T> documentType;
+
+    private final Function<Long, Boolean> recalculation;
+
+    public StatisticsRecalculationMigration(String name, String description, Class<T> documentType,
+                                            Function<Long, Boolean> recalculation) {
+        this.name = name;
+        this.description = description;
+        this.documentType = documentType;
+        this.recalculation = recalculation;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public Class<T> getDocumentType() {
+        return documentType;
+    }
+
+    @Override
+    public String[] getFields() {
+        return new String[]{"_id", "userId"};
+    }
+
+    @Override
+    public void migrate(List<T> documents, MigrationBatch batch) {
+        for (T document : documents) {
+            if (Boolean.TRUE.equals(recalculation.apply(document.getUserId()))) {
+                batch.modified(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.tlbglxt.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV工具类
+ * 按RFC 4180处理逗号、双引号与换行，导入与导出共用同一套转义规则
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class CsvUtil {
+
+    /**
+     * 表格软件会按公式解析的起始字符
+     */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private CsvUtil() {
+    }
+
+    /**
+     * 解析CSV文本，支持引号内的逗号、换行和成对双引号；忽略开头的UTF-8 BOM与空行
+     *
+     * @param text CSV文本
+     * @return 按行的字段列表
+     * @throws IllegalArgumentException 引号未闭合
+     */
+    public static List<List<String>> parse(String text) {
+        List<List<String>> rows = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return rows;
+        }
+        int start = text.charAt(0) == '\uFEFF' ? 1 : 0;
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                endRow(rows, row, field);
+                row = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV引号未闭合");
+        }
+        endRow(rows, row, field);
+        return rows;
+    }
+
+    /**
+     * 转义单个字段：以=、+、-、@、制表符或回车开头时加单引号前缀，避免在Excel等表格软件中被当作公式执行；
+     * 包含逗号、双引号或换行时加引号
+     *
+     * @param text 字段值
+     * @return 可直接写入CSV的字段
+     */
+    public static String escape(String text) {
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static void endRow(List<List<String>> rows, List<String> row, StringBuilder field) {
+        row.add(field.toString());
+        field.setLength(0);
+        // 空行只有一个空字段，直接跳过
+        if (row.size() > 1 || !row.get(0).isEmpty()) {
+            rows.add(row);
+        }
+    }
+}
@@ -1,102 +1,76 @@
 package org.example.tlbglxt.util;
 
-import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
-import org.example.tlbglxt.entity.health.BloodPressureRecord;
-import org.example.tlbglxt.entity.health.WeightRecord;
-import org.example.tlbglxt.repository.mongo.BloodGlucoseRecordRepository;
-import org.example.tlbglxt.repository.mongo.BloodPressureRecordRepository;
-import org.example.tlbglxt.repository.mongo.WeightRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.dto.response.MigrationStatusResponse;
+import org.example.tlbglxt.service.DataMigrationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 数据迁移工具类
- * 用于为现有健康记录添加ID字段
+ * 用于启动为现有健康记录添加ID字段的迁移，将血糖记录迁移到按天分桶的存储结构，回填健康数据日汇总，
+ * 以及将条目数组整理为按测量时间升序；各迁移均由迁移框架在后台执行，进度通过 /api/v1/admin/migrations 查询
  */
+@Slf4j
 @Component
 public class DataMigrationUtil {
 
-    @Autowired
-    private BloodGlucoseRecordRepository bloodGlucoseRecordRepository;
+    private static final List<String> ENTRY_ID_MIGRATIONS = List.of(
+            "entry-id-glucose-records", "entry-id-glucose-buckets", "entry-id-pressure", "entry-id-weight");
 
-    @Autowired
-    private BloodPressureRecordRepository bloodPressureRecordRepository;
+    private static final List<String> ROLLUP_MIGRATIONS = List.of("rollup-glucose", "rollup-pressure", "rollup-weight");
+
+    private static final List<String> SORT_MIGRATIONS = List.of("sort-glucose-buckets", "sort-pressure", "sort-weight");
 
     @Autowired
-    private WeightRecordRepository weightRecordRepository;
+    private DataMigrationService dataMigrationService;
 
     /**
      * 为所有现有记录添加ID字段
+     * 由迁移框架分批、按userId分区在后台执行，进度通过 /api/v1/admin/migrations 查询
+     *
+     * @return 各迁移的状态
      */
-    public void migrateAllRecords() {
-        migrateBloodGlucoseRecords();
-        migrateBloodPressureRecords();
-        migrateWeightRecords();
+    public List<MigrationStatusResponse> migrateAllRecords() {
+        return startMigrations(ENTRY_ID_MIGRATIONS);
     }
 
     /**
-     * 为血糖记录添加ID
+     * 将旧版血糖文档中的记录迁移到按天分桶的 blood_glucose_buckets 集合
+     * 由迁移框架按userId分区在后台执行，已迁移的用户不会再被读取
+     *
+     * @return 迁移状态
      */
-    public void migrateBloodGlucoseRecords() {
-        List<BloodGlucoseRecord> records = bloodGlucoseRecordRepository.findAll();
-        for (BloodGlucoseRecord record : records) {
-            if (record.getRecords() != null) {
-                boolean needUpdate = false;
-                for (BloodGlucoseRecord.GlucoseEntry entry : record.getRecords()) {
-                    if (entry.getId() == null || entry.getId().isEmpty()) {
-                        entry.setId(UUID.randomUUID().toString());
-                        needUpdate = true;
-                    }
-                }
-                if (needUpdate) {
-                    bloodGlucoseRecordRepository.save(record);
-                }
-            }
-        }
+    public MigrationStatusResponse migrateBloodGlucoseToBuckets() {
+        return dataMigrationService.startMigration("glucose-buckets");
     }
 
     /**
-     * 为血压记录添加ID
+     * 为已有健康记录的用户回填日汇总（按原始记录全量重建）
+     *
+     * @return 各迁移的状态
      */
-    public void migrateBloodPressureRecords() {
-        List<BloodPressureRecord> records = bloodPressureRecordRepository.findAll();
-        for (BloodPressureRecord record : records) {
-            if (record.getRecords() != null) {
-                boolean needUpdate = false;
-                for (BloodPressureRecord.PressureEntry entry : record.getRecords()) {
-                    if (entry.getId() == null || entry.getId().isEmpty()) {
-                        entry.setId(UUID.randomUUID().toString());
-                        needUpdate = true;
-                    }
-                }
-                if (needUpdate) {
-                    bloodPressureRecordRepository.save(record);
-                }
-            }
-        }
+    public List<MigrationStatusResponse> migrateDailyRollups() {
+        return startMigrations(ROLLUP_MIGRATIONS);
     }
 
     /**
-     * 为体重记录添加ID
+     * 将尚未标记有序的健康记录文档（血糖桶、血压、体重）的条目数组按测量时间升序排列并标记
+     *
+     * @return 各迁移的状态
      */
-    public void migrateWeightRecords() {
-        List<WeightRecord> records = weightRecordRepository.findAll();
-        for (WeightRecord record : records) {
-            if (record.getRecords() != null) {
-                boolean needUpdate = false;
-                for (WeightRecord.WeightEntry entry : record.getRecords()) {
-                    if (entry.getId() == null || entry.getId().isEmpty()) {
-                        entry.setId(UUID.randomUUID().toString());
-                        needUpdate = true;
-                    }
-                }
-                if (needUpdate) {
-                    weightRecordRepository.save(record);
-                }
-            }
+    public List<MigrationStatusResponse> migrateSortedEntries() {
+        return startMigrations(SORT_MIGRATIONS);
+    }
+
+    private List<MigrationStatusResponse> startMigrations(List<String> names) {
+        List<MigrationStatusResponse> statuses = new ArrayList<>();
+        for (String name : names) {
+            statuses.add(dataMigrationService.startMigration(name));
         }
+        return statuses;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package org.example.tlbglxt.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 定点数累加器
+ * 以固定小数位的long（如血糖0.01 mmol/L、体重克）累加数值，只在输出时转换为BigDecimal；
+ * 数值小数位超出精度或累加溢出时自动退回BigDecimal累加，结果与逐条BigDecimal相加完全一致
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class FixedPointAccumulator {
+
+    /**
+     * 血糖精度：0.01 mmol/L
+     */
+    public static final int GLUCOSE_SCALE = 2;
+
+    /**
+     * 体重精度：克（0.001 kg）
+     */
+    public static final int WEIGHT_SCALE = 3;
+
+    /**
+     * 整数指标（血压、心率）
+     */
+    public static final int INTEGER_SCALE = 0;
+
+    /**
+     * 统计平均值保留的小数位数
+     */
+    public static final int AVERAGE_SCALE = 2;
+
+    /**
+     * long可安全容纳的十进制位数
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final int scale;
+
+    /**
+     * 以最小单位计的合计
+     */
+    private long units;
+
+    /**
+     * 参与累加的数值个数（减去的数值计为负）
+     */
+    private int count;
+
+    /**
+     * 输入数值中的最大小数位数，用于还原BigDecimal相加结果的scale
+     */
+    private int sumScale;
+
+    /**
+     * 退回BigDecimal累加后的合计，定点累加时为null
+     */
+    private BigDecimal exactSum;
+
+    /**
+     * @param scale 最小单位的小数位数
+     */
+    public FixedPointAccumulator(int scale) {
+        if (scale < 0 || scale > MAX_DIGITS) {
+            throw new IllegalArgumentException("不支持的精度: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /**
+     * 累加数值，null忽略
+     */
+    public void add(BigDecimal value) {
+        accumulate(value, 1);
+    }
+
+    /**
+     * 减去数值，null忽略
+     */
+    public void subtract(BigDecimal value) {
+        accumulate(value, -1);
+    }
+
+    /**
+     * 参与累加的数值个数
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 合计值，scale与逐条BigDecimal相加（从BigDecimal.ZERO开始）的结果一致
+     */
+    public BigDecimal sum() {
+        if (exactSum != null) {
+            return exactSum;
+        }
+        return BigDecimal.valueOf(units, scale).setScale(sumScale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * 平均值（四舍五入），没有数据时返回null
+     *
+     * @param resultScale 保留小数位数
+     */
+    public BigDecimal average(int resultScale) {
+        if (count <= 0) {
+            return null;
+        }
+        if (exactSum != null) {
+            return exactSum.divide(BigDecimal.valueOf(count), resultScale, RoundingMode.HALF_UP);
+        }
+        return average(units, scale, count, resultScale);
+    }
+
+    /**
+     * 根据以最小单位计的合计计算平均值（四舍五入），结果与BigDecimal.divide(count, resultScale, HALF_UP)一致
+     *
+     * @param sumUnits 以最小单位计的合计
+     * @param unitScale 最小单位的小数位数
+     * @param count 个数，必须大于0
+     * @param resultScale 保留小数位数
+     */
+    public static BigDecimal average(long sumUnits, int unitScale, long count, int resultScale) {
+        try {
+            long numerator = sumUnits;
+            long denominator = count;
+            if (resultScale >= unitScale) {
+                numerator = Math.multiplyExact(sumUnits, powerOfTen(resultScale - unitScale));
+            } else {
+                denominator = Math.multiplyExact(count, powerOfTen(unitScale - resultScale));
+            }
+            long quotient = numerator / denominator;
+            long remainder = Math.abs(numerator % denominator);
+            if (remainder >= denominator - remainder) {
+                quotient += numerator < 0 ? -1 : 1;
+            }
+            return BigDecimal.valueOf(quotient, resultScale);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(sumUnits, unitScale)
+                    .divide(BigDecimal.valueOf(count), resultScale, RoundingMode.HALF_UP);
+        }
+    }
+
+    /**
+     * 根据BigDecimal合计计算平均值（四舍五入），合计可用定点表示时不经过BigDecimal除法
+     *
+     * @param sum 合计
+     * @param count 个数，必须大于0
+     * @param resultScale 保留小数位数
+     */
+    public static BigDecimal average(BigDecimal sum, long count, int resultScale) {
+        if (sum.scale() >= 0 && sum.scale() <= MAX_DIGITS && sum.precision() <= MAX_DIGITS) {
+            return average(sum.unscaledValue().longValue(), sum.scale(), count, resultScale);
+        }
+        return sum.divide(BigDecimal.valueOf(count), resultScale, RoundingMode.HALF_UP);
+    }
+
+    private void accumulate(BigDecimal value, int sign) {
+        if (value == null) {
+            return;
+        }
+        count += sign;
+        int valueScale = value.scale();
+        if (valueScale > sumScale) {
+            sumScale = valueScale;
+        }
+        if (exactSum == null) {
+            if (valueScale <= scale && value.precision() - valueScale + scale <= MAX_DIGITS) {
+                long valueUnits = valueScale == 0
+                        ? Math.multiplyExact(value.longValue(), POWERS_OF_TEN[scale])
+                        : value.movePointRight(scale).longValue();
+                try {
+                    units = sign > 0 ? Math.addExact(units, valueUnits) : Math.subtractExact(units, valueUnits);
+                    return;
+                } catch (ArithmeticException e) {
+                    // 合计溢出，退回BigDecimal累加
+                }
+            }
+            switchToExact();
+        }
+        exactSum = sign > 0 ? exactSum.add(value) : exactSum.subtract(value);
+    }
+
+    private void switchToExact() {
+        exactSum = BigDecimal.valueOf(units, scale).setScale(sumScale, RoundingMode.UNNECESSARY);
+    }
+
+    private static long powerOfTen(int exponent) {
+        if (exponent < POWERS_OF_TEN.length) {
+            return POWERS_OF_TEN[exponent];
+        }
+        throw new ArithmeticException("10^" + exponent + " 超出long范围");
+    }
+}
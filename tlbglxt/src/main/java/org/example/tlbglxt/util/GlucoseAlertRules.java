@@ -0,0 +1,211 @@
+package org.example.tlbglxt.util;
+
+import lombok.Data;
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 血糖异常告警规则
+ * 根据新写入的读数及其之前一段时间的历史读数判断：低血糖、持续高血糖、血糖快速变化。
+ * 每条规则每次评估最多产生一条告警，批量写入时取最具代表性的一条（最低值或最新的读数）
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class GlucoseAlertRules {
+
+    public static final String RULE_HYPOGLYCEMIA = "hypoglycemia";
+    public static final String RULE_SUSTAINED_HYPERGLYCEMIA = "sustained_hyperglycemia";
+    public static final String RULE_RAPID_CHANGE = "rapid_change";
+
+    public static final String SEVERITY_WARNING = "warning";
+    public static final String SEVERITY_CRITICAL = "critical";
+
+    /**
+     * 严重低血糖阈值 (mmol/L)，低于该值的告警级别为critical
+     */
+    private static final BigDecimal SEVERE_HYPOGLYCEMIA = new BigDecimal("3.0");
+
+    private GlucoseAlertRules() {
+    }
+
+    /**
+     * 规则参数
+     */
+    @Data
+    public static class Thresholds {
+
+        /**
+         * 持续高血糖的判断窗口，窗口内全部读数偏高时告警
+         */
+        private Duration sustainedWindow = Duration.ofHours(2);
+
+        /**
+         * 持续高血糖窗口内至少需要的读数
+         */
+        private int sustainedMinReadings = 3;
+
+        /**
+         * 计算变化速率时两次读数的最大间隔
+         */
+        private Duration rateWindow = Duration.ofMinutes(30);
+
+        /**
+         * 变化速率告警阈值 (mmol/L/min)
+         */
+        private BigDecimal rateThreshold = new BigDecimal("0.11");
+
+        /**
+         * 评估时需要的历史读数时长
+         */
+        public Duration lookback() {
+            return sustainedWindow.compareTo(rateWindow) >= 0 ? sustainedWindow : rateWindow;
+        }
+    }
+
+    /**
+     * 告警
+     */
+    @Data
+    public static class Alert {
+
+        private String rule;
+
+        private String severity;
+
+        private BigDecimal value;
+
+        private LocalDateTime measureTime;
+
+        /**
+         * 变化速率 (mmol/L/min)，仅快速变化告警有值，正数为上升
+         */
+        private BigDecimal rate;
+
+        private String message;
+    }
+
+    /**
+     * 评估新写入的读数
+     *
+     * @param added 新写入的读数
+     * @param history 已入库的读数（包含新写入的读数），覆盖最早新读数之前 {@link Thresholds#lookback()} 至最新读数
+     * @param thresholds 规则参数
+     * @return 告警列表，按规则顺序
+     */
+    public static List<Alert> evaluate(List<BloodGlucoseRecord.GlucoseEntry> added,
+                                       List<BloodGlucoseRecord.GlucoseEntry> history, Thresholds thresholds) {
+        List<Alert> alerts = new ArrayList<>();
+        List<BloodGlucoseRecord.GlucoseEntry> readings = sorted(added);
+        if (readings.isEmpty()) {
+            return alerts;
+        }
+        List<BloodGlucoseRecord.GlucoseEntry> timeline = sorted(history);
+
+        // 低血糖：取最低的一条
+        BloodGlucoseRecord.GlucoseEntry lowest = null;
+        for (BloodGlucoseRecord.GlucoseEntry entry : readings) {
+            if ("low".equals(level(entry)) && (lowest == null || entry.getValue().compareTo(lowest.getValue()) < 0)) {
+                lowest = entry;
+            }
+        }
+        if (lowest != null) {
+            boolean severe = lowest.getValue().compareTo(SEVERE_HYPOGLYCEMIA) < 0;
+            alerts.add(alert(RULE_HYPOGLYCEMIA, severe ? SEVERITY_CRITICAL : SEVERITY_WARNING, lowest, null,
+                    (severe ? "严重低血糖：" : "低血糖：") + lowest.getValue().toPlainString() + " mmol/L"));
+        }
+
+        // 持续高血糖：最新读数之前窗口内的读数全部偏高
+        BloodGlucoseRecord.GlucoseEntry latest = readings.get(readings.size() - 1);
+        if ("high".equals(level(latest))) {
+            LocalDateTime windowStart = latest.getMeasureTime().minus(thresholds.getSustainedWindow());
+            int count = 0;
+            boolean allHigh = true;
+            int from = HealthRecordUtil.lowerBound(timeline, BloodGlucoseRecord.GlucoseEntry::getMeasureTime, windowStart);
+            for (BloodGlucoseRecord.GlucoseEntry entry : timeline.subList(from, timeline.size())) {
+                if (entry.getMeasureTime().isAfter(latest.getMeasureTime())) {
+                    break;
+                }
+                count++;
+                if (!"high".equals(level(entry))) {
+                    allHigh = false;
+                    break;
+                }
+            }
+            if (allHigh && count >= thresholds.getSustainedMinReadings()) {
+                alerts.add(alert(RULE_SUSTAINED_HYPERGLYCEMIA, SEVERITY_WARNING, latest, null,
+                        "持续高血糖：最近" + thresholds.getSustainedWindow().toMinutes() + "分钟内" + count
+                                + "次测量均偏高，最新 " + latest.getValue().toPlainString() + " mmol/L"));
+            }
+        }
+
+        // 快速变化：与前一次读数的间隔不超过rateWindow且速率超过阈值，取最新的一条
+        for (int i = readings.size() - 1; i >= 0; i--) {
+            BloodGlucoseRecord.GlucoseEntry entry = readings.get(i);
+            BloodGlucoseRecord.GlucoseEntry previous = previous(timeline, entry);
+            if (previous == null) {
+                continue;
+            }
+            long seconds = Duration.between(previous.getMeasureTime(), entry.getMeasureTime()).getSeconds();
+            if (seconds <= 0 || seconds > thresholds.getRateWindow().getSeconds()) {
+                continue;
+            }
+            BigDecimal rate = entry.getValue().subtract(previous.getValue())
+                    .multiply(BigDecimal.valueOf(60))
+                    .divide(BigDecimal.valueOf(seconds), 3, RoundingMode.HALF_UP);
+            if (rate.abs().compareTo(thresholds.getRateThreshold()) >= 0) {
+                alerts.add(alert(RULE_RAPID_CHANGE, SEVERITY_WARNING, entry, rate,
+                        (rate.signum() > 0 ? "血糖快速上升：" : "血糖快速下降：") + previous.getValue().toPlainString()
+                                + " → " + entry.getValue().toPlainString() + " mmol/L（" + rate.toPlainString()
+                                + " mmol/L/min）"));
+                break;
+            }
+        }
+        return alerts;
+    }
+
+    private static String level(BloodGlucoseRecord.GlucoseEntry entry) {
+        String measureType = entry.getMeasureType() == null || entry.getMeasureType().isEmpty()
+                ? "random" : entry.getMeasureType();
+        return HealthRecordUtil.evaluateBloodGlucoseLevel(entry.getValue(), measureType);
+    }
+
+    /**
+     * 时间线上位于entry之前的最近一次读数（同一时间的读数不参与速率计算）
+     */
+    private static BloodGlucoseRecord.GlucoseEntry previous(List<BloodGlucoseRecord.GlucoseEntry> timeline,
+                                                            BloodGlucoseRecord.GlucoseEntry entry) {
+        return HealthRecordUtil.latestBefore(timeline, BloodGlucoseRecord.GlucoseEntry::getMeasureTime,
+                entry.getMeasureTime());
+    }
+
+    private static List<BloodGlucoseRecord.GlucoseEntry> sorted(List<BloodGlucoseRecord.GlucoseEntry> entries) {
+        List<BloodGlucoseRecord.GlucoseEntry> sorted = new ArrayList<>();
+        for (BloodGlucoseRecord.GlucoseEntry entry : entries) {
+            if (entry != null && entry.getValue() != null && entry.getMeasureTime() != null) {
+                sorted.add(entry);
+            }
+        }
+        // 历史读数由存储按测量时间升序返回，已有序时不再排序
+        HealthRecordUtil.sortByMeasureTime(sorted, BloodGlucoseRecord.GlucoseEntry::getMeasureTime);
+        return sorted;
+    }
+
+    private static Alert alert(String rule, String severity, BloodGlucoseRecord.GlucoseEntry entry, BigDecimal rate,
+                               String message) {
+        Alert alert = new Alert();
+        alert.setRule(rule);
+        alert.setSeverity(severity);
+        alert.setValue(entry.getValue());
+        alert.setMeasureTime(entry.getMeasureTime());
+        alert.setRate(rate);
+        alert.setMessage(message);
+        return alert;
+    }
+}
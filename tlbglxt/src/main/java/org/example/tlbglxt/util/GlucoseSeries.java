@@ -0,0 +1,210 @@
+package org.example.tlbglxt.util;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * 血糖列式序列
+ * 时间（long[]）、血糖值（float[]）、测量类型与等级编码（byte[]）按时间升序存放
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class GlucoseSeries extends HealthSeries {
+
+    /**
+     * 测量类型编码表，下标即编码
+     */
+    private static final String[] MEASURE_TYPES = {"fasting", "after_meal", "random"};
+
+    private final float[] values;
+
+    private final byte[] measureTypes;
+
+    private GlucoseSeries(long[] times, float[] values, byte[] measureTypes, byte[] levels) {
+        super(times, levels);
+        this.values = values;
+        this.measureTypes = measureTypes;
+    }
+
+    /**
+     * 第i个点的血糖值
+     */
+    public float value(int i) {
+        return values[i];
+    }
+
+    /**
+     * 第i个点的测量类型
+     */
+    public String measureType(int i) {
+        return decode(MEASURE_TYPES, measureTypes[i]);
+    }
+
+    /**
+     * 截取测量时间位于[fromMillis, toMillis)内的子序列（二分查找定位）
+     */
+    public GlucoseSeries range(long fromMillis, long toMillis) {
+        int from = lowerBound(fromMillis);
+        int to = Math.max(from, lowerBound(toMillis));
+        return new GlucoseSeries(Arrays.copyOfRange(times, from, to), Arrays.copyOfRange(values, from, to),
+                Arrays.copyOfRange(measureTypes, from, to), Arrays.copyOfRange(levels, from, to));
+    }
+
+    /**
+     * LTTB降采样，返回选中点的下标
+     */
+    public int[] lttb(int maxPoints) {
+        return TrendDownsampler.lttb(times, i -> values[i], maxPoints);
+    }
+
+    /**
+     * 按时间区间计算血糖值的最小/平均/最大值包络
+     */
+    public TrendDownsampler.Envelope envelope(int buckets) {
+        return TrendDownsampler.envelope(times, i -> values[i], buckets);
+    }
+
+    /**
+     * 单次遍历计算统计信息
+     */
+    public Statistics statistics() {
+        Statistics stats = new Statistics();
+        for (int i = 0; i < values.length; i++) {
+            float value = values[i];
+            stats.count++;
+            stats.sumUnits += Math.round(value * 100.0);
+            stats.min = stats.count == 1 ? value : Math.min(stats.min, value);
+            stats.max = stats.count == 1 ? value : Math.max(stats.max, value);
+            switch (levels[i]) {
+                case LEVEL_NORMAL:
+                    stats.normalCount++;
+                    break;
+                case LEVEL_HIGH:
+                    stats.highCount++;
+                    break;
+                case LEVEL_LOW:
+                    stats.lowCount++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param expectedSize 预计点数
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * 血糖序列统计信息
+     */
+    @Getter
+    public static final class Statistics {
+
+        private int count;
+
+        /**
+         * 血糖值之和，以0.01 mmol/L为单位
+         */
+        private long sumUnits;
+
+        private float min;
+
+        private float max;
+
+        private int normalCount;
+
+        private int highCount;
+
+        private int lowCount;
+
+        /**
+         * 平均值（保留两位小数，四舍五入），无数据时为null
+         */
+        public BigDecimal getAvg() {
+            return count == 0 ? null : FixedPointAccumulator.average(sumUnits, FixedPointAccumulator.GLUCOSE_SCALE,
+                    count, FixedPointAccumulator.AVERAGE_SCALE);
+        }
+    }
+
+    /**
+     * 血糖序列构建器，按追加顺序收集数据，追加顺序非升序时在build时排序
+     */
+    public static final class Builder {
+
+        private long[] times;
+
+        private float[] values;
+
+        private byte[] measureTypes;
+
+        private byte[] levels;
+
+        private int size;
+
+        private boolean sorted = true;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            times = new long[capacity];
+            values = new float[capacity];
+            measureTypes = new byte[capacity];
+            levels = new byte[capacity];
+        }
+
+        /**
+         * 追加一个数据点，等级按测量类型的阈值计算
+         *
+         * @param time 测量时间（epoch毫秒）
+         * @param value 血糖值
+         * @param measureType 测量类型
+         * @return 构建器
+         */
+        public Builder add(long time, float value, String measureType) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                values = Arrays.copyOf(values, capacity);
+                measureTypes = Arrays.copyOf(measureTypes, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+            }
+            if (size > 0 && time < times[size - 1]) {
+                sorted = false;
+            }
+            times[size] = time;
+            values[size] = value;
+            measureTypes[size] = code(MEASURE_TYPES, measureType);
+            levels[size] = levelCode(HealthRecordUtil.evaluateBloodGlucoseLevel(value, measureType));
+            size++;
+            return this;
+        }
+
+        public GlucoseSeries build() {
+            if (sorted) {
+                return new GlucoseSeries(Arrays.copyOf(times, size), Arrays.copyOf(values, size),
+                        Arrays.copyOf(measureTypes, size), Arrays.copyOf(levels, size));
+            }
+            int[] order = sortedOrder(times, size);
+            long[] sortedTimes = new long[size];
+            float[] sortedValues = new float[size];
+            byte[] sortedTypes = new byte[size];
+            byte[] sortedLevels = new byte[size];
+            for (int i = 0; i < size; i++) {
+                sortedTimes[i] = times[order[i]];
+                sortedValues[i] = values[order[i]];
+                sortedTypes[i] = measureTypes[order[i]];
+                sortedLevels[i] = levels[order[i]];
+            }
+            return new GlucoseSeries(sortedTimes, sortedValues, sortedTypes, sortedLevels);
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package org.example.tlbglxt.util;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.tlbglxt.dto.request.health.AddBloodGlucoseRequest;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 健康记录工具类
@@ -14,6 +23,21 @@ public class HealthRecordUtil {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 血糖偏低阈值 (mmol/L)
+     */
+    private static final BigDecimal GLUCOSE_LOW = new BigDecimal("3.9");
+
+    /**
+     * 空腹血糖偏高阈值 (mmol/L)
+     */
+    private static final BigDecimal FASTING_GLUCOSE_HIGH = new BigDecimal("6.1");
+
+    /**
+     * 餐后/随机血糖偏高阈值 (mmol/L)
+     */
+    private static final BigDecimal RANDOM_GLUCOSE_HIGH = new BigDecimal("11.1");
+
     /**
      * 血糖水平评估
      *
@@ -28,25 +52,25 @@ public class HealthRecordUtil {
 
         switch (measureType) {
             case "fasting": // 空腹血糖
-                if (value.compareTo(new BigDecimal("3.9")) < 0) {
+                if (value.compareTo(GLUCOSE_LOW) < 0) {
                     return "low";
-                } else if (value.compareTo(new BigDecimal("6.1")) > 0) {
+                } else if (value.compareTo(FASTING_GLUCOSE_HIGH) > 0) {
                     return "high";
                 } else {
                     return "normal";
                 }
             case "after_meal": // 餐后血糖
-                if (value.compareTo(new BigDecimal("3.9")) < 0) {
+                if (value.compareTo(GLUCOSE_LOW) < 0) {
                     return "low";
-                } else if (value.compareTo(new BigDecimal("11.1")) > 0) {
+                } else if (value.compareTo(RANDOM_GLUCOSE_HIGH) > 0) {
                     return "high";
                 } else {
                     return "normal";
                 }
             default: // 随机血糖
-                if (value.compareTo(new BigDecimal("3.9")) < 0) {
+                if (value.compareTo(GLUCOSE_LOW) < 0) {
                     return "low";
-                } else if (value.compareTo(new BigDecimal("11.1")) > 0) {
+                } else if (value.compareTo(RANDOM_GLUCOSE_HIGH) > 0) {
                     return "high";
                 } else {
                     return "normal";
@@ -54,6 +78,21 @@ public class HealthRecordUtil {
         }
     }
 
+    /**
+     * 血糖水平评估（float取值，供列式序列使用，阈值与BigDecimal版本一致）
+     *
+     * @param value 血糖值 (mmol/L)
+     * @param measureType 测量类型
+     * @return 评估结果: normal, high, low
+     */
+    public static String evaluateBloodGlucoseLevel(float value, String measureType) {
+        if (value < GLUCOSE_LOW.floatValue()) {
+            return "low";
+        }
+        float high = "fasting".equals(measureType) ? FASTING_GLUCOSE_HIGH.floatValue() : RANDOM_GLUCOSE_HIGH.floatValue();
+        return value > high ? "high" : "normal";
+    }
+
     /**
      * 血压水平评估
      *
@@ -65,7 +104,17 @@ public class HealthRecordUtil {
         if (systolic == null || diastolic == null) {
             return "unknown";
         }
+        return evaluateBloodPressureLevel(systolic.intValue(), diastolic.intValue());
+    }
 
+    /**
+     * 血压水平评估（原始类型取值）
+     *
+     * @param systolic 收缩压
+     * @param diastolic 舒张压
+     * @return 评估结果: normal, high, low
+     */
+    public static String evaluateBloodPressureLevel(int systolic, int diastolic) {
         // 低血压
         if (systolic < 90 && diastolic < 60) {
             return "low";
@@ -152,6 +201,56 @@ public class HealthRecordUtil {
         return dateTime.format(DATE_TIME_FORMATTER);
     }
 
+    /**
+     * 在按测量时间升序排列的条目中二分查找第一条测量时间不早于time的位置
+     *
+     * @param entries 按测量时间升序排列的条目
+     * @param measureTime 取条目测量时间
+     * @param time 时间
+     * @return 位置，全部条目都早于time时返回entries.size()
+     */
+    public static <T> int lowerBound(List<T> entries, Function<T, LocalDateTime> measureTime, LocalDateTime time) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (measureTime.apply(entries.get(mid)).isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 按测量时间升序排列的条目中，测量时间早于time的最近一条
+     *
+     * @param entries 按测量时间升序排列的条目
+     * @param measureTime 取条目测量时间
+     * @param time 时间
+     * @return 条目，不存在时返回null
+     */
+    public static <T> T latestBefore(List<T> entries, Function<T, LocalDateTime> measureTime, LocalDateTime time) {
+        int index = lowerBound(entries, measureTime, time);
+        return index == 0 ? null : entries.get(index - 1);
+    }
+
+    /**
+     * 条目已按测量时间升序排列时直接返回，否则原地排序（稳定排序，同一时间的条目保持原有顺序）
+     *
+     * @param entries 条目
+     * @param measureTime 取条目测量时间
+     */
+    public static <T> void sortByMeasureTime(List<T> entries, Function<T, LocalDateTime> measureTime) {
+        for (int i = 1; i < entries.size(); i++) {
+            if (measureTime.apply(entries.get(i)).isBefore(measureTime.apply(entries.get(i - 1)))) {
+                entries.sort(Comparator.comparing(measureTime));
+                return;
+            }
+        }
+    }
+
     /**
      * 检查时间是否在合理范围内
      *
@@ -185,6 +284,33 @@ public class HealthRecordUtil {
                && value.compareTo(new BigDecimal("50.0")) <= 0;
     }
 
+    /**
+     * 校验单条批量导入的血糖记录：请求DTO上的约束与血糖值、测量时间的合理性；测量类型为空时按随机血糖处理
+     *
+     * @param request 血糖记录
+     * @param validator Bean Validation校验器
+     * @return 错误信息，校验通过时返回null
+     */
+    public static String validateBloodGlucoseRow(AddBloodGlucoseRequest request, Validator validator) {
+        if (request == null) {
+            return "记录不能为空";
+        }
+        if (request.getMeasureType() == null || request.getMeasureType().isBlank()) {
+            request.setMeasureType("random");
+        }
+        Set<ConstraintViolation<AddBloodGlucoseRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("；"));
+        }
+        if (!isValidBloodGlucoseValue(request.getValue())) {
+            return "血糖值应在0.5-50.0 mmol/L之间";
+        }
+        if (!isValidMeasureTime(request.getMeasureTime())) {
+            return "测量时间不能早于一年前或晚于当前时间";
+        }
+        return null;
+    }
+
     /**
      * 血压值合理性检查
      *
@@ -0,0 +1,160 @@
+package org.example.tlbglxt.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * 健康数据列式序列基类
+ * 以原始类型数组按时间升序保存一段时间内的测量数据，避免逐条创建实体与BigDecimal
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public abstract class HealthSeries {
+
+    public static final byte LEVEL_UNKNOWN = -1;
+    public static final byte LEVEL_NORMAL = 0;
+    public static final byte LEVEL_HIGH = 1;
+    public static final byte LEVEL_LOW = 2;
+
+    /**
+     * 测量时间（epoch毫秒），升序
+     */
+    protected final long[] times;
+
+    /**
+     * 等级编码
+     */
+    protected final byte[] levels;
+
+    protected HealthSeries(long[] times, byte[] levels) {
+        this.times = times;
+        this.levels = levels;
+    }
+
+    /**
+     * 数据点数量
+     */
+    public int size() {
+        return times.length;
+    }
+
+    /**
+     * 时间列（只读使用）
+     */
+    public long[] getTimes() {
+        return times;
+    }
+
+    /**
+     * 第i个点的测量时间（毫秒）
+     */
+    public long time(int i) {
+        return times[i];
+    }
+
+    /**
+     * 第i个点的测量时间，按系统时区转换（与Mongo中LocalDateTime的存储方式一致）
+     */
+    public LocalDateTime measureTime(int i) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(times[i]), ZoneId.systemDefault());
+    }
+
+    /**
+     * 第i个点的等级（normal/high/low/unknown）
+     */
+    public String level(int i) {
+        switch (levels[i]) {
+            case LEVEL_NORMAL:
+                return "normal";
+            case LEVEL_HIGH:
+                return "high";
+            case LEVEL_LOW:
+                return "low";
+            default:
+                return "unknown";
+        }
+    }
+
+    /**
+     * 第一个时间不早于millis的下标（二分查找），全部早于millis时返回size()
+     */
+    public int lowerBound(long millis) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 等级编码
+     */
+    public static byte levelCode(String level) {
+        if (level == null) {
+            return LEVEL_UNKNOWN;
+        }
+        switch (level) {
+            case "normal":
+                return LEVEL_NORMAL;
+            case "high":
+                return LEVEL_HIGH;
+            case "low":
+                return LEVEL_LOW;
+            default:
+                return LEVEL_UNKNOWN;
+        }
+    }
+
+    /**
+     * LocalDateTime转换为epoch毫秒（系统时区）
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 编码表查找，未找到时返回-1
+     */
+    protected static byte code(String[] table, String value) {
+        if (value != null) {
+            for (int i = 0; i < table.length; i++) {
+                if (table[i].equals(value)) {
+                    return (byte) i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 编码表反查，编码无效时返回null
+     */
+    protected static String decode(String[] table, byte code) {
+        return code >= 0 && code < table.length ? table[code] : null;
+    }
+
+    /**
+     * 构建器排序辅助：按时间对下标排序（数据来源已按时间排序时不会调用）
+     */
+    protected static int[] sortedOrder(long[] times, int size) {
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> Long.compare(times[a], times[b]));
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+}
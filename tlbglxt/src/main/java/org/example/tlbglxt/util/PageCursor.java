@@ -0,0 +1,78 @@
+package org.example.tlbglxt.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * 列表分页游标
+ * 按(createTime, _id)倒序翻页时记录上一页最后一条的位置，编码为URL安全的不透明字符串；
+ * 时间按毫秒编码，与MongoDB日期精度一致
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final LocalDateTime createTime;
+
+    private final String id;
+
+    private PageCursor(LocalDateTime createTime, String id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param createTime 最后一条的创建时间
+     * @param id 最后一条的ID
+     * @return 游标字符串
+     */
+    public static String encode(LocalDateTime createTime, String id) {
+        long epochMilli = createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String raw = epochMilli + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标字符串
+     * @return 游标位置
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static PageCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == raw.length() - 1) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        long epochMilli;
+        try {
+            epochMilli = Long.parseLong(raw.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+        LocalDateTime createTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+        return new PageCursor(createTime, raw.substring(separator + 1));
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
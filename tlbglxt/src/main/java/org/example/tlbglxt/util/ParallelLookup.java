@@ -0,0 +1,242 @@
+package org.example.tlbglxt.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tlbglxt.common.ResultCode;
+import org.example.tlbglxt.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并行查询工具类
+ * 将一次请求中互不依赖的阻塞查询（MySQL/MongoDB/Redis）并发执行，耗时由各查询之和降为最慢的一个。
+ * 用法：
+ * <pre>
+ * try (ParallelLookup.Scope scope = parallelLookup.open()) {
+ *     ParallelLookup.Task&lt;Long&gt; total = scope.fork(userService::getTotalUserCount);
+ *     ParallelLookup.Task&lt;Long&gt; online = scope.fork(userService::getOnlineUserCountFromRedis);
+ *     scope.join();
+ *     return total.get() + online.get();
+ * }
+ * </pre>
+ * 任一查询失败或超时时取消其余查询并抛出异常；离开作用域时未完成的查询同样会被取消。
+ * 运行在JDK 21及以上时使用虚拟线程，否则使用有上限的线程池，线程用满时由调用线程直接执行查询（退化为串行）。
+ * 查询在其他线程执行，不能依赖ThreadLocal中的上下文（如事务、请求属性）。
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ParallelLookup {
+
+    private final ExecutorService executor;
+
+    private final Duration defaultTimeout;
+
+    public ParallelLookup(@Value("${lookup.timeout-ms:3000}") long timeoutMs,
+                          @Value("${lookup.max-threads:64}") int maxThreads) {
+        this.executor = createExecutor(maxThreads);
+        this.defaultTimeout = Duration.ofMillis(timeoutMs);
+    }
+
+    /**
+     * 打开一个使用默认超时时间的作用域
+     */
+    public Scope open() {
+        return open(defaultTimeout);
+    }
+
+    /**
+     * 打开一个作用域，作用域内所有查询需在timeout内完成
+     *
+     * @param timeout 整体超时时间
+     */
+    public Scope open(Duration timeout) {
+        return new Scope(System.nanoTime() + timeout.toNanos());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService createExecutor(int maxThreads) {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("并行查询使用虚拟线程");
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger sequence = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "lookup-" + sequence.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            log.info("并行查询使用线程池，最大线程数: {}", maxThreads);
+            return pool;
+        }
+    }
+
+    /**
+     * 一组并发查询的作用域，非线程安全，只能在打开它的线程中使用
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final long deadline;
+
+        private final List<Task<?>> tasks = new ArrayList<>();
+
+        /**
+         * 已完成（含失败、取消）的查询，join按完成顺序检查，任一失败立即返回
+         */
+        private final BlockingQueue<Task<?>> completed = new LinkedBlockingQueue<>();
+
+        private Scope(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * 提交一个查询
+         */
+        public <T> Task<T> fork(Callable<T> lookup) {
+            return fork(lookup, null);
+        }
+
+        /**
+         * 提交一个查询，并为其单独指定超时时间（不超过作用域的整体超时）
+         */
+        public <T> Task<T> fork(Callable<T> lookup, Duration timeout) {
+            long taskDeadline = timeout == null ? deadline : Math.min(deadline, System.nanoTime() + timeout.toNanos());
+            Task<T> task = new Task<>(lookup, taskDeadline, completed);
+            tasks.add(task);
+            executor.execute(task.future);
+            return task;
+        }
+
+        /**
+         * 等待全部查询完成；任一查询失败或超时时取消其余查询
+         *
+         * @throws BusinessException 查询超时或被中断
+         * @throws RuntimeException 查询抛出的运行时异常原样抛出，受检异常包装为BusinessException
+         */
+        public void join() {
+            try {
+                int remaining = (int) tasks.stream().filter(task -> !task.done).count();
+                while (remaining > 0) {
+                    Task<?> next = null;
+                    for (Task<?> task : tasks) {
+                        if (!task.done && (next == null || task.deadline < next.deadline)) {
+                            next = task;
+                        }
+                    }
+                    Task<?> finished = completed.poll(Math.max(0, next.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (finished == null) {
+                        if (!next.future.isDone()) {
+                            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "查询超时");
+                        }
+                        continue;
+                    }
+                    if (!finished.done) {
+                        finished.complete();
+                        remaining--;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "查询被中断");
+            } catch (RuntimeException | Error e) {
+                cancelAll();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+
+        private void cancelAll() {
+            for (Task<?> task : tasks) {
+                task.future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 单个查询的结果句柄，在 {@link Scope#join()} 成功返回后读取
+     */
+    public static final class Task<T> {
+
+        private final FutureTask<T> future;
+
+        private final long deadline;
+
+        private T value;
+
+        private boolean done;
+
+        private Task(Callable<T> lookup, long deadline, BlockingQueue<Task<?>> completed) {
+            this.future = new FutureTask<>(lookup) {
+                @Override
+                protected void done() {
+                    completed.offer(Task.this);
+                }
+            };
+            this.deadline = deadline;
+        }
+
+        /**
+         * 查询结果
+         *
+         * @throws IllegalStateException 作用域尚未join
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("查询尚未完成，需先调用join");
+            }
+            return value;
+        }
+
+        /**
+         * 读取已完成查询的结果，失败时抛出对应异常
+         */
+        private void complete() throws InterruptedException {
+            try {
+                value = future.get();
+                done = true;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "查询失败：" + cause.getMessage());
+            } catch (CancellationException e) {
+                throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "查询已取消");
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.example.tlbglxt.util;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * 血压列式序列
+ * 时间（long[]）、收缩压/舒张压/心率（short[]，心率缺失为0）与等级编码（byte[]）按时间升序存放
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class PressureSeries extends HealthSeries {
+
+    private final short[] systolic;
+
+    private final short[] diastolic;
+
+    private final short[] heartRate;
+
+    private PressureSeries(long[] times, short[] systolic, short[] diastolic, short[] heartRate, byte[] levels) {
+        super(times, levels);
+        this.systolic = systolic;
+        this.diastolic = diastolic;
+        this.heartRate = heartRate;
+    }
+
+    public int systolic(int i) {
+        return systolic[i];
+    }
+
+    public int diastolic(int i) {
+        return diastolic[i];
+    }
+
+    /**
+     * 第i个点的心率，缺失时返回null
+     */
+    public Integer heartRate(int i) {
+        return heartRate[i] == 0 ? null : (int) heartRate[i];
+    }
+
+    /**
+     * 截取测量时间位于[fromMillis, toMillis)内的子序列（二分查找定位）
+     */
+    public PressureSeries range(long fromMillis, long toMillis) {
+        int from = lowerBound(fromMillis);
+        int to = Math.max(from, lowerBound(toMillis));
+        return new PressureSeries(Arrays.copyOfRange(times, from, to), Arrays.copyOfRange(systolic, from, to),
+                Arrays.copyOfRange(diastolic, from, to), Arrays.copyOfRange(heartRate, from, to),
+                Arrays.copyOfRange(levels, from, to));
+    }
+
+    /**
+     * 以收缩压为主序列进行LTTB降采样，返回选中点的下标
+     */
+    public int[] lttb(int maxPoints) {
+        return TrendDownsampler.lttb(times, i -> systolic[i], maxPoints);
+    }
+
+    /**
+     * 收缩压包络
+     */
+    public TrendDownsampler.Envelope systolicEnvelope(int buckets) {
+        return TrendDownsampler.envelope(times, i -> systolic[i], buckets);
+    }
+
+    /**
+     * 舒张压包络
+     */
+    public TrendDownsampler.Envelope diastolicEnvelope(int buckets) {
+        return TrendDownsampler.envelope(times, i -> diastolic[i], buckets);
+    }
+
+    /**
+     * 心率包络，缺失值不参与计算
+     */
+    public TrendDownsampler.Envelope heartRateEnvelope(int buckets) {
+        return TrendDownsampler.envelope(times, i -> heartRate[i] == 0 ? Double.NaN : heartRate[i], buckets);
+    }
+
+    /**
+     * 单次遍历计算统计信息
+     */
+    public Statistics statistics() {
+        Statistics stats = new Statistics();
+        for (int i = 0; i < times.length; i++) {
+            stats.count++;
+            stats.sumSystolic += systolic[i];
+            stats.sumDiastolic += diastolic[i];
+            stats.maxSystolic = stats.count == 1 ? systolic[i] : Math.max(stats.maxSystolic, systolic[i]);
+            stats.minSystolic = stats.count == 1 ? systolic[i] : Math.min(stats.minSystolic, systolic[i]);
+            stats.maxDiastolic = stats.count == 1 ? diastolic[i] : Math.max(stats.maxDiastolic, diastolic[i]);
+            stats.minDiastolic = stats.count == 1 ? diastolic[i] : Math.min(stats.minDiastolic, diastolic[i]);
+            if (heartRate[i] != 0) {
+                stats.heartRateCount++;
+                stats.sumHeartRate += heartRate[i];
+            }
+            switch (levels[i]) {
+                case LEVEL_NORMAL:
+                    stats.normalCount++;
+                    break;
+                case LEVEL_HIGH:
+                    stats.highCount++;
+                    break;
+                case LEVEL_LOW:
+                    stats.lowCount++;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 创建构建器
+     *
+     * @param expectedSize 预计点数
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * 血压序列统计信息
+     */
+    @Getter
+    public static final class Statistics {
+
+        private int count;
+
+        private long sumSystolic;
+
+        private long sumDiastolic;
+
+        private long sumHeartRate;
+
+        private int heartRateCount;
+
+        private int maxSystolic;
+
+        private int minSystolic;
+
+        private int maxDiastolic;
+
+        private int minDiastolic;
+
+        private int normalCount;
+
+        private int highCount;
+
+        private int lowCount;
+    }
+
+    /**
+     * 血压序列构建器，按追加顺序收集数据，追加顺序非升序时在build时排序
+     */
+    public static final class Builder {
+
+        private long[] times;
+
+        private short[] systolic;
+
+        private short[] diastolic;
+
+        private short[] heartRate;
+
+        private byte[] levels;
+
+        private int size;
+
+        private boolean sorted = true;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            times = new long[capacity];
+            systolic = new short[capacity];
+            diastolic = new short[capacity];
+            heartRate = new short[capacity];
+            levels = new byte[capacity];
+        }
+
+        /**
+         * 追加一个数据点，等级按收缩压/舒张压计算
+         *
+         * @param time 测量时间（epoch毫秒）
+         * @param systolicValue 收缩压
+         * @param diastolicValue 舒张压
+         * @param heartRateValue 心率，缺失时传0
+         * @return 构建器
+         */
+        public Builder add(long time, int systolicValue, int diastolicValue, int heartRateValue) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                systolic = Arrays.copyOf(systolic, capacity);
+                diastolic = Arrays.copyOf(diastolic, capacity);
+                heartRate = Arrays.copyOf(heartRate, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+            }
+            if (size > 0 && time < times[size - 1]) {
+                sorted = false;
+            }
+            times[size] = time;
+            systolic[size] = (short) systolicValue;
+            diastolic[size] = (short) diastolicValue;
+            heartRate[size] = (short) heartRateValue;
+            levels[size] = levelCode(HealthRecordUtil.evaluateBloodPressureLevel(systolicValue, diastolicValue));
+            size++;
+            return this;
+        }
+
+        public PressureSeries build() {
+            if (sorted) {
+                return new PressureSeries(Arrays.copyOf(times, size), Arrays.copyOf(systolic, size),
+                        Arrays.copyOf(diastolic, size), Arrays.copyOf(heartRate, size), Arrays.copyOf(levels, size));
+            }
+            int[] order = sortedOrder(times, size);
+            long[] sortedTimes = new long[size];
+            short[] sortedSystolic = new short[size];
+            short[] sortedDiastolic = new short[size];
+            short[] sortedHeartRate = new short[size];
+            byte[] sortedLevels = new byte[size];
+            for (int i = 0; i < size; i++) {
+                sortedTimes[i] = times[order[i]];
+                sortedSystolic[i] = systolic[order[i]];
+                sortedDiastolic[i] = diastolic[order[i]];
+                sortedHeartRate[i] = heartRate[order[i]];
+                sortedLevels[i] = levels[order[i]];
+            }
+            return new PressureSeries(sortedTimes, sortedSystolic, sortedDiastolic, sortedHeartRate, sortedLevels);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.tlbglxt.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * 趋势数据降采样工具类
+ * 基于原始类型数组单次遍历完成降采样，输入数据需按时间升序排列
+ *
+ * @author 开发团队
+ * @since 1.0.0
+ */
+public final class TrendDownsampler {
+
+    /**
+     * 最大三角形三桶算法（Largest-Triangle-Three-Buckets），适用于折线图
+     */
+    public static final String MODE_LTTB = "lttb";
+
+    /**
+     * 按时间区间计算最小/平均/最大值包络
+     */
+    public static final String MODE_ENVELOPE = "envelope";
+
+    private TrendDownsampler() {
+    }
+
+    /**
+     * LTTB降采样，保留首尾点，返回被选中点的下标（升序）
+     * 点数不超过maxPoints或maxPoints小于3时返回全部下标
+     *
+     * @param times 时间（毫秒），升序
+     * @param values 数值
+     * @param maxPoints 最大点数
+     * @return 选中点的下标
+     */
+    public static int[] lttb(long[] times, double[] values, int maxPoints) {
+        return lttb(times, i -> values[i], maxPoints);
+    }
+
+    /**
+     * LTTB降采样，数值按下标读取，便于直接作用于float[]/short[]等列式数组
+     *
+     * @param times 时间（毫秒），升序
+     * @param values 按下标读取数值
+     * @param maxPoints 最大点数
+     * @return 选中点的下标
+     */
+    public static int[] lttb(long[] times, IntToDoubleFunction values, int maxPoints) {
+        int n = times.length;
+        if (maxPoints >= n || maxPoints < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[maxPoints];
+        int sampledIndex = 0;
+        // 中间的n-2个点均分为maxPoints-2个桶
+        double every = (double) (n - 2) / (maxPoints - 2);
+        long origin = times[0];
+        int a = 0;
+        sampled[sampledIndex++] = a;
+
+        for (int i = 0; i < maxPoints - 2; i++) {
+            // 下一个桶的平均点作为三角形的第三个顶点
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += times[j] - origin;
+                avgY += values.applyAsDouble(j);
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // 当前桶中与上一个选中点、下一个桶平均点构成最大三角形面积的点
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double pointAX = times[a] - origin;
+            double pointAY = values.applyAsDouble(a);
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - avgX) * (values.applyAsDouble(j) - pointAY)
+                        - (pointAX - (times[j] - origin)) * (avgY - pointAY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[sampledIndex++] = next;
+            a = next;
+        }
+
+        sampled[sampledIndex] = n - 1;
+        return sampled;
+    }
+
+    /**
+     * 将时间范围等分为buckets个区间，计算每个非空区间的最小/平均/最大值
+     * 数值为NaN的点视为缺失，不参与计算；同一组时间下不同序列的区间划分一致
+     *
+     * @param times 时间（毫秒），升序
+     * @param values 数值
+     * @param buckets 区间数
+     * @return 区间包络
+     */
+    public static Envelope envelope(long[] times, double[] values, int buckets) {
+        return envelope(times, i -> values[i], buckets);
+    }
+
+    /**
+     * 区间包络，数值按下标读取，便于直接作用于float[]/short[]等列式数组
+     *
+     * @param times 时间（毫秒），升序
+     * @param values 按下标读取数值，缺失值返回NaN
+     * @param buckets 区间数
+     * @return 区间包络
+     */
+    public static Envelope envelope(long[] times, IntToDoubleFunction values, int buckets) {
+        int n = times.length;
+        if (n == 0 || buckets < 1) {
+            return new Envelope(new long[0], new double[0], new double[0], new double[0], new int[0], 0);
+        }
+        int capacity = Math.min(n, buckets);
+        long[] bucketTimes = new long[capacity];
+        double[] min = new double[capacity];
+        double[] avg = new double[capacity];
+        double[] max = new double[capacity];
+        int[] count = new int[capacity];
+
+        long start = times[0];
+        long span = times[n - 1] - start + 1;
+        int size = 0;
+        long currentBucket = -1;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            long bucket = (times[i] - start) * buckets / span;
+            if (bucket != currentBucket) {
+                if (size > 0) {
+                    avg[size - 1] = count[size - 1] == 0 ? Double.NaN : sum / count[size - 1];
+                }
+                currentBucket = bucket;
+                bucketTimes[size] = start + span * bucket / buckets;
+                min[size] = Double.NaN;
+                max[size] = Double.NaN;
+                count[size] = 0;
+                sum = 0;
+                size++;
+            }
+            double value = values.applyAsDouble(i);
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            int b = size - 1;
+            min[b] = count[b] == 0 ? value : Math.min(min[b], value);
+            max[b] = count[b] == 0 ? value : Math.max(max[b], value);
+            sum += value;
+            count[b]++;
+        }
+        avg[size - 1] = count[size - 1] == 0 ? Double.NaN : sum / count[size - 1];
+        return new Envelope(bucketTimes, min, avg, max, count, size);
+    }
+
+    /**
+     * 区间包络结果，数组中前size个元素有效
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Envelope {
+
+        /**
+         * 区间开始时间（毫秒）
+         */
+        private final long[] times;
+
+        /**
+         * 区间最小值，区间内无有效值时为NaN
+         */
+        private final double[] min;
+
+        /**
+         * 区间平均值，区间内无有效值时为NaN
+         */
+        private final double[] avg;
+
+        /**
+         * 区间最大值，区间内无有效值时为NaN
+         */
+        private final double[] max;
+
+        /**
+         * 区间内有效值个数
+         */
+        private final int[] count;
+
+        /**
+         * 非空区间数
+         */
+        private final int size;
+    }
+}
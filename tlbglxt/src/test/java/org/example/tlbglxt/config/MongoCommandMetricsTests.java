@@ -0,0 +1,93 @@
+package org.example.tlbglxt.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Mongo命令统计：按Repository方法打标签、getMore沿用游标所属方法、文档数与响应大小
+ */
+class MongoCommandMetricsTests {
+
+	private static final ConnectionDescription CONNECTION =
+			new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+	private static final String METHOD = "ConsultationChatRepository.findSummariesByDoctorId";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final MongoCommandMetrics metrics = new MongoCommandMetrics(registry, 200, "getMore:1000", false);
+
+	@Test
+	void tagsCommandsWithRepositoryMethodAndCursorOwner() {
+		String previous = MongoCommandMetrics.enterMethod(METHOD);
+		try {
+			metrics.commandStarted(new CommandStartedEvent(null, 1, 1, CONNECTION, "tlbglxt_health", "find",
+					new BsonDocument("find", new BsonString("consultation_chats"))));
+			metrics.commandSucceeded(new CommandSucceededEvent(null, 1, 1, CONNECTION, "tlbglxt_health", "find",
+					cursorResponse(42, "firstBatch", 3), TimeUnit.MILLISECONDS.toNanos(5)));
+		} finally {
+			MongoCommandMetrics.exitMethod(previous);
+		}
+
+		// 游标的后续批次在方法返回之后读取
+		metrics.commandStarted(new CommandStartedEvent(null, 2, 2, CONNECTION, "tlbglxt_health", "getMore",
+				new BsonDocument("getMore", new BsonInt64(42)).append("collection", new BsonString("consultation_chats"))));
+		metrics.commandSucceeded(new CommandSucceededEvent(null, 2, 2, CONNECTION, "tlbglxt_health", "getMore",
+				cursorResponse(0, "nextBatch", 2), TimeUnit.MILLISECONDS.toNanos(7)));
+
+		Timer find = registry.find("mongodb.command").tags("command", "find", "collection", "consultation_chats",
+				"method", METHOD, "status", "success").timer();
+		assertNotNull(find);
+		assertEquals(1, find.count());
+		Timer getMore = registry.find("mongodb.command").tags("command", "getMore", "method", METHOD).timer();
+		assertNotNull(getMore);
+		assertEquals(1, getMore.count());
+
+		assertEquals(3, registry.find("mongodb.command.documents").tags("command", "find").summary().totalAmount());
+		assertEquals(2, registry.find("mongodb.command.documents").tags("command", "getMore").summary().totalAmount());
+		assertEquals(cursorResponse(0, "nextBatch", 2).getByteBuffer().remaining(),
+				registry.find("mongodb.command.response").tags("command", "getMore").summary().totalAmount());
+	}
+
+	@Test
+	void templateCallsOutsideRepositoriesAreTaggedNone() {
+		metrics.commandStarted(new CommandStartedEvent(null, 3, 3, CONNECTION, "tlbglxt_health", "update",
+				new BsonDocument("update", new BsonString("weight_records"))));
+		metrics.commandSucceeded(new CommandSucceededEvent(null, 3, 3, CONNECTION, "tlbglxt_health", "update",
+				new BsonDocument("n", new BsonInt32(1)).append("ok", new BsonInt32(1)), TimeUnit.MILLISECONDS.toNanos(1)));
+
+		assertNotNull(registry.find("mongodb.command").tags("collection", "weight_records", "method", "none").timer());
+		assertEquals(1, registry.find("mongodb.command.documents").tags("command", "update").summary().totalAmount());
+	}
+
+	private static RawBsonDocument cursorResponse(long cursorId, String batchField, int documents) {
+		BsonArray batch = new BsonArray();
+		for (int i = 0; i < documents; i++) {
+			batch.add(new BsonDocument("_id", new BsonInt32(i)));
+		}
+		BsonDocument response = new BsonDocument("cursor", new BsonDocument("id", new BsonInt64(cursorId))
+				.append("ns", new BsonString("tlbglxt_health.consultation_chats"))
+				.append(batchField, batch))
+				.append("ok", new BsonInt32(1));
+		return new RawBsonDocument(response, new BsonDocumentCodec());
+	}
+}
@@ -0,0 +1,94 @@
+package org.example.tlbglxt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 定点数累加器与BigDecimal逐条累加的结果一致性校验（随机样本）
+ */
+class FixedPointAccumulatorTests {
+
+	private static final int ROUNDS = 2000;
+
+	@Test
+	void sumAndAverageMatchBigDecimal() {
+		Random random = new Random(20240601L);
+		for (int round = 0; round < ROUNDS; round++) {
+			int scale = random.nextInt(4);
+			FixedPointAccumulator accumulator = new FixedPointAccumulator(scale);
+			BigDecimal expected = BigDecimal.ZERO;
+			int count = 1 + random.nextInt(200);
+			for (int i = 0; i < count; i++) {
+				BigDecimal value = randomValue(random);
+				accumulator.add(value);
+				expected = expected.add(value);
+			}
+			assertEquals(expected, accumulator.sum());
+			assertEquals(expected.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP), accumulator.average(2));
+			assertEquals(expected.divide(BigDecimal.valueOf(count), 4, RoundingMode.HALF_UP), accumulator.average(4));
+		}
+	}
+
+	@Test
+	void subtractMatchesBigDecimal() {
+		Random random = new Random(42L);
+		for (int round = 0; round < ROUNDS; round++) {
+			FixedPointAccumulator accumulator = new FixedPointAccumulator(FixedPointAccumulator.WEIGHT_SCALE);
+			BigDecimal expected = BigDecimal.ZERO;
+			for (int i = 0; i < 50; i++) {
+				BigDecimal value = randomValue(random);
+				if (random.nextBoolean()) {
+					accumulator.add(value);
+					expected = expected.add(value);
+				} else {
+					accumulator.subtract(value);
+					expected = expected.subtract(value);
+				}
+			}
+			assertEquals(expected, accumulator.sum());
+		}
+	}
+
+	@Test
+	void averageOfUnitsMatchesBigDecimal() {
+		Random random = new Random(7L);
+		for (int round = 0; round < ROUNDS * 10; round++) {
+			long sumUnits = random.nextInt(4) == 0 ? random.nextLong() : random.nextInt(2_000_000) - 1_000_000;
+			int unitScale = random.nextInt(4);
+			long count = 1 + random.nextInt(random.nextBoolean() ? 10 : 100_000);
+			int resultScale = random.nextInt(5);
+			BigDecimal expected = BigDecimal.valueOf(sumUnits, unitScale)
+					.divide(BigDecimal.valueOf(count), resultScale, RoundingMode.HALF_UP);
+			assertEquals(expected, FixedPointAccumulator.average(sumUnits, unitScale, count, resultScale));
+			assertEquals(expected, FixedPointAccumulator.average(BigDecimal.valueOf(sumUnits, unitScale), count, resultScale));
+		}
+	}
+
+	@Test
+	void emptyAverageIsNull() {
+		FixedPointAccumulator accumulator = new FixedPointAccumulator(FixedPointAccumulator.GLUCOSE_SCALE);
+		assertNull(accumulator.average(2));
+		assertEquals(BigDecimal.ZERO, accumulator.sum());
+	}
+
+	/**
+	 * 生成随机数值：大多数为常见的1~3位小数，少量为超出精度或超大数值以覆盖BigDecimal回退路径
+	 */
+	private static BigDecimal randomValue(Random random) {
+		switch (random.nextInt(20)) {
+			case 0:
+				return new BigDecimal(new BigInteger(80, random), random.nextInt(6));
+			case 1:
+				return BigDecimal.valueOf(random.nextInt(1000), -random.nextInt(3));
+			default:
+				return BigDecimal.valueOf(random.nextInt(100_000) - 10_000, random.nextInt(4));
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package org.example.tlbglxt.util;
+
+import org.example.tlbglxt.entity.health.BloodGlucoseRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 血糖告警规则：低血糖、持续高血糖、快速变化
+ */
+class GlucoseAlertRulesTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+	private final GlucoseAlertRules.Thresholds thresholds = new GlucoseAlertRules.Thresholds();
+
+	@Test
+	void hypoglycemiaReportsLowestReading() {
+		BloodGlucoseRecord.GlucoseEntry low = entry("3.5", 10);
+		BloodGlucoseRecord.GlucoseEntry severe = entry("2.8", 0);
+		List<GlucoseAlertRules.Alert> alerts = GlucoseAlertRules.evaluate(List.of(low, severe), List.of(low, severe), thresholds);
+
+		GlucoseAlertRules.Alert alert = only(alerts, GlucoseAlertRules.RULE_HYPOGLYCEMIA);
+		assertEquals(new BigDecimal("2.8"), alert.getValue());
+		assertEquals(GlucoseAlertRules.SEVERITY_CRITICAL, alert.getSeverity());
+	}
+
+	@Test
+	void sustainedHyperglycemiaNeedsAllReadingsHigh() {
+		List<BloodGlucoseRecord.GlucoseEntry> high = List.of(entry("12.5", 110), entry("13.0", 60), entry("12.8", 0));
+		assertEquals(1, rules(GlucoseAlertRules.evaluate(List.of(high.get(2)), high, thresholds))
+				.stream().filter(GlucoseAlertRules.RULE_SUSTAINED_HYPERGLYCEMIA::equals).count());
+
+		List<BloodGlucoseRecord.GlucoseEntry> mixed = List.of(entry("12.5", 110), entry("8.0", 60), entry("12.8", 0));
+		assertFalse(rules(GlucoseAlertRules.evaluate(List.of(mixed.get(2)), mixed, thresholds))
+				.contains(GlucoseAlertRules.RULE_SUSTAINED_HYPERGLYCEMIA));
+	}
+
+	@Test
+	void rapidChangeUsesPreviousReadingWithinWindow() {
+		// 10分钟下降2.0 mmol/L，即0.2 mmol/L/min
+		List<BloodGlucoseRecord.GlucoseEntry> falling = List.of(entry("7.0", 10), entry("5.0", 0));
+		GlucoseAlertRules.Alert alert = only(GlucoseAlertRules.evaluate(List.of(falling.get(1)), falling, thresholds),
+				GlucoseAlertRules.RULE_RAPID_CHANGE);
+		assertEquals(new BigDecimal("-0.200"), alert.getRate());
+
+		// 间隔超过窗口不计算速率
+		List<BloodGlucoseRecord.GlucoseEntry> sparse = List.of(entry("9.0", 60), entry("5.0", 0));
+		assertTrue(rules(GlucoseAlertRules.evaluate(List.of(sparse.get(1)), sparse, thresholds)).isEmpty());
+	}
+
+	private static BloodGlucoseRecord.GlucoseEntry entry(String value, long minutesAgo) {
+		BloodGlucoseRecord.GlucoseEntry entry = new BloodGlucoseRecord.GlucoseEntry();
+		entry.setValue(new BigDecimal(value));
+		entry.setMeasureType("random");
+		entry.setMeasureTime(NOW.minusMinutes(minutesAgo));
+		return entry;
+	}
+
+	private static List<String> rules(List<GlucoseAlertRules.Alert> alerts) {
+		return alerts.stream().map(GlucoseAlertRules.Alert::getRule).collect(Collectors.toList());
+	}
+
+	private static GlucoseAlertRules.Alert only(List<GlucoseAlertRules.Alert> alerts, String rule) {
+		List<GlucoseAlertRules.Alert> matched = alerts.stream().filter(alert -> rule.equals(alert.getRule()))
+				.collect(Collectors.toList());
+		assertEquals(1, matched.size());
+		return matched.get(0);
+	}
+}
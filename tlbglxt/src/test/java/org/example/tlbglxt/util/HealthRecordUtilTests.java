@@ -0,0 +1,74 @@
+package org.example.tlbglxt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 有序条目的二分查找与逐条扫描的结果一致性校验（随机样本，含重复时间）
+ */
+class HealthRecordUtilTests {
+
+	private static final int ROUNDS = 500;
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+	private static final Function<LocalDateTime, LocalDateTime> IDENTITY = time -> time;
+
+	@Test
+	void binarySearchMatchesLinearScan() {
+		Random random = new Random(20240601L);
+		for (int round = 0; round < ROUNDS; round++) {
+			List<LocalDateTime> times = randomTimes(random, random.nextInt(300));
+			Collections.sort(times);
+			for (int probe = 0; probe < 20; probe++) {
+				LocalDateTime time = BASE.plusMinutes(random.nextInt(3000) - 100);
+				int expected = 0;
+				while (expected < times.size() && times.get(expected).isBefore(time)) {
+					expected++;
+				}
+				assertEquals(expected, HealthRecordUtil.lowerBound(times, IDENTITY, time));
+				LocalDateTime latest = HealthRecordUtil.latestBefore(times, IDENTITY, time);
+				if (expected == 0) {
+					assertNull(latest);
+				} else {
+					assertSame(times.get(expected - 1), latest);
+				}
+			}
+		}
+	}
+
+	@Test
+	void sortByMeasureTimeOnlySortsOutOfOrderEntries() {
+		Random random = new Random(20240602L);
+		List<LocalDateTime> sorted = randomTimes(random, 200);
+		Collections.sort(sorted);
+		List<LocalDateTime> copy = new ArrayList<>(sorted);
+		HealthRecordUtil.sortByMeasureTime(copy, IDENTITY);
+		assertEquals(sorted, copy);
+
+		// 补录的历史数据追加在末尾
+		List<LocalDateTime> backfilled = new ArrayList<>(sorted);
+		backfilled.add(BASE.minusDays(1));
+		HealthRecordUtil.sortByMeasureTime(backfilled, IDENTITY);
+		assertEquals(BASE.minusDays(1), backfilled.get(0));
+		assertEquals(sorted, backfilled.subList(1, backfilled.size()));
+	}
+
+	private static List<LocalDateTime> randomTimes(Random random, int count) {
+		List<LocalDateTime> times = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			times.add(BASE.plusMinutes(random.nextInt(2800)));
+		}
+		return times;
+	}
+}
@@ -0,0 +1,133 @@
+package org.example.tlbglxt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 血糖/血压列式序列的扩容、排序与编码校验
+ */
+class HealthSeriesTests {
+
+	private static final long MINUTE = 60_000L;
+
+	private static final String[] MEASURE_TYPES = {"fasting", "after_meal", "random"};
+
+	@Test
+	void glucoseBuilderGrowsAndSortsOutOfOrderInput() {
+		Random random = new Random(20240701L);
+		int n = 5000;
+		long[] times = new long[n];
+		float[] values = new float[n];
+		String[] types = new String[n];
+		GlucoseSeries.Builder builder = GlucoseSeries.builder(256);
+		for (int i = 0; i < n; i++) {
+			// 时间互不相同，便于按时间反查原始点
+			times[i] = 1_700_000_000_000L + (long) random.nextInt(n * 10) * n + i;
+			values[i] = Math.round((2 + random.nextFloat() * 18) * 10) / 10f;
+			types[i] = MEASURE_TYPES[random.nextInt(MEASURE_TYPES.length)];
+			builder.add(times[i], values[i], types[i]);
+		}
+
+		GlucoseSeries series = builder.build();
+		assertEquals(n, series.size());
+		for (int i = 1; i < n; i++) {
+			assertTrue(series.time(i) >= series.time(i - 1));
+		}
+		for (int i = 0; i < n; i++) {
+			int original = (int) ((series.time(i) - 1_700_000_000_000L) % n);
+			assertEquals(times[original], series.time(i));
+			assertEquals(values[original], series.value(i));
+			assertEquals(types[original], series.measureType(i));
+			assertEquals(HealthRecordUtil.evaluateBloodGlucoseLevel(values[original], types[original]), series.level(i));
+		}
+
+		GlucoseSeries.Statistics stats = series.statistics();
+		assertEquals(n, stats.getCount());
+		assertEquals(n, stats.getNormalCount() + stats.getHighCount() + stats.getLowCount());
+	}
+
+	@Test
+	void glucoseMeasureTypeAndLevelMapping() {
+		GlucoseSeries series = GlucoseSeries.builder(4)
+				.add(0, 3.8f, "fasting")
+				.add(MINUTE, 6.1f, "fasting")
+				.add(2 * MINUTE, 6.2f, "fasting")
+				.add(3 * MINUTE, 6.2f, "after_meal")
+				.add(4 * MINUTE, 11.2f, "random")
+				.add(5 * MINUTE, 7.0f, "bedtime")
+				.add(6 * MINUTE, 7.0f, null)
+				.build();
+
+		assertEquals("fasting", series.measureType(0));
+		assertEquals("low", series.level(0));
+		assertEquals("normal", series.level(1));
+		assertEquals("high", series.level(2));
+		assertEquals("after_meal", series.measureType(3));
+		assertEquals("normal", series.level(3));
+		assertEquals("random", series.measureType(4));
+		assertEquals("high", series.level(4));
+		// 未知测量类型不进入编码表，等级按随机血糖阈值计算
+		assertNull(series.measureType(5));
+		assertEquals("normal", series.level(5));
+		assertNull(series.measureType(6));
+		assertEquals("normal", series.level(6));
+	}
+
+	@Test
+	void pressureBuilderGrowsAndSortsOutOfOrderInput() {
+		Random random = new Random(42L);
+		int n = 3000;
+		long[] times = new long[n];
+		int[] systolic = new int[n];
+		int[] diastolic = new int[n];
+		int[] heartRate = new int[n];
+		PressureSeries.Builder builder = PressureSeries.builder(256);
+		for (int i = 0; i < n; i++) {
+			times[i] = (long) (n - i) * MINUTE;
+			systolic[i] = 80 + random.nextInt(100);
+			diastolic[i] = 50 + random.nextInt(60);
+			heartRate[i] = random.nextInt(5) == 0 ? 0 : 50 + random.nextInt(70);
+			builder.add(times[i], systolic[i], diastolic[i], heartRate[i]);
+		}
+
+		PressureSeries series = builder.build();
+		assertEquals(n, series.size());
+		int heartRateCount = 0;
+		for (int i = 0; i < n; i++) {
+			int original = n - 1 - i;
+			assertEquals(times[original], series.time(i));
+			assertEquals(systolic[original], series.systolic(i));
+			assertEquals(diastolic[original], series.diastolic(i));
+			if (heartRate[original] == 0) {
+				assertNull(series.heartRate(i));
+			} else {
+				assertEquals(heartRate[original], series.heartRate(i));
+				heartRateCount++;
+			}
+			assertEquals(HealthRecordUtil.evaluateBloodPressureLevel(systolic[original], diastolic[original]), series.level(i));
+		}
+		assertEquals(heartRateCount, series.statistics().getHeartRateCount());
+	}
+
+	@Test
+	void rangeSelectsHalfOpenInterval() {
+		PressureSeries.Builder builder = PressureSeries.builder(16);
+		for (int i = 0; i < 10; i++) {
+			builder.add(i * MINUTE, 120, 80, 70);
+		}
+		PressureSeries series = builder.build();
+
+		PressureSeries range = series.range(2 * MINUTE, 5 * MINUTE);
+		assertEquals(3, range.size());
+		assertEquals(2 * MINUTE, range.time(0));
+		assertEquals(4 * MINUTE, range.time(2));
+		assertEquals(0, series.range(20 * MINUTE, 30 * MINUTE).size());
+		assertEquals(0, series.range(5 * MINUTE, 2 * MINUTE).size());
+		assertEquals(10, series.range(Long.MIN_VALUE, Long.MAX_VALUE).size());
+	}
+}
@@ -0,0 +1,34 @@
+package org.example.tlbglxt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 分页游标的编码、解码与格式校验
+ */
+class PageCursorTests {
+
+	@Test
+	void roundTripsAtMillisecondPrecision() {
+		LocalDateTime time = LocalDateTime.of(2024, 6, 1, 8, 30, 15, 123_456_789);
+		String cursor = PageCursor.encode(time, "665a1b2c3d4e5f6a7b8c9d0e");
+		assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+
+		PageCursor decoded = PageCursor.decode(cursor);
+		assertEquals(time.truncatedTo(ChronoUnit.MILLIS), decoded.getCreateTime());
+		assertEquals("665a1b2c3d4e5f6a7b8c9d0e", decoded.getId());
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(PageCursor.encode(LocalDateTime.now(), "")));
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("YWJjOmRlZg"));
+	}
+}
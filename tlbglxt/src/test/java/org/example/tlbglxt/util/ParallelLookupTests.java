@@ -0,0 +1,105 @@
+package org.example.tlbglxt.util;
+
+import org.example.tlbglxt.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 并行查询：查询并发执行（以闩锁验证相互重叠，不依赖耗时）、失败传播与超时取消
+ */
+class ParallelLookupTests {
+
+	private final ParallelLookup parallelLookup = new ParallelLookup(2000, 16);
+
+	@AfterEach
+	void shutdown() {
+		parallelLookup.shutdown();
+	}
+
+	@Test
+	@Timeout(10)
+	void fanOutRunsLookupsConcurrently() {
+		// 每个查询都要等到三个查询全部开始后才返回，串行执行时第一个查询会等待超时
+		CountDownLatch allStarted = new CountDownLatch(3);
+		try (ParallelLookup.Scope scope = parallelLookup.open()) {
+			ParallelLookup.Task<Boolean> first = scope.fork(overlapping(allStarted));
+			ParallelLookup.Task<Boolean> second = scope.fork(overlapping(allStarted));
+			ParallelLookup.Task<Boolean> third = scope.fork(overlapping(allStarted));
+			scope.join();
+			assertTrue(first.get());
+			assertTrue(second.get());
+			assertTrue(third.get());
+		}
+	}
+
+	@Test
+	void failureCancelsRemainingLookups() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		CountDownLatch finished = new CountDownLatch(1);
+		try (ParallelLookup.Scope scope = parallelLookup.open()) {
+			scope.fork(() -> {
+				started.countDown();
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				} finally {
+					finished.countDown();
+				}
+				return 1;
+			});
+			scope.fork(() -> {
+				started.await();
+				throw new IllegalStateException("lookup failed");
+			});
+			IllegalStateException error = assertThrows(IllegalStateException.class, scope::join);
+			assertEquals("lookup failed", error.getMessage());
+		}
+		assertTrue(finished.await(1, TimeUnit.SECONDS));
+		assertTrue(interrupted.get());
+	}
+
+	@Test
+	@Timeout(10)
+	void perLookupTimeout() throws Exception {
+		// 作用域的整体超时远大于测试超时，只有单个查询的超时生效时join才会及时返回
+		CountDownLatch never = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		CountDownLatch finished = new CountDownLatch(1);
+		try (ParallelLookup.Scope scope = parallelLookup.open(Duration.ofMinutes(5))) {
+			scope.fork(() -> 1L);
+			scope.fork(() -> {
+				try {
+					never.await();
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				} finally {
+					finished.countDown();
+				}
+				return 2L;
+			}, Duration.ofMillis(50));
+			assertThrows(BusinessException.class, scope::join);
+		}
+		assertTrue(finished.await(1, TimeUnit.SECONDS));
+		assertTrue(interrupted.get());
+	}
+
+	private static Callable<Boolean> overlapping(CountDownLatch allStarted) {
+		return () -> {
+			allStarted.countDown();
+			return allStarted.await(5, TimeUnit.SECONDS);
+		};
+	}
+}
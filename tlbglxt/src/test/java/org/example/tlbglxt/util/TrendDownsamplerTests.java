@@ -0,0 +1,131 @@
+package org.example.tlbglxt.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 趋势降采样的LTTB选点与区间包络校验
+ */
+class TrendDownsamplerTests {
+
+	private static final long MINUTE = 60_000L;
+
+	@Test
+	void lttbKeepsEndpointsWithinLimit() {
+		Random random = new Random(20240601L);
+		for (int round = 0; round < 200; round++) {
+			int n = 3 + random.nextInt(2000);
+			int maxPoints = 3 + random.nextInt(300);
+			long[] times = randomTimes(random, n);
+			double[] values = random.doubles(n, 3, 20).toArray();
+
+			int[] sampled = TrendDownsampler.lttb(times, values, maxPoints);
+			assertEquals(Math.min(n, maxPoints), sampled.length);
+			assertEquals(0, sampled[0]);
+			assertEquals(n - 1, sampled[sampled.length - 1]);
+			for (int i = 1; i < sampled.length; i++) {
+				assertTrue(sampled[i] > sampled[i - 1]);
+			}
+		}
+	}
+
+	@Test
+	void lttbKeepsIsolatedPeak() {
+		int n = 1000;
+		long[] times = new long[n];
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			times[i] = i * MINUTE;
+			values[i] = 5.6;
+		}
+		values[537] = 18.2;
+
+		int[] sampled = TrendDownsampler.lttb(times, values, 20);
+		assertTrue(Arrays.stream(sampled).anyMatch(index -> index == 537));
+	}
+
+	@Test
+	void inputWithinLimitIsReturnedUnchanged() {
+		long[] times = randomTimes(new Random(7L), 10);
+		double[] values = new double[10];
+		int[] all = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+		assertArrayEquals(all, TrendDownsampler.lttb(times, values, 10));
+		assertArrayEquals(all, TrendDownsampler.lttb(times, values, 500));
+		assertArrayEquals(all, TrendDownsampler.lttb(times, values, 2));
+		assertEquals(0, TrendDownsampler.lttb(new long[0], new double[0], 100).length);
+	}
+
+	@Test
+	void envelopeMatchesBruteForcePerBucket() {
+		Random random = new Random(42L);
+		for (int round = 0; round < 200; round++) {
+			int n = 1 + random.nextInt(1000);
+			int buckets = 1 + random.nextInt(100);
+			long[] times = randomTimes(random, n);
+			double[] values = random.doubles(n, 3, 20).toArray();
+			for (int i = 0; i < n / 20; i++) {
+				values[random.nextInt(n)] = Double.NaN;
+			}
+
+			TrendDownsampler.Envelope envelope = TrendDownsampler.envelope(times, values, buckets);
+			assertTrue(envelope.getSize() <= buckets);
+
+			// 逐个区间暴力计算，区间划分与实现一致
+			long start = times[0];
+			long span = times[n - 1] - start + 1;
+			int b = -1;
+			long currentBucket = -1;
+			double min = Double.NaN;
+			double max = Double.NaN;
+			double sum = 0;
+			int count = 0;
+			for (int i = 0; i <= n; i++) {
+				long bucket = i < n ? (times[i] - start) * buckets / span : -2;
+				if (bucket != currentBucket) {
+					if (b >= 0) {
+						assertEquals(count, envelope.getCount()[b]);
+						assertEquals(min, envelope.getMin()[b]);
+						assertEquals(max, envelope.getMax()[b]);
+						assertEquals(count == 0 ? Double.NaN : sum / count, envelope.getAvg()[b], 1e-9);
+						assertEquals(start + span * currentBucket / buckets, envelope.getTimes()[b]);
+					}
+					if (i == n) {
+						break;
+					}
+					b++;
+					currentBucket = bucket;
+					min = Double.NaN;
+					max = Double.NaN;
+					sum = 0;
+					count = 0;
+				}
+				if (!Double.isNaN(values[i])) {
+					min = count == 0 ? values[i] : Math.min(min, values[i]);
+					max = count == 0 ? values[i] : Math.max(max, values[i]);
+					sum += values[i];
+					count++;
+				}
+			}
+			assertEquals(b + 1, envelope.getSize());
+		}
+	}
+
+	/**
+	 * 生成升序时间：间隔1分钟到1天不等，偶尔出现同一时刻的多个点
+	 */
+	private static long[] randomTimes(Random random, int n) {
+		long[] times = new long[n];
+		long time = 1_700_000_000_000L;
+		for (int i = 0; i < n; i++) {
+			time += random.nextInt(10) == 0 ? 0 : (1 + random.nextInt(1440)) * MINUTE;
+			times[i] = time;
+		}
+		return times;
+	}
+}